@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
+import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up contigs in a synthetic assembly report with a few chromosomes and many scaffolds, using a mix of the
+ * naming conventions found in VCFs and in dbSNP, and some contigs that are not in the report at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContigMappingBenchmark {
+
+    private static final int CHROMOSOMES = 30;
+
+    private static final int SCAFFOLDS = 5000;
+
+    private static final int LOOKUPS = 1000;
+
+    private ContigMapping contigMapping;
+
+    private String[] contigs;
+
+    @Setup
+    public void setUp() {
+        List<ContigSynonyms> contigSynonyms = new ArrayList<>();
+        for (int i = 1; i <= CHROMOSOMES; i++) {
+            contigSynonyms.add(new ContigSynonyms(Integer.toString(i), "assembled-molecule", Integer.toString(i),
+                                                  "CM" + (100000 + i) + ".1", "NC_" + (200000 + i) + ".1",
+                                                  "chr" + i, true));
+        }
+        for (int i = 1; i <= SCAFFOLDS; i++) {
+            contigSynonyms.add(new ContigSynonyms("scaffold_" + i, "unplaced-scaffold", "na",
+                                                  "KZ" + (300000 + i) + ".1", "NW_" + (400000 + i) + ".1",
+                                                  "na", true));
+        }
+        contigMapping = new ContigMapping(contigSynonyms);
+
+        Random random = new Random(42);
+        contigs = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int chromosome = 1 + random.nextInt(CHROMOSOMES);
+            int scaffold = 1 + random.nextInt(SCAFFOLDS);
+            switch (random.nextInt(6)) {
+                case 0:
+                    contigs[i] = Integer.toString(chromosome);
+                    break;
+                case 1:
+                    contigs[i] = "chr" + chromosome;
+                    break;
+                case 2:
+                    contigs[i] = "CM" + (100000 + chromosome) + ".1";
+                    break;
+                case 3:
+                    contigs[i] = "NW_" + (400000 + scaffold) + ".1";
+                    break;
+                case 4:
+                    contigs[i] = "scaffold_" + scaffold;
+                    break;
+                default:
+                    contigs[i] = "unknown_" + scaffold;
+            }
+        }
+    }
+
+    @Benchmark
+    public void getContigSynonyms(Blackhole blackhole) {
+        for (String contig : contigs) {
+            blackhole.consume(contigMapping.getContigSynonyms(contig));
+        }
+    }
+}
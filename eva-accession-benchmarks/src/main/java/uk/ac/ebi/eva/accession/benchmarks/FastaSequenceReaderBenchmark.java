@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.core.batch.io.FastaSequenceReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads bases from a synthetic FASTA written to a temporary directory, at sorted positions, as when normalising the
+ * variants of a sorted VCF or of a contig of the database. A window size of 0 reads every region from the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastaSequenceReaderBenchmark {
+
+    private static final int CONTIGS = 3;
+
+    private static final int CONTIG_LENGTH = 5_000_000;
+
+    private static final int LINE_LENGTH = 60;
+
+    private static final int LOOKUPS = 1000;
+
+    private static final char[] BASES = {'A', 'C', 'G', 'T', 'a', 'c', 'g', 't'};
+
+    @Param({"0", "1048576"})
+    private int windowSize;
+
+    private Path directory;
+
+    private FastaSequenceReader fastaSequenceReader;
+
+    private String[] contigs;
+
+    private long[] starts;
+
+    private String[] references;
+
+    private String[] alternates;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        directory = Files.createTempDirectory("fasta-benchmark");
+        Path fasta = directory.resolve("reference.fa");
+        try (BufferedWriter writer = Files.newBufferedWriter(fasta)) {
+            for (int contig = 1; contig <= CONTIGS; contig++) {
+                writer.write(">" + contig);
+                writer.newLine();
+                for (int position = 0; position < CONTIG_LENGTH; position++) {
+                    writer.write(BASES[random.nextInt(BASES.length)]);
+                    if ((position + 1) % LINE_LENGTH == 0) {
+                        writer.newLine();
+                    }
+                }
+                writer.newLine();
+            }
+        }
+        fastaSequenceReader = new FastaSequenceReader(fasta, windowSize, FastaSequenceReader.DEFAULT_MAX_WINDOWS);
+
+        contigs = new String[LOOKUPS];
+        starts = new long[LOOKUPS];
+        references = new String[LOOKUPS];
+        alternates = new String[LOOKUPS];
+        long start = 1;
+        int contig = 1;
+        int maxStep = CONTIG_LENGTH * CONTIGS / LOOKUPS / 2;
+        for (int i = 0; i < LOOKUPS; i++) {
+            start += 1 + random.nextInt(maxStep);
+            if (start > CONTIG_LENGTH - 10) {
+                contig++;
+                start = 1 + random.nextInt(100);
+            }
+            contigs[i] = Integer.toString(contig);
+            starts[i] = start;
+            boolean insertion = random.nextBoolean();
+            references[i] = insertion ? "" : "A";
+            alternates[i] = insertion ? "T" : "";
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fastaSequenceReader.close();
+        for (File file : directory.toFile().listFiles()) {
+            file.delete();
+        }
+        directory.toFile().delete();
+    }
+
+    @Benchmark
+    public void getSequence(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(fastaSequenceReader.getSequence(contigs[i], starts[i], starts[i] + 10));
+        }
+    }
+
+    @Benchmark
+    public void getContextNucleotideAndNewStart(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(fastaSequenceReader.getContextNucleotideAndNewStart(contigs[i], starts[i],
+                                                                                   references[i], alternates[i]));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the summary function followed by SHA1HashingFunction with the hashing functions that feed the fields
+ * straight into the digest. Each invocation hashes a batch of synthetic variants, so the reported time is per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashingBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] NUCLEOTIDES = {"A", "C", "G", "T"};
+
+    private static final VariantType[] TYPES = {VariantType.SNV, VariantType.INS, VariantType.DEL, VariantType.MNV};
+
+    private ISubmittedVariant[] submittedVariants;
+
+    private IClusteredVariant[] clusteredVariants;
+
+    private Function<ISubmittedVariant, String> submittedSummaryAndSha1;
+
+    private Function<ISubmittedVariant, String> submittedHashing;
+
+    private Function<IClusteredVariant, String> clusteredSummaryAndSha1;
+
+    private Function<IClusteredVariant, String> clusteredHashing;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        submittedVariants = new ISubmittedVariant[BATCH_SIZE];
+        clusteredVariants = new IClusteredVariant[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String contig = "CM0000" + (10 + random.nextInt(30)) + ".1";
+            long start = 1 + random.nextInt(200_000_000);
+            String project = "PRJEB" + (10000 + random.nextInt(100));
+            submittedVariants[i] = new SubmittedVariant("GCA_000001215.4", 7227, project, contig, start,
+                                                        NUCLEOTIDES[random.nextInt(4)],
+                                                        NUCLEOTIDES[random.nextInt(4)], null);
+            clusteredVariants[i] = new ClusteredVariant("GCA_000001215.4", 7227, contig, start,
+                                                        TYPES[random.nextInt(TYPES.length)], false, null);
+        }
+        submittedSummaryAndSha1 = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        submittedHashing = new SubmittedVariantHashingFunction();
+        clusteredSummaryAndSha1 = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        clusteredHashing = new ClusteredVariantHashingFunction();
+    }
+
+    @Benchmark
+    public void submittedVariantSummaryAndSha1(Blackhole blackhole) {
+        for (ISubmittedVariant variant : submittedVariants) {
+            blackhole.consume(submittedSummaryAndSha1.apply(variant));
+        }
+    }
+
+    @Benchmark
+    public void submittedVariantHashing(Blackhole blackhole) {
+        for (ISubmittedVariant variant : submittedVariants) {
+            blackhole.consume(submittedHashing.apply(variant));
+        }
+    }
+
+    @Benchmark
+    public void clusteredVariantSummaryAndSha1(Blackhole blackhole) {
+        for (IClusteredVariant variant : clusteredVariants) {
+            blackhole.consume(clusteredSummaryAndSha1.apply(variant));
+        }
+    }
+
+    @Benchmark
+    public void clusteredVariantHashing(Blackhole blackhole) {
+        for (IClusteredVariant variant : clusteredVariants) {
+            blackhole.consume(clusteredHashing.apply(variant));
+        }
+    }
+}
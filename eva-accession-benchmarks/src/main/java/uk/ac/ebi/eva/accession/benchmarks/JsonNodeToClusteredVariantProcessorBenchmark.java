@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.dbsnp2.batch.processors.JsonNodeToClusteredVariantProcessor;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes synthetic dbSNP JSON records, shaped like the ones in the dbSNP JSON dumps: some observation movements and
+ * a placement in a patch before the primary top level placement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonNodeToClusteredVariantProcessorBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    private static final String REFSEQ_ASSEMBLY = "GCF_000001405.38";
+
+    private static final String GENBANK_ASSEMBLY = "GCA_000001405.27";
+
+    private static final String[] VARIANT_TYPES = {"snv", "snv", "snv", "mnv", "ins", "del", "delins"};
+
+    private static final String RECORD_TEMPLATE = "{"
+            + "\"refsnp_id\": \"%d\","
+            + "\"create_date\": \"2000-09-19T17:02Z\","
+            + "\"present_obs_movements\": ["
+            + "  {\"allele_in_cur_release\": {\"seq_id\": \"%s\", \"position\": %d},"
+            + "   \"last_added_to_this_rs\": \"36\"},"
+            + "  {\"allele_in_cur_release\": {\"seq_id\": \"%s\", \"position\": %d},"
+            + "   \"last_added_to_this_rs\": \"137\"}"
+            + "],"
+            + "\"primary_snapshot_data\": {"
+            + "  \"variant_type\": \"%s\","
+            + "  \"placements_with_allele\": ["
+            + "    {\"seq_id\": \"NW_003315950.2\", \"is_ptlp\": false,"
+            + "     \"placement_annot\": {\"seq_id_traits_by_assembly\": ["
+            + "       {\"assembly_name\": \"GRCh38.p12\", \"assembly_accession\": \"" + REFSEQ_ASSEMBLY + "\"}]},"
+            + "     \"alleles\": [{\"allele\": {\"spdi\": {\"seq_id\": \"NW_003315950.2\", \"position\": 1234}}}]},"
+            + "    {\"seq_id\": \"%s\", \"is_ptlp\": true,"
+            + "     \"placement_annot\": {\"seq_id_traits_by_assembly\": ["
+            + "       {\"assembly_name\": \"GRCh38.p12\", \"assembly_accession\": \"" + REFSEQ_ASSEMBLY + "\"}]},"
+            + "     \"alleles\": [{\"allele\": {\"spdi\": {\"seq_id\": \"%s\", \"position\": %d}}}]}"
+            + "  ]"
+            + "}"
+            + "}";
+
+    private JsonNodeToClusteredVariantProcessor processor;
+
+    private JsonNode[] records;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        ObjectMapper mapper = new ObjectMapper();
+        records = new JsonNode[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            String contig = "NC_0000" + (10 + random.nextInt(24)) + ".10";
+            long position = random.nextInt(200_000_000);
+            String type = VARIANT_TYPES[random.nextInt(VARIANT_TYPES.length)];
+            String record = String.format(RECORD_TEMPLATE, 1000 + i, contig, position, contig, position, type,
+                                          contig, contig, position);
+            records[i] = mapper.readTree(record);
+        }
+        processor = new JsonNodeToClusteredVariantProcessor(REFSEQ_ASSEMBLY, GENBANK_ASSEMBLY, 0, true);
+    }
+
+    @Benchmark
+    public void process(Blackhole blackhole) {
+        for (JsonNode record : records) {
+            blackhole.consume(processor.process(record));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
+
+import uk.ac.ebi.eva.accession.core.batch.io.MergeOperationBuilder;
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantInactiveEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the merge operations for a chunk of clustered variants where some of the inserts failed with duplicate key
+ * errors, as the dbSNP import writers do. The variant collection and the operation collection are replaced by maps,
+ * so the benchmark measures the work done by the builder itself, not the round trips to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeOperationBuilderBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private static final String DUPLICATE_KEY_ERROR_MESSAGE =
+            "E11000 duplicate key error collection: benchmark.dbsnpClusteredVariantEntity index: _id_ dup key: ";
+
+    private static final double DUPLICATED_FRACTION = 0.2;
+
+    private static final double ALREADY_MERGED_FRACTION = 0.1;
+
+    private MergeOperationBuilder<DbsnpClusteredVariantEntity, DbsnpClusteredVariantOperationEntity> builder;
+
+    private List<DbsnpClusteredVariantEntity> variants;
+
+    private MongoBulkWriteException exception;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ClusteredVariantHashingFunction hashingFunction = new ClusteredVariantHashingFunction();
+        Map<String, DbsnpClusteredVariantEntity> variantsInDatabase = new HashMap<>();
+        Map<Long, List<DbsnpClusteredVariantOperationEntity>> operationsInDatabase = new HashMap<>();
+        List<BulkWriteError> errors = new ArrayList<>();
+        variants = new ArrayList<>();
+
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            ClusteredVariant model = new ClusteredVariant("GCA_000001215.4", 7227, "CM0000" + (10 + random.nextInt(30)),
+                                                          1 + random.nextInt(200_000_000), VariantType.SNV, false,
+                                                          null);
+            String hash = hashingFunction.apply(model);
+            DbsnpClusteredVariantEntity variant = new DbsnpClusteredVariantEntity(1_000_000L + i, hash, model);
+            variants.add(variant);
+
+            if (random.nextDouble() < DUPLICATED_FRACTION) {
+                DbsnpClusteredVariantEntity existing = new DbsnpClusteredVariantEntity(10L + i, hash, model);
+                variantsInDatabase.put(hash, existing);
+                errors.add(new BulkWriteError(DUPLICATE_KEY_ERROR_CODE,
+                                              DUPLICATE_KEY_ERROR_MESSAGE + "{ : \"" + hash + "\" }",
+                                              new BsonDocument(), i));
+                if (random.nextDouble() < ALREADY_MERGED_FRACTION) {
+                    operationsInDatabase.put(variant.getAccession(),
+                                             Collections.singletonList(buildMergeOperation(variant, existing)));
+                }
+            }
+        }
+
+        exception = new MongoBulkWriteException(BulkWriteResult.acknowledged(CHUNK_SIZE - errors.size(), 0, 0, 0,
+                                                                             Collections.emptyList()),
+                                                errors, null, new ServerAddress());
+        builder = new MergeOperationBuilder<>(
+                accessions -> accessions.stream()
+                                        .flatMap(accession -> operationsInDatabase.getOrDefault(
+                                                accession, Collections.emptyList()).stream())
+                                        .collect(Collectors.toList()),
+                hashes -> hashes.stream()
+                                .map(variantsInDatabase::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()),
+                this::buildMergeOperation);
+    }
+
+    private DbsnpClusteredVariantOperationEntity buildMergeOperation(DbsnpClusteredVariantEntity origin,
+                                                                     DbsnpClusteredVariantEntity mergedInto) {
+        DbsnpClusteredVariantOperationEntity operation = new DbsnpClusteredVariantOperationEntity();
+        operation.fill(EventType.MERGED, origin.getAccession(), mergedInto.getAccession(),
+                       "Identical clustered variant received multiple RS identifiers",
+                       Collections.singletonList(new DbsnpClusteredVariantInactiveEntity(origin)));
+        return operation;
+    }
+
+    @Benchmark
+    public List<DbsnpClusteredVariantOperationEntity> buildMergeOperationsFromException() {
+        return builder.buildMergeOperationsFromException(variants, exception);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+
+import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
+import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
+import uk.ac.ebi.eva.accession.pipeline.batch.tasklets.reportCheck.ReportCheckTasklet;
+import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks a synthetic accession report against its input VCF. The report has the same variants as the input, but
+ * shuffled within windows of a given size, as the accessioning writes them in a different order than the input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportCheckTaskletBenchmark {
+
+    private static final int VARIANTS = 100_000;
+
+    private static final int CONTIGS = 5;
+
+    private static final long INITIAL_BUFFER_SIZE = 1000;
+
+    private static final String[] NUCLEOTIDES = {"A", "C", "G", "T"};
+
+    @Param({"100", "10000"})
+    private int shuffleWindow;
+
+    private List<Variant> input;
+
+    private List<Variant> report;
+
+    private ContigMapping contigMapping;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ContigSynonyms> contigSynonyms = new ArrayList<>();
+        for (int i = 1; i <= CONTIGS; i++) {
+            contigSynonyms.add(new ContigSynonyms(Integer.toString(i), "assembled-molecule", Integer.toString(i),
+                                                  "CM" + (100000 + i) + ".1", "NC_" + (200000 + i) + ".1",
+                                                  "chr" + i, true));
+        }
+        contigMapping = new ContigMapping(contigSynonyms);
+
+        input = new ArrayList<>(VARIANTS);
+        report = new ArrayList<>(VARIANTS);
+        long start = 0;
+        for (int i = 0; i < VARIANTS; i++) {
+            int contig = 1 + i * CONTIGS / VARIANTS;
+            start += 1 + random.nextInt(1000);
+            String reference = NUCLEOTIDES[random.nextInt(4)];
+            String alternate = NUCLEOTIDES[random.nextInt(4)];
+            input.add(new Variant(Integer.toString(contig), start, start, reference, alternate));
+            report.add(new Variant("CM" + (100000 + contig) + ".1", start, start, reference, alternate));
+        }
+        for (int from = 0; from < VARIANTS; from += shuffleWindow) {
+            Collections.shuffle(report.subList(from, Math.min(from + shuffleWindow, VARIANTS)), random);
+        }
+    }
+
+    @Benchmark
+    public long execute() throws Exception {
+        ReportCheckTasklet tasklet = new ReportCheckTasklet(new ListItemStreamReader<>(input),
+                                                            new ListItemStreamReader<>(report), INITIAL_BUFFER_SIZE,
+                                                            contigMapping);
+        tasklet.execute(new StepContribution(new StepExecution("reportCheck", new JobExecution(1L))), null);
+        return tasklet.getMaxBufferSize();
+    }
+
+    /**
+     * Reads the items of a list, from the beginning every time it's opened.
+     */
+    private static class ListItemStreamReader<T> implements ItemStreamReader<T> {
+
+        private final List<T> items;
+
+        private int next;
+
+        ListItemStreamReader(List<T> items) {
+            this.items = items;
+        }
+
+        @Override
+        public T read() {
+            return next < items.size() ? items.get(next++) : null;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            next = 0;
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader;
+import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
+import uk.ac.ebi.eva.commons.core.models.pipeline.VariantSourceEntry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the submitted variants of synthetic clustered variants into release variants, as the release readers do for
+ * every document returned by the aggregation. Each clustered variant has a few submitted variants from different
+ * studies, and some of them share the alleles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantMongoAggregationReaderBenchmark {
+
+    private static final int CLUSTERED_VARIANTS = 1000;
+
+    private static final int MAX_SUBMITTED_VARIANTS_PER_CLUSTERED_VARIANT = 5;
+
+    private static final String[] ALLELES = {"A", "C", "G", "T", "AT", ""};
+
+    private AddToVariantsReader reader;
+
+    private String[] contigs;
+
+    private long[] starts;
+
+    private long[] accessions;
+
+    private String[][] references;
+
+    private String[][] alternates;
+
+    private VariantSourceEntry[][] sourceEntries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        reader = new AddToVariantsReader();
+        contigs = new String[CLUSTERED_VARIANTS];
+        starts = new long[CLUSTERED_VARIANTS];
+        accessions = new long[CLUSTERED_VARIANTS];
+        references = new String[CLUSTERED_VARIANTS][];
+        alternates = new String[CLUSTERED_VARIANTS][];
+        sourceEntries = new VariantSourceEntry[CLUSTERED_VARIANTS][];
+        for (int i = 0; i < CLUSTERED_VARIANTS; i++) {
+            contigs[i] = "CM0000" + (10 + random.nextInt(30)) + ".1";
+            starts[i] = 1 + random.nextInt(200_000_000);
+            accessions[i] = 1_000_000L + i;
+            int submittedVariants = 1 + random.nextInt(MAX_SUBMITTED_VARIANTS_PER_CLUSTERED_VARIANT);
+            references[i] = new String[submittedVariants];
+            alternates[i] = new String[submittedVariants];
+            sourceEntries[i] = new VariantSourceEntry[submittedVariants];
+            for (int j = 0; j < submittedVariants; j++) {
+                references[i][j] = ALLELES[random.nextInt(2)];
+                alternates[i][j] = ALLELES[2 + random.nextInt(ALLELES.length - 2)];
+                sourceEntries[i][j] = reader.buildSourceEntry("PRJEB" + (10000 + j), random.nextBoolean());
+            }
+        }
+    }
+
+    @Benchmark
+    public void addToVariants(Blackhole blackhole) {
+        for (int i = 0; i < CLUSTERED_VARIANTS; i++) {
+            Map<String, Variant> variants = new HashMap<>();
+            for (int j = 0; j < sourceEntries[i].length; j++) {
+                reader.addToVariants(variants, contigs[i], starts[i], accessions[i], references[i][j],
+                                     alternates[i][j], sourceEntries[i][j]);
+            }
+            blackhole.consume(variants);
+        }
+    }
+
+    /**
+     * Gives access to the grouping done by the release readers, without a MongoClient.
+     */
+    private static class AddToVariantsReader extends VariantMongoAggregationReader {
+
+        AddToVariantsReader() {
+            super("GCA_000001215.4", null, null, 0, null);
+        }
+
+        VariantSourceEntry buildSourceEntry(String study, boolean validated) {
+            return buildVariantSourceEntry(study, "SO:0001483", validated, validated, true, true, true);
+        }
+
+        @Override
+        protected void addToVariants(Map<String, Variant> variants, String contig, long start, long rs,
+                                     String reference, String alternate, VariantSourceEntry sourceEntry) {
+            super.addToVariants(variants, contig, start, rs, reference, alternate, sourceEntry);
+        }
+
+        @Override
+        protected List<Bson> buildAggregation() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected List<Variant> getVariants(Document clusteredVariant) {
+            return Collections.emptyList();
+        }
+    }
+}
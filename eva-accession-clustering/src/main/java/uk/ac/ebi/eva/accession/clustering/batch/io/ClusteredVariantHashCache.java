@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.clustering.batch.io;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Remembers the clustered variant of each submitted variant in a chunk, and the hash of each clustered variant, so that
+ * the ClusteringWriter builds and hashes them only once per chunk, although it needs them in several steps.
+ *
+ * Submitted variants are looked up by identity, as the writer uses the same instances during the whole chunk. Hashes
+ * are looked up by clustered variant, so that submitted variants in the same locus (e.g. with different alleles or
+ * from different studies) share the hash too.
+ *
+ * An instance should be used for a single chunk only, to keep the memory bounded.
+ */
+public class ClusteredVariantHashCache {
+
+    private final Function<SubmittedVariantEntity, ClusteredVariant> toClusteredVariant;
+
+    private final Function<IClusteredVariant, String> hashingFunction;
+
+    private final Map<SubmittedVariantEntity, ClusteredVariant> clusteredVariants;
+
+    private final Map<ClusteredVariant, String> hashes;
+
+    private long hashesComputed;
+
+    private long hashesReused;
+
+    public ClusteredVariantHashCache(Function<SubmittedVariantEntity, ClusteredVariant> toClusteredVariant,
+                                     Function<IClusteredVariant, String> hashingFunction) {
+        this.toClusteredVariant = toClusteredVariant;
+        this.hashingFunction = hashingFunction;
+        this.clusteredVariants = new IdentityHashMap<>();
+        this.hashes = new HashMap<>();
+        this.hashesComputed = 0;
+        this.hashesReused = 0;
+    }
+
+    public ClusteredVariant getClusteredVariant(SubmittedVariantEntity submittedVariantEntity) {
+        return clusteredVariants.computeIfAbsent(submittedVariantEntity, toClusteredVariant);
+    }
+
+    public String getHash(SubmittedVariantEntity submittedVariantEntity) {
+        ClusteredVariant clusteredVariant = getClusteredVariant(submittedVariantEntity);
+        String hash = hashes.get(clusteredVariant);
+        if (hash == null) {
+            hash = hashingFunction.apply(clusteredVariant);
+            hashes.put(clusteredVariant, hash);
+            hashesComputed++;
+        } else {
+            hashesReused++;
+        }
+        return hash;
+    }
+
+    public long getHashesComputed() {
+        return hashesComputed;
+    }
+
+    public long getHashesReused() {
+        return hashesReused;
+    }
+}
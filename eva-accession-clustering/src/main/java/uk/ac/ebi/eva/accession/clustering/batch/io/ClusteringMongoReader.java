@@ -15,33 +15,68 @@
  */
 package uk.ac.ebi.eva.accession.clustering.batch.io;
 
-import com.mongodb.BasicDBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
-import org.bson.Document;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamReader;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.convert.MongoConverter;
 
+import uk.ac.ebi.eva.accession.core.codecs.VariantEntityCodecs;
+import uk.ac.ebi.eva.accession.core.index.QueryPlanChecker;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
 
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the submitted variants of an assembly that the ClusteringWriter has to cluster, sorted by contig and _id.
+ *
+ * The position of the last variant read is saved in the ExecutionContext, so that a restarted job resumes from the
+ * following variant instead of reading the whole assembly again. Variants that already have an RS are skipped, unless
+ * they were remapped, because the RS they bring may need to be merged with the one already in this assembly.
+ *
+ * With serverSideFilter, the variants that would be skipped are filtered out by the query instead, and only the fields
+ * that the ClusteringWriter uses are returned. Then a run over an already clustered assembly only transfers the
+ * remapped variants.
+ */
 public class ClusteringMongoReader implements ItemStreamReader<SubmittedVariantEntity> {
 
     private static final Logger logger = LoggerFactory.getLogger(ClusteringMongoReader.class);
 
+    static final String LAST_CONTIG_KEY = "clusteringMongoReader.lastContig";
+
+    static final String LAST_ID_KEY = "clusteringMongoReader.lastId";
+
+    private static final String ID_FIELD = "_id";
+
     private static final String ASSEMBLY_FIELD = "seq";
 
+    private static final String CONTIG_FIELD = "contig";
+
     private static final String CLUSTERED_VARIANT_ACCESSION_FIELD = "rs";
 
+    private static final String REMAPPED_FROM_FIELD = "remappedFrom";
+
+    /**
+     * Fields needed to build the clustered variant, and to keep the previous state of the submitted variant in the
+     * operations that the ClusteringWriter registers.
+     */
+    private static final List<String> PROJECTED_FIELDS = Arrays.asList(ID_FIELD, ASSEMBLY_FIELD, "tax", "study",
+                                                                       CONTIG_FIELD, "start", "ref", "alt",
+                                                                       "accession", "version", "createdDate",
+                                                                       CLUSTERED_VARIANT_ACCESSION_FIELD, "evidence",
+                                                                       "asmMatch", "allelesMatch", "validated",
+                                                                       "mapWeight", REMAPPED_FROM_FIELD);
+
     private static final String SUBMITTED_VARIANT_ENTITY = "submittedVariantEntity";
 
     private MongoClient mongoClient;
@@ -50,53 +85,140 @@ public class ClusteringMongoReader implements ItemStreamReader<SubmittedVariantE
 
     private String assembly;
 
-    private MongoCursor<Document> cursor;
+    private String contig;
 
-    private MongoConverter converter;
-
-    private MongoTemplate mongoTemplate;
+    private MongoCursor<SubmittedVariantEntity> cursor;
 
     private int chunkSize;
 
-    public ClusteringMongoReader(MongoClient mongoClient, String database, MongoTemplate mongoTemplate,
-                                 String assembly, int chunkSize) {
+    private boolean serverSideFilter;
+
+    private String lastContig;
+
+    private String lastId;
+
+    private long skippedAlreadyClustered;
+
+    public ClusteringMongoReader(MongoClient mongoClient, String database, String assembly, int chunkSize) {
+        this(mongoClient, database, assembly, null, chunkSize);
+    }
+
+    public ClusteringMongoReader(MongoClient mongoClient,
+                                 String database,
+                                 String assembly,
+                                 String contig,
+                                 int chunkSize) {
+        this(mongoClient, database, assembly, contig, chunkSize, false);
+    }
+
+    /**
+     * @param contig if not null, only the submitted variants in this contig will be read. This allows splitting the
+     * clustering of an assembly in several partitions that can run in parallel (see ContigPartitioner).
+     * @param serverSideFilter if true, the variants that don't need clustering are filtered out by the query
+     */
+    public ClusteringMongoReader(MongoClient mongoClient,
+                                 String database,
+                                 String assembly,
+                                 String contig,
+                                 int chunkSize,
+                                 boolean serverSideFilter) {
         this.mongoClient = mongoClient;
         this.database = database;
-        this.mongoTemplate = mongoTemplate;
         this.assembly = assembly;
+        this.contig = contig;
         this.chunkSize = chunkSize;
+        this.serverSideFilter = serverSideFilter;
     }
 
     @Override
     public SubmittedVariantEntity read() {
-        return cursor.hasNext() ? getSubmittedVariantEntity(cursor.next()) : null;
+        while (cursor.hasNext()) {
+            SubmittedVariantEntity submittedVariant = cursor.next();
+            lastContig = submittedVariant.getContig();
+            lastId = submittedVariant.getId();
+            if (isAlreadyClustered(submittedVariant)) {
+                skippedAlreadyClustered++;
+                continue;
+            }
+            return submittedVariant;
+        }
+        return null;
     }
 
-    private SubmittedVariantEntity getSubmittedVariantEntity(Document notClusteredSubmittedVariants) {
-        return converter.read(SubmittedVariantEntity.class, new BasicDBObject(notClusteredSubmittedVariants));
+    private boolean isAlreadyClustered(SubmittedVariantEntity submittedVariant) {
+        return submittedVariant.getClusteredVariantAccession() != null && submittedVariant.getRemappedFrom() == null;
     }
 
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         MongoDatabase db = mongoClient.getDatabase(database);
-        MongoCollection<Document> collection = db.getCollection(SUBMITTED_VARIANT_ENTITY);
-
-        Bson query = Filters.and(Filters.in(ASSEMBLY_FIELD, assembly));
+        MongoCollection<SubmittedVariantEntity> collection = db.getCollection(SUBMITTED_VARIANT_ENTITY,
+                                                                              SubmittedVariantEntity.class)
+                                                               .withCodecRegistry(VariantEntityCodecs.REGISTRY);
+
+        Bson query = buildQuery();
+        lastContig = executionContext.getString(LAST_CONTIG_KEY, null);
+        lastId = executionContext.getString(LAST_ID_KEY, null);
+        if (lastContig != null && lastId != null) {
+            logger.info("Resuming after submitted variant {} in contig {}", lastId, lastContig);
+            query = Filters.and(query, getAfterLastReadFilter(lastContig, lastId));
+        }
         logger.info("Issuing find: {}", query);
-        FindIterable<Document> notClusteredSubmittedVariants = collection.find(query)
-                                                                         .noCursorTimeout(true)
-                                                                         .batchSize(chunkSize);
+        FindIterable<SubmittedVariantEntity> notClusteredSubmittedVariants =
+                collection.find(query)
+                          .sort(buildSort())
+                          .noCursorTimeout(true)
+                          .batchSize(chunkSize);
+        if (serverSideFilter) {
+            notClusteredSubmittedVariants.projection(Projections.include(PROJECTED_FIELDS));
+        }
         cursor = notClusteredSubmittedVariants.iterator();
-        converter = mongoTemplate.getConverter();
+        skippedAlreadyClustered = 0;
+    }
+
+    private Bson buildQuery() {
+        Bson query = Filters.and(Filters.in(ASSEMBLY_FIELD, assembly));
+        if (contig != null) {
+            query = Filters.and(query, Filters.eq(CONTIG_FIELD, contig));
+        }
+        if (serverSideFilter) {
+            query = Filters.and(query, Filters.or(Filters.eq(CLUSTERED_VARIANT_ACCESSION_FIELD, null),
+                                                  Filters.ne(REMAPPED_FROM_FIELD, null)));
+        }
+        return query;
+    }
+
+    private Bson buildSort() {
+        return Sorts.ascending(CONTIG_FIELD, ID_FIELD);
+    }
+
+    /**
+     * Checks the plan of the query used to read, so that a collection scan or an in-memory sort is reported before
+     * the job starts.
+     */
+    public void checkQueryPlan(QueryPlanChecker queryPlanChecker) {
+        queryPlanChecker.checkFind(SUBMITTED_VARIANT_ENTITY, buildQuery(), buildSort());
+    }
+
+    /**
+     * Matches the documents that come after the given one in the (contig, _id) order used to read.
+     */
+    private Bson getAfterLastReadFilter(String lastContig, String lastId) {
+        return Filters.or(Filters.gt(CONTIG_FIELD, lastContig),
+                          Filters.and(Filters.eq(CONTIG_FIELD, lastContig), Filters.gt(ID_FIELD, lastId)));
     }
 
     @Override
     public void update(ExecutionContext executionContext) throws ItemStreamException {
-
+        if (lastContig != null && lastId != null) {
+            executionContext.putString(LAST_CONTIG_KEY, lastContig);
+            executionContext.putString(LAST_ID_KEY, lastId);
+        }
     }
 
     @Override
     public void close() throws ItemStreamException {
+        logger.info("Skipped {} submitted variants that were already clustered", skippedAlreadyClustered);
         cursor.close();
     }
 }
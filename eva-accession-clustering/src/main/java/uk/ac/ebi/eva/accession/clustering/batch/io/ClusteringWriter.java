@@ -25,7 +25,6 @@ import org.springframework.util.Assert;
 import uk.ac.ebi.ampt2d.commons.accession.core.exceptions.AccessionCouldNotBeGeneratedException;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.GetOrCreateAccessionWrapper;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.EventDocument;
 
 import uk.ac.ebi.eva.accession.clustering.batch.listeners.ClusteringCounts;
@@ -43,14 +42,20 @@ import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantInactiveEntity;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantOperationEntity;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.ClusteredVariantAccessioningService;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 import uk.ac.ebi.eva.commons.core.models.VariantClassifier;
 import uk.ac.ebi.eva.commons.core.models.VariantType;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -71,6 +76,13 @@ import static uk.ac.ebi.eva.accession.clustering.batch.io.ClusteredVariantMergin
  * set of variants, the check for the second definition is less efficient and less accurate: both the active and the
  * deprecated/merged collections should be queried, and we lost clusteredVariantOperations during the
  * deprecation pipeline in the dbSNP import due to a bug.
+ *
+ * The writer keeps no state between chunks, so the same instance can be used by several partitions of the clustering
+ * step running in parallel (see ContigPartitioner). Partitions are split by contig, so they never get or create the
+ * same clustered variant hash, but a merge updates an RS across all the contigs. Because of that, only getting or
+ * creating the clustered variants runs concurrently: the merges and the update of the submitted variants of a chunk
+ * run while holding a lock shared by all the partitions, and before them any RS of the chunk that another partition
+ * merged in the meantime is replaced by the RS it was merged into.
  */
 public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
 
@@ -78,20 +90,22 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
 
     public static final String RS_KEY = "rs";
 
+    private static final String EVENT_TYPE_KEY = "eventType";
+
     private MongoTemplate mongoTemplate;
 
     private ClusteredVariantAccessioningService clusteredService;
 
     private Function<IClusteredVariant, String> clusteredHashingFunction;
 
-    private Map<String, Long> assignedAccessions;
-
     private Long accessioningMonotonicInitSs;
 
     private Long accessioningMonotonicInitRs;
 
     private ClusteringCounts clusteringCounts;
 
+    private final Object mergeLock = new Object();
+
     public ClusteringWriter(MongoTemplate mongoTemplate,
                             ClusteredVariantAccessioningService clusteredVariantAccessioningService,
                             Long accessioningMonotonicInitSs,
@@ -99,8 +113,7 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
                             ClusteringCounts clusteringCounts) {
         this.mongoTemplate = mongoTemplate;
         this.clusteredService = clusteredVariantAccessioningService;
-        this.clusteredHashingFunction = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
-        this.assignedAccessions = new HashMap<>();
+        this.clusteredHashingFunction = new ClusteredVariantHashingFunction();
         Assert.notNull(accessioningMonotonicInitSs, "accessioningMonotonicInitSs must not be null. Check autowiring.");
         this.accessioningMonotonicInitSs = accessioningMonotonicInitSs;
         this.accessioningMonotonicInitRs = accessioningMonotonicInitRs;
@@ -110,19 +123,33 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
     @Override
     public void write(List<? extends SubmittedVariantEntity> submittedVariantEntities)
             throws MongoBulkWriteException, AccessionCouldNotBeGeneratedException {
-        assignedAccessions.clear();
+        Map<String, Long> assignedAccessions = new HashMap<>();
+        ClusteredVariantHashCache hashCache = new ClusteredVariantHashCache(this::toClusteredVariant,
+                                                                            clusteredHashingFunction);
+
+        // Write new Clustered Variants in mongo and get existing ones
+        getOrCreateClusteredVariantAccessions(submittedVariantEntities, assignedAccessions, hashCache);
 
-        // Write new Clustered Variants in mongo and get existing ones. May merge clustered variants
-        getOrCreateClusteredVariantAccessions(submittedVariantEntities);
+        synchronized (mergeLock) {
+            Map<Long, Long> mergedAccessions = findMergedAccessions(submittedVariantEntities, assignedAccessions);
 
-        // Update submitted variants "rs" field
-        clusterSubmittedVariants(submittedVariantEntities);
+            // May merge clustered variants
+            checkForMerges(submittedVariantEntities, assignedAccessions, mergedAccessions, hashCache);
+
+            // Update submitted variants "rs" field
+            clusterSubmittedVariants(submittedVariantEntities, assignedAccessions, mergedAccessions, hashCache);
+        }
+
+        clusteringCounts.addClusteredVariantHashesComputed(hashCache.getHashesComputed());
+        clusteringCounts.addClusteredVariantHashesReused(hashCache.getHashesReused());
     }
 
-    private void getOrCreateClusteredVariantAccessions(List<? extends SubmittedVariantEntity> submittedVariantEntities)
+    private void getOrCreateClusteredVariantAccessions(List<? extends SubmittedVariantEntity> submittedVariantEntities,
+                                                       Map<String, Long> assignedAccessions,
+                                                       ClusteredVariantHashCache hashCache)
             throws AccessionCouldNotBeGeneratedException {
         List<ClusteredVariant> clusteredVariants = submittedVariantEntities.stream()
-                                                                           .map(this::toClusteredVariant)
+                                                                           .map(hashCache::getClusteredVariant)
                                                                            .collect(Collectors.toList());
         if (!clusteredVariants.isEmpty()) {
             List<GetOrCreateAccessionWrapper<IClusteredVariant, String, Long>> accessionWrappers =
@@ -136,7 +163,55 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
             long newAccessions = accessionWrappers.stream().filter(GetOrCreateAccessionWrapper::isNewAccession).count();
             clusteringCounts.addClusteredVariantsCreated(newAccessions);
         }
-        checkForMerges(submittedVariantEntities);
+    }
+
+    /**
+     * Finds the RS of the chunk that are no longer active because they were merged after they were read or assigned,
+     * e.g. by another partition, and returns for each of them the RS it was merged into. An RS that is not active
+     * anywhere and has no merge operation is left as it is.
+     */
+    private Map<Long, Long> findMergedAccessions(List<? extends SubmittedVariantEntity> submittedVariantEntities,
+                                                 Map<String, Long> assignedAccessions) {
+        Set<Long> accessions = new HashSet<>(assignedAccessions.values());
+        for (SubmittedVariantEntity submittedVariant : submittedVariantEntities) {
+            if (submittedVariant.getClusteredVariantAccession() != null && submittedVariant.getRemappedFrom() != null) {
+                accessions.add(submittedVariant.getClusteredVariantAccession());
+            }
+        }
+        Map<Long, Long> mergedAccessions = new HashMap<>();
+        while (!accessions.isEmpty()) {
+            accessions.removeAll(findClusteredVariants(accessions).keySet());
+            if (accessions.isEmpty()) {
+                break;
+            }
+            Map<Long, Long> mergeTargets = findMergeTargets(accessions);
+            mergedAccessions.putAll(mergeTargets);
+            // the RS they were merged into could have been merged later as well
+            accessions = new HashSet<>(mergeTargets.values());
+            accessions.removeAll(mergedAccessions.keySet());
+        }
+        return mergedAccessions;
+    }
+
+    private Map<Long, Long> findMergeTargets(Collection<Long> accessions) {
+        Query queryMerges = query(where(ACCESSION_KEY).in(accessions).and(EVENT_TYPE_KEY).is(EventType.MERGED));
+        List<EventDocument<IClusteredVariant, Long, ?>> merges = new ArrayList<>();
+        merges.addAll(mongoTemplate.find(queryMerges, ClusteredVariantOperationEntity.class));
+        merges.addAll(mongoTemplate.find(queryMerges, DbsnpClusteredVariantOperationEntity.class));
+        Map<Long, Long> mergeTargets = new HashMap<>();
+        for (EventDocument<IClusteredVariant, Long, ?> merge : merges) {
+            mergeTargets.putIfAbsent(merge.getAccession(), merge.getMergedInto());
+        }
+        return mergeTargets;
+    }
+
+    private Long getCurrentAccession(Long accession, Map<Long, Long> mergedAccessions) {
+        Long currentAccession = accession;
+        Set<Long> visited = new HashSet<>();
+        while (mergedAccessions.containsKey(currentAccession) && visited.add(currentAccession)) {
+            currentAccession = mergedAccessions.get(currentAccession);
+        }
+        return currentAccession;
     }
 
     private ClusteredVariant toClusteredVariant(SubmittedVariantEntity submittedVariantEntity) {
@@ -157,59 +232,166 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
         return variantType;
     }
 
-    private void checkForMerges(List<? extends SubmittedVariantEntity> submittedVariantEntities) {
+    /**
+     * A remapped submitted variant can bring an RS that is different from the RS already assigned to the same locus in
+     * this assembly. In that case both RS have to be merged.
+     *
+     * The merges of the chunk are grouped in batches and each batch is executed with a few queries and bulk writes,
+     * instead of several round trips per merge. The merges in a batch never share an accession or a hash, so they are
+     * independent and executing them together gives the same result as executing them one by one. A merge that
+     * overlaps with the current batch has to see the effect of it, so the batch is executed before checking it.
+     */
+    private void checkForMerges(List<? extends SubmittedVariantEntity> submittedVariantEntities,
+                                Map<String, Long> assignedAccessions, Map<Long, Long> mergedAccessions,
+                                ClusteredVariantHashCache hashCache) {
+        Set<MergeCandidate> batch = new LinkedHashSet<>();
+        Set<Long> accessionsInBatch = new HashSet<>();
+        Set<String> hashesInBatch = new HashSet<>();
         for (SubmittedVariantEntity submittedVariant : submittedVariantEntities) {
             if (submittedVariant.getClusteredVariantAccession() != null && submittedVariant.getRemappedFrom() != null) {
-                String hash = clusteredHashingFunction.apply(toClusteredVariant(submittedVariant));
-                Long accessionInDatabase = assignedAccessions.get(hash);
-                //accessionInDatabase will be null if it was excluded for being a multimap
-                if (accessionInDatabase != null &&
-                        !submittedVariant.getClusteredVariantAccession().equals(accessionInDatabase)) {
-                    merge(submittedVariant.getClusteredVariantAccession(), hash, accessionInDatabase);
+                Long providedAccession = getCurrentAccession(submittedVariant.getClusteredVariantAccession(),
+                                                             mergedAccessions);
+                String hash = hashCache.getHash(submittedVariant);
+                MergeCandidate candidate = getMergeCandidate(providedAccession, hash, assignedAccessions,
+                                                             mergedAccessions);
+                if (candidate == null || batch.contains(candidate)) {
+                    // repeating a merge already in the batch would have no effect
+                    continue;
                 }
+                if (hashesInBatch.contains(hash) || accessionsInBatch.contains(candidate.providedAccession)
+                        || accessionsInBatch.contains(candidate.accessionInDatabase)) {
+                    merge(batch, assignedAccessions, mergedAccessions);
+                    batch.clear();
+                    accessionsInBatch.clear();
+                    hashesInBatch.clear();
+
+                    providedAccession = getCurrentAccession(providedAccession, mergedAccessions);
+                    candidate = getMergeCandidate(providedAccession, hash, assignedAccessions, mergedAccessions);
+                    if (candidate == null) {
+                        continue;
+                    }
+                }
+                batch.add(candidate);
+                accessionsInBatch.add(candidate.providedAccession);
+                accessionsInBatch.add(candidate.accessionInDatabase);
+                hashesInBatch.add(hash);
             }
         }
+        merge(batch, assignedAccessions, mergedAccessions);
     }
 
-    private void merge(Long providedAccession, String hash, Long accessionInDatabase) {
-        Priority prioritised = prioritise(providedAccession, accessionInDatabase);
+    private MergeCandidate getMergeCandidate(Long providedAccession, String hash, Map<String, Long> assignedAccessions,
+                                             Map<Long, Long> mergedAccessions) {
+        Long accessionInDatabase = getCurrentAccession(assignedAccessions.get(hash), mergedAccessions);
+        //accessionInDatabase will be null if it was excluded for being a multimap
+        if (accessionInDatabase != null && !providedAccession.equals(accessionInDatabase)) {
+            return new MergeCandidate(providedAccession, hash, accessionInDatabase);
+        }
+        return null;
+    }
 
-        Query queryClustered = query(where(ACCESSION_KEY).is(prioritised.accessionToBeMerged));
-        List<? extends ClusteredVariantEntity> clusteredVariantToMerge =
-                mongoTemplate.find(queryClustered, getClusteredVariantCollection(prioritised.accessionToBeMerged));
+    /**
+     * Must be called holding mergeLock. The merges are added to mergedAccessions so that the rest of the chunk uses
+     * the RS that is kept.
+     */
+    private void merge(Collection<MergeCandidate> mergeCandidates, Map<String, Long> assignedAccessions,
+                       Map<Long, Long> mergedAccessions) {
+        if (mergeCandidates.isEmpty()) {
+            return;
+        }
+        Set<Long> accessions = new HashSet<>();
+        for (MergeCandidate candidate : mergeCandidates) {
+            accessions.add(candidate.providedAccession);
+            accessions.add(candidate.accessionInDatabase);
+        }
+        Map<Long, List<ClusteredVariantEntity>> clusteredVariantsByAccession = findClusteredVariants(accessions);
+
+        Map<Long, Long> mergedInto = new HashMap<>();
+        List<ClusteredVariantOperationEntity> operations = new ArrayList<>();
+        List<ClusteredVariantOperationEntity> dbsnpOperations = new ArrayList<>();
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                                                       ClusteredVariantEntity.class);
+        BulkOperations dbsnpUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                                                            DbsnpClusteredVariantEntity.class);
+        long numUpdates = 0;
+        long numDbsnpUpdates = 0;
+        for (MergeCandidate candidate : mergeCandidates) {
+            Priority prioritised = prioritise(candidate.providedAccession, candidate.accessionInDatabase);
+            List<ClusteredVariantEntity> clusteredVariantToMerge = clusteredVariantsByAccession.getOrDefault(
+                    prioritised.accessionToBeMerged, Collections.emptyList());
+            List<ClusteredVariantEntity> clusteredVariantToKeep = clusteredVariantsByAccession.getOrDefault(
+                    prioritised.accessionToKeep, Collections.emptyList());
+
+            if (isMultimap(clusteredVariantToMerge) || isMultimap(clusteredVariantToKeep)) {
+                // multimap! don't merge. see isMultimap() below for more details
+                continue;
+            }
 
-        List<? extends ClusteredVariantEntity> clusteredVariantToKeep =
-                mongoTemplate.find(query(where(ACCESSION_KEY).is(prioritised.accessionToKeep)),
-                                   getClusteredVariantCollection(prioritised.accessionToKeep));
+            assignedAccessions.put(candidate.hash, prioritised.accessionToKeep);
+            mergedInto.put(prioritised.accessionToBeMerged, prioritised.accessionToKeep);
+            mergedAccessions.put(prioritised.accessionToBeMerged, prioritised.accessionToKeep);
+
+            // write operations for clustered variant being merged
+            List<ClusteredVariantOperationEntity> mergeOperations =
+                    clusteredVariantToMerge.stream()
+                                           .map(c -> buildClusteredOperation(c, prioritised.accessionToKeep))
+                                           .collect(Collectors.toList());
+            Query queryClustered = query(where(ACCESSION_KEY).is(prioritised.accessionToBeMerged));
+            Update updateClustered = update(ACCESSION_KEY, prioritised.accessionToKeep);
+            if (isEvaClusteredAccession(prioritised.accessionToBeMerged)) {
+                operations.addAll(mergeOperations);
+                updates.updateMulti(queryClustered, updateClustered);
+                ++numUpdates;
+            } else {
+                dbsnpOperations.addAll(mergeOperations);
+                dbsnpUpdates.updateMulti(queryClustered, updateClustered);
+                ++numDbsnpUpdates;
+            }
+            clusteringCounts.addClusteredVariantsMergeOperationsWritten(clusteredVariantToMerge.size());
+            clusteringCounts.addClusteredVariantsUpdated(clusteredVariantToMerge.size());
+        }
 
-        if (isMultimap(clusteredVariantToMerge) || isMultimap(clusteredVariantToKeep)) {
-            // multimap! don't merge. see isMultimap() below for more details
-            return;
+        if (!operations.isEmpty()) {
+            mongoTemplate.insert(operations, ClusteredVariantOperationEntity.class);
+        }
+        if (!dbsnpOperations.isEmpty()) {
+            mongoTemplate.insert(dbsnpOperations, DbsnpClusteredVariantOperationEntity.class);
+        }
+        if (numUpdates > 0) {
+            updates.execute();
+        }
+        if (numDbsnpUpdates > 0) {
+            dbsnpUpdates.execute();
         }
 
-        assignedAccessions.put(hash, prioritised.accessionToKeep);
-
-        // write operations for clustered variant being merged
-        List<ClusteredVariantOperationEntity> operations =
-                clusteredVariantToMerge.stream()
-                                       .map(c -> buildClusteredOperation(c, prioritised.accessionToKeep))
-                                       .collect(Collectors.toList());
-        mongoTemplate.insert(operations, getClusteredOperationCollection(prioritised.accessionToBeMerged));
-        clusteringCounts.addClusteredVariantsMergeOperationsWritten(clusteredVariantToMerge.size());
-
-        mongoTemplate.updateMulti(queryClustered, update(ACCESSION_KEY, prioritised.accessionToKeep),
-                                  getClusteredVariantCollection(prioritised.accessionToBeMerged));
-        clusteringCounts.addClusteredVariantsUpdated(clusteredVariantToMerge.size());
-
-        // Update submitted variants linked to the clustered variant we just merged.
-        // This has to happen for both EVA and dbsnp SS because previous cross merges might have happened.
-        updateSubmittedVariants(prioritised, SubmittedVariantEntity.class, SubmittedVariantOperationEntity.class);
-        updateSubmittedVariants(prioritised, DbsnpSubmittedVariantEntity.class,
-                                DbsnpSubmittedVariantOperationEntity.class);
+        if (!mergedInto.isEmpty()) {
+            // Update submitted variants linked to the clustered variants we just merged.
+            // This has to happen for both EVA and dbsnp SS because previous cross merges might have happened.
+            updateSubmittedVariants(mergedInto, SubmittedVariantEntity.class, SubmittedVariantOperationEntity.class);
+            updateSubmittedVariants(mergedInto, DbsnpSubmittedVariantEntity.class,
+                                    DbsnpSubmittedVariantOperationEntity.class);
+        }
     }
 
-    private Class<? extends ClusteredVariantEntity> getClusteredVariantCollection(Long accession) {
-        return isEvaClusteredAccession(accession) ? ClusteredVariantEntity.class : DbsnpClusteredVariantEntity.class;
+    /**
+     * Retrieves with one query per collection all the clustered variants with any of the given accessions.
+     */
+    private Map<Long, List<ClusteredVariantEntity>> findClusteredVariants(Collection<Long> accessions) {
+        Map<Boolean, List<Long>> accessionsByCollection = accessions.stream().collect(
+                Collectors.partitioningBy(this::isEvaClusteredAccession));
+        List<Long> evaAccessions = accessionsByCollection.get(true);
+        List<Long> dbsnpAccessions = accessionsByCollection.get(false);
+
+        List<ClusteredVariantEntity> clusteredVariants = new ArrayList<>();
+        if (!evaAccessions.isEmpty()) {
+            clusteredVariants.addAll(mongoTemplate.find(query(where(ACCESSION_KEY).in(evaAccessions)),
+                                                        ClusteredVariantEntity.class));
+        }
+        if (!dbsnpAccessions.isEmpty()) {
+            clusteredVariants.addAll(mongoTemplate.find(query(where(ACCESSION_KEY).in(dbsnpAccessions)),
+                                                        DbsnpClusteredVariantEntity.class));
+        }
+        return clusteredVariants.stream().collect(Collectors.groupingBy(ClusteredVariantEntity::getAccession));
     }
 
     private boolean isEvaClusteredAccession(Long accession) {
@@ -232,12 +414,6 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
         return isMultimap(Collections.singletonList(clusteredVariant));
     }
 
-    private Class<? extends EventDocument<IClusteredVariant, Long, ? extends ClusteredVariantInactiveEntity>>
-    getClusteredOperationCollection(Long accession) {
-        return isEvaClusteredAccession(accession) ?
-                ClusteredVariantOperationEntity.class : DbsnpClusteredVariantOperationEntity.class;
-    }
-
     private ClusteredVariantOperationEntity buildClusteredOperation(ClusteredVariantEntity originalClusteredVariant,
                                                                     Long clusteredVariantMergedInto) {
         ClusteredVariantInactiveEntity inactiveEntity = new ClusteredVariantInactiveEntity(originalClusteredVariant);
@@ -254,25 +430,31 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
     /**
      * This function updates the clustered variant accession (rs) of submitted variants when the rs makes a
      * collision with another rs and they have to be merged.
+     *
+     * @param mergedInto for each merged rs, the rs it was merged into
      */
     private void updateSubmittedVariants(
-            Priority prioritised,
+            Map<Long, Long> mergedInto,
             Class<? extends SubmittedVariantEntity> submittedVariantCollection,
             Class<? extends EventDocument<ISubmittedVariant, Long, ? extends SubmittedVariantInactiveEntity>>
                     submittedOperationCollection) {
-        Query querySubmitted = query(where(RS_KEY).is(prioritised.accessionToBeMerged));
+        Query querySubmitted = query(where(RS_KEY).in(mergedInto.keySet()));
         List<? extends SubmittedVariantEntity> svToUpdate =
                 mongoTemplate.find(querySubmitted, submittedVariantCollection);
 
-        Update update = new Update();
-        update.set(RS_KEY, prioritised.accessionToKeep);
-        mongoTemplate.updateMulti(querySubmitted, update, submittedVariantCollection);
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                                                              submittedVariantCollection);
+        for (Map.Entry<Long, Long> merge : mergedInto.entrySet()) {
+            bulkOperations.updateMulti(query(where(RS_KEY).is(merge.getKey())), update(RS_KEY, merge.getValue()));
+        }
+        bulkOperations.execute();
         clusteringCounts.addSubmittedVariantsUpdatedRs(svToUpdate.size());
 
         if (!svToUpdate.isEmpty()) {
             List<SubmittedVariantOperationEntity> operations =
                     svToUpdate.stream()
-                              .map(sv -> buildSubmittedOperation(sv, prioritised.accessionToKeep))
+                              .map(sv -> buildSubmittedOperation(sv, mergedInto.get(
+                                      sv.getClusteredVariantAccession())))
                               .collect(Collectors.toList());
             mongoTemplate.insert(operations, submittedOperationCollection);
             clusteringCounts.addSubmittedVariantsUpdateOperationWritten(operations.size());
@@ -310,7 +492,9 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
     /**
      * This function assigns a clustered variant accession (rs) to the submitted variants that didn't have any.
      */
-    private void clusterSubmittedVariants(List<? extends SubmittedVariantEntity> submittedVariantEntities) {
+    private void clusterSubmittedVariants(List<? extends SubmittedVariantEntity> submittedVariantEntities,
+                                          Map<String, Long> assignedAccessions, Map<Long, Long> mergedAccessions,
+                                          ClusteredVariantHashCache hashCache) {
         BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
                                                               SubmittedVariantEntity.class);
         BulkOperations dbsnpBulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
@@ -327,7 +511,8 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
                 continue;
             }
 
-            Long rsid = getClusteredVariantAccession(submittedVariantEntity);
+            Long rsid = getCurrentAccession(assignedAccessions.get(hashCache.getHash(submittedVariantEntity)),
+                                            mergedAccessions);
             if (rsid == null) {
                 // no candidate for clustering. e.g. the candidate is a multimap clustered variant (EVA-2071)
                 clusteringCounts.addSubmittedVariantsKeptUnclustered(1);
@@ -377,14 +562,36 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
         return submittedVariant.getAccession() >= accessioningMonotonicInitSs;
     }
 
-    private Long getClusteredVariantAccession(SubmittedVariantEntity submittedVariantEntity) {
-        String hash = getClusteredVariantHash(submittedVariantEntity);
-        return assignedAccessions.get(hash);
-    }
+    private static class MergeCandidate {
+
+        final Long providedAccession;
+
+        final String hash;
 
-    private String getClusteredVariantHash(SubmittedVariantEntity submittedVariantEntity) {
-        ClusteredVariant clusteredVariant = toClusteredVariant(submittedVariantEntity);
-        String hash = clusteredHashingFunction.apply(clusteredVariant);
-        return hash;
+        final Long accessionInDatabase;
+
+        MergeCandidate(Long providedAccession, String hash, Long accessionInDatabase) {
+            this.providedAccession = providedAccession;
+            this.hash = hash;
+            this.accessionInDatabase = accessionInDatabase;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            MergeCandidate that = (MergeCandidate) o;
+            return providedAccession.equals(that.providedAccession) && hash.equals(that.hash)
+                    && accessionInDatabase.equals(that.accessionInDatabase);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(providedAccession, hash, accessionInDatabase);
+        }
     }
 }
@@ -15,7 +15,19 @@
  */
 package uk.ac.ebi.eva.accession.clustering.batch.listeners;
 
-public class ClusteringCounts {
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The add methods are synchronized because the counts are shared by all the partitions of a partitioned step.
+ * The counts are also bound as counters to the metrics registry (see MetricsConfiguration).
+ */
+public class ClusteringCounts implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "eva.clustering.";
 
     private long clusteredVariantsCreated;
 
@@ -31,6 +43,10 @@ public class ClusteringCounts {
 
     private long submittedVariantsUpdateOperationWritten;
 
+    private long clusteredVariantHashesComputed;
+
+    private long clusteredVariantHashesReused;
+
     public ClusteringCounts() {
         this.clusteredVariantsCreated = 0;
         this.clusteredVariantsUpdated = 0;
@@ -39,9 +55,11 @@ public class ClusteringCounts {
         this.submittedVariantsClustered = 0;
         this.submittedVariantsUpdatedRs = 0;
         this.submittedVariantsUpdateOperationWritten = 0;
+        this.clusteredVariantHashesComputed = 0;
+        this.clusteredVariantHashesReused = 0;
     }
 
-    public void addClusteredVariantsCreated(long clusteredVariantsCreated) {
+    public synchronized void addClusteredVariantsCreated(long clusteredVariantsCreated) {
         this.clusteredVariantsCreated += clusteredVariantsCreated;
     }
 
@@ -53,7 +71,7 @@ public class ClusteringCounts {
         this.clusteredVariantsCreated = clusteredVariantsCreated;
     }
 
-    public void addClusteredVariantsUpdated(long clusteredVariantsUpdated) {
+    public synchronized void addClusteredVariantsUpdated(long clusteredVariantsUpdated) {
         this.clusteredVariantsUpdated += clusteredVariantsUpdated;
     }
 
@@ -65,7 +83,7 @@ public class ClusteringCounts {
         this.clusteredVariantsUpdated = clusteredVariantsUpdated;
     }
 
-    public void addClusteredVariantsMergeOperationsWritten(long clusteredVariantsMergeOperationsWritten) {
+    public synchronized void addClusteredVariantsMergeOperationsWritten(long clusteredVariantsMergeOperationsWritten) {
         this.clusteredVariantsMergeOperationsWritten += clusteredVariantsMergeOperationsWritten;
     }
 
@@ -77,7 +95,7 @@ public class ClusteringCounts {
         this.clusteredVariantsMergeOperationsWritten = clusteredVariantsMergeOperationsWritten;
     }
 
-    public void addSubmittedVariantsKeptUnclustered(long submittedVariantsKeptUnclustered) {
+    public synchronized void addSubmittedVariantsKeptUnclustered(long submittedVariantsKeptUnclustered) {
         this.submittedVariantsKeptUnclustered += submittedVariantsKeptUnclustered;
     }
 
@@ -89,7 +107,7 @@ public class ClusteringCounts {
         this.submittedVariantsKeptUnclustered = submittedVariantsKeptUnclustered;
     }
 
-    public void addSubmittedVariantsClustered(long submittedVariantsClustered) {
+    public synchronized void addSubmittedVariantsClustered(long submittedVariantsClustered) {
         this.submittedVariantsClustered += submittedVariantsClustered;
     }
 
@@ -101,7 +119,7 @@ public class ClusteringCounts {
         this.submittedVariantsClustered = submittedVariantsClustered;
     }
 
-    public void addSubmittedVariantsUpdatedRs(long submittedVariantsUpdatedRs) {
+    public synchronized void addSubmittedVariantsUpdatedRs(long submittedVariantsUpdatedRs) {
         this.submittedVariantsUpdatedRs += submittedVariantsUpdatedRs;
     }
 
@@ -113,7 +131,7 @@ public class ClusteringCounts {
         this.submittedVariantsUpdatedRs = submittedVariantsUpdatedRs;
     }
 
-    public void addSubmittedVariantsUpdateOperationWritten(long submittedVariantsUpdateOperationWritten) {
+    public synchronized void addSubmittedVariantsUpdateOperationWritten(long submittedVariantsUpdateOperationWritten) {
         this.submittedVariantsUpdateOperationWritten += submittedVariantsUpdateOperationWritten;
     }
 
@@ -124,4 +142,47 @@ public class ClusteringCounts {
     public void setSubmittedVariantsUpdateOperationWritten(long submittedVariantsUpdateOperationWritten) {
         this.submittedVariantsUpdateOperationWritten = submittedVariantsUpdateOperationWritten;
     }
+
+    public synchronized void addClusteredVariantHashesComputed(long clusteredVariantHashesComputed) {
+        this.clusteredVariantHashesComputed += clusteredVariantHashesComputed;
+    }
+
+    public long getClusteredVariantHashesComputed() {
+        return clusteredVariantHashesComputed;
+    }
+
+    public void setClusteredVariantHashesComputed(long clusteredVariantHashesComputed) {
+        this.clusteredVariantHashesComputed = clusteredVariantHashesComputed;
+    }
+
+    public synchronized void addClusteredVariantHashesReused(long clusteredVariantHashesReused) {
+        this.clusteredVariantHashesReused += clusteredVariantHashesReused;
+    }
+
+    public long getClusteredVariantHashesReused() {
+        return clusteredVariantHashesReused;
+    }
+
+    public void setClusteredVariantHashesReused(long clusteredVariantHashesReused) {
+        this.clusteredVariantHashesReused = clusteredVariantHashesReused;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "clustered.variants.created", ClusteringCounts::getClusteredVariantsCreated);
+        bind(registry, "clustered.variants.updated", ClusteringCounts::getClusteredVariantsUpdated);
+        bind(registry, "clustered.variants.merge.operations.written",
+             ClusteringCounts::getClusteredVariantsMergeOperationsWritten);
+        bind(registry, "submitted.variants.clustered", ClusteringCounts::getSubmittedVariantsClustered);
+        bind(registry, "submitted.variants.kept.unclustered", ClusteringCounts::getSubmittedVariantsKeptUnclustered);
+        bind(registry, "submitted.variants.updated.rs", ClusteringCounts::getSubmittedVariantsUpdatedRs);
+        bind(registry, "submitted.variants.update.operation.written",
+             ClusteringCounts::getSubmittedVariantsUpdateOperationWritten);
+        bind(registry, "clustered.variant.hashes.computed", ClusteringCounts::getClusteredVariantHashesComputed);
+        bind(registry, "clustered.variant.hashes.reused", ClusteringCounts::getClusteredVariantHashesReused);
+    }
+
+    private void bind(MeterRegistry registry, String name, ToDoubleFunction<ClusteringCounts> count) {
+        FunctionCounter.builder(METRIC_PREFIX + name, this, count).register(registry);
+    }
 }
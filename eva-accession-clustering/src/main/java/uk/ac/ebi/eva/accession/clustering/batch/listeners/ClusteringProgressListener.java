@@ -51,6 +51,9 @@ public class ClusteringProgressListener extends GenericProgressListener<Variant,
                     clusteringCounts.getSubmittedVariantsClustered(),
                     clusteringCounts.getSubmittedVariantsUpdatedRs(),
                     clusteringCounts.getSubmittedVariantsUpdateOperationWritten());
+        logger.info("Step {} finished: rs hashes computed = {}, rs hashes reused = {}", stepName,
+                    clusteringCounts.getClusteredVariantHashesComputed(),
+                    clusteringCounts.getClusteredVariantHashesReused());
         return status;
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.clustering.batch.partitioners;
+
+import com.mongodb.client.model.Filters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the clustering of an assembly in one partition per contig, so that each partition can be clustered by a
+ * different thread.
+ *
+ * Partitioning by contig is safe because the clustered variant hash includes the contig, so two partitions never
+ * compete to create the same clustered variant. See ClusteringWriter for how merges are handled across partitions.
+ */
+public class ContigPartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContigPartitioner.class);
+
+    public static final String CONTIG_KEY = "contig";
+
+    private static final String PARTITION_PREFIX = "contig-";
+
+    private static final String SUBMITTED_VARIANT_ENTITY = "submittedVariantEntity";
+
+    private static final String ASSEMBLY_FIELD = "seq";
+
+    private static final String CONTIG_FIELD = "contig";
+
+    private MongoTemplate mongoTemplate;
+
+    private String assembly;
+
+    public ContigPartitioner(MongoTemplate mongoTemplate, String assembly) {
+        this.mongoTemplate = mongoTemplate;
+        this.assembly = assembly;
+    }
+
+    /**
+     * @param gridSize ignored, there will be as many partitions as contigs. The number of partitions that run at the
+     * same time is limited by the TaskExecutor used in the partitioned step.
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<String> contigs = mongoTemplate.getCollection(SUBMITTED_VARIANT_ENTITY)
+                                            .distinct(CONTIG_FIELD, Filters.eq(ASSEMBLY_FIELD, assembly), String.class)
+                                            .into(new ArrayList<>());
+        logger.info("Clustering assembly {} split in {} partitions, one per contig", assembly, contigs.size());
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (String contig : contigs) {
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putString(CONTIG_KEY, contig);
+            partitions.put(PARTITION_PREFIX + contig, executionContext);
+        }
+        return partitions;
+    }
+}
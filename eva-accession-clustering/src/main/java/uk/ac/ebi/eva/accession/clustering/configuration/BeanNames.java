@@ -28,10 +28,18 @@ public class BeanNames {
 
     public static final String PROGRESS_LISTENER = "PROGRESS_LISTENER";
 
+    public static final String QUERY_PLAN_CHECK_LISTENER = "QUERY_PLAN_CHECK_LISTENER";
+
     public static final String CLUSTERING_FROM_VCF_STEP = "CLUSTERING_FROM_VCF_STEP";
 
     public static final String CLUSTERING_FROM_MONGO_STEP = "CLUSTERING_FROM_MONGO_STEP";
 
+    public static final String CLUSTERING_FROM_MONGO_PARTITIONED_STEP = "CLUSTERING_FROM_MONGO_PARTITIONED_STEP";
+
+    public static final String CONTIG_PARTITIONER = "CONTIG_PARTITIONER";
+
+    public static final String CLUSTERING_TASK_EXECUTOR = "CLUSTERING_TASK_EXECUTOR";
+
     public static final String CLUSTERING_FROM_VCF_JOB = "CLUSTERING_FROM_VCF_JOB";
 
     public static final String CLUSTERING_FROM_MONGO_JOB = "CLUSTERING_FROM_MONGO_JOB";
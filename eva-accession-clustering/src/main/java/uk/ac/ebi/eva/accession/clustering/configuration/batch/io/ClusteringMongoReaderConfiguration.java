@@ -17,11 +17,11 @@ package uk.ac.ebi.eva.accession.clustering.configuration.batch.io;
 
 import com.mongodb.MongoClient;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import uk.ac.ebi.eva.accession.clustering.batch.io.ClusteringMongoReader;
 import uk.ac.ebi.eva.accession.clustering.configuration.InputParametersConfiguration;
 import uk.ac.ebi.eva.accession.clustering.parameters.InputParameters;
@@ -36,11 +36,12 @@ public class ClusteringMongoReaderConfiguration {
     @Bean(MONGO_READER)
     @StepScope
     public ClusteringMongoReader clusteringMongoReader(MongoClient mongoClient, MongoProperties mongoProperties,
-                                                MongoTemplate mongoTemplate, InputParameters parameters) {
+                                                       InputParameters parameters,
+                                                       @Value("#{stepExecutionContext['contig']}") String contig) {
         if (parameters.getAssemblyAccession() == null || parameters.getAssemblyAccession().isEmpty()) {
             throw new IllegalArgumentException("Please provide an assembly");
         }
-        return new ClusteringMongoReader(mongoClient, mongoProperties.getDatabase(), mongoTemplate,
-                parameters.getAssemblyAccession(), parameters.getChunkSize());
+        return new ClusteringMongoReader(mongoClient, mongoProperties.getDatabase(), parameters.getAssemblyAccession(),
+                                         contig, parameters.getChunkSize(), parameters.isServerSideFilter());
     }
 }
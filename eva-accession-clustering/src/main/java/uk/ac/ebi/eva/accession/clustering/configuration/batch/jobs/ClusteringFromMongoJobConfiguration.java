@@ -16,6 +16,7 @@
 package uk.ac.ebi.eva.accession.clustering.configuration.batch.jobs;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
@@ -24,19 +25,33 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import uk.ac.ebi.eva.accession.clustering.parameters.InputParameters;
+
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_FROM_MONGO_JOB;
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_FROM_MONGO_PARTITIONED_STEP;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_FROM_MONGO_STEP;
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.QUERY_PLAN_CHECK_LISTENER;
 
 @Configuration
 @EnableBatchProcessing
 public class ClusteringFromMongoJobConfiguration {
 
+    /**
+     * If more than one thread is requested, the assembly is split by contig and the contigs are clustered in parallel.
+     */
     @Bean(CLUSTERING_FROM_MONGO_JOB)
     public Job clusteringFromMongoJob(@Qualifier(CLUSTERING_FROM_MONGO_STEP) Step clusteringFromMongoStep,
+                                      @Qualifier(CLUSTERING_FROM_MONGO_PARTITIONED_STEP)
+                                              Step clusteringFromMongoPartitionedStep,
+                                      @Qualifier(QUERY_PLAN_CHECK_LISTENER)
+                                              JobExecutionListener queryPlanCheckListener,
+                                      InputParameters parameters,
                                       JobBuilderFactory jobBuilderFactory) {
+        Step step = parameters.getNumberOfThreads() > 1 ? clusteringFromMongoPartitionedStep : clusteringFromMongoStep;
         return jobBuilderFactory.get(CLUSTERING_FROM_MONGO_JOB)
                 .incrementer(new RunIdIncrementer())
-                .start(clusteringFromMongoStep)
+                .listener(queryPlanCheckListener)
+                .start(step)
                 .build();
     }
 }
@@ -1,14 +1,26 @@
 package uk.ac.ebi.eva.accession.clustering.configuration.batch.listeners;
 
+import com.mongodb.MongoClient;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import uk.ac.ebi.eva.accession.clustering.batch.io.ClusteringMongoReader;
 import uk.ac.ebi.eva.accession.clustering.batch.listeners.ClusteringCounts;
 import uk.ac.ebi.eva.accession.clustering.batch.listeners.ClusteringProgressListener;
 import uk.ac.ebi.eva.accession.clustering.parameters.InputParameters;
+import uk.ac.ebi.eva.accession.core.batch.listeners.QueryPlanCheckListener;
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
+import uk.ac.ebi.eva.accession.core.configuration.nonhuman.IndexConfiguration;
+import uk.ac.ebi.eva.accession.core.index.QueryPlanChecker;
+import uk.ac.ebi.eva.accession.core.index.VariantIndexProvisioner;
 
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.PROGRESS_LISTENER;
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.QUERY_PLAN_CHECK_LISTENER;
 
 @Configuration
+@Import({MetricsConfiguration.class, IndexConfiguration.class})
 public class ListenersConfiguration {
 
     @Bean(PROGRESS_LISTENER)
@@ -17,6 +29,22 @@ public class ListenersConfiguration {
         return new ClusteringProgressListener(parameters.getChunkSize(), clusteringCounts);
     }
 
+    /**
+     * Creates the index of the clustering query, if enabled, and checks the query of the whole assembly, which has the
+     * same plan as the query of each contig when partitioned.
+     */
+    @Bean(QUERY_PLAN_CHECK_LISTENER)
+    public JobExecutionListener queryPlanCheckListener(VariantIndexProvisioner indexProvisioner,
+                                                       QueryPlanChecker queryPlanChecker, MongoClient mongoClient,
+                                                       MongoProperties mongoProperties, InputParameters parameters) {
+        ClusteringMongoReader reader = new ClusteringMongoReader(mongoClient, mongoProperties.getDatabase(),
+                                                                 parameters.getAssemblyAccession(), null,
+                                                                 parameters.getChunkSize(),
+                                                                 parameters.isServerSideFilter());
+        return new QueryPlanCheckListener(indexProvisioner, VariantIndexProvisioner::ensureClusteringIndexes,
+                                          queryPlanChecker, reader::checkQueryPlan);
+    }
+
     @Bean
     public ClusteringCounts importCounts() {
         return new ClusteringCounts();
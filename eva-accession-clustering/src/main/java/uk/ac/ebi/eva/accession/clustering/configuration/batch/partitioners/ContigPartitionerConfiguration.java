@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.clustering.configuration.batch.partitioners;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import uk.ac.ebi.eva.accession.clustering.batch.partitioners.ContigPartitioner;
+import uk.ac.ebi.eva.accession.clustering.configuration.InputParametersConfiguration;
+import uk.ac.ebi.eva.accession.clustering.parameters.InputParameters;
+import uk.ac.ebi.eva.accession.core.configuration.nonhuman.MongoConfiguration;
+
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_TASK_EXECUTOR;
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CONTIG_PARTITIONER;
+
+@Configuration
+@Import({MongoConfiguration.class, InputParametersConfiguration.class})
+public class ContigPartitionerConfiguration {
+
+    private static final String THREAD_NAME_PREFIX = "clustering-";
+
+    @Bean(CONTIG_PARTITIONER)
+    public Partitioner contigPartitioner(MongoTemplate mongoTemplate, InputParameters parameters) {
+        return new ContigPartitioner(mongoTemplate, parameters.getAssemblyAccession());
+    }
+
+    /**
+     * The pool size limits how many contigs are clustered at the same time.
+     */
+    @Bean(CLUSTERING_TASK_EXECUTOR)
+    public TaskExecutor clusteringTaskExecutor(InputParameters parameters) {
+        int numberOfThreads = Math.max(1, parameters.getNumberOfThreads());
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(numberOfThreads);
+        taskExecutor.setMaxPoolSize(numberOfThreads);
+        taskExecutor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        return taskExecutor;
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
@@ -27,15 +28,24 @@ import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import uk.ac.ebi.eva.accession.clustering.configuration.batch.partitioners.ContigPartitionerConfiguration;
+import uk.ac.ebi.eva.accession.clustering.parameters.InputParameters;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
 
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_FROM_MONGO_PARTITIONED_STEP;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_FROM_MONGO_STEP;
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_TASK_EXECUTOR;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTERING_WRITER;
+import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CONTIG_PARTITIONER;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.MONGO_READER;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.PROGRESS_LISTENER;
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 
 @Configuration
 @EnableBatchProcessing
+@Import(ContigPartitionerConfiguration.class)
 public class ClusteringFromMongoStepConfiguration {
 
     @Bean(CLUSTERING_FROM_MONGO_STEP)
@@ -43,6 +53,7 @@ public class ClusteringFromMongoStepConfiguration {
             @Qualifier(MONGO_READER) ItemStreamReader<SubmittedVariantEntity> mongoReader,
             @Qualifier(CLUSTERING_WRITER) ItemWriter<SubmittedVariantEntity> submittedVariantWriter,
             @Qualifier(PROGRESS_LISTENER) StepExecutionListener progressListener,
+            @Qualifier(STEP_METRICS_LISTENER) StepExecutionListener metricsListener,
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy) {
         TaskletStep step = stepBuilderFactory.get(CLUSTERING_FROM_MONGO_STEP)
@@ -50,7 +61,27 @@ public class ClusteringFromMongoStepConfiguration {
                 .reader(mongoReader)
                 .writer(submittedVariantWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
+
+    /**
+     * Runs the CLUSTERING_FROM_MONGO_STEP once per contig, with as many contigs in parallel as
+     * parameters.numberOfThreads. Each partition gets its own reader that only reads the variants in that contig.
+     */
+    @Bean(CLUSTERING_FROM_MONGO_PARTITIONED_STEP)
+    public Step clusteringVariantPartitionedStepMongoReader(
+            @Qualifier(CLUSTERING_FROM_MONGO_STEP) Step clusteringFromMongoStep,
+            @Qualifier(CONTIG_PARTITIONER) Partitioner contigPartitioner,
+            @Qualifier(CLUSTERING_TASK_EXECUTOR) TaskExecutor taskExecutor,
+            StepBuilderFactory stepBuilderFactory,
+            InputParameters parameters) {
+        return stepBuilderFactory.get(CLUSTERING_FROM_MONGO_PARTITIONED_STEP)
+                .partitioner(CLUSTERING_FROM_MONGO_STEP, contigPartitioner)
+                .step(clusteringFromMongoStep)
+                .gridSize(parameters.getNumberOfThreads())
+                .taskExecutor(taskExecutor)
+                .build();
+    }
 }
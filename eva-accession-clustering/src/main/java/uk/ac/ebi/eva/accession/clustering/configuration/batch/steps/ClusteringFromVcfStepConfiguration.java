@@ -37,6 +37,7 @@ import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.CLUSTER
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.PROGRESS_LISTENER;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.VARIANT_TO_SUBMITTED_VARIANT_ENTITY_PROCESSOR;
 import static uk.ac.ebi.eva.accession.clustering.configuration.BeanNames.VCF_READER;
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 
 @Configuration
 @EnableBatchProcessing
@@ -48,6 +49,7 @@ public class ClusteringFromVcfStepConfiguration {
             @Qualifier(VARIANT_TO_SUBMITTED_VARIANT_ENTITY_PROCESSOR) ItemProcessor<Variant, SubmittedVariantEntity> processor,
             @Qualifier(CLUSTERING_WRITER) ItemWriter<SubmittedVariantEntity> submittedVariantWriter,
             @Qualifier(PROGRESS_LISTENER) StepExecutionListener progressListener,
+            @Qualifier(STEP_METRICS_LISTENER) StepExecutionListener metricsListener,
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy) {
         TaskletStep step = stepBuilderFactory.get(CLUSTERING_FROM_VCF_STEP)
@@ -56,6 +58,7 @@ public class ClusteringFromVcfStepConfiguration {
                 .processor(processor)
                 .writer(submittedVariantWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -30,6 +30,10 @@ public class InputParameters {
 
     private boolean forceRestart;
 
+    private int numberOfThreads;
+
+    private boolean serverSideFilter;
+
     public String getVcf() {
         return vcf;
     }
@@ -70,6 +74,22 @@ public class InputParameters {
         this.forceRestart = forceRestart;
     }
 
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public boolean isServerSideFilter() {
+        return serverSideFilter;
+    }
+
+    public void setServerSideFilter(boolean serverSideFilter) {
+        this.serverSideFilter = serverSideFilter;
+    }
+
     public JobParameters toJobParameters() {
         return new JobParametersBuilder()
                 .addString("assemblyAccession", assemblyAccession)
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.clustering.batch.io;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class ClusteredVariantHashCacheTest {
+
+    private static final String ASSEMBLY = "GCA_000000001.1";
+
+    private Function<IClusteredVariant, String> hashingFunction;
+
+    private ClusteredVariantHashCache hashCache;
+
+    @Before
+    public void setUp() {
+        hashingFunction = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        hashCache = new ClusteredVariantHashCache(this::toClusteredVariant, hashingFunction);
+    }
+
+    private ClusteredVariant toClusteredVariant(SubmittedVariantEntity submittedVariant) {
+        return new ClusteredVariant(submittedVariant.getReferenceSequenceAccession(),
+                                    submittedVariant.getTaxonomyAccession(), submittedVariant.getContig(),
+                                    submittedVariant.getStart(), VariantType.SNV, submittedVariant.isValidated(),
+                                    null);
+    }
+
+    private SubmittedVariantEntity createSubmittedVariant(Long accession, long start, String alternate) {
+        return new SubmittedVariantEntity(accession, "hash-" + accession, ASSEMBLY, 1000, "project", "1", start, "A",
+                                          alternate, null, false, false, false, false, 1);
+    }
+
+    @Test
+    public void sameSubmittedVariantIsHashedOnce() {
+        SubmittedVariantEntity submittedVariant = createSubmittedVariant(1L, 100L, "T");
+        String hash = hashCache.getHash(submittedVariant);
+        assertEquals(hash, hashCache.getHash(submittedVariant));
+        assertEquals(hashingFunction.apply(toClusteredVariant(submittedVariant)), hash);
+        assertSame(hashCache.getClusteredVariant(submittedVariant), hashCache.getClusteredVariant(submittedVariant));
+
+        assertEquals(1, hashCache.getHashesComputed());
+        assertEquals(1, hashCache.getHashesReused());
+    }
+
+    @Test
+    public void submittedVariantsInTheSameLocusShareTheHash() {
+        String hash = hashCache.getHash(createSubmittedVariant(1L, 100L, "T"));
+        assertEquals(hash, hashCache.getHash(createSubmittedVariant(2L, 100L, "G")));
+
+        assertEquals(1, hashCache.getHashesComputed());
+        assertEquals(1, hashCache.getHashesReused());
+    }
+
+    @Test
+    public void submittedVariantsInDifferentLociAreHashedSeparately() {
+        String hash = hashCache.getHash(createSubmittedVariant(1L, 100L, "T"));
+        String otherHash = hashCache.getHash(createSubmittedVariant(2L, 200L, "T"));
+
+        assertNotEquals(hash, otherHash);
+        assertEquals(2, hashCache.getHashesComputed());
+        assertEquals(0, hashCache.getHashesReused());
+    }
+}
@@ -64,6 +64,8 @@ public class ClusteringMongoReaderTest {
 
     private static final String NOT_CLUSTERED_SUBMITTED_VARIANT_ID = "96A7CDAE49D1ACDC833524E294C37BDC8F8435FB";
 
+    private static final String REMAPPED_SUBMITTED_VARIANT_ID = "D2C7A2A1A7BD3E2BFE9A29C0F4A2E7C1C5B0E34A";
+
     private ClusteringMongoReader reader;
 
     @Autowired
@@ -83,7 +85,7 @@ public class ClusteringMongoReaderTest {
     @Before
     public void setUp() throws Exception {
         ExecutionContext executionContext = new ExecutionContext();
-        reader = new ClusteringMongoReader(mongoClient, TEST_DB, mongoTemplate, ASSEMBLY, CHUNK_SIZE);
+        reader = new ClusteringMongoReader(mongoClient, TEST_DB, ASSEMBLY, CHUNK_SIZE);
         reader.open(executionContext);
     }
 
@@ -95,11 +97,68 @@ public class ClusteringMongoReaderTest {
 
     @Test
     public void readAllSubmittedVariants() {
-        assertEquals(6, mongoTemplate.getCollection(SUBMITTED_VARIANT_ENTITY).countDocuments());
+        assertEquals(7, mongoTemplate.getCollection(SUBMITTED_VARIANT_ENTITY).countDocuments());
         List<SubmittedVariantEntity> variants = readIntoList();
         assertEquals(6, variants.size());
-        assertTrue(variants.stream().anyMatch(x -> Objects.equals(x.getId(), CLUSTERED_SUBMITTED_VARIANT_ID)));
         assertTrue(variants.stream().anyMatch(x -> Objects.equals(x.getId(), NOT_CLUSTERED_SUBMITTED_VARIANT_ID)));
+        assertTrue(variants.stream().anyMatch(x -> Objects.equals(x.getId(), REMAPPED_SUBMITTED_VARIANT_ID)));
+    }
+
+    @Test
+    public void skipAlreadyClusteredSubmittedVariants() {
+        List<SubmittedVariantEntity> variants = readIntoList();
+        assertFalse(variants.stream().anyMatch(x -> Objects.equals(x.getId(), CLUSTERED_SUBMITTED_VARIANT_ID)));
+        assertTrue(variants.stream()
+                           .filter(x -> x.getClusteredVariantAccession() != null)
+                           .allMatch(x -> x.getRemappedFrom() != null));
+    }
+
+    @Test
+    public void readSubmittedVariantsInContig() {
+        reader.close();
+        reader = new ClusteringMongoReader(mongoClient, TEST_DB, ASSEMBLY, "2", CHUNK_SIZE);
+        reader.open(new ExecutionContext());
+
+        List<SubmittedVariantEntity> variants = readIntoList();
+        assertEquals(1, variants.size());
+        assertEquals(REMAPPED_SUBMITTED_VARIANT_ID, variants.get(0).getId());
+    }
+
+    @Test
+    public void filterAlreadyClusteredSubmittedVariantsOnServer() {
+        reader.close();
+        reader = new ClusteringMongoReader(mongoClient, TEST_DB, ASSEMBLY, null, CHUNK_SIZE, true);
+        reader.open(new ExecutionContext());
+
+        List<SubmittedVariantEntity> variants = readIntoList();
+        assertEquals(6, variants.size());
+        assertFalse(variants.stream().anyMatch(x -> Objects.equals(x.getId(), CLUSTERED_SUBMITTED_VARIANT_ID)));
+        SubmittedVariantEntity remapped = variants.stream()
+                                                  .filter(x -> Objects.equals(x.getId(), REMAPPED_SUBMITTED_VARIANT_ID))
+                                                  .findFirst()
+                                                  .get();
+        assertEquals(Long.valueOf(2), remapped.getClusteredVariantAccession());
+        assertEquals("projectId_2", remapped.getProjectAccession());
+        assertEquals(Long.valueOf(6), remapped.getAccession());
+    }
+
+    @Test
+    public void resumeAfterLastSavedPosition() {
+        reader.close();
+        ExecutionContext executionContext = new ExecutionContext();
+        reader = new ClusteringMongoReader(mongoClient, TEST_DB, ASSEMBLY, CHUNK_SIZE);
+        reader.open(executionContext);
+        List<String> alreadyRead = new ArrayList<>();
+        alreadyRead.add(reader.read().getId());
+        alreadyRead.add(reader.read().getId());
+        reader.update(executionContext);
+        reader.close();
+
+        reader = new ClusteringMongoReader(mongoClient, TEST_DB, ASSEMBLY, CHUNK_SIZE);
+        reader.open(executionContext);
+        List<SubmittedVariantEntity> variants = readIntoList();
+        assertEquals(4, variants.size());
+        assertTrue(variants.stream().noneMatch(x -> alreadyRead.contains(x.getId())));
     }
 
     private List<SubmittedVariantEntity> readIntoList() {
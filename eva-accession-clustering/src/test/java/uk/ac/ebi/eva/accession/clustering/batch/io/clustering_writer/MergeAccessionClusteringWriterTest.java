@@ -63,6 +63,7 @@ import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
 import uk.ac.ebi.eva.commons.core.models.VariantType;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.TreeSet;
@@ -207,6 +208,105 @@ public class MergeAccessionClusteringWriterTest {
         assertMergedInto(rs1, rs2, ss2);
     }
 
+    @Test
+    @DirtiesContext
+    public void merge_several_clustered_accessions_in_the_same_chunk() throws Exception {
+        // given
+        Long rs1 = 3000000000L;
+        Long rs2 = 3100000000L;
+        Long rs3 = 3200000000L;
+        Long rs4 = 3300000000L;
+        Long ssToRemap1 = 5000000000L;
+        Long ss2 = 5100000000L;
+        Long ssToRemap3 = 5200000000L;
+        Long ss4 = 5300000000L;
+        String asm1 = "asm1";
+        String asm2 = "asm2";
+
+        mongoTemplate.insert(createClusteredVariantEntity(asm1, 100L, rs1, null), getClusteredTable(rs1));
+        mongoTemplate.insert(createClusteredVariantEntity(asm2, 100L, rs2, null), getClusteredTable(rs2));
+        mongoTemplate.insert(createClusteredVariantEntity(asm1, 200L, rs3, null), getClusteredTable(rs3));
+        mongoTemplate.insert(createClusteredVariantEntity(asm2, 200L, rs4, null), getClusteredTable(rs4));
+
+        mongoTemplate.insert(createSubmittedVariantEntity(asm1, 100L, rs1, ssToRemap1, NOT_REMAPPED),
+                             getSubmittedTable(ssToRemap1));
+        mongoTemplate.insert(createSubmittedVariantEntity(asm2, 100L, rs2, ss2, NOT_REMAPPED), getSubmittedTable(ss2));
+        mongoTemplate.insert(createSubmittedVariantEntity(asm1, 200L, rs3, ssToRemap3, NOT_REMAPPED),
+                             getSubmittedTable(ssToRemap3));
+        mongoTemplate.insert(createSubmittedVariantEntity(asm2, 200L, rs4, ss4, NOT_REMAPPED), getSubmittedTable(ss4));
+
+        assertDatabaseCounts(0, 4, 0, 0, 0, 4, 0, 0);
+
+        // when
+        SubmittedVariantEntity sve1Remapped = createSubmittedVariantEntity(asm2, 100L, rs1, ssToRemap1, asm1);
+        SubmittedVariantEntity sve3Remapped = createSubmittedVariantEntity(asm2, 200L, rs3, ssToRemap3, asm1);
+        clusteringWriter.write(Arrays.asList(sve1Remapped, sve3Remapped));
+
+        // then
+        assertDatabaseCounts(0, 4, 0, 2, 0, 4, 0, 2);
+        assertClusteringCounts(clusteringCounts, 0, 2, 2, 0, 0, 2, 2);
+
+        List<SubmittedVariantEntity> submittedVariants = mongoTemplate.findAll(SubmittedVariantEntity.class);
+        assertClusteredVariantAccessionEqual(Sets.newTreeSet(rs1, rs3), submittedVariants);
+        List<ClusteredVariantEntity> clusteredVariants = mongoTemplate.findAll(ClusteredVariantEntity.class);
+        assertAccessionEqual(Sets.newTreeSet(rs1, rs3), clusteredVariants);
+
+        List<ClusteredVariantOperationEntity> clusteredOps = mongoTemplate.findAll(
+                ClusteredVariantOperationEntity.class);
+        assertEquals(Sets.newTreeSet(rs2, rs4), clusteredOps.stream()
+                                                            .map(EventDocument::getAccession)
+                                                            .collect(Collectors.toSet()));
+        List<SubmittedVariantOperationEntity> submittedOps = mongoTemplate.findAll(
+                SubmittedVariantOperationEntity.class);
+        assertEquals(Sets.newTreeSet(ss2, ss4), submittedOps.stream()
+                                                            .map(EventDocument::getAccession)
+                                                            .collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DirtiesContext
+    public void use_the_accession_a_stale_rs_was_merged_into() throws Exception {
+        // given
+        Long rs1 = 3000000000L;
+        Long rs2 = 3100000000L;
+        Long rs3 = 3200000000L;
+        Long ssToRemap1 = 5000000000L;
+        Long ss2 = 5100000000L;
+        Long ssToRemap2 = 5200000000L;
+        Long ss3 = 5300000000L;
+        String asm1 = "asm1";
+        String asm2 = "asm2";
+
+        mongoTemplate.insert(createClusteredVariantEntity(asm1, 100L, rs1, null), getClusteredTable(rs1));
+        mongoTemplate.insert(createClusteredVariantEntity(asm2, 100L, rs2, null), getClusteredTable(rs2));
+        mongoTemplate.insert(createClusteredVariantEntity(asm2, 200L, rs3, null), getClusteredTable(rs3));
+
+        mongoTemplate.insert(createSubmittedVariantEntity(asm1, 100L, rs1, ssToRemap1, NOT_REMAPPED),
+                             getSubmittedTable(ssToRemap1));
+        mongoTemplate.insert(createSubmittedVariantEntity(asm2, 100L, rs2, ss2, NOT_REMAPPED), getSubmittedTable(ss2));
+        mongoTemplate.insert(createSubmittedVariantEntity(asm2, 200L, rs3, ss3, NOT_REMAPPED), getSubmittedTable(ss3));
+
+        // when rs2 is merged into rs1, and then a variant read before that merge (e.g. in another partition) still
+        // provides rs2
+        SubmittedVariantEntity sve1Remapped = createSubmittedVariantEntity(asm2, 100L, rs1, ssToRemap1, asm1);
+        clusteringWriter.write(Collections.singletonList(sve1Remapped));
+        SubmittedVariantEntity staleSve2Remapped = createSubmittedVariantEntity(asm2, 200L, rs2, ssToRemap2, asm1);
+        clusteringWriter.write(Collections.singletonList(staleSve2Remapped));
+
+        // then rs3 is merged into rs1 instead of bringing back rs2
+        List<ClusteredVariantEntity> clusteredVariants = mongoTemplate.findAll(ClusteredVariantEntity.class);
+        assertAccessionEqual(Sets.newTreeSet(rs1), clusteredVariants);
+        List<SubmittedVariantEntity> submittedVariants = mongoTemplate.findAll(SubmittedVariantEntity.class);
+        assertClusteredVariantAccessionEqual(Sets.newTreeSet(rs1), submittedVariants);
+
+        List<ClusteredVariantOperationEntity> clusteredOps = mongoTemplate.findAll(
+                ClusteredVariantOperationEntity.class);
+        assertEquals(Sets.newTreeSet(rs2, rs3), clusteredOps.stream()
+                                                            .map(EventDocument::getAccession)
+                                                            .collect(Collectors.toSet()));
+        assertTrue(clusteredOps.stream().map(EventDocument::getMergedInto).allMatch(rs1::equals));
+    }
+
     public void mergeClusteredAccession(Long rs1, Long rs2, Long ssToRemap, Long ss2,
                                         int expectedDbsnpCve, int expectedCve,
                                         int expectedDbsnpCvOperations, int expectedCvOperations,
@@ -25,6 +25,7 @@ import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 import uk.ac.ebi.eva.accession.core.batch.listeners.ImportCounts;
 
 import java.util.List;
+import java.util.Set;
 
 public class DbsnpClusteredVariantWriter implements ItemWriter<DbsnpClusteredVariantEntity> {
 
@@ -51,4 +52,14 @@ public class DbsnpClusteredVariantWriter implements ItemWriter<DbsnpClusteredVar
             throw exception;
         }
     }
+
+    /**
+     * Inserts only the clustered variants whose hash is not stored yet, see {@link DuplicateHashSplit}.
+     *
+     * @return the hashes of the variants that were not inserted because they were duplicates
+     */
+    public Set<String> writeNonDuplicates(List<? extends DbsnpClusteredVariantEntity> importedClusteredVariants) {
+        return DuplicateHashSplit.writeNonDuplicates(mongoTemplate, importedClusteredVariants,
+                                                     DbsnpClusteredVariantEntity.class, this::write);
+    }
 }
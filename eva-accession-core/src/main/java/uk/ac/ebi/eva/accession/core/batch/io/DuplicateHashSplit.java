@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import com.mongodb.MongoBulkWriteException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.AccessionedDocument;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static uk.ac.ebi.eva.accession.core.exceptions.MongoBulkWriteExceptionUtils.extractUniqueHashesForDuplicateKeyError;
+
+/**
+ * Splits a chunk of documents in the ones that can be inserted and the hashes of the ones that would raise a duplicate
+ * key error: those whose hash is already in the collection, or repeated earlier in the same chunk. The existing hashes
+ * are retrieved with a single query that only returns the _id field.
+ */
+public class DuplicateHashSplit<T extends AccessionedDocument<?, ?>> {
+
+    private static final String ID_FIELD = "_id";
+
+    private final List<T> newDocuments;
+
+    private final Set<String> duplicateHashes;
+
+    private DuplicateHashSplit(List<T> newDocuments, Set<String> duplicateHashes) {
+        this.newDocuments = newDocuments;
+        this.duplicateHashes = duplicateHashes;
+    }
+
+    public static <T extends AccessionedDocument<?, ?>> DuplicateHashSplit<T> split(MongoTemplate mongoTemplate,
+                                                                                    List<? extends T> documents,
+                                                                                    Class<?> entityClass) {
+        Set<String> hashes = documents.stream().map(T::getHashedMessage).collect(Collectors.toSet());
+        Set<String> existingHashes = new HashSet<>(
+                mongoTemplate.findDistinct(query(where(ID_FIELD).in(hashes)), ID_FIELD, entityClass, String.class));
+
+        List<T> newDocuments = new ArrayList<>();
+        Set<String> duplicateHashes = new LinkedHashSet<>();
+        Set<String> hashesInChunk = new HashSet<>();
+        for (T document : documents) {
+            String hash = document.getHashedMessage();
+            if (existingHashes.contains(hash) || !hashesInChunk.add(hash)) {
+                duplicateHashes.add(hash);
+            } else {
+                newDocuments.add(document);
+            }
+        }
+        return new DuplicateHashSplit<>(newDocuments, duplicateHashes);
+    }
+
+    /**
+     * Inserts with the provided writer only the documents whose hash is not in the collection yet, checking it with one
+     * query before the insert instead of parsing its duplicate key errors. A document with the same hash could still
+     * be inserted by another writer in the meantime, so those errors are also caught.
+     *
+     * @return the hashes of the documents that were not inserted because they were duplicates
+     */
+    public static <T extends AccessionedDocument<?, ?>> Set<String> writeNonDuplicates(MongoTemplate mongoTemplate,
+                                                                                       List<? extends T> documents,
+                                                                                       Class<?> entityClass,
+                                                                                       Consumer<List<T>> writer) {
+        DuplicateHashSplit<T> split = split(mongoTemplate, documents, entityClass);
+        Set<String> duplicateHashes = new LinkedHashSet<>(split.getDuplicateHashes());
+        if (!split.getNewDocuments().isEmpty()) {
+            try {
+                writer.accept(split.getNewDocuments());
+            } catch (DuplicateKeyException exception) {
+                extractUniqueHashesForDuplicateKeyError((MongoBulkWriteException) exception.getCause())
+                        .forEach(duplicateHashes::add);
+            }
+        }
+        return duplicateHashes;
+    }
+
+    public List<T> getNewDocuments() {
+        return newDocuments;
+    }
+
+    public Set<String> getDuplicateHashes() {
+        return duplicateHashes;
+    }
+}
@@ -29,25 +29,77 @@ import uk.ac.ebi.eva.accession.core.exceptions.PositionOutsideOfContigException;
 import uk.ac.ebi.eva.commons.core.utils.FileUtils;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Reads regions from a given FASTA file, and also creates the associated index and dictionary files if they do not
  * exist.
+ *
+ * Reading a region is synchronized, as the underlying htsjdk reader is not thread-safe, so that an instance can be
+ * shared by steps that run in parallel.
+ *
+ * Most requests are for a single base, at increasing positions of the same contig, so instead of reading each region
+ * from the file, a window of the contig is read ahead and the regions are taken from it. The most recently used
+ * windows are kept (one per contig at most, as each contig is usually processed by a different thread), and regions
+ * longer than a window are read directly from the file.
+ *
+ * If the FASTA has been converted with {@link PackedReferenceWriter} (and not modified afterwards), the regions are
+ * read from the memory-mapped packed file instead, and the FASTA and its index and dictionary are not opened.
  */
 public class FastaSequenceReader {
 
     private static final Logger logger = LoggerFactory.getLogger(FastaSequenceReader.class);
 
+    public static final int DEFAULT_WINDOW_SIZE = 1024 * 1024;
+
+    public static final int DEFAULT_MAX_WINDOWS = 16;
+
+    /**
+     * Some requests are for a position slightly before the previous one, e.g. the context base of a variant
+     */
+    private static final int WINDOW_LOOK_BEHIND = 1024;
+
     private ReferenceSequenceFile fastaSequenceFile;
 
+    private PackedReferenceFile packedReferenceFile;
+
     protected SAMSequenceDictionary sequenceDictionary;
 
+    private final int windowSize;
+
+    private final Map<String, SequenceWindow> windows;
+
     public FastaSequenceReader(Path fastaPath) throws IOException {
+        this(fastaPath, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_WINDOWS);
+    }
+
+    /**
+     * @param windowSize number of bases read ahead in each contig, 0 to read every region from the file
+     * @param maxWindows number of windows (and so contigs) kept in memory
+     */
+    public FastaSequenceReader(Path fastaPath, int windowSize, int maxWindows) throws IOException {
+        this.windowSize = windowSize;
+        this.windows = new LinkedHashMap<String, SequenceWindow>(maxWindows, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SequenceWindow> eldest) {
+                return size() > maxWindows;
+            }
+        };
+        if (PackedReferenceFile.isUpToDate(fastaPath)) {
+            Path packedPath = PackedReferenceFile.getPath(fastaPath);
+            logger.info("Reading the reference sequences from {}", packedPath);
+            packedReferenceFile = new PackedReferenceFile(packedPath);
+            sequenceDictionary = createSequenceDictionary(packedReferenceFile);
+            return;
+        }
         checkFastaIsUncompressed(fastaPath);
         fastaSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(fastaPath, true);
         sequenceDictionary = fastaSequenceFile.getSequenceDictionary();
@@ -97,6 +149,14 @@ public class FastaSequenceReader {
         return new SAMSequenceDictionary(records);
     }
 
+    private SAMSequenceDictionary createSequenceDictionary(PackedReferenceFile packedReferenceFile) {
+        final List<SAMSequenceRecord> records = new ArrayList<>();
+        for (String name : packedReferenceFile.getSequenceNames()) {
+            records.add(new SAMSequenceRecord(name, (int) packedReferenceFile.getSequenceLength(name)));
+        }
+        return new SAMSequenceDictionary(records);
+    }
+
     /**
      * Get the sequence delimited by the given coordinates from a FASTA file
      *
@@ -106,10 +166,34 @@ public class FastaSequenceReader {
      * @return Sequence read from the FASTA file
      * @throws IllegalArgumentException If the coordinates are not correct
      */
-    public String getSequence(String contig, long start, long end) throws IllegalArgumentException {
+    public synchronized String getSequence(String contig, long start, long end) throws IllegalArgumentException {
         checkArguments(contig, start, end);
 
-        return fastaSequenceFile.getSubsequenceAt(contig, start, end).getBaseString();
+        if (packedReferenceFile != null) {
+            try {
+                return packedReferenceFile.getSequence(contig, start, end);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (end - start + 1 > windowSize) {
+            return fastaSequenceFile.getSubsequenceAt(contig, start, end).getBaseString();
+        }
+        SequenceWindow window = windows.get(contig);
+        if (window == null || !window.contains(start, end)) {
+            window = readWindow(contig, start, end);
+            windows.put(contig, window);
+        }
+        return window.getBases(start, end);
+    }
+
+    private SequenceWindow readWindow(String contig, long start, long end) {
+        int contigLength = sequenceDictionary.getSequence(contig).getSequenceLength();
+        long lookBehind = Math.min(WINDOW_LOOK_BEHIND, windowSize - (end - start + 1));
+        long windowStart = Math.max(1, start - lookBehind);
+        long windowEnd = Math.min(contigLength, windowStart + windowSize - 1);
+        byte[] bases = fastaSequenceFile.getSubsequenceAt(contig, windowStart, windowEnd).getBases();
+        return new SequenceWindow(windowStart, bases);
     }
 
     /**
@@ -187,6 +271,31 @@ public class FastaSequenceReader {
      * @throws Exception If the file cannot be closed
      */
     public void close() throws Exception {
-        fastaSequenceFile.close();
+        windows.clear();
+        if (packedReferenceFile != null) {
+            packedReferenceFile.close();
+        } else {
+            fastaSequenceFile.close();
+        }
+    }
+
+    private static class SequenceWindow {
+
+        private final long start;
+
+        private final byte[] bases;
+
+        SequenceWindow(long start, byte[] bases) {
+            this.start = start;
+            this.bases = bases;
+        }
+
+        boolean contains(long start, long end) {
+            return start >= this.start && end < this.start + bases.length;
+        }
+
+        String getBases(long start, long end) {
+            return new String(bases, (int) (start - this.start), (int) (end - start + 1), StandardCharsets.US_ASCII);
+        }
     }
 }
@@ -5,12 +5,13 @@ import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.AccessionedDocument;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.EventDocument;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.repositories.IAccessionedObjectRepository;
-import uk.ac.ebi.ampt2d.commons.accession.persistence.repositories.IHistoryRepository;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -18,48 +19,96 @@ import java.util.stream.Stream;
 
 import static uk.ac.ebi.eva.accession.core.exceptions.MongoBulkWriteExceptionUtils.extractUniqueHashesForDuplicateKeyError;
 
+/**
+ * Builds the merge operations for the variants whose insertion failed with a duplicate key error. The variants that
+ * were already in the database, and the merge operations already written for the candidates, are retrieved with one
+ * query each per exception, instead of one query per hash and per candidate.
+ */
 public class MergeOperationBuilder<ENTITY extends AccessionedDocument<?, Long>,
         OPERATION_ENTITY extends EventDocument<?, Long, ?>> {
 
-    private IHistoryRepository<Long, OPERATION_ENTITY, String> operationRepository;
+    private Function<List<Long>, List<OPERATION_ENTITY>> findAllOperationsByAccessionIn;
 
-    private Function<String, Optional<ENTITY>> findOneVariantEntityById;
+    private Function<List<String>, Iterable<ENTITY>> findAllVariantEntitiesById;
 
     private BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory;
 
-    public MergeOperationBuilder(IHistoryRepository<Long, OPERATION_ENTITY, String> operationRepository,
+    public MergeOperationBuilder(Function<List<Long>, List<OPERATION_ENTITY>> findAllOperationsByAccessionIn,
                                  IAccessionedObjectRepository<ENTITY, Long> variantRepository,
                                  BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory) {
-        this(operationRepository, variantRepository::findById, mergeOperationFactory);
+        this(findAllOperationsByAccessionIn, variantRepository::findAllById, mergeOperationFactory);
     }
 
-    public MergeOperationBuilder(IHistoryRepository<Long, OPERATION_ENTITY, String> operationRepository,
-                          Function<String, Optional<ENTITY>> findOneVariantEntityById,
-                          BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory) {
-        this.operationRepository = operationRepository;
-        this.findOneVariantEntityById = findOneVariantEntityById;
+    public MergeOperationBuilder(Function<List<Long>, List<OPERATION_ENTITY>> findAllOperationsByAccessionIn,
+                                 Function<List<String>, Iterable<ENTITY>> findAllVariantEntitiesById,
+                                 BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory) {
+        this.findAllOperationsByAccessionIn = findAllOperationsByAccessionIn;
+        this.findAllVariantEntitiesById = findAllVariantEntitiesById;
         this.mergeOperationFactory = mergeOperationFactory;
     }
 
     public List<OPERATION_ENTITY> buildMergeOperationsFromException(List<ENTITY> variants,
                                                                     MongoBulkWriteException exception) {
-        List<OPERATION_ENTITY> operations = new ArrayList<>();
+        return buildMergeOperations(variants,
+                                    extractUniqueHashesForDuplicateKeyError(exception).collect(Collectors.toList()));
+    }
+
+    /**
+     * @param duplicateHashes hashes of the variants that were not inserted because a variant with the same hash was
+     * already stored
+     */
+    public List<OPERATION_ENTITY> buildMergeOperations(List<ENTITY> variants, Collection<String> duplicateHashes) {
         checkForNulls(variants);
-        extractUniqueHashesForDuplicateKeyError(exception)
-                .forEach(hash -> {
-                    Optional<ENTITY> mergedInto = findOneVariantEntityById.apply(hash);
-                    if (!mergedInto.isPresent()) {
-                        throwMongoConsistencyException(variants, hash);
-                    }
-                    List<OPERATION_ENTITY> merges = buildMergeOperations(variants,
-                                                                         hash,
-                                                                         mergedInto.get());
-
-                    operations.addAll(merges);
-                });
+        List<String> hashes = new ArrayList<>(duplicateHashes);
+        if (hashes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, ENTITY> mergedIntoByHash = new HashMap<>();
+        findAllVariantEntitiesById.apply(hashes).forEach(
+                entity -> mergedIntoByHash.put(entity.getHashedMessage(), entity));
+
+        Collection<ENTITY> entities = removeDuplicatesWithSameHashAndAccession(variants.stream());
+        checkForNulls(entities);
+        List<ENTITY> origins = new ArrayList<>();
+        List<ENTITY> mergedIntos = new ArrayList<>();
+        for (String hash : hashes) {
+            ENTITY mergedInto = mergedIntoByHash.get(hash);
+            if (mergedInto == null) {
+                throwMongoConsistencyException(variants, hash);
+            }
+            for (ENTITY entity : entities) {
+                if (entity.getHashedMessage().equals(hash)
+                        && !entity.getAccession().equals(mergedInto.getAccession())) {
+                    origins.add(entity);
+                    mergedIntos.add(mergedInto);
+                }
+            }
+        }
+
+        Map<Long, List<OPERATION_ENTITY>> operationsByAccession = findOperationsByAccession(origins);
+        List<OPERATION_ENTITY> operations = new ArrayList<>();
+        for (int i = 0; i < origins.size(); i++) {
+            ENTITY origin = origins.get(i);
+            ENTITY mergedInto = mergedIntos.get(i);
+            List<OPERATION_ENTITY> existingOperations = operationsByAccession.getOrDefault(origin.getAccession(),
+                                                                                           Collections.emptyList());
+            if (!isAlreadyMergedInto(origin, mergedInto, existingOperations)) {
+                operations.add(mergeOperationFactory.apply(origin, mergedInto));
+            }
+        }
         return operations;
     }
 
+    private Map<Long, List<OPERATION_ENTITY>> findOperationsByAccession(List<ENTITY> origins) {
+        if (origins.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> accessions = origins.stream().map(ENTITY::getAccession).distinct().collect(Collectors.toList());
+        return findAllOperationsByAccessionIn.apply(accessions)
+                                             .stream()
+                                             .collect(Collectors.groupingBy(OPERATION_ENTITY::getAccession));
+    }
+
     private void throwMongoConsistencyException(List<ENTITY> variants, String hash) {
         String printedVariants = variants
                 .stream()
@@ -74,18 +123,6 @@ public class MergeOperationBuilder<ENTITY extends AccessionedDocument<?, Long>,
                         printedVariants);
     }
 
-    private List<OPERATION_ENTITY> buildMergeOperations(List<ENTITY> variants, String hash, ENTITY mergedInto) {
-        Collection<ENTITY> entities = removeDuplicatesWithSameHashAndAccession(variants.stream());
-        checkForNulls(entities);
-        return entities
-                .stream()
-                .filter(v -> v.getHashedMessage().equals(hash)
-                        && !v.getAccession().equals(mergedInto.getAccession())
-                        && !isAlreadyMergedInto(v, mergedInto))
-                .map(origin -> mergeOperationFactory.apply(origin, mergedInto))
-                .collect(Collectors.toList());
-    }
-
     private void checkForNulls(Collection<ENTITY> entities) {
         int nullCount = 0;
         for (ENTITY entity : entities) {
@@ -108,8 +145,7 @@ public class MergeOperationBuilder<ENTITY extends AccessionedDocument<?, Long>,
                                   .values();
     }
 
-    private boolean isAlreadyMergedInto(ENTITY original, ENTITY mergedInto) {
-        List<OPERATION_ENTITY> merges = operationRepository.findAllByAccession(original.getAccession());
+    private boolean isAlreadyMergedInto(ENTITY original, ENTITY mergedInto, List<OPERATION_ENTITY> merges) {
         return merges.stream().anyMatch(
                 operation ->
                         operation.getEventType().equals(EventType.MERGED)
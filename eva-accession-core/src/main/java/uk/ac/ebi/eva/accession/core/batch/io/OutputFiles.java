@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Opens the output files of the writers, either as plain text or compressed with BGZF in a pool of threads (see
+ * {@link ParallelBlockCompressedOutputStream}), depending on the number of compression threads requested.
+ *
+ * BGZF files can be concatenated, so a compressed file can also be appended to, e.g. when a job is resumed. The empty
+ * block that marks the end of the file is removed before appending, and written again when the stream is closed.
+ */
+public class OutputFiles {
+
+    private static final byte[] EOF_BLOCK = BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK;
+
+    private OutputFiles() {
+    }
+
+    /**
+     * @param compressionThreads if 0, the file is written as plain text
+     */
+    public static OutputStream newOutputStream(File output, boolean append, int compressionThreads)
+            throws IOException {
+        if (compressionThreads <= 0) {
+            return new BufferedOutputStream(new FileOutputStream(output, append));
+        }
+        FileChannel channel = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        long length = append ? getLengthWithoutEofBlock(channel) : 0;
+        channel.truncate(length);
+        channel.position(length);
+        return new ParallelBlockCompressedOutputStream(Channels.newOutputStream(channel), compressionThreads);
+    }
+
+    /**
+     * @param compressionThreads if 0, the file is written as plain text
+     */
+    public static BufferedWriter newBufferedWriter(File output, boolean append, int compressionThreads)
+            throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(newOutputStream(output, append, compressionThreads),
+                                                         StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends the BGZF files in inputs to the BGZF file output, without decompressing them.
+     */
+    public static void concatenateBlockCompressed(Path output, List<Path> inputs) throws IOException {
+        try (FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            outputChannel.position(getLengthWithoutEofBlock(outputChannel));
+            for (Path input : inputs) {
+                try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    transfer(inputChannel, getLengthWithoutEofBlock(inputChannel), outputChannel);
+                }
+            }
+            outputChannel.write(ByteBuffer.wrap(EOF_BLOCK));
+            outputChannel.truncate(outputChannel.position());
+        }
+    }
+
+    /**
+     * Appends the plain file input to the plain file output. The bytes are copied by the operating system (usually
+     * without passing through the JVM), and the characters are not decoded.
+     */
+    public static void append(Path output, Path input) throws IOException {
+        try (FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.WRITE,
+                                                          StandardOpenOption.APPEND);
+             FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+            transfer(inputChannel, inputChannel.size(), outputChannel);
+        }
+    }
+
+    /**
+     * transferTo may copy fewer bytes than requested, so it's repeated until the whole length is copied. It returns 0
+     * if the input is shorter than expected (e.g. truncated while copying), which is reported instead of retrying.
+     */
+    private static void transfer(FileChannel input, long length, FileChannel output) throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            long count = input.transferTo(transferred, length - transferred, output);
+            if (count <= 0) {
+                throw new EOFException("Could only copy " + transferred + " of " + length + " bytes, the input ended");
+            }
+            transferred += count;
+        }
+    }
+
+    private static long getLengthWithoutEofBlock(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < EOF_BLOCK.length) {
+            return size;
+        }
+        ByteBuffer ending = ByteBuffer.allocate(EOF_BLOCK.length);
+        long position = size - EOF_BLOCK.length;
+        while (ending.hasRemaining()) {
+            int count = channel.read(ending, position);
+            if (count < 0) {
+                throw new EOFException("The file ended while reading its last " + EOF_BLOCK.length + " bytes");
+            }
+            position += count;
+        }
+        return Arrays.equals(ending.array(), EOF_BLOCK) ? size - EOF_BLOCK.length : size;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a reference genome converted by {@link PackedReferenceWriter}, which keeps each base in 2 bits. The bases
+ * that are not A, C, G or T (N and other IUPAC codes) and the lowercase (soft-masked) bases are kept as lists of runs.
+ *
+ * The bases of each sequence are memory-mapped, so they are read from the page cache without copying them into the
+ * heap, and several processes using the same reference share the same pages. Only the index (names and lengths of the
+ * sequences) is read when the file is opened, and the runs of a sequence are read the first time it's accessed.
+ *
+ * Reading is thread-safe.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * header:    int magic, int version, long index offset
+ * sequences: bases (4 per byte, the first one in the highest bits, A=0 C=1 G=2 T=3), followed by the runs:
+ *            long count, (long start, long length, byte base)* of the other bases, and
+ *            long count, (long start, long length)* of the lowercase bases, with 0-based starts
+ * index:     int count, (int name length, name in UTF-8, long length, long bases offset, long runs offset)*
+ * </pre>
+ */
+public class PackedReferenceFile implements AutoCloseable {
+
+    public static final String FILE_SUFFIX = ".packed";
+
+    static final int MAGIC = 0x45564132;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final Map<String, SequenceEntry> index;
+
+    public PackedReferenceFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.index = readIndex();
+    }
+
+    /**
+     * @return the path where {@link PackedReferenceWriter} writes the packed version of a FASTA by default
+     */
+    public static Path getPath(Path fastaPath) {
+        return Paths.get(fastaPath.toString() + FILE_SUFFIX);
+    }
+
+    /**
+     * @return whether the packed version of a FASTA exists and was written after the FASTA was last modified
+     */
+    public static boolean isUpToDate(Path fastaPath) throws IOException {
+        Path packedPath = getPath(fastaPath);
+        if (!Files.exists(packedPath)) {
+            return false;
+        }
+        return !Files.exists(fastaPath)
+                || Files.getLastModifiedTime(packedPath).compareTo(Files.getLastModifiedTime(fastaPath)) >= 0;
+    }
+
+    private Map<String, SequenceEntry> readIndex() throws IOException {
+        ByteBuffer header = read(0, HEADER_LENGTH);
+        if (header.getInt() != MAGIC) {
+            throw new IllegalArgumentException(path + " is not a packed reference file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(
+                    path + " was written with version " + version + " of the format, but only version " + VERSION
+                    + " can be read. Please convert the FASTA again");
+        }
+        long indexOffset = header.getLong();
+        ByteBuffer indexBuffer = read(indexOffset, channel.size() - indexOffset);
+
+        int count = indexBuffer.getInt();
+        Map<String, SequenceEntry> index = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[indexBuffer.getInt()];
+            indexBuffer.get(name);
+            long length = indexBuffer.getLong();
+            long basesOffset = indexBuffer.getLong();
+            long runsOffset = indexBuffer.getLong();
+            index.put(new String(name, StandardCharsets.UTF_8), new SequenceEntry(length, basesOffset, runsOffset));
+        }
+        return index;
+    }
+
+    private ByteBuffer read(long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Region of " + length + " bytes in " + path + " is too long to read");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalStateException("Unexpected end of " + path + ". Please convert the FASTA again");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public Set<String> getSequenceNames() {
+        return index.keySet();
+    }
+
+    public boolean containsSequence(String name) {
+        return index.containsKey(name);
+    }
+
+    public long getSequenceLength(String name) {
+        return getEntry(name).length;
+    }
+
+    /**
+     * @param start 1-based, inclusive
+     * @param end   1-based, inclusive
+     */
+    public String getSequence(String name, long start, long end) throws IOException {
+        SequenceEntry entry = getEntry(name);
+        if (start < 1 || end < start || end > entry.length) {
+            throw new IllegalArgumentException("Region " + name + ":" + start + "-" + end + " is outside of the "
+                                               + "sequence, with length " + entry.length);
+        }
+        return entry.load().getBases(start - 1, end);
+    }
+
+    private SequenceEntry getEntry(String name) {
+        SequenceEntry entry = index.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("Sequence " + name + " not found in " + path);
+        }
+        return entry;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private class SequenceEntry {
+
+        private final long length;
+
+        private final long basesOffset;
+
+        private final long runsOffset;
+
+        private volatile Sequence sequence;
+
+        SequenceEntry(long length, long basesOffset, long runsOffset) {
+            this.length = length;
+            this.basesOffset = basesOffset;
+            this.runsOffset = runsOffset;
+        }
+
+        Sequence load() throws IOException {
+            Sequence loaded = sequence;
+            if (loaded == null) {
+                synchronized (this) {
+                    loaded = sequence;
+                    if (loaded == null) {
+                        loaded = readSequence();
+                        sequence = loaded;
+                    }
+                }
+            }
+            return loaded;
+        }
+
+        private Sequence readSequence() throws IOException {
+            MappedByteBuffer bases = channel.map(FileChannel.MapMode.READ_ONLY, basesOffset, (length + 3) / 4);
+
+            ByteBuffer count = read(runsOffset, Long.BYTES);
+            int otherBasesCount = (int) count.getLong();
+            ByteBuffer otherBasesBuffer = read(runsOffset + Long.BYTES, (long) otherBasesCount * (Long.BYTES * 2 + 1));
+            Runs otherBases = new Runs(otherBasesCount, true);
+            for (int i = 0; i < otherBasesCount; i++) {
+                otherBases.set(i, otherBasesBuffer.getLong(), otherBasesBuffer.getLong(), otherBasesBuffer.get());
+            }
+
+            long maskOffset = runsOffset + Long.BYTES + otherBasesBuffer.capacity();
+            int maskCount = (int) read(maskOffset, Long.BYTES).getLong();
+            ByteBuffer maskBuffer = read(maskOffset + Long.BYTES, (long) maskCount * Long.BYTES * 2);
+            Runs mask = new Runs(maskCount, false);
+            for (int i = 0; i < maskCount; i++) {
+                mask.set(i, maskBuffer.getLong(), maskBuffer.getLong(), (byte) 0);
+            }
+            return new Sequence(bases, otherBases, mask);
+        }
+    }
+
+    private static class Sequence {
+
+        private final MappedByteBuffer bases;
+
+        private final Runs otherBases;
+
+        private final Runs mask;
+
+        Sequence(MappedByteBuffer bases, Runs otherBases, Runs mask) {
+            this.bases = bases;
+            this.otherBases = otherBases;
+            this.mask = mask;
+        }
+
+        /**
+         * @param start 0-based, inclusive
+         * @param end   0-based, exclusive
+         */
+        String getBases(long start, long end) {
+            byte[] region = new byte[(int) (end - start)];
+            for (int i = 0; i < region.length; i++) {
+                long position = start + i;
+                // absolute gets don't modify the buffer, so it can be read by several threads
+                int packed = bases.get((int) (position >>> 2));
+                region[i] = BASES[(packed >>> (6 - 2 * (int) (position & 3))) & 3];
+            }
+            for (int run = otherBases.findFirst(start); run < otherBases.size && otherBases.starts[run] < end;
+                 run++) {
+                long from = Math.max(start, otherBases.starts[run]);
+                long to = Math.min(end, otherBases.ends[run]);
+                Arrays.fill(region, (int) (from - start), (int) (to - start), otherBases.bases[run]);
+            }
+            for (int run = mask.findFirst(start); run < mask.size && mask.starts[run] < end; run++) {
+                long from = Math.max(start, mask.starts[run]);
+                long to = Math.min(end, mask.ends[run]);
+                for (long position = from; position < to; position++) {
+                    int i = (int) (position - start);
+                    region[i] = (byte) Character.toLowerCase(region[i]);
+                }
+            }
+            return new String(region, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Sorted, non-overlapping runs of positions, 0-based with exclusive ends
+     */
+    private static class Runs {
+
+        private final int size;
+
+        private final long[] starts;
+
+        private final long[] ends;
+
+        private final byte[] bases;
+
+        Runs(int size, boolean withBases) {
+            this.size = size;
+            this.starts = new long[size];
+            this.ends = new long[size];
+            this.bases = withBases ? new byte[size] : null;
+        }
+
+        void set(int run, long start, long length, byte base) {
+            starts[run] = start;
+            ends[run] = start + length;
+            if (bases != null) {
+                bases[run] = base;
+            }
+        }
+
+        /**
+         * @return the index of the first run that ends after the position
+         */
+        int findFirst(long position) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ends[middle] <= position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.ebi.eva.commons.core.utils.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts a FASTA into the format read by {@link PackedReferenceFile}. The FASTA is read only once and in a stream, so
+ * the sequences don't need to fit in memory.
+ *
+ * As with htsjdk, the name of each sequence is the header line up to the first whitespace.
+ *
+ * Usage: {@code java -cp eva-accession-core.jar uk.ac.ebi.eva.accession.core.batch.io.PackedReferenceWriter
+ * reference.fa [reference.fa.packed]}. By default the file is written next to the FASTA, where
+ * {@link FastaSequenceReader} looks for it.
+ */
+public class PackedReferenceWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PackedReferenceWriter.class);
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: " + PackedReferenceWriter.class.getName() + " <FASTA> [output]");
+            System.exit(1);
+        }
+        Path fasta = Paths.get(args[0]);
+        Path output = args.length == 2 ? Paths.get(args[1]) : PackedReferenceFile.getPath(fasta);
+        write(fasta, output);
+    }
+
+    /**
+     * The file is written to a temporary file that replaces the output when it's complete, so that the jobs that may
+     * be using the output at the same time never read a half-written file.
+     */
+    public static void write(Path fasta, Path output) throws IOException {
+        if (FileUtils.isGzip(fasta.toFile())) {
+            throw new IllegalArgumentException("Fasta file should not be compressed: " + fasta);
+        }
+        Path temporaryOutput = Files.createTempFile(output.toAbsolutePath().getParent(),
+                                                    output.getFileName().toString(), ".tmp");
+        try {
+            List<IndexEntry> index;
+            long indexOffset;
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(fasta), BUFFER_SIZE);
+                 CountingDataOutput out = new CountingDataOutput(temporaryOutput)) {
+                out.writeInt(PackedReferenceFile.MAGIC);
+                out.writeInt(PackedReferenceFile.VERSION);
+                out.writeLong(0);   // index offset, written at the end
+                index = writeSequences(input, out, fasta);
+                indexOffset = out.getPosition();
+                writeIndex(index, out);
+            }
+            try (RandomAccessFile file = new RandomAccessFile(temporaryOutput.toFile(), "rw")) {
+                file.seek(Integer.BYTES * 2);
+                file.writeLong(indexOffset);
+            }
+            Files.move(temporaryOutput, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Packed {} sequences of {} into {}", index.size(), fasta, output);
+        } finally {
+            Files.deleteIfExists(temporaryOutput);
+        }
+    }
+
+    private static List<IndexEntry> writeSequences(InputStream input, CountingDataOutput out, Path fasta)
+            throws IOException {
+        List<IndexEntry> index = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        SequencePacker sequence = null;
+        boolean lineStart = true;
+        int character;
+        while ((character = input.read()) != -1) {
+            if (lineStart && character == '>') {
+                if (sequence != null) {
+                    index.add(sequence.finish());
+                }
+                String name = readName(input);
+                if (!names.add(name)) {
+                    throw new IllegalArgumentException("Sequence name appears more than once in reference: " + name);
+                }
+                sequence = new SequencePacker(name, out);
+                lineStart = true;
+            } else if (character == '\n' || character == '\r') {
+                lineStart = true;
+            } else {
+                lineStart = false;
+                if (character == ' ' || character == '\t') {
+                    continue;
+                }
+                if (sequence == null) {
+                    throw new IllegalArgumentException(fasta + " doesn't start with a sequence header ('>')");
+                }
+                sequence.add((byte) character);
+            }
+        }
+        if (sequence != null) {
+            index.add(sequence.finish());
+        }
+        return index;
+    }
+
+    /**
+     * Reads the rest of a header line, and returns its first word
+     */
+    private static String readName(InputStream input) throws IOException {
+        ByteArrayOutputStream name = new ByteArrayOutputStream();
+        boolean nameFinished = false;
+        int character;
+        while ((character = input.read()) != -1 && character != '\n') {
+            if (Character.isWhitespace(character)) {
+                nameFinished = true;
+            } else if (!nameFinished) {
+                name.write(character);
+            }
+        }
+        return new String(name.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void writeIndex(List<IndexEntry> index, CountingDataOutput out) throws IOException {
+        out.writeInt(index.size());
+        for (IndexEntry entry : index) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeLong(entry.length);
+            out.writeLong(entry.basesOffset);
+            out.writeLong(entry.runsOffset);
+        }
+    }
+
+    private static class SequencePacker {
+
+        private final String name;
+
+        private final CountingDataOutput out;
+
+        private final long basesOffset;
+
+        private long length;
+
+        private int packedByte;
+
+        private final RunWriter otherBases;
+
+        private final RunWriter mask;
+
+        SequencePacker(String name, CountingDataOutput out) {
+            this.name = name;
+            this.out = out;
+            this.basesOffset = out.getPosition();
+            this.otherBases = new RunWriter(true);
+            this.mask = new RunWriter(false);
+        }
+
+        void add(byte base) throws IOException {
+            int code = getCode(Character.toUpperCase(base));
+            if (code < 0) {
+                otherBases.add(length, (byte) Character.toUpperCase(base));
+                code = 0;
+            }
+            if (Character.isLowerCase(base)) {
+                mask.add(length, (byte) 0);
+            }
+            packedByte = (packedByte << 2) | code;
+            length++;
+            if ((length & 3) == 0) {
+                out.write(packedByte);
+                packedByte = 0;
+            }
+        }
+
+        private static int getCode(int base) {
+            switch (base) {
+                case 'A':
+                    return 0;
+                case 'C':
+                    return 1;
+                case 'G':
+                    return 2;
+                case 'T':
+                    return 3;
+                default:
+                    return -1;
+            }
+        }
+
+        IndexEntry finish() throws IOException {
+            int remainingBases = (int) (length & 3);
+            if (remainingBases != 0) {
+                out.write(packedByte << (2 * (4 - remainingBases)));
+            }
+            long runsOffset = out.getPosition();
+            otherBases.writeTo(out);
+            mask.writeTo(out);
+            return new IndexEntry(name, length, basesOffset, runsOffset);
+        }
+    }
+
+    /**
+     * Joins consecutive positions with the same base into runs, and keeps them in memory until the sequence is finished
+     */
+    private static class RunWriter {
+
+        private final boolean withBases;
+
+        private final ByteArrayOutputStream bytes;
+
+        private final DataOutputStream runs;
+
+        private long count;
+
+        private long start = -1;
+
+        private long end;
+
+        private byte base;
+
+        RunWriter(boolean withBases) {
+            this.withBases = withBases;
+            this.bytes = new ByteArrayOutputStream();
+            this.runs = new DataOutputStream(bytes);
+        }
+
+        void add(long position, byte base) throws IOException {
+            if (start >= 0 && position == end && base == this.base) {
+                end++;
+                return;
+            }
+            flushRun();
+            start = position;
+            end = position + 1;
+            this.base = base;
+        }
+
+        private void flushRun() throws IOException {
+            if (start < 0) {
+                return;
+            }
+            runs.writeLong(start);
+            runs.writeLong(end - start);
+            if (withBases) {
+                runs.writeByte(base);
+            }
+            count++;
+        }
+
+        void writeTo(CountingDataOutput out) throws IOException {
+            flushRun();
+            out.writeLong(count);
+            runs.flush();
+            out.write(bytes.toByteArray());
+        }
+    }
+
+    private static class IndexEntry {
+
+        private final String name;
+
+        private final long length;
+
+        private final long basesOffset;
+
+        private final long runsOffset;
+
+        IndexEntry(String name, long length, long basesOffset, long runsOffset) {
+            this.name = name;
+            this.length = length;
+            this.basesOffset = basesOffset;
+            this.runsOffset = runsOffset;
+        }
+    }
+
+    /**
+     * DataOutputStream only counts the bytes written up to 2 GB
+     */
+    private static class CountingDataOutput implements AutoCloseable {
+
+        private final DataOutputStream output;
+
+        private long position;
+
+        CountingDataOutput(Path path) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        void write(int b) throws IOException {
+            output.write(b);
+            position++;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            output.write(bytes);
+            position += bytes.length;
+        }
+
+        void writeInt(int value) throws IOException {
+            output.writeInt(value);
+            position += Integer.BYTES;
+        }
+
+        void writeLong(long value) throws IOException {
+            output.writeLong(value);
+            position += Long.BYTES;
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes BGZF (block gzip) like htsjdk's BlockCompressedOutputStream, but the blocks are compressed in a pool of
+ * threads. The compressed blocks are written in order, by the thread that writes into this stream, and at most
+ * maxPendingBlocks are kept in memory, so a slow disk slows down the writer instead of filling the heap.
+ *
+ * The virtual file pointers (used by indexes like tabix) of a position are not known until its block is compressed.
+ * Instead of asking for the current pointer, {@link #mark} registers a callback that receives it once the block is
+ * written. The callbacks run in the order they were registered, in the thread that writes into this stream.
+ *
+ * {@link #flush} only writes the blocks that are already compressed, so that writers that flush after every line don't
+ * produce tiny blocks nor wait for the compression. The rest of the blocks are written when the stream is closed.
+ */
+public class ParallelBlockCompressedOutputStream extends OutputStream {
+
+    private static final int DEFAULT_COMPRESSION_LEVEL = 5;
+
+    private static final int PENDING_BLOCKS_PER_THREAD = 4;
+
+    private static final int BLOCK_SIZE = BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE;
+
+    private static final int MAX_COMPRESSED_BLOCK_SIZE = BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE;
+
+    private static final int HEADER_LENGTH = BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH;
+
+    private static final int FOOTER_LENGTH = BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+
+    private static final int BLOCK_SIZE_OFFSET = 16;
+
+    private static final int VIRTUAL_POINTER_SHIFT = 16;
+
+    private final OutputStream output;
+
+    private final ExecutorService executor;
+
+    private final boolean ownExecutor;
+
+    private final int maxPendingBlocks;
+
+    private final int compressionLevel;
+
+    private final Deque<Future<byte[]>> pendingBlocks;
+
+    private final Deque<Mark> marks;
+
+    private byte[] buffer;
+
+    private int bufferLength;
+
+    private long currentBlock;
+
+    private long writtenBlocks;
+
+    private long compressedLength;
+
+    private boolean closed;
+
+    /**
+     * Compresses in a pool of numberOfThreads that is shut down when this stream is closed.
+     */
+    public ParallelBlockCompressedOutputStream(OutputStream output, int numberOfThreads) {
+        this(output, Executors.newFixedThreadPool(numberOfThreads), true, numberOfThreads * PENDING_BLOCKS_PER_THREAD,
+             DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Compresses in an executor shared with other streams, which is not shut down when this stream is closed.
+     */
+    public ParallelBlockCompressedOutputStream(OutputStream output, ExecutorService executor, int maxPendingBlocks) {
+        this(output, executor, false, maxPendingBlocks, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    private ParallelBlockCompressedOutputStream(OutputStream output, ExecutorService executor, boolean ownExecutor,
+                                                int maxPendingBlocks, int compressionLevel) {
+        if (maxPendingBlocks < 1) {
+            throw new IllegalArgumentException("At least 1 block must be allowed to be pending of compression");
+        }
+        this.output = output;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.compressionLevel = compressionLevel;
+        this.pendingBlocks = new ArrayDeque<>();
+        this.marks = new ArrayDeque<>();
+        this.buffer = new byte[BLOCK_SIZE];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer[bufferLength++] = (byte) b;
+        if (bufferLength == BLOCK_SIZE) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            int copied = Math.min(length, BLOCK_SIZE - bufferLength);
+            System.arraycopy(bytes, offset, buffer, bufferLength, copied);
+            bufferLength += copied;
+            offset += copied;
+            length -= copied;
+            if (bufferLength == BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Registers a callback that will receive the virtual file pointer of the current position, once the block that
+     * contains it is written.
+     */
+    public void mark(LongConsumer virtualFilePointerConsumer) throws IOException {
+        ensureOpen();
+        marks.addLast(new Mark(currentBlock, bufferLength, virtualFilePointerConsumer));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeCompressedBlocks();
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (bufferLength > 0) {
+                submitBlock();
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeNextBlock();
+            }
+            // the marks left point to the end of the data, where the EOF block starts
+            while (!marks.isEmpty()) {
+                marks.removeFirst().virtualFilePointerConsumer.accept(compressedLength << VIRTUAL_POINTER_SHIFT);
+            }
+            output.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+        } finally {
+            closed = true;
+            // if a block couldn't be written, the rest are discarded
+            pendingBlocks.forEach(pendingBlock -> pendingBlock.cancel(true));
+            pendingBlocks.clear();
+            try {
+                output.close();
+            } finally {
+                if (ownExecutor) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] block = buffer;
+        int length = bufferLength;
+        pendingBlocks.addLast(executor.submit(() -> compressBlock(block, length, compressionLevel)));
+        buffer = new byte[BLOCK_SIZE];
+        bufferLength = 0;
+        currentBlock++;
+
+        while (pendingBlocks.size() >= maxPendingBlocks) {
+            writeNextBlock();
+        }
+        writeCompressedBlocks();
+    }
+
+    private void writeCompressedBlocks() throws IOException {
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        byte[] compressedBlock = getCompressedBlock(pendingBlocks.removeFirst());
+        long blockAddress = compressedLength;
+        output.write(compressedBlock);
+        compressedLength += compressedBlock.length;
+        while (!marks.isEmpty() && marks.peekFirst().block == writtenBlocks) {
+            Mark mark = marks.removeFirst();
+            mark.virtualFilePointerConsumer.accept(blockAddress << VIRTUAL_POINTER_SHIFT | mark.offsetInBlock);
+        }
+        writtenBlocks++;
+    }
+
+    private byte[] getCompressedBlock(Future<byte[]> pendingBlock) throws IOException {
+        try {
+            return pendingBlock.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the compression of a block");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compress a block", e.getCause());
+        }
+    }
+
+    static byte[] compressBlock(byte[] block, int length, int compressionLevel) {
+        byte[] compressedBlock = new byte[MAX_COMPRESSED_BLOCK_SIZE];
+        int maxDeflatedLength = MAX_COMPRESSED_BLOCK_SIZE - HEADER_LENGTH - FOOTER_LENGTH;
+        int deflatedLength = deflate(block, length, compressionLevel, compressedBlock, maxDeflatedLength);
+        if (deflatedLength < 0) {
+            // data that doesn't compress can grow a bit with deflate, but always fits when stored as is
+            deflatedLength = deflate(block, length, Deflater.NO_COMPRESSION, compressedBlock, maxDeflatedLength);
+        }
+        int blockLength = HEADER_LENGTH + deflatedLength + FOOTER_LENGTH;
+        writeHeader(compressedBlock, blockLength);
+
+        CRC32 crc = new CRC32();
+        crc.update(block, 0, length);
+        int footerOffset = HEADER_LENGTH + deflatedLength;
+        writeInt(compressedBlock, footerOffset, (int) crc.getValue());
+        writeInt(compressedBlock, footerOffset + 4, length);
+
+        byte[] result = new byte[blockLength];
+        System.arraycopy(compressedBlock, 0, result, 0, blockLength);
+        return result;
+    }
+
+    /**
+     * @return the length of the deflated data, or -1 if it doesn't fit in maxDeflatedLength
+     */
+    private static int deflate(byte[] block, int length, int compressionLevel, byte[] compressedBlock,
+                               int maxDeflatedLength) {
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+            int deflatedLength = deflater.deflate(compressedBlock, HEADER_LENGTH, maxDeflatedLength);
+            return deflater.finished() ? deflatedLength : -1;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * gzip header with the BGZF extra field, which contains the size of the whole block minus 1
+     */
+    private static void writeHeader(byte[] compressedBlock, int blockLength) {
+        byte[] header = {31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0};
+        System.arraycopy(header, 0, compressedBlock, 0, header.length);
+        int blockSize = blockLength - 1;
+        compressedBlock[BLOCK_SIZE_OFFSET] = (byte) blockSize;
+        compressedBlock[BLOCK_SIZE_OFFSET + 1] = (byte) (blockSize >>> 8);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static class Mark {
+
+        private final long block;
+
+        private final int offsetInBlock;
+
+        private final LongConsumer virtualFilePointerConsumer;
+
+        Mark(long block, int offsetInBlock, LongConsumer virtualFilePointerConsumer) {
+            this.block = block;
+            this.offsetInBlock = offsetInBlock;
+            this.virtualFilePointerConsumer = virtualFilePointerConsumer;
+        }
+    }
+}
@@ -15,7 +15,19 @@
  */
 package uk.ac.ebi.eva.accession.core.batch.listeners;
 
-public class ImportCounts {
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The methods are synchronized because the counts are shared by the ranges of the dbSNP import that run in parallel,
+ * and read by the metrics registry (see MetricsConfiguration) from other threads.
+ */
+public class ImportCounts implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "eva.import.";
 
     public static final String SUBMITTED_VARIANTS_WRITTEN = "submittedVariantsWritten";
 
@@ -35,39 +47,50 @@ public class ImportCounts {
         this.operationsWritten = 0;
     }
 
-    public void addClusteredVariantsWritten(long clusteredVariantsWritten) {
+    public synchronized void addClusteredVariantsWritten(long clusteredVariantsWritten) {
         this.clusteredVariantsWritten += clusteredVariantsWritten;
     }
 
-    public void addOperationsWritten(long operationsWritten) {
+    public synchronized void addOperationsWritten(long operationsWritten) {
         this.operationsWritten += operationsWritten;
     }
 
-    public void addSubmittedVariantsWritten(long submittedVariantsWritten) {
+    public synchronized void addSubmittedVariantsWritten(long submittedVariantsWritten) {
         this.submittedVariantsWritten += submittedVariantsWritten;
     }
 
-    public long getClusteredVariantsWritten() {
+    public synchronized long getClusteredVariantsWritten() {
         return clusteredVariantsWritten;
     }
 
-    public void setClusteredVariantsWritten(long clusteredVariantsWritten) {
+    public synchronized void setClusteredVariantsWritten(long clusteredVariantsWritten) {
         this.clusteredVariantsWritten = clusteredVariantsWritten;
     }
 
-    public long getOperationsWritten() {
+    public synchronized long getOperationsWritten() {
         return operationsWritten;
     }
 
-    public void setOperationsWritten(long operationsWritten) {
+    public synchronized void setOperationsWritten(long operationsWritten) {
         this.operationsWritten = operationsWritten;
     }
 
-    public long getSubmittedVariantsWritten() {
+    public synchronized long getSubmittedVariantsWritten() {
         return submittedVariantsWritten;
     }
 
-    public void setSubmittedVariantsWritten(long submittedVariantsWritten) {
+    public synchronized void setSubmittedVariantsWritten(long submittedVariantsWritten) {
         this.submittedVariantsWritten = submittedVariantsWritten;
     }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "submitted.variants.written", ImportCounts::getSubmittedVariantsWritten);
+        bind(registry, "clustered.variants.written", ImportCounts::getClusteredVariantsWritten);
+        bind(registry, "operations.written", ImportCounts::getOperationsWritten);
+    }
+
+    private void bind(MeterRegistry registry, String name, ToDoubleFunction<ImportCounts> count) {
+        FunctionCounter.builder(METRIC_PREFIX + name, this, count).register(registry);
+    }
 }
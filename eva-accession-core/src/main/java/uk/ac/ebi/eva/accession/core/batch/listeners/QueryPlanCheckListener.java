@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.listeners;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+
+import uk.ac.ebi.eva.accession.core.index.QueryPlanChecker;
+import uk.ac.ebi.eva.accession.core.index.VariantIndexProvisioner;
+
+import java.util.function.Consumer;
+
+/**
+ * Before a job starts, creates the compound indexes that the job needs, if any, and then checks the query plans of
+ * the queries that the job will issue.
+ *
+ * The indexes and queries are provided by each job as functions that call the VariantIndexProvisioner and the
+ * QueryPlanChecker, e.g. {@code checker -> checker.checkAggregation(collectionName, reader.getAggregation())}.
+ */
+public class QueryPlanCheckListener extends JobExecutionListenerSupport {
+
+    private final VariantIndexProvisioner indexProvisioner;
+
+    private final Consumer<VariantIndexProvisioner> indexes;
+
+    private final QueryPlanChecker queryPlanChecker;
+
+    private final Consumer<QueryPlanChecker> queries;
+
+    /**
+     * For jobs whose queries only use the indexes declared in the entities.
+     */
+    public QueryPlanCheckListener(QueryPlanChecker queryPlanChecker, Consumer<QueryPlanChecker> queries) {
+        this(null, provisioner -> {}, queryPlanChecker, queries);
+    }
+
+    public QueryPlanCheckListener(VariantIndexProvisioner indexProvisioner, Consumer<VariantIndexProvisioner> indexes,
+                                  QueryPlanChecker queryPlanChecker, Consumer<QueryPlanChecker> queries) {
+        this.indexProvisioner = indexProvisioner;
+        this.indexes = indexes;
+        this.queryPlanChecker = queryPlanChecker;
+        this.queries = queries;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        indexes.accept(indexProvisioner);
+        queries.accept(queryPlanChecker);
+    }
+}
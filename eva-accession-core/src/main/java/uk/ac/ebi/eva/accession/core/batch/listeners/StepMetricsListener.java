@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.listeners;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.StepListenerSupport;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import uk.ac.ebi.eva.accession.core.metrics.PrometheusFileExporter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the progress of a chunk-oriented step as Micrometer meters, tagged with the step name:
+ * - how long each chunk took, and how much of that was spent reading, processing and writing
+ * - how many items were written in each chunk, as a histogram, which is the size of the bulk writes to Mongo
+ * - how many items were read, written and skipped
+ * - when the last chunk finished, in seconds since the epoch, to detect a stalled step
+ *
+ * The same listener can be used in several steps, and in partitioned steps, where each partition runs in its own
+ * thread: the timings of the current chunk are kept per thread, and the partitions of a step share the step tag.
+ */
+public class StepMetricsListener<I, O> extends StepListenerSupport<I, O> {
+
+    public static final String CHUNK_TIMER = "eva.batch.chunk";
+
+    public static final String READ_TIMER = "eva.batch.chunk.read";
+
+    public static final String PROCESS_TIMER = "eva.batch.chunk.process";
+
+    public static final String WRITE_TIMER = "eva.batch.chunk.write";
+
+    public static final String WRITE_SIZE = "eva.batch.chunk.write.size";
+
+    public static final String CHUNK_ERRORS = "eva.batch.chunk.errors";
+
+    public static final String ITEMS_READ = "eva.batch.items.read";
+
+    public static final String ITEMS_WRITTEN = "eva.batch.items.written";
+
+    public static final String ITEMS_SKIPPED = "eva.batch.items.skipped";
+
+    public static final String LAST_CHUNK = "eva.batch.chunk.last.seconds";
+
+    public static final String STEP_TAG = "step";
+
+    private static final String PARTITION_SEPARATOR = ":";
+
+    private final MeterRegistry registry;
+
+    private final PrometheusFileExporter exporter;
+
+    private final ThreadLocal<ChunkTimes> chunkTimes;
+
+    private final Map<String, AtomicLong> lastChunkTimestamps;
+
+    public StepMetricsListener(MeterRegistry registry, PrometheusFileExporter exporter) {
+        this.registry = registry;
+        this.exporter = exporter;
+        this.chunkTimes = ThreadLocal.withInitial(ChunkTimes::new);
+        this.lastChunkTimestamps = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        chunkTimes.get().start(getStepTag(stepExecution.getStepName()));
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkTimes.get().start(getStepTag(context.getStepContext().getStepName()));
+    }
+
+    @Override
+    public void beforeRead() {
+        chunkTimes.get().readStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterRead(I item) {
+        ChunkTimes times = chunkTimes.get();
+        times.readNanos += System.nanoTime() - times.readStart;
+        times.itemsRead++;
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        ChunkTimes times = chunkTimes.get();
+        times.readNanos += System.nanoTime() - times.readStart;
+    }
+
+    @Override
+    public void beforeProcess(I item) {
+        chunkTimes.get().processStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(I item, O result) {
+        ChunkTimes times = chunkTimes.get();
+        times.processNanos += System.nanoTime() - times.processStart;
+        times.itemsProcessed++;
+    }
+
+    @Override
+    public void onProcessError(I item, Exception e) {
+        ChunkTimes times = chunkTimes.get();
+        times.processNanos += System.nanoTime() - times.processStart;
+    }
+
+    @Override
+    public void beforeWrite(List<? extends O> items) {
+        chunkTimes.get().writeStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(List<? extends O> items) {
+        ChunkTimes times = chunkTimes.get();
+        Tags tags = Tags.of(STEP_TAG, times.step);
+        registry.timer(WRITE_TIMER, tags).record(System.nanoTime() - times.writeStart, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(WRITE_SIZE)
+                           .tags(tags)
+                           .baseUnit("items")
+                           .publishPercentileHistogram()
+                           .register(registry)
+                           .record(items.size());
+        registry.counter(ITEMS_WRITTEN, tags).increment(items.size());
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<? extends O> items) {
+        ChunkTimes times = chunkTimes.get();
+        registry.timer(WRITE_TIMER, Tags.of(STEP_TAG, times.step))
+                .record(System.nanoTime() - times.writeStart, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        countSkip();
+    }
+
+    @Override
+    public void onSkipInProcess(I item, Throwable t) {
+        countSkip();
+    }
+
+    @Override
+    public void onSkipInWrite(O item, Throwable t) {
+        countSkip();
+    }
+
+    private void countSkip() {
+        registry.counter(ITEMS_SKIPPED, Tags.of(STEP_TAG, chunkTimes.get().step)).increment();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkTimes times = chunkTimes.get();
+        Tags tags = Tags.of(STEP_TAG, times.step);
+        Timer.builder(CHUNK_TIMER)
+             .tags(tags)
+             .publishPercentileHistogram()
+             .register(registry)
+             .record(System.nanoTime() - times.chunkStart, TimeUnit.NANOSECONDS);
+        registry.timer(READ_TIMER, tags).record(times.readNanos, TimeUnit.NANOSECONDS);
+        if (times.itemsProcessed > 0) {
+            registry.timer(PROCESS_TIMER, tags).record(times.processNanos, TimeUnit.NANOSECONDS);
+        }
+        registry.counter(ITEMS_READ, tags).increment(times.itemsRead);
+        lastChunkTimestamps.computeIfAbsent(times.step, step -> registry.gauge(LAST_CHUNK, tags, new AtomicLong()))
+                           .set(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        exporter.exportIfDue();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        registry.counter(CHUNK_ERRORS, Tags.of(STEP_TAG, chunkTimes.get().step)).increment();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        chunkTimes.remove();
+        exporter.export();
+        return null;
+    }
+
+    /**
+     * The partitions of a step are named "step:partition". All of them are published under the same step tag, to keep
+     * the number of time series independent of the number of partitions (e.g. contigs).
+     */
+    private String getStepTag(String stepName) {
+        int separator = stepName.indexOf(PARTITION_SEPARATOR);
+        return separator < 0 ? stepName : stepName.substring(0, separator);
+    }
+
+    private static class ChunkTimes {
+
+        private String step;
+
+        private long chunkStart;
+
+        private long readStart;
+
+        private long readNanos;
+
+        private long itemsRead;
+
+        private long processStart;
+
+        private long processNanos;
+
+        private long itemsProcessed;
+
+        private long writeStart;
+
+        void start(String step) {
+            this.step = step;
+            this.chunkStart = System.nanoTime();
+            this.readNanos = 0;
+            this.itemsRead = 0;
+            this.processNanos = 0;
+            this.itemsProcessed = 0;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Reads and writes values from BSON the same way Spring Data converts them for an entity: numbers are widened or
+ * narrowed to the type of the field, and dates are read as LocalDateTime in the system time zone.
+ *
+ * All read methods return null if the current value is null, so they can be used for optional fields. As Spring
+ * Data does, the write methods don't write the fields whose value is null.
+ */
+final class BsonValues {
+
+    private BsonValues() {
+    }
+
+    static String readString(BsonReader reader) {
+        if (isNull(reader)) {
+            return null;
+        }
+        return reader.readString();
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        Long value = readLong(reader);
+        return value == null ? null : value.intValue();
+    }
+
+    static Long readLong(BsonReader reader) {
+        BsonType type = reader.getCurrentBsonType();
+        switch (type) {
+            case NULL:
+                reader.readNull();
+                return null;
+            case INT32:
+                return (long) reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                throw new IllegalArgumentException("Can't read a number from a BSON value of type " + type);
+        }
+    }
+
+    static Boolean readBoolean(BsonReader reader) {
+        if (isNull(reader)) {
+            return null;
+        }
+        return reader.readBoolean();
+    }
+
+    static LocalDateTime readLocalDateTime(BsonReader reader) {
+        if (isNull(reader)) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault());
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeLong(BsonWriter writer, String name, Long value) {
+        if (value != null) {
+            writer.writeInt64(name, value);
+        }
+    }
+
+    static void writeBoolean(BsonWriter writer, String name, Boolean value) {
+        if (value != null) {
+            writer.writeBoolean(name, value);
+        }
+    }
+
+    static void writeLocalDateTime(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * The entities keep the flags that have their default value as null, so they are not written either.
+     */
+    static Boolean nullIfDefault(Boolean value, boolean defaultValue) {
+        return value == null || value == defaultValue ? null : value;
+    }
+
+    private static boolean isNull(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return true;
+        }
+        return false;
+    }
+}
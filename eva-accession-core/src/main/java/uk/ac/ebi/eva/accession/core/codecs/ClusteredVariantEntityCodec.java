@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantEntity;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.time.LocalDateTime;
+
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.nullIfDefault;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.readBoolean;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.readInteger;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.readLocalDateTime;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.readLong;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.readString;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.writeBoolean;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.writeInteger;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.writeLocalDateTime;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.writeLong;
+import static uk.ac.ebi.eva.accession.core.codecs.BsonValues.writeString;
+
+/**
+ * Decodes and encodes a ClusteredVariantEntity (or DbsnpClusteredVariantEntity) straight from BSON, with the same
+ * fields that Spring Data maps. See {@link SubmittedVariantEntityCodec}.
+ */
+public class ClusteredVariantEntityCodec<ENTITY extends ClusteredVariantEntity> implements Codec<ENTITY> {
+
+    @FunctionalInterface
+    private interface EntityFactory<ENTITY> {
+        ENTITY create(Long accession, String hashedMessage, String assemblyAccession, int taxonomyAccession,
+                      String contig, long start, VariantType type, Boolean validated, LocalDateTime createdDate,
+                      int version, Integer mapWeight);
+    }
+
+    private final Class<ENTITY> entityClass;
+
+    private final EntityFactory<ENTITY> entityFactory;
+
+    private ClusteredVariantEntityCodec(Class<ENTITY> entityClass, EntityFactory<ENTITY> entityFactory) {
+        this.entityClass = entityClass;
+        this.entityFactory = entityFactory;
+    }
+
+    public static ClusteredVariantEntityCodec<ClusteredVariantEntity> forEva() {
+        return new ClusteredVariantEntityCodec<>(ClusteredVariantEntity.class, ClusteredVariantEntity::new);
+    }
+
+    public static ClusteredVariantEntityCodec<DbsnpClusteredVariantEntity> forDbsnp() {
+        return new ClusteredVariantEntityCodec<>(DbsnpClusteredVariantEntity.class, DbsnpClusteredVariantEntity::new);
+    }
+
+    @Override
+    public ENTITY decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        Long accession = null;
+        int version = 1;
+        String assembly = null;
+        int taxonomy = 0;
+        String contig = null;
+        long start = 0;
+        VariantType type = null;
+        Boolean validated = null;
+        Integer mapWeight = null;
+        LocalDateTime createdDate = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    id = readString(reader);
+                    break;
+                case "accession":
+                    accession = readLong(reader);
+                    break;
+                case "version":
+                    version = readInteger(reader);
+                    break;
+                case "asm":
+                    assembly = readString(reader);
+                    break;
+                case "tax":
+                    taxonomy = readInteger(reader);
+                    break;
+                case "contig":
+                    contig = readString(reader);
+                    break;
+                case "start":
+                    start = readLong(reader);
+                    break;
+                case "type":
+                    String typeName = readString(reader);
+                    type = typeName == null ? null : VariantType.valueOf(typeName);
+                    break;
+                case "validated":
+                    validated = readBoolean(reader);
+                    break;
+                case "mapWeight":
+                    mapWeight = readInteger(reader);
+                    break;
+                case "createdDate":
+                    createdDate = readLocalDateTime(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return entityFactory.create(accession, id, assembly, taxonomy, contig, start, type,
+                                    validated == null ? IClusteredVariant.DEFAULT_VALIDATED : validated, createdDate,
+                                    version, mapWeight);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ENTITY value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, "_id", value.getId());
+        writeString(writer, "asm", value.getAssemblyAccession());
+        writeInteger(writer, "tax", value.getTaxonomyAccession());
+        writeString(writer, "contig", value.getContig());
+        writeLong(writer, "start", value.getStart());
+        writeString(writer, "type", value.getType() == null ? null : value.getType().name());
+        writeBoolean(writer, "validated", nullIfDefault(value.isValidated(), IClusteredVariant.DEFAULT_VALIDATED));
+        writeInteger(writer, "mapWeight", value.getMapWeight());
+        writeLong(writer, "accession", value.getAccession());
+        writeInteger(writer, "version", value.getVersion());
+        writeLocalDateTime(writer, "createdDate", value.getCreatedDate());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<ENTITY> getEncoderClass() {
+        return entityClass;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.codecs;
+
+import com.mongodb.MongoClient;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Codec registry with the codecs of the variant entities, on top of the default codecs of the driver. Use it with
+ * {@code MongoCollection.withCodecRegistry} to read entities straight from a cursor, e.g.
+ * {@code database.getCollection(name, SubmittedVariantEntity.class).withCodecRegistry(VariantEntityCodecs.REGISTRY)}
+ */
+public final class VariantEntityCodecs {
+
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new SubmittedVariantEntityCodec(),
+                                       ClusteredVariantEntityCodec.forEva(),
+                                       ClusteredVariantEntityCodec.forDbsnp()),
+            MongoClient.getDefaultCodecRegistry());
+
+    private VariantEntityCodecs() {
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import uk.ac.ebi.eva.accession.core.batch.listeners.StepMetricsListener;
+import uk.ac.ebi.eva.accession.core.metrics.PrometheusFileExporter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Registry of the metrics of a batch job, and the listener that publishes the progress of its steps.
+ *
+ * Every MeterBinder bean, like the counts of each module, is bound to the registry. If metrics.prometheus.file is
+ * set, the metrics are written to that file in the Prometheus text format, every metrics.prometheus.intervalSeconds
+ * and at the end of each step.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    public static final String STEP_METRICS_LISTENER = "STEP_METRICS_LISTENER";
+
+    @Value("${metrics.prometheus.file:}")
+    private String prometheusFile;
+
+    @Value("${metrics.prometheus.intervalSeconds:60}")
+    private long prometheusIntervalSeconds;
+
+    @Bean
+    public PrometheusMeterRegistry prometheusMeterRegistry(ObjectProvider<MeterBinder> meterBinders) {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        meterBinders.orderedStream().forEach(binder -> binder.bindTo(registry));
+        return registry;
+    }
+
+    @Bean
+    public PrometheusFileExporter prometheusFileExporter(PrometheusMeterRegistry registry) {
+        Path file = prometheusFile.isEmpty() ? null : Paths.get(prometheusFile);
+        return new PrometheusFileExporter(registry, file, Duration.ofSeconds(prometheusIntervalSeconds));
+    }
+
+    @Bean(STEP_METRICS_LISTENER)
+    public StepExecutionListener stepMetricsListener(PrometheusMeterRegistry registry,
+                                                     PrometheusFileExporter prometheusFileExporter) {
+        return new StepMetricsListener<>(registry, prometheusFileExporter);
+    }
+}
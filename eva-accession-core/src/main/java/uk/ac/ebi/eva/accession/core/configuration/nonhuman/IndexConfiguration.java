@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.configuration.nonhuman;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import uk.ac.ebi.eva.accession.core.index.QueryPlanChecker;
+import uk.ac.ebi.eva.accession.core.index.VariantIndexProvisioner;
+
+/**
+ * The query plan checks are set with mongodb.query-plan-check: NONE, WARN (default) or FAIL. The compound indexes are
+ * only created if mongodb.create-indexes is true (false by default).
+ */
+@Configuration
+@Import({MongoConfiguration.class})
+public class IndexConfiguration {
+
+    @Value("${mongodb.query-plan-check:WARN}")
+    private QueryPlanChecker.Mode queryPlanCheckMode;
+
+    @Value("${mongodb.create-indexes:false}")
+    private boolean createIndexes;
+
+    @Bean
+    public VariantIndexProvisioner variantIndexProvisioner(MongoTemplate mongoTemplate) {
+        return new VariantIndexProvisioner(mongoTemplate, createIndexes);
+    }
+
+    @Bean
+    public QueryPlanChecker queryPlanChecker(MongoTemplate mongoTemplate) {
+        return new QueryPlanChecker(mongoTemplate, queryPlanCheckMode);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.index;
+
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs explain on the queries of a job before it starts, to detect the ones that would scan the whole collection
+ * (COLLSCAN) or sort in memory. On the biggest assemblies those queries take hours, and their sorts spill gigabytes to
+ * disk. Depending on the mode, the problems are logged as warnings or fail the job.
+ *
+ * Only the winning plan is checked; the rejected plans and the echo of the command are ignored.
+ */
+public class QueryPlanChecker {
+
+    public enum Mode {
+        NONE, WARN, FAIL
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanChecker.class);
+
+    private static final String STAGE_FIELD = "stage";
+
+    private static final String COLLECTION_SCAN_STAGE = "COLLSCAN";
+
+    private static final String IN_MEMORY_SORT_STAGE = "SORT";
+
+    private static final String AGGREGATION_SORT_STAGE = "$sort";
+
+    private static final List<String> IGNORED_FIELDS = Arrays.asList("rejectedPlans", "command", "parsedQuery");
+
+    static final String COLLECTION_SCAN = "a collection scan (" + COLLECTION_SCAN_STAGE + ")";
+
+    static final String IN_MEMORY_SORT = "an in-memory sort";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Mode mode;
+
+    public QueryPlanChecker(MongoTemplate mongoTemplate, Mode mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = mode;
+    }
+
+    public void checkAggregation(String collectionName, List<Bson> pipeline) {
+        if (mode == Mode.NONE) {
+            return;
+        }
+        MongoDatabase db = mongoTemplate.getDb();
+        List<BsonDocument> stages = new ArrayList<>();
+        for (Bson stage : pipeline) {
+            stages.add(stage.toBsonDocument(BsonDocument.class, db.getCodecRegistry()));
+        }
+        Document command = new Document("aggregate", collectionName).append("pipeline", stages)
+                                                                    .append("allowDiskUse", true)
+                                                                    .append("explain", true);
+        check(collectionName, pipeline, db.runCommand(command));
+    }
+
+    public void checkFind(String collectionName, Bson filter, Bson sort) {
+        if (mode == Mode.NONE) {
+            return;
+        }
+        MongoDatabase db = mongoTemplate.getDb();
+        Document find = new Document("find", collectionName)
+                .append("filter", filter.toBsonDocument(BsonDocument.class, db.getCodecRegistry()))
+                .append("sort", sort.toBsonDocument(BsonDocument.class, db.getCodecRegistry()));
+        Document command = new Document("explain", find).append("verbosity", "queryPlanner");
+        check(collectionName, find, db.runCommand(command));
+    }
+
+    private void check(String collectionName, Object query, Document explain) {
+        List<String> problems = findProblems(explain);
+        if (problems.isEmpty()) {
+            logger.info("Query {} on collection {} is answered by indexes", query, collectionName);
+            return;
+        }
+        String message = "Query " + query + " on collection " + collectionName + " would do "
+                + String.join(" and ", problems) + ". Check that the indexes created by "
+                + VariantIndexProvisioner.class.getSimpleName()
+                + " exist, or set mongodb.create-indexes to create them";
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    static List<String> findProblems(Document explain) {
+        Set<String> problems = new LinkedHashSet<>();
+        findProblems(explain, problems);
+        return new ArrayList<>(problems);
+    }
+
+    private static void findProblems(Object value, Set<String> problems) {
+        if (value instanceof Document) {
+            Document document = (Document) value;
+            Object stage = document.get(STAGE_FIELD);
+            if (COLLECTION_SCAN_STAGE.equals(stage)) {
+                problems.add(COLLECTION_SCAN);
+            }
+            if (IN_MEMORY_SORT_STAGE.equals(stage) || document.containsKey(AGGREGATION_SORT_STAGE)) {
+                // a $sort is only reported as a stage of the aggregation if it couldn't be pushed down to the query
+                problems.add(IN_MEMORY_SORT);
+            }
+            for (Map.Entry<String, Object> field : document.entrySet()) {
+                if (!IGNORED_FIELDS.contains(field.getKey())) {
+                    findProblems(field.getValue(), problems);
+                }
+            }
+        } else if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                findProblems(element, problems);
+            }
+        }
+    }
+}
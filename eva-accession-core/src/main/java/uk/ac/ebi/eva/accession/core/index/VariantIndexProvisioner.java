@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.index;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantOperationEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantOperationEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantOperationEntity;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Creates the compound indexes needed by the queries that read a whole assembly (or contig) in the release, both in
+ * the EVA and the dbSNP collections, and in the clustering. Each job asks only for the indexes of the queries it
+ * issues.
+ *
+ * The entities only declare single-field indexes, but those queries also sort by position (or by accession with a
+ * merge join), and the merged variants are matched by fields of the operations (inactiveObjects), which have no index.
+ * Without these compound indexes the queries scan the whole collection or sort in memory.
+ *
+ * Building an index on a big collection takes hours and loads the database, so the indexes are only created if
+ * enabled (mongodb.create-indexes). Otherwise the missing indexes are only reported by the {@link QueryPlanChecker}.
+ * An index is not created if the collection already has an index on the same fields, even with a different name.
+ */
+public class VariantIndexProvisioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantIndexProvisioner.class);
+
+    private static final String INACTIVE_OBJECTS = "inactiveObjects.";
+
+    private static final String ACCESSION_FIELD = "accession";
+
+    private static final String ASSEMBLY_FIELD = "asm";
+
+    private static final String SUBMITTED_VARIANT_ASSEMBLY_FIELD = "seq";
+
+    private static final String CONTIG_FIELD = "contig";
+
+    private static final String START_FIELD = "start";
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String REMAPPED_FROM_FIELD = "remappedFrom";
+
+    private static final String CLUSTERED_VARIANT_ACCESSION_FIELD = "rs";
+
+    private static final String EVENT_TYPE_FIELD = "eventType";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final boolean enabled;
+
+    public VariantIndexProvisioner(MongoTemplate mongoTemplate, boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Indexes of the active, multimap and merged releases, which sort by position, or by accession with a merge join.
+     */
+    public void ensureReleaseIndexes(boolean mergeJoin) {
+        if (!enabled) {
+            logger.info("The release indexes are not created, as mongodb.create-indexes is not set");
+            return;
+        }
+        List<Class<?>> clusteredVariantEntities = Arrays.asList(ClusteredVariantEntity.class,
+                                                                DbsnpClusteredVariantEntity.class);
+        List<Class<?>> clusteredVariantOperationEntities = Arrays.asList(ClusteredVariantOperationEntity.class,
+                                                                         DbsnpClusteredVariantOperationEntity.class);
+        List<Class<?>> submittedVariantEntities = Arrays.asList(SubmittedVariantEntity.class,
+                                                                DbsnpSubmittedVariantEntity.class);
+        List<Class<?>> submittedVariantOperationEntities = Arrays.asList(SubmittedVariantOperationEntity.class,
+                                                                         DbsnpSubmittedVariantOperationEntity.class);
+        if (mergeJoin) {
+            // match by assembly, sorted by accession, and joined with the submitted variants of the assembly
+            for (Class<?> entity : clusteredVariantEntities) {
+                ensureIndex(entity, ascending(ASSEMBLY_FIELD, ACCESSION_FIELD));
+            }
+            for (Class<?> entity : clusteredVariantOperationEntities) {
+                ensureIndex(entity, ascending(INACTIVE_OBJECTS + ASSEMBLY_FIELD, EVENT_TYPE_FIELD, ACCESSION_FIELD));
+            }
+            for (Class<?> entity : submittedVariantEntities) {
+                ensureIndex(entity, ascending(SUBMITTED_VARIANT_ASSEMBLY_FIELD, CLUSTERED_VARIANT_ACCESSION_FIELD));
+            }
+            for (Class<?> entity : submittedVariantOperationEntities) {
+                ensureIndex(entity, ascending(INACTIVE_OBJECTS + SUBMITTED_VARIANT_ASSEMBLY_FIELD,
+                                              INACTIVE_OBJECTS + CLUSTERED_VARIANT_ACCESSION_FIELD));
+            }
+        } else {
+            // match by assembly, sorted by position, and $lookup of the submitted variants by RS
+            for (Class<?> entity : clusteredVariantEntities) {
+                ensureIndex(entity, ascending(ASSEMBLY_FIELD, CONTIG_FIELD, START_FIELD));
+            }
+            for (Class<?> entity : clusteredVariantOperationEntities) {
+                ensureIndex(entity, ascending(INACTIVE_OBJECTS + ASSEMBLY_FIELD, EVENT_TYPE_FIELD,
+                                              INACTIVE_OBJECTS + CONTIG_FIELD, INACTIVE_OBJECTS + START_FIELD));
+            }
+            for (Class<?> entity : submittedVariantOperationEntities) {
+                ensureIndex(entity, ascending(INACTIVE_OBJECTS + CLUSTERED_VARIANT_ACCESSION_FIELD));
+            }
+        }
+    }
+
+    /**
+     * Index of the clustering query, which matches the submitted variants by assembly (and contig), sorted by contig
+     * and _id so that it can be resumed. The RS and remappedFrom fields let the query filter out the variants that are
+     * already clustered before fetching the documents.
+     */
+    public void ensureClusteringIndexes() {
+        if (!enabled) {
+            logger.info("The clustering indexes are not created, as mongodb.create-indexes is not set");
+            return;
+        }
+        ensureIndex(SubmittedVariantEntity.class, ascending(SUBMITTED_VARIANT_ASSEMBLY_FIELD, CONTIG_FIELD, ID_FIELD,
+                                                            CLUSTERED_VARIANT_ACCESSION_FIELD, REMAPPED_FROM_FIELD));
+    }
+
+    private static Index ascending(String... fields) {
+        Index index = new Index();
+        for (String field : fields) {
+            index.on(field, Sort.Direction.ASC);
+        }
+        return index.background();
+    }
+
+    private void ensureIndex(Class<?> entity, Index index) {
+        String collectionName = mongoTemplate.getCollectionName(entity);
+        IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+        Document keys = index.getIndexKeys();
+        if (indexOperations.getIndexInfo().stream().anyMatch(indexInfo -> hasFields(indexInfo, keys))) {
+            logger.debug("Index {} already exists in collection {}", keys, collectionName);
+            return;
+        }
+        logger.info("Creating index {} in collection {}", keys, collectionName);
+        indexOperations.ensureIndex(index);
+    }
+
+    private static boolean hasFields(IndexInfo indexInfo, Document keys) {
+        List<IndexField> indexFields = indexInfo.getIndexFields();
+        if (indexFields.size() != keys.size()) {
+            return false;
+        }
+        Iterator<IndexField> indexField = indexFields.iterator();
+        for (String key : keys.keySet()) {
+            if (!indexField.next().getKey().equals(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
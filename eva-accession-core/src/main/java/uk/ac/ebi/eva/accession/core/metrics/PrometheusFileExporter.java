@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.metrics;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * Writes the meters of a registry to a file in the Prometheus text format, e.g. to be collected by the textfile
+ * collector of the node exporter, as batch jobs don't expose an HTTP endpoint to be scraped.
+ *
+ * The file is first written next to the target and then moved over it, so that readers never see a partial file.
+ * Errors writing the file are logged but not thrown, as the metrics should never make a job fail.
+ */
+public class PrometheusFileExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusFileExporter.class);
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final PrometheusMeterRegistry registry;
+
+    private final Path file;
+
+    private final long intervalNanos;
+
+    private long lastExportNanos;
+
+    /**
+     * @param file where the metrics will be written. If null, nothing will be written.
+     * @param interval minimum time between two exports done with {@link #exportIfDue()}
+     */
+    public PrometheusFileExporter(PrometheusMeterRegistry registry, Path file, Duration interval) {
+        this.registry = registry;
+        this.file = file;
+        this.intervalNanos = interval.toNanos();
+        this.lastExportNanos = System.nanoTime() - intervalNanos;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Exports the metrics only if the last export was longer ago than the configured interval, so that this can be
+     * called after every chunk.
+     */
+    public synchronized void exportIfDue() {
+        if (isEnabled() && System.nanoTime() - lastExportNanos >= intervalNanos) {
+            export();
+        }
+    }
+
+    public synchronized void export() {
+        if (!isEnabled()) {
+            return;
+        }
+        Path temporaryFile = file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                writer.write(registry.scrape());
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastExportNanos = System.nanoTime();
+        } catch (IOException e) {
+            logger.warn("Could not write the metrics to {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -43,4 +43,14 @@ public class DbsnpClusteredVariantEntity extends ClusteredVariantEntity {
         super(accession, hashedMessage, assemblyAccession, taxonomyAccession, contig, start, type, validated,
               createdDate, version);
     }
+
+    /**
+     * This constructor should only be used when the mapping weight is required
+     */
+    public DbsnpClusteredVariantEntity(Long accession, String hashedMessage, String assemblyAccession,
+                                       int taxonomyAccession, String contig, long start, VariantType type,
+                                       Boolean validated, LocalDateTime createdDate, int version, Integer mapWeight) {
+        super(accession, hashedMessage, assemblyAccession, taxonomyAccession, contig, start, type, validated,
+              createdDate, version, mapWeight);
+    }
 }
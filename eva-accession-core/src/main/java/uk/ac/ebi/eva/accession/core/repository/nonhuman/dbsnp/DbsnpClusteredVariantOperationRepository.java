@@ -21,7 +21,10 @@ import uk.ac.ebi.ampt2d.commons.accession.persistence.repositories.IHistoryRepos
 
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
 
+import java.util.List;
+
 public interface DbsnpClusteredVariantOperationRepository extends IHistoryRepository<Long,
         DbsnpClusteredVariantOperationEntity, String> {
 
+    List<DbsnpClusteredVariantOperationEntity> findAllByAccessionIn(List<Long> accessions);
 }
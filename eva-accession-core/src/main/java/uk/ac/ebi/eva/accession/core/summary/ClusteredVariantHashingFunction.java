@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+
+/**
+ * Computes the same hash as {@link ClusteredVariantSummaryFunction} followed by
+ * {@link uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction}, without building the summary String.
+ */
+public class ClusteredVariantHashingFunction extends SummaryHashingFunction<IClusteredVariant> {
+
+    @Override
+    protected void summarise(IClusteredVariant model, SummaryDigest digest) {
+        digest.append(model.getAssemblyAccession())
+              .append('_').append(model.getContig())
+              .append('_').append(model.getStart())
+              .append('_').append(String.valueOf(model.getType()));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Accumulates the bytes of a summary and hashes them with SHA-1, producing the same uppercase hexadecimal hash as
+ * {@link uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction} applied to the summary String, but without
+ * building that String.
+ *
+ * The buffers are reused between hashes, so an instance must not be shared between threads. See
+ * {@link SummaryHashingFunction}, which keeps one instance per thread.
+ */
+public final class SummaryDigest {
+
+    private static final String SHA1_ALGORITHM = "SHA-1";
+
+    private static final int SHA1_LENGTH = 20;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final String NULL = "null";
+
+    private static final String MIN_LONG = Long.toString(Long.MIN_VALUE);
+
+    private final MessageDigest messageDigest;
+
+    private final byte[] hash;
+
+    private final char[] hexHash;
+
+    private byte[] buffer;
+
+    private int length;
+
+    public SummaryDigest() {
+        try {
+            messageDigest = MessageDigest.getInstance(SHA1_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The JVM does not provide the " + SHA1_ALGORITHM + " algorithm", e);
+        }
+        hash = new byte[SHA1_LENGTH];
+        hexHash = new char[SHA1_LENGTH * 2];
+        buffer = new byte[INITIAL_BUFFER_SIZE];
+        length = 0;
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * Appends the UTF-8 bytes of the string, or "null" if the string is null, as StringBuilder.append would.
+     */
+    public SummaryDigest append(String value) {
+        if (value == null) {
+            value = NULL;
+        }
+        int valueLength = value.length();
+        ensureCapacity(valueLength);
+        for (int i = 0; i < valueLength; i++) {
+            char character = value.charAt(i);
+            if (character >= 0x80) {
+                // not ASCII: fall back to the general encoding, which is only expected in rare cases
+                length -= i;
+                return appendEncoded(value);
+            }
+            buffer[length++] = (byte) character;
+        }
+        return this;
+    }
+
+    public SummaryDigest append(char value) {
+        if (value >= 0x80) {
+            return appendEncoded(String.valueOf(value));
+        }
+        ensureCapacity(1);
+        buffer[length++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Appends the decimal representation of the number, as StringBuilder.append would.
+     */
+    public SummaryDigest append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(MIN_LONG);
+        }
+        // 19 digits and the sign are enough for any other long
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int firstDigit = length;
+        do {
+            buffer[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        reverse(firstDigit, length - 1);
+        return this;
+    }
+
+    /**
+     * @return the SHA-1 hash of all the bytes appended since the last reset, in uppercase hexadecimal
+     */
+    public String hexDigest() {
+        messageDigest.update(buffer, 0, length);
+        try {
+            messageDigest.digest(hash, 0, SHA1_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < SHA1_LENGTH; i++) {
+            hexHash[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            hexHash[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(hexHash);
+    }
+
+    private SummaryDigest appendEncoded(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+        return this;
+    }
+
+    private void ensureCapacity(int extraBytes) {
+        if (length + extraBytes > buffer.length) {
+            byte[] newBuffer = new byte[Math.max(buffer.length * 2, length + extraBytes)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+        }
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte swap = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = swap;
+        }
+    }
+}
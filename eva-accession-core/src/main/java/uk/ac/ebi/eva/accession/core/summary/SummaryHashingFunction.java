@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import java.util.function.Function;
+
+/**
+ * Equivalent to a summary function followed by {@link uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction},
+ * but the fields of the model are fed straight into a per-thread {@link SummaryDigest} instead of being concatenated
+ * in an intermediate String.
+ *
+ * Subclasses must append the same fields, in the same order, as the summary function they replace, so that the hashes
+ * of the existing documents stay valid.
+ */
+public abstract class SummaryHashingFunction<MODEL> implements Function<MODEL, String> {
+
+    private static final ThreadLocal<SummaryDigest> digests = ThreadLocal.withInitial(SummaryDigest::new);
+
+    @Override
+    public String apply(MODEL model) {
+        SummaryDigest digest = digests.get();
+        digest.reset();
+        summarise(model, digest);
+        return digest.hexDigest();
+    }
+
+    protected abstract void summarise(MODEL model, SummaryDigest digest);
+}
@@ -39,6 +39,7 @@ import java.time.Month;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
@@ -195,4 +196,21 @@ public class DbsnpClusteredVariantWriterTest {
         }
         assertAllUniqueVariantsHaveBeenStored();
     }
+
+    @Test
+    public void writeNonDuplicatesSkipsVariantsAlreadyStored() {
+        dbsnpClusteredVariantWriter.write(Collections.singletonList(variantEntity1));
+        Set<String> duplicateHashes = dbsnpClusteredVariantWriter.writeNonDuplicates(
+                Arrays.asList(variantEntity2, duplicateVariantEntity1, variantEntity3));
+        assertEquals(Collections.singleton(variantEntity1.getHashedMessage()), duplicateHashes);
+        assertAllUniqueVariantsHaveBeenStored();
+    }
+
+    @Test
+    public void writeNonDuplicatesSkipsVariantsRepeatedInTheChunk() {
+        Set<String> duplicateHashes = dbsnpClusteredVariantWriter.writeNonDuplicates(
+                Arrays.asList(variantEntity1, duplicateVariantEntity1));
+        assertEquals(Collections.singleton(variantEntity1.getHashedMessage()), duplicateHashes);
+        assertJustOneVariantHasBeenStored();
+    }
 }
@@ -190,4 +190,37 @@ public class FastaSequenceReaderTest {
         expected = new ImmutableTriple<Long, String, String>(1L, "TGC", "C");
         assertEquals(expected, reader.getContextNucleotideAndNewStart("22", 1, "TG", ""));
     }
+
+    @Test
+    public void windowedReadsMatchReadsFromFile() throws Exception {
+        Path fasta = Paths.get(
+                FastaSequenceReaderTest.class.getResource("/input-files/fasta/Gallus_gallus-5.0.test.fa").toURI());
+        FastaSequenceReader smallWindows = new FastaSequenceReader(fasta, 100, 1);
+        FastaSequenceReader withoutWindows = new FastaSequenceReader(fasta, 0, 0);
+        long[][] regions = {{1, 1}, {2, 2}, {50, 149}, {120, 130}, {60, 60}, {59986, 60075}, {59900, 59999},
+                {4729743, 4729743}, {4729600, 4729743}, {3, 3}};
+        for (long[] region : regions) {
+            assertEquals(withoutWindows.getSequence("22", region[0], region[1]),
+                         smallWindows.getSequence("22", region[0], region[1]));
+        }
+        smallWindows.close();
+        withoutWindows.close();
+    }
+
+    @Test
+    public void windowedReadsKeepSoftMasking() throws Exception {
+        String fastaFilename = "fastaWithSoftMasking.fa";
+        Path fasta = Files.copy(
+                Paths.get(FastaSequenceReaderTest.class.getResource("/input-files/fasta/" + fastaFilename).toURI()),
+                temporaryFolder.getRoot().toPath().resolve(fastaFilename));
+        FastaSequenceReader smallWindows = new FastaSequenceReader(fasta, 16, 1);
+        FastaSequenceReader withoutWindows = new FastaSequenceReader(fasta, 0, 0);
+        long[][] regions = {{1, 1}, {75, 90}, {81, 82}, {150, 160}, {2, 17}};
+        for (long[] region : regions) {
+            assertEquals(withoutWindows.getSequence(MIXED_CASE_FASTA_CONTIG, region[0], region[1]),
+                         smallWindows.getSequence(MIXED_CASE_FASTA_CONTIG, region[0], region[1]));
+        }
+        smallWindows.close();
+        withoutWindows.close();
+    }
 }
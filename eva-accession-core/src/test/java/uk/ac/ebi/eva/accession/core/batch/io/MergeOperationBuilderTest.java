@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantInactiveEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantOperationEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The expected operations are also checked against {@link #buildMergeOperationsPerItem}, which looks up the merge
+ * target of each hash and the operations of each candidate one by one, as the builder did before the bulk lookups.
+ */
+public class MergeOperationBuilderTest {
+
+    private static final String HASH_1 = "hash1";
+
+    private static final String HASH_2 = "hash2";
+
+    private static final String HASH_3 = "hash3";
+
+    private Map<String, ClusteredVariantEntity> storedVariants;
+
+    private List<ClusteredVariantOperationEntity> storedOperations;
+
+    private int variantQueries;
+
+    private int operationQueries;
+
+    private MergeOperationBuilder<ClusteredVariantEntity, ClusteredVariantOperationEntity> builder;
+
+    @Before
+    public void setUp() {
+        storedVariants = new HashMap<>();
+        storedOperations = new ArrayList<>();
+        variantQueries = 0;
+        operationQueries = 0;
+        builder = new MergeOperationBuilder<>(this::findAllOperationsByAccessionIn, this::findAllVariantsById,
+                                              this::buildMergeOperation);
+    }
+
+    private List<ClusteredVariantOperationEntity> findAllOperationsByAccessionIn(List<Long> accessions) {
+        operationQueries++;
+        return storedOperations.stream()
+                               .filter(operation -> accessions.contains(operation.getAccession()))
+                               .collect(Collectors.toList());
+    }
+
+    private List<ClusteredVariantEntity> findAllVariantsById(List<String> hashes) {
+        variantQueries++;
+        return hashes.stream().map(storedVariants::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private ClusteredVariantOperationEntity buildMergeOperation(ClusteredVariantEntity origin,
+                                                                ClusteredVariantEntity mergedInto) {
+        ClusteredVariantOperationEntity operation = new ClusteredVariantOperationEntity();
+        operation.fill(EventType.MERGED, origin.getAccession(), mergedInto.getAccession(), "Test merge",
+                       Collections.singletonList(new ClusteredVariantInactiveEntity(origin)));
+        return operation;
+    }
+
+    @Test
+    public void severalDuplicateHashesInOneChunk() {
+        store(buildVariant(1L, HASH_1, 100));
+        store(buildVariant(2L, HASH_2, 200));
+        List<ClusteredVariantEntity> chunk = Arrays.asList(buildVariant(1L, HASH_1, 100),
+                                                           buildVariant(3L, HASH_1, 100),
+                                                           buildVariant(3L, HASH_1, 100),
+                                                           buildVariant(4L, HASH_1, 100),
+                                                           buildVariant(5L, HASH_2, 200),
+                                                           buildVariant(6L, HASH_3, 300));
+        List<String> duplicateHashes = Arrays.asList(HASH_1, HASH_2);
+
+        List<ClusteredVariantOperationEntity> operations = builder.buildMergeOperations(chunk, duplicateHashes);
+
+        Set<String> expectedMerges = new HashSet<>(Arrays.asList("3>1:" + HASH_1, "4>1:" + HASH_1, "5>2:" + HASH_2));
+        assertEquals(expectedMerges, describe(operations));
+        assertEquals(describe(buildMergeOperationsPerItem(chunk, duplicateHashes)), describe(operations));
+        assertEquals(3, operations.size());
+        assertEquals(1, variantQueries);
+        assertEquals(1, operationQueries);
+    }
+
+    @Test
+    public void alreadyMergedOriginIsSkipped() {
+        ClusteredVariantEntity mergedInto = buildVariant(1L, HASH_1, 100);
+        store(mergedInto);
+        storedOperations.add(buildMergeOperation(buildVariant(3L, HASH_1, 100), mergedInto));
+        // a merge of the same accession but from another hash doesn't count
+        storedOperations.add(buildMergeOperation(buildVariant(4L, HASH_2, 200), mergedInto));
+        List<ClusteredVariantEntity> chunk = Arrays.asList(buildVariant(3L, HASH_1, 100),
+                                                           buildVariant(4L, HASH_1, 100));
+        List<String> duplicateHashes = Collections.singletonList(HASH_1);
+
+        List<ClusteredVariantOperationEntity> operations = builder.buildMergeOperations(chunk, duplicateHashes);
+
+        assertEquals(Collections.singleton("4>1:" + HASH_1), describe(operations));
+        assertEquals(describe(buildMergeOperationsPerItem(chunk, duplicateHashes)), describe(operations));
+        assertEquals(1, operationQueries);
+    }
+
+    @Test
+    public void noLookupsWithoutDuplicates() {
+        List<ClusteredVariantOperationEntity> operations = builder.buildMergeOperations(
+                Collections.singletonList(buildVariant(3L, HASH_1, 100)), Collections.emptyList());
+
+        assertEquals(0, operations.size());
+        assertEquals(0, variantQueries);
+        assertEquals(0, operationQueries);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingMergeTargetThrows() {
+        store(buildVariant(2L, HASH_2, 200));
+        List<ClusteredVariantEntity> chunk = Arrays.asList(buildVariant(3L, HASH_1, 100),
+                                                           buildVariant(5L, HASH_2, 200));
+
+        builder.buildMergeOperations(chunk, Arrays.asList(HASH_1, HASH_2));
+    }
+
+    private ClusteredVariantEntity buildVariant(Long accession, String hash, long start) {
+        ClusteredVariant variant = new ClusteredVariant("assembly", 9606, "contig", start, VariantType.SNV, false,
+                                                        null);
+        return new ClusteredVariantEntity(accession, hash, variant);
+    }
+
+    private void store(ClusteredVariantEntity variant) {
+        storedVariants.put(variant.getHashedMessage(), variant);
+    }
+
+    private Set<String> describe(Collection<ClusteredVariantOperationEntity> operations) {
+        return operations.stream()
+                         .map(operation -> operation.getAccession() + ">" + operation.getMergedInto() + ":"
+                                 + operation.getInactiveObjects().get(0).getHashedMessage())
+                         .collect(Collectors.toSet());
+    }
+
+    private List<ClusteredVariantOperationEntity> buildMergeOperationsPerItem(List<ClusteredVariantEntity> variants,
+                                                                              List<String> duplicateHashes) {
+        List<ClusteredVariantOperationEntity> operations = new ArrayList<>();
+        Map<String, ClusteredVariantEntity> uniqueVariants = new HashMap<>();
+        variants.forEach(variant -> uniqueVariants.putIfAbsent(variant.getHashedMessage() + variant.getAccession(),
+                                                               variant));
+        for (String hash : duplicateHashes) {
+            ClusteredVariantEntity mergedInto = storedVariants.get(hash);
+            for (ClusteredVariantEntity origin : uniqueVariants.values()) {
+                if (origin.getHashedMessage().equals(hash)
+                        && !origin.getAccession().equals(mergedInto.getAccession())
+                        && !isAlreadyMergedInto(origin, mergedInto)) {
+                    operations.add(buildMergeOperation(origin, mergedInto));
+                }
+            }
+        }
+        return operations;
+    }
+
+    private boolean isAlreadyMergedInto(ClusteredVariantEntity origin, ClusteredVariantEntity mergedInto) {
+        return storedOperations.stream().anyMatch(
+                operation -> operation.getAccession().equals(origin.getAccession())
+                        && operation.getEventType().equals(EventType.MERGED)
+                        && mergedInto.getAccession().equals(operation.getMergedInto())
+                        && origin.getHashedMessage().equals(operation.getInactiveObjects().get(0).getHashedMessage()));
+    }
+}
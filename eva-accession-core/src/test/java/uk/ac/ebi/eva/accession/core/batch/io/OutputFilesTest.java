@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OutputFilesTest {
+
+    private static final int COMPRESSION_THREADS = 2;
+
+    @Rule
+    public TemporaryFolder temporaryFolderRule = new TemporaryFolder();
+
+    @Test
+    public void plainFile() throws IOException {
+        File output = temporaryFolderRule.newFile();
+        write(output, false, 0, "line1");
+        write(output, true, 0, "line2");
+
+        assertEquals(Arrays.asList("line1", "line2"), Files.readAllLines(output.toPath()));
+    }
+
+    @Test
+    public void appendPlainFiles() throws IOException {
+        File output = temporaryFolderRule.newFile();
+        File input = temporaryFolderRule.newFile();
+        write(output, false, 0, "header");
+        write(input, false, 0, "line1");
+
+        OutputFiles.append(output.toPath(), input.toPath());
+
+        assertEquals(Arrays.asList("header", "line1"), Files.readAllLines(output.toPath()));
+    }
+
+    @Test
+    public void appendToCompressedFile() throws IOException {
+        File output = temporaryFolderRule.newFile();
+        write(output, false, COMPRESSION_THREADS, "line1");
+        write(output, true, COMPRESSION_THREADS, "line2");
+
+        assertEquals(Arrays.asList("line1", "line2"), readCompressed(output));
+        assertEndsWithSingleEofBlock(output);
+    }
+
+    @Test
+    public void concatenateCompressedFiles() throws IOException {
+        File output = temporaryFolderRule.newFile();
+        File first = temporaryFolderRule.newFile();
+        File second = temporaryFolderRule.newFile();
+        write(output, false, COMPRESSION_THREADS, "header");
+        write(first, false, COMPRESSION_THREADS, "line1");
+        write(second, false, COMPRESSION_THREADS, "line2");
+
+        OutputFiles.concatenateBlockCompressed(output.toPath(), Arrays.asList(first.toPath(), second.toPath()));
+
+        assertEquals(Arrays.asList("header", "line1", "line2"), readCompressed(output));
+        assertEndsWithSingleEofBlock(output);
+    }
+
+    private void write(File output, boolean append, int compressionThreads, String line) throws IOException {
+        try (BufferedWriter writer = OutputFiles.newBufferedWriter(output, append, compressionThreads)) {
+            writer.write(line);
+            writer.newLine();
+        }
+    }
+
+    private List<String> readCompressed(File output) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(new FileInputStream(output))))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    private void assertEndsWithSingleEofBlock(File output) throws IOException {
+        byte[] eofBlock = BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK;
+        byte[] content = Files.readAllBytes(output.toPath());
+        assertArrayEquals(eofBlock, Arrays.copyOfRange(content, content.length - eofBlock.length, content.length));
+        assertEquals(1, countOccurrences(content, eofBlock));
+    }
+
+    private int countOccurrences(byte[] content, byte[] pattern) {
+        int occurrences = 0;
+        for (int i = 0; i + pattern.length <= content.length; i++) {
+            if (Arrays.equals(pattern, Arrays.copyOfRange(content, i, i + pattern.length))) {
+                occurrences++;
+            }
+        }
+        return occurrences;
+    }
+}
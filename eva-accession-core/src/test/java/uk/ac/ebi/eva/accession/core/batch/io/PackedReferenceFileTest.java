@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ebi.eva.accession.core.exceptions.PositionOutsideOfContigException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PackedReferenceFileTest {
+
+    private static final String CONTIG_1 = "ctg1";
+
+    private static final String CONTIG_2 = "ctg2";
+
+    private static final String SEQUENCE_1 = "ACGTNNNNacgtnnRYacgTTGCA";
+
+    private static final String SEQUENCE_2 = "GgA";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path fasta;
+
+    @Before
+    public void setUp() throws IOException {
+        fasta = temporaryFolder.getRoot().toPath().resolve("reference.fa");
+        Files.write(fasta, Arrays.asList(">" + CONTIG_1 + " first contig", SEQUENCE_1.substring(0, 10),
+                                         SEQUENCE_1.substring(10), ">" + CONTIG_2, SEQUENCE_2));
+    }
+
+    @Test
+    public void readAllRegions() throws Exception {
+        FastaSequenceReader htsjdkReader = new FastaSequenceReader(fasta, 0, 0);
+        PackedReferenceWriter.write(fasta, PackedReferenceFile.getPath(fasta));
+
+        try (PackedReferenceFile packedReferenceFile = new PackedReferenceFile(PackedReferenceFile.getPath(fasta))) {
+            assertEquals(Arrays.asList(CONTIG_1, CONTIG_2), Arrays.asList(
+                    packedReferenceFile.getSequenceNames().toArray()));
+            assertEquals(SEQUENCE_1.length(), packedReferenceFile.getSequenceLength(CONTIG_1));
+            for (String contig : Arrays.asList(CONTIG_1, CONTIG_2)) {
+                long length = packedReferenceFile.getSequenceLength(contig);
+                for (long start = 1; start <= length; start++) {
+                    for (long end = start; end <= length; end++) {
+                        assertEquals(htsjdkReader.getSequence(contig, start, end),
+                                     packedReferenceFile.getSequence(contig, start, end));
+                    }
+                }
+            }
+        }
+        htsjdkReader.close();
+    }
+
+    @Test
+    public void fastaSequenceReaderUsesPackedFile() throws Exception {
+        assertFalse(PackedReferenceFile.isUpToDate(fasta));
+        PackedReferenceWriter.write(fasta, PackedReferenceFile.getPath(fasta));
+        assertTrue(PackedReferenceFile.isUpToDate(fasta));
+
+        FastaSequenceReader reader = new FastaSequenceReader(fasta);
+        assertTrue(reader.doesContigExist(CONTIG_2));
+        assertFalse(reader.doesContigExist("ctg3"));
+        assertEquals(SEQUENCE_1, reader.getSequence(CONTIG_1, 1, SEQUENCE_1.length()));
+        assertEquals("G", reader.getSequenceToUpperCase(CONTIG_2, 2, 2));
+        reader.close();
+
+        // the FASTA index and dictionary are not needed
+        assertFalse(Files.exists(fasta.resolveSibling("reference.fa.fai")));
+    }
+
+    @Test(expected = PositionOutsideOfContigException.class)
+    public void positionOutsideOfContig() throws Exception {
+        PackedReferenceWriter.write(fasta, PackedReferenceFile.getPath(fasta));
+        FastaSequenceReader reader = new FastaSequenceReader(fasta);
+        reader.getSequence(CONTIG_2, 1, SEQUENCE_2.length() + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void repeatedSequenceName() throws Exception {
+        Files.write(fasta, Arrays.asList(">" + CONTIG_1, SEQUENCE_1, ">" + CONTIG_1, SEQUENCE_2));
+        PackedReferenceWriter.write(fasta, PackedReferenceFile.getPath(fasta));
+    }
+}
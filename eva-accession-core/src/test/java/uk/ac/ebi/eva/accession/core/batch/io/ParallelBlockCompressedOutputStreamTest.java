@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelBlockCompressedOutputStreamTest {
+
+    private static final int NUMBER_OF_THREADS = 3;
+
+    // enough lines to fill several blocks
+    private static final int NUMBER_OF_LINES = 50000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void readWithHtsjdk() throws IOException {
+        File output = temporaryFolder.newFile();
+        List<Long> pointers = new ArrayList<>();
+        try (ParallelBlockCompressedOutputStream stream = new ParallelBlockCompressedOutputStream(
+                new FileOutputStream(output), NUMBER_OF_THREADS)) {
+            writeLines(stream, pointers);
+        }
+
+        assertEquals(BlockCompressedInputStream.FileTermination.HAS_TERMINATOR_BLOCK,
+                     BlockCompressedInputStream.checkTermination(output));
+        try (BlockCompressedInputStream input = new BlockCompressedInputStream(output)) {
+            for (int i = 0; i < NUMBER_OF_LINES; i++) {
+                assertEquals(getLine(i), input.readLine());
+            }
+            assertNull(input.readLine());
+        }
+    }
+
+    @Test
+    public void markedPointersCanBeSought() throws IOException {
+        File output = temporaryFolder.newFile();
+        List<Long> pointers = new ArrayList<>();
+        try (ParallelBlockCompressedOutputStream stream = new ParallelBlockCompressedOutputStream(
+                new FileOutputStream(output), NUMBER_OF_THREADS)) {
+            writeLines(stream, pointers);
+        }
+
+        assertEquals(NUMBER_OF_LINES, pointers.size());
+        try (BlockCompressedInputStream input = new BlockCompressedInputStream(output)) {
+            for (int i : new int[]{0, 1, NUMBER_OF_LINES / 2, NUMBER_OF_LINES - 1}) {
+                input.seek(pointers.get(i));
+                assertEquals(getLine(i), input.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void sharedExecutorIsNotShutDown() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (ParallelBlockCompressedOutputStream stream = new ParallelBlockCompressedOutputStream(output, executor,
+                                                                                                       1)) {
+                writeLines(stream, new ArrayList<>());
+            }
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void emptyStreamOnlyHasEofBlock() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<Long> pointers = new ArrayList<>();
+        ParallelBlockCompressedOutputStream stream = new ParallelBlockCompressedOutputStream(output,
+                                                                                             NUMBER_OF_THREADS);
+        stream.mark(pointers::add);
+        stream.close();
+
+        assertEquals(28, output.size());
+        assertEquals(0L, pointers.get(0).longValue());
+    }
+
+    @Test(expected = IOException.class)
+    public void writeAfterClose() throws IOException {
+        ParallelBlockCompressedOutputStream stream = new ParallelBlockCompressedOutputStream(
+                new ByteArrayOutputStream(), NUMBER_OF_THREADS);
+        stream.close();
+        stream.write(1);
+    }
+
+    @Test
+    public void outputIsClosedIfWritingFails() throws IOException {
+        AtomicBoolean outputClosed = new AtomicBoolean(false);
+        OutputStream failingOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public void close() {
+                outputClosed.set(true);
+            }
+        };
+        ParallelBlockCompressedOutputStream stream = new ParallelBlockCompressedOutputStream(failingOutput,
+                                                                                             NUMBER_OF_THREADS);
+        stream.write(getLine(0).getBytes(StandardCharsets.UTF_8));
+        try {
+            stream.close();
+            fail("The failure to write the last block should be thrown");
+        } catch (IOException e) {
+            assertTrue(outputClosed.get());
+        }
+    }
+
+    private void writeLines(ParallelBlockCompressedOutputStream stream, List<Long> pointers) throws IOException {
+        for (int i = 0; i < NUMBER_OF_LINES; i++) {
+            stream.mark(pointers::add);
+            stream.write((getLine(i) + "\n").getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+        }
+    }
+
+    private String getLine(int i) {
+        return "line " + i + "\tsome text that repeats itself, some text that repeats itself";
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.codecs;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDocumentWrapper;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VariantEntityCodecsTest {
+
+    private static final LocalDateTime CREATED_DATE = LocalDateTime.of(2020, 5, 14, 10, 30, 15);
+
+    private static final LocalDateTime REMAPPED_DATE = LocalDateTime.of(2020, 6, 1, 8, 0, 0);
+
+    @Test
+    public void decodeSubmittedVariant() {
+        Document document = new Document("_id", "HASH_1")
+                .append("seq", "GCA_000000001.1")
+                .append("tax", 1000)
+                .append("study", "PRJEB1")
+                .append("contig", "1")
+                .append("start", 100L)
+                .append("ref", "A")
+                .append("alt", "T")
+                .append("accession", 5000000000L)
+                .append("version", 1)
+                .append("rs", 3000000000L)
+                .append("evidence", false)
+                .append("mapWeight", 2)
+                .append("createdDate", toDate(CREATED_DATE))
+                .append("remappedFrom", "GCA_000000002.1")
+                .append("remappedDate", toDate(REMAPPED_DATE))
+                .append("remappingId", "REMAPPING_1")
+                .append("_class", "uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity");
+
+        SubmittedVariantEntity entity = decode(new SubmittedVariantEntityCodec(), document);
+
+        assertEquals("HASH_1", entity.getId());
+        assertEquals(Long.valueOf(5000000000L), entity.getAccession());
+        assertEquals(1, entity.getVersion());
+        assertEquals("GCA_000000001.1", entity.getReferenceSequenceAccession());
+        assertEquals(1000, entity.getTaxonomyAccession());
+        assertEquals("PRJEB1", entity.getProjectAccession());
+        assertEquals("1", entity.getContig());
+        assertEquals(100L, entity.getStart());
+        assertEquals("A", entity.getReferenceAllele());
+        assertEquals("T", entity.getAlternateAllele());
+        assertEquals(Long.valueOf(3000000000L), entity.getClusteredVariantAccession());
+        assertFalse(entity.isSupportedByEvidence());
+        assertTrue(entity.isAssemblyMatch());
+        assertTrue(entity.isAllelesMatch());
+        assertFalse(entity.isValidated());
+        assertEquals(Integer.valueOf(2), entity.getMapWeight());
+        assertEquals(CREATED_DATE, entity.getCreatedDate());
+        assertEquals("GCA_000000002.1", entity.getRemappedFrom());
+        assertEquals(REMAPPED_DATE, entity.getRemappedDate());
+        assertEquals("REMAPPING_1", entity.getRemappingId());
+    }
+
+    @Test
+    public void decodeSubmittedVariantWithMissingOptionalFields() {
+        Document document = new Document("_id", "HASH_1")
+                .append("seq", "GCA_000000001.1")
+                .append("tax", 1000)
+                .append("study", "PRJEB1")
+                .append("contig", "1")
+                .append("start", 100)
+                .append("ref", "")
+                .append("alt", "T")
+                .append("accession", 5L)
+                .append("version", 1)
+                .append("rs", null);
+
+        SubmittedVariantEntity entity = decode(new SubmittedVariantEntityCodec(), document);
+
+        assertEquals(100L, entity.getStart());
+        assertEquals("", entity.getReferenceAllele());
+        assertNull(entity.getClusteredVariantAccession());
+        assertTrue(entity.isSupportedByEvidence());
+        assertNull(entity.getMapWeight());
+        assertNull(entity.getCreatedDate());
+        assertNull(entity.getRemappedFrom());
+    }
+
+    @Test
+    public void decodeClusteredVariants() {
+        Document document = new Document("_id", "HASH_2")
+                .append("asm", "GCA_000000001.1")
+                .append("tax", 1000)
+                .append("contig", "1")
+                .append("start", 100L)
+                .append("type", VariantType.SNV.name())
+                .append("validated", true)
+                .append("accession", 3000000000L)
+                .append("version", 1)
+                .append("createdDate", toDate(CREATED_DATE))
+                .append("ssInfo", Collections.singletonList(new Document("ss", 1L)));
+
+        ClusteredVariantEntity eva = decode(ClusteredVariantEntityCodec.forEva(), document);
+        DbsnpClusteredVariantEntity dbsnp = decode(ClusteredVariantEntityCodec.forDbsnp(), document);
+
+        ClusteredVariantEntity expectedEva = new ClusteredVariantEntity(3000000000L, "HASH_2", "GCA_000000001.1", 1000,
+                                                                        "1", 100L, VariantType.SNV, true,
+                                                                        CREATED_DATE, 1);
+        assertEquals(expectedEva, eva);
+        assertEquals(expectedEva.getId(), eva.getId());
+        assertEquals(expectedEva.getAccession(), eva.getAccession());
+        assertEquals(CREATED_DATE, eva.getCreatedDate());
+        assertEquals(DbsnpClusteredVariantEntity.class, dbsnp.getClass());
+        assertEquals(VariantType.SNV, dbsnp.getType());
+        assertTrue(dbsnp.isValidated());
+    }
+
+    @Test
+    public void encodeSubmittedVariant() {
+        SubmittedVariantEntity entity = new SubmittedVariantEntity(5000000000L, "HASH_1", "GCA_000000001.1", 1000,
+                                                                   "PRJEB1", "1", 100L, "A", "T", 3000000000L, false,
+                                                                   true, true, true, 1, 2);
+        entity.setCreatedDate(CREATED_DATE);
+        entity.setRemappedFrom("GCA_000000002.1");
+        entity.setRemappedDate(REMAPPED_DATE);
+
+        BsonDocument document = encode(new SubmittedVariantEntityCodec(), entity);
+
+        assertEquals("HASH_1", document.getString("_id").getValue());
+        assertEquals(100L, document.getInt64("start").getValue());
+        assertEquals(1000, document.getInt32("tax").getValue());
+        assertFalse(document.getBoolean("evidence").getValue());
+        assertFalse(document.containsKey("asmMatch"));
+        assertFalse(document.containsKey("remappingId"));
+        assertEquals(toDate(CREATED_DATE).getTime(), document.getDateTime("createdDate").getValue());
+
+        SubmittedVariantEntity decoded = decode(new SubmittedVariantEntityCodec(), document);
+        assertEquals(entity, decoded);
+        assertEquals(entity.getId(), decoded.getId());
+        assertEquals(entity.getAccession(), decoded.getAccession());
+        assertEquals(entity.getCreatedDate(), decoded.getCreatedDate());
+    }
+
+    @Test
+    public void encodeClusteredVariant() {
+        DbsnpClusteredVariantEntity entity = new DbsnpClusteredVariantEntity(30L, "HASH_2", "GCA_000000001.1", 1000,
+                                                                             "1", 100L, VariantType.SNV, true,
+                                                                             CREATED_DATE, 1, 3);
+
+        BsonDocument document = encode(ClusteredVariantEntityCodec.forDbsnp(), entity);
+
+        assertEquals(VariantType.SNV.name(), document.getString("type").getValue());
+        assertTrue(document.getBoolean("validated").getValue());
+        assertEquals(3, document.getInt32("mapWeight").getValue());
+
+        DbsnpClusteredVariantEntity decoded = decode(ClusteredVariantEntityCodec.forDbsnp(), document);
+        assertEquals(entity, decoded);
+        assertEquals(entity.getId(), decoded.getId());
+        assertEquals(entity.getAccession(), decoded.getAccession());
+        assertEquals(entity.getMapWeight(), decoded.getMapWeight());
+        assertEquals(entity.getCreatedDate(), decoded.getCreatedDate());
+    }
+
+    private static <T> T decode(Codec<T> codec, Document document) {
+        BsonDocument bsonDocument = BsonDocumentWrapper.asBsonDocument(document, VariantEntityCodecs.REGISTRY);
+        return codec.decode(new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+    }
+
+    private static <T> T decode(Codec<T> codec, BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private static <T> BsonDocument encode(Codec<T> codec, T entity) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), entity, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static Date toDate(LocalDateTime localDateTime) {
+        return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
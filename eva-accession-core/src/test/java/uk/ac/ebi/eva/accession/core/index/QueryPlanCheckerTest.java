@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.index;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QueryPlanCheckerTest {
+
+    @Test
+    public void indexScanHasNoProblems() {
+        Document explain = queryPlanner(fetch(indexScan()));
+        assertTrue(QueryPlanChecker.findProblems(explain).isEmpty());
+    }
+
+    @Test
+    public void collectionScan() {
+        Document explain = queryPlanner(new Document("stage", "COLLSCAN"));
+        assertEquals(Collections.singletonList(QueryPlanChecker.COLLECTION_SCAN),
+                     QueryPlanChecker.findProblems(explain));
+    }
+
+    @Test
+    public void inMemorySort() {
+        Document explain = queryPlanner(new Document("stage", "SORT").append("inputStage", fetch(indexScan())));
+        assertEquals(Collections.singletonList(QueryPlanChecker.IN_MEMORY_SORT),
+                     QueryPlanChecker.findProblems(explain));
+    }
+
+    @Test
+    public void aggregationSortStage() {
+        Document explain = new Document("stages", Arrays.asList(
+                new Document("$cursor", queryPlanner(new Document("stage", "COLLSCAN"))),
+                new Document("$sort", new Document("sortKey", new Document("accession", 1)))));
+        assertEquals(Arrays.asList(QueryPlanChecker.COLLECTION_SCAN, QueryPlanChecker.IN_MEMORY_SORT),
+                     QueryPlanChecker.findProblems(explain));
+    }
+
+    @Test
+    public void rejectedPlansAreIgnored() {
+        Document explain = new Document("queryPlanner",
+                                        new Document("winningPlan", fetch(indexScan()))
+                                                .append("rejectedPlans", Collections.singletonList(
+                                                        new Document("stage", "COLLSCAN"))));
+        assertTrue(QueryPlanChecker.findProblems(explain).isEmpty());
+    }
+
+    private Document queryPlanner(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan)
+                .append("rejectedPlans", Collections.emptyList()));
+    }
+
+    private Document fetch(Document inputStage) {
+        return new Document("stage", "FETCH").append("inputStage", inputStage);
+    }
+
+    private Document indexScan() {
+        return new Document("stage", "IXSCAN").append("keyPattern", new Document("asm", 1).append("contig", 1)
+                                                                                         .append("start", 1));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClusteredVariantHashingFunctionTest {
+
+    private static final String ASSEMBLY_ACCESSION = "assembly";
+
+    private static final int TAXONOMY_ACCESSION = 1;
+
+    private static final String CONTIG = "contig";
+
+    private static final int START = 1;
+
+    private ClusteredVariantHashingFunction hashingFunction;
+
+    private Function<IClusteredVariant, String> summaryAndHashingFunction;
+
+    @Before
+    public void setUp() {
+        hashingFunction = new ClusteredVariantHashingFunction();
+        summaryAndHashingFunction = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+    }
+
+    @Test
+    public void sameHashAsBashCommand() {
+        // echo -n "assembly_contig_1_SNV" | sha1sum | awk '{ print toupper($1) }'
+        IClusteredVariant clusteredVariant = new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, START,
+                                                                  VariantType.SNV, null, null);
+        assertEquals("942ACEEBDBB9E5ABDEC5FA60A48050A37DF9A474", hashingFunction.apply(clusteredVariant));
+    }
+
+    @Test
+    public void sameHashAsSummaryFunction() {
+        for (VariantType type : VariantType.values()) {
+            assertSameHash(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, START, type, null,
+                                                null));
+        }
+        assertSameHash(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, 0, VariantType.SNV, false,
+                                            null));
+        assertSameHash(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, Long.MAX_VALUE,
+                                            VariantType.SNV, true, null));
+        assertSameHash(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, -12345, VariantType.SNV,
+                                            null, null));
+        assertSameHash(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, Long.MIN_VALUE,
+                                            VariantType.SNV, null, null));
+    }
+
+    @Test
+    public void sameHashAsSummaryFunctionWithNonAsciiContig() {
+        assertSameHash(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, "contig_ñ_一", START,
+                                            VariantType.SNV, null, null));
+    }
+
+    @Test
+    public void hashesAreIndependent() {
+        IClusteredVariant longContig = new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION,
+                                                            new String(new char[1000]).replace('\0', 'c'), START,
+                                                            VariantType.SNV, null, null);
+        IClusteredVariant shortContig = new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, START,
+                                                             VariantType.SNV, null, null);
+        assertSameHash(longContig);
+        assertSameHash(shortContig);
+        assertSameHash(longContig);
+    }
+
+    private void assertSameHash(IClusteredVariant clusteredVariant) {
+        assertEquals(summaryAndHashingFunction.apply(clusteredVariant), hashingFunction.apply(clusteredVariant));
+    }
+}
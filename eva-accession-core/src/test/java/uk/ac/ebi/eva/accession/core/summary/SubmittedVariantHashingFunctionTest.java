@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class SubmittedVariantHashingFunctionTest {
+
+    private static final String ASSEMBLY_ACCESSION = "GCA_000000001.1";
+
+    private static final int TAXONOMY_ACCESSION = 1000;
+
+    private static final String PROJECT_ACCESSION = "projectId_1";
+
+    private static final String CONTIG = "2";
+
+    private static final long START = 3000;
+
+    private SubmittedVariantHashingFunction hashingFunction;
+
+    private Function<ISubmittedVariant, String> summaryAndHashingFunction;
+
+    @Before
+    public void setUp() {
+        hashingFunction = new SubmittedVariantHashingFunction();
+        summaryAndHashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+    }
+
+    @Test
+    public void sameHashAsBashCommand() {
+        // echo -n "GCA_000000001.1_projectId_1_2_3000_T_G" | sha1sum | awk '{ print toupper($1) }'
+        assertEquals("C195245DADAA13BB00474F66A57A21718B332B5A", hashingFunction.apply(createVariant("T", "G")));
+    }
+
+    @Test
+    public void sameHashAsSummaryFunction() {
+        assertSameHash(createVariant("T", "G"));
+        assertSameHash(createVariant("", "G"));
+        assertSameHash(createVariant("T", ""));
+        assertSameHash(createVariant("ACGTACGTACGT", "A"));
+    }
+
+    @Test
+    public void sameHashAsSummaryFunctionWithNullFields() {
+        // SubmittedVariant doesn't allow null fields, but entities read from the database might have them
+        assertSameHash(new SubmittedVariantEntity(1L, "hash", ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, null, CONTIG,
+                                                  START, "T", null, null, false, false, false, false, 1));
+    }
+
+    @Test
+    public void sameHashAsSummaryFunctionWithLongAlleles() {
+        String longAllele = new String(new char[10000]).replace('\0', 'A');
+        assertSameHash(createVariant(longAllele, "G"));
+        assertSameHash(createVariant("T", "G"));
+    }
+
+    private SubmittedVariant createVariant(String reference, String alternate) {
+        return new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, START,
+                                    reference, alternate, null, false, false, false, false, null);
+    }
+
+    private void assertSameHash(ISubmittedVariant submittedVariant) {
+        assertEquals(summaryAndHashingFunction.apply(submittedVariant), hashingFunction.apply(submittedVariant));
+    }
+}
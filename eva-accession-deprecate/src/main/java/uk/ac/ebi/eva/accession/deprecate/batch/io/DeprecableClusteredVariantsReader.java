@@ -15,7 +15,6 @@
  */
 package uk.ac.ebi.eva.accession.deprecate.batch.io;
 
-import com.mongodb.BasicDBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoCollection;
@@ -23,16 +22,14 @@ import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
-import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamReader;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.convert.MongoConverter;
 
+import uk.ac.ebi.eva.accession.core.codecs.VariantEntityCodecs;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 
 import java.util.ArrayList;
@@ -67,30 +64,24 @@ public class DeprecableClusteredVariantsReader implements ItemStreamReader<Dbsnp
 
     private List<String> assemblies;
 
-    private MongoCursor<Document> cursor;
-
-    private MongoTemplate mongoTemplate;
-    
-    private MongoConverter converter;
+    private MongoCursor<DbsnpClusteredVariantEntity> cursor;
 
     private int chunkSize;
 
     /**
      * Constructs a reader for all variants in the collection DBSNP_CLUSTERED_VARIANT_ENTITY_DECLUSTERED, irrespective of the assembly.
      */
-    public DeprecableClusteredVariantsReader(MongoClient mongoClient, String database, MongoTemplate mongoTemplate,
-                                             int chunkSize) {
-        this(mongoClient, database, mongoTemplate, null, chunkSize);
+    public DeprecableClusteredVariantsReader(MongoClient mongoClient, String database, int chunkSize) {
+        this(mongoClient, database, null, chunkSize);
     }
 
     /**
      * Constructs a reader that retrieves variants mapped only against the specified assemblies.
      */
-    public DeprecableClusteredVariantsReader(MongoClient mongoClient, String database, MongoTemplate mongoTemplate,
-                                             List<String> assemblyAccessions, int chunkSize) {
+    public DeprecableClusteredVariantsReader(MongoClient mongoClient, String database, List<String> assemblyAccessions,
+                                             int chunkSize) {
         this.mongoClient = mongoClient;
         this.database = database;
-        this.mongoTemplate = mongoTemplate;
         this.assemblies = assemblyAccessions;
         this.chunkSize = chunkSize;
     }
@@ -98,13 +89,14 @@ public class DeprecableClusteredVariantsReader implements ItemStreamReader<Dbsnp
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         MongoDatabase db = mongoClient.getDatabase(database);
-        MongoCollection<Document> collection = db.getCollection(DBSNP_CLUSTERED_VARIANT_ENTITY_DECLUSTERED);
-        AggregateIterable<Document> declusteredVariants = collection.aggregate(buildAggregation())
-                                                                    .allowDiskUse(true)
-                                                                    .useCursor(true)
-                                                                    .batchSize(chunkSize);
+        MongoCollection<DbsnpClusteredVariantEntity> collection =
+                db.getCollection(DBSNP_CLUSTERED_VARIANT_ENTITY_DECLUSTERED, DbsnpClusteredVariantEntity.class)
+                  .withCodecRegistry(VariantEntityCodecs.REGISTRY);
+        AggregateIterable<DbsnpClusteredVariantEntity> declusteredVariants = collection.aggregate(buildAggregation())
+                                                                                       .allowDiskUse(true)
+                                                                                       .useCursor(true)
+                                                                                       .batchSize(chunkSize);
         cursor = declusteredVariants.iterator();
-        converter = mongoTemplate.getConverter();
     }
 
     private List<Bson> buildAggregation() {
@@ -123,11 +115,7 @@ public class DeprecableClusteredVariantsReader implements ItemStreamReader<Dbsnp
 
     @Override
     public DbsnpClusteredVariantEntity read() {
-        return cursor.hasNext() ? getDbsnpClusteredVariantEntity(cursor.next()) : null;
-    }
-
-    private DbsnpClusteredVariantEntity getDbsnpClusteredVariantEntity(Document deprecableClusteredVariant) {
-        return converter.read(DbsnpClusteredVariantEntity.class, new BasicDBObject(deprecableClusteredVariant));
+        return cursor.hasNext() ? cursor.next() : null;
     }
 
     @Override
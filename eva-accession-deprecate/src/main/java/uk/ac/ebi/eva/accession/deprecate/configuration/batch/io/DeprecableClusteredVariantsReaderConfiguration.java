@@ -21,7 +21,6 @@ import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.mongodb.core.MongoTemplate;
 
 import uk.ac.ebi.eva.accession.core.configuration.nonhuman.MongoConfiguration;
 import uk.ac.ebi.eva.accession.deprecate.batch.io.DeprecableClusteredVariantsReader;
@@ -37,7 +36,6 @@ public class DeprecableClusteredVariantsReaderConfiguration {
     @StepScope
     DeprecableClusteredVariantsReader deprecableClusteredVariantsReader(MongoClient mongoClient,
                                                                         MongoProperties mongoProperties,
-                                                                        MongoTemplate mongoTemplate,
                                                                         InputParameters parameters) {
         boolean assembliesProvided =
                 parameters.getAssemblyAccession() != null && !parameters.getAssemblyAccession().isEmpty();
@@ -48,10 +46,10 @@ public class DeprecableClusteredVariantsReaderConfiguration {
                     + " 2) parameters.deprecateAll=false and parameters.assemblyAccession=<comma-separated-accessions>");
         }
         if (assembliesProvided) {
-            return new DeprecableClusteredVariantsReader(mongoClient, mongoProperties.getDatabase(), mongoTemplate,
+            return new DeprecableClusteredVariantsReader(mongoClient, mongoProperties.getDatabase(),
                                                          parameters.getAssemblyAccession(), parameters.getChunkSize());
         } else {
-            return new DeprecableClusteredVariantsReader(mongoClient, mongoProperties.getDatabase(), mongoTemplate,
+            return new DeprecableClusteredVariantsReader(mongoClient, mongoProperties.getDatabase(),
                                                          parameters.getChunkSize());
         }
     }
@@ -18,13 +18,16 @@ package uk.ac.ebi.eva.accession.deprecate.configuration.batch.listeners;
 import org.springframework.batch.core.listener.StepListenerSupport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 import uk.ac.ebi.eva.accession.deprecate.batch.listeners.DeprecationStepProgressListener;
 
 import static uk.ac.ebi.eva.accession.deprecate.configuration.BeanNames.DEPRECATION_PROGRESS_LISTENER;
 
 @Configuration
+@Import(MetricsConfiguration.class)
 public class ListenerConfiguration {
 
     @Bean(DEPRECATION_PROGRESS_LISTENER)
@@ -30,6 +30,7 @@ import org.springframework.context.annotation.Configuration;
 
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.deprecate.configuration.BeanNames.DEPRECABLE_CLUSTERED_VARIANTS_READER;
 import static uk.ac.ebi.eva.accession.deprecate.configuration.BeanNames.DEPRECATE_CLUSTERED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.deprecate.configuration.BeanNames.DEPRECATION_PROGRESS_LISTENER;
@@ -51,6 +52,10 @@ public class DeprecateClusteredVariantsStepConfiguration {
     @Qualifier(DEPRECATION_PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Bean(DEPRECATE_CLUSTERED_VARIANTS_STEP)
     public Step deprecateClusteredVariantsStep(StepBuilderFactory stepBuilderFactory,
                                                SimpleCompletionPolicy chunkSizeCompletionPolicy) {
@@ -59,6 +64,7 @@ public class DeprecateClusteredVariantsStepConfiguration {
                 .reader(deprecableClusteredVariantsReader)
                 .writer(deprecationWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -27,7 +27,6 @@ import org.junit.runner.RunWith;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -77,9 +76,6 @@ public class DeprecableClusteredVariantsReaderTest {
     @Autowired
     private MongoClient mongoClient;
 
-    @Autowired
-    private MongoTemplate mongoTemplate;
-
     //Required by nosql-unit
     @Autowired
     private ApplicationContext applicationContext;
@@ -91,7 +87,7 @@ public class DeprecableClusteredVariantsReaderTest {
     @Before
     public void setUp() {
         executionContext = new ExecutionContext();
-        reader = new DeprecableClusteredVariantsReader(mongoClient, TEST_DB, mongoTemplate, CHUNK_SIZE);
+        reader = new DeprecableClusteredVariantsReader(mongoClient, TEST_DB, CHUNK_SIZE);
         reader.open(executionContext);
     }
 
@@ -120,8 +116,8 @@ public class DeprecableClusteredVariantsReaderTest {
 
     @Test
     public void readSubsetOfAssemblies() {
-        reader = new DeprecableClusteredVariantsReader(mongoClient, TEST_DB, mongoTemplate,
-                                                       Arrays.asList(ASM_2, ASM_3), CHUNK_SIZE);
+        reader = new DeprecableClusteredVariantsReader(mongoClient, TEST_DB, Arrays.asList(ASM_2, ASM_3),
+                                                       CHUNK_SIZE);
         reader.open(executionContext);
         List<DbsnpClusteredVariantEntity> variants = readIntoList();
         assertEquals(1, variants.size());
@@ -56,7 +56,8 @@ public class DbsnpJsonClusteredVariantsWriter implements ItemWriter<DbsnpCluster
         this.dbsnpClusteredVariantWriter = dbsnpClusteredVariantWriter;
         this.dbsnpClusteredVariantOperationWriter = dbsnpClusteredVariantOperationWriter;
         this.clusteredOperationBuilder = new MergeOperationBuilder<>(
-                clusteredOperationRepository, clusteredVariantRepository, this::buildClusteredMergeOperation);
+                clusteredOperationRepository::findAllByAccessionIn, clusteredVariantRepository,
+                this::buildClusteredMergeOperation);
 
     }
 
@@ -18,14 +18,13 @@ package uk.ac.ebi.eva.accession.dbsnp2.batch.processors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -70,7 +69,7 @@ public class ContigToGenbankReplacerProcessor
                                                                variant.getCreatedDate());
 
             Function<IClusteredVariant, String> hashingFunction =
-                    new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+                    new ClusteredVariantHashingFunction();
             return new DbsnpClusteredVariantEntity(variant.getAccession(),
                                                    hashingFunction.apply(newVariant),
                                                    newVariant,
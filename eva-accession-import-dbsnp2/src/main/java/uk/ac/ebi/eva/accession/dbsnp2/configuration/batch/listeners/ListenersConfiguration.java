@@ -18,13 +18,16 @@ package uk.ac.ebi.eva.accession.dbsnp2.configuration.batch.listeners;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import uk.ac.ebi.eva.accession.core.batch.listeners.ImportCounts;
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
 import uk.ac.ebi.eva.accession.dbsnp2.batch.listeners.ImportDbsnpJsonVariantsStepProgressListener;
 import uk.ac.ebi.eva.accession.dbsnp2.parameters.InputParameters;
 
 import static uk.ac.ebi.eva.accession.dbsnp2.configuration.BeanNames.IMPORT_DBSNP_JSON_VARIANTS_PROGRESS_LISTENER;
 
 @Configuration
+@Import(MetricsConfiguration.class)
 public class ListenersConfiguration {
 
     @Bean(name = IMPORT_DBSNP_JSON_VARIANTS_PROGRESS_LISTENER)
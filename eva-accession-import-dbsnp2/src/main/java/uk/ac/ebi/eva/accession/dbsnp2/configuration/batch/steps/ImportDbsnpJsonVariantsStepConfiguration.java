@@ -30,6 +30,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.dbsnp2.configuration.BeanNames.DBSNP_JSON_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.dbsnp2.configuration.BeanNames.DBSNP_JSON_VARIANT_PROCESSOR;
 import static uk.ac.ebi.eva.accession.dbsnp2.configuration.BeanNames.DBSNP_JSON_VARIANT_WRITER;
@@ -59,6 +60,10 @@ public class ImportDbsnpJsonVariantsStepConfiguration {
     @Qualifier(IMPORT_DBSNP_JSON_VARIANTS_PROGRESS_LISTENER)
     private StepExecutionListener importDbsnpJsonVariantsProgressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
 
     @Bean(IMPORT_DBSNP_JSON_VARIANTS_STEP)
     public Step importDbsnpJsonVariantsStep(StepBuilderFactory stepBuilderFactory,
@@ -69,6 +74,7 @@ public class ImportDbsnpJsonVariantsStepConfiguration {
             .processor(variantProcessor)
             .writer(variantWriter)
             .listener(importDbsnpJsonVariantsProgressListener)
+            .listener(metricsListener)
             .build();
     }
 }
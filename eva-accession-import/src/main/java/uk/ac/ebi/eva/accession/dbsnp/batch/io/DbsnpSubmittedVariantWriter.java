@@ -22,10 +22,12 @@ import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
+import uk.ac.ebi.eva.accession.core.batch.io.DuplicateHashSplit;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.batch.listeners.ImportCounts;
 
 import java.util.List;
+import java.util.Set;
 
 public class DbsnpSubmittedVariantWriter implements ItemWriter<DbsnpSubmittedVariantEntity> {
 
@@ -54,4 +56,14 @@ public class DbsnpSubmittedVariantWriter implements ItemWriter<DbsnpSubmittedVar
         }
     }
 
+    /**
+     * Inserts only the submitted variants whose hash is not stored yet, see {@link DuplicateHashSplit}.
+     *
+     * @return the hashes of the variants that were not inserted, including any that another writer inserted between
+     * the check and the insert
+     */
+    public Set<String> writeNonDuplicates(List<? extends DbsnpSubmittedVariantEntity> importedSubmittedVariants) {
+        return DuplicateHashSplit.writeNonDuplicates(mongoTemplate, importedSubmittedVariants,
+                                                     DbsnpSubmittedVariantEntity.class, this::write);
+    }
 }
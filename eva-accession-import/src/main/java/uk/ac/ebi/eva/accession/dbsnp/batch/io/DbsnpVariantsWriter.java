@@ -21,8 +21,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.util.Pair;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.AccessionedDocument;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.EventDocument;
 
 import uk.ac.ebi.eva.accession.core.batch.io.DbsnpClusteredVariantOperationWriter;
@@ -43,20 +46,61 @@ import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantsWrapper;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static uk.ac.ebi.eva.accession.core.exceptions.MongoBulkWriteExceptionUtils.extractUniqueHashesForDuplicateKeyError;
 import static uk.ac.ebi.eva.accession.dbsnp.batch.io.DbsnpClusteredVariantDeclusteredWriter.DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME;
 
+/**
+ * Writes the clustered and submitted variants imported from dbSNP. When a variant has the same hash as one already
+ * stored, a merge operation is written instead.
+ *
+ * Several instances may write at the same time when the import is partitioned (see SubSnpNoHgvsRangePartitioner).
+ * The variants are inserted in parallel, but building the merge operations (which checks whether a merge was already
+ * written) and writing them is done by one writer at a time, so that two partitions that find the same duplicate
+ * don't write the same merge twice. The writers of the partitions must share the same {@link DbsnpVariantsWriterLocks}.
+ *
+ * Without partitions, the first of two duplicates in load order is kept as active. With partitions the insertion order
+ * depends on the speed of each thread, so keepLowestAccession must be set: the duplicate with the lowest accession is
+ * kept as active, and if it's found after the other one was stored, the stored one is replaced and merged into it.
+ * Those replacements are done at the end of the chunk while no other writer is in the middle of one, so that all the
+ * submitted variants linked to the replaced clustered variant are already stored and can be linked to the new one.
+ *
+ * If checkDuplicatesBeforeWrite is set, the clustered and submitted variants that are already stored are detected with
+ * a query before inserting the rest, instead of from the duplicate key errors of the bulk insert.
+ */
 public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
 
     private static final Logger logger = LoggerFactory.getLogger(DbsnpVariantsWriter.class);
 
+    private static final String ID_FIELD = "_id";
+
+    private static final String REFERENCE_SEQUENCE_FIELD = "seq";
+
+    private static final String CONTIG_FIELD = "contig";
+
+    private static final String START_FIELD = "start";
+
+    private static final String CLUSTERED_VARIANT_ACCESSION_FIELD = "rs";
+
     private final MongoTemplate mongoTemplate;
 
+    private final boolean checkDuplicatesBeforeWrite;
+
+    private final boolean keepLowestAccession;
+
+    private final DbsnpVariantsWriterLocks locks;
+
     private DbsnpSubmittedVariantWriter dbsnpSubmittedVariantWriter;
 
     private DbsnpClusteredVariantWriter dbsnpClusteredVariantWriter;
@@ -82,7 +126,32 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
                                DbsnpClusteredVariantOperationRepository clusteredOperationRepository,
                                DbsnpClusteredVariantAccessioningRepository clusteredVariantRepository,
                                ImportCounts importCounts) {
+        this(mongoTemplate, submittedOperationRepository, submittedVariantRepository, clusteredOperationRepository,
+             clusteredVariantRepository, importCounts, false);
+    }
+
+    public DbsnpVariantsWriter(MongoTemplate mongoTemplate,
+                               DbsnpSubmittedVariantOperationRepository submittedOperationRepository,
+                               DbsnpSubmittedVariantAccessioningRepository submittedVariantRepository,
+                               DbsnpClusteredVariantOperationRepository clusteredOperationRepository,
+                               DbsnpClusteredVariantAccessioningRepository clusteredVariantRepository,
+                               ImportCounts importCounts, boolean checkDuplicatesBeforeWrite) {
+        this(mongoTemplate, submittedOperationRepository, submittedVariantRepository, clusteredOperationRepository,
+             clusteredVariantRepository, importCounts, checkDuplicatesBeforeWrite, false,
+             new DbsnpVariantsWriterLocks());
+    }
+
+    public DbsnpVariantsWriter(MongoTemplate mongoTemplate,
+                               DbsnpSubmittedVariantOperationRepository submittedOperationRepository,
+                               DbsnpSubmittedVariantAccessioningRepository submittedVariantRepository,
+                               DbsnpClusteredVariantOperationRepository clusteredOperationRepository,
+                               DbsnpClusteredVariantAccessioningRepository clusteredVariantRepository,
+                               ImportCounts importCounts, boolean checkDuplicatesBeforeWrite,
+                               boolean keepLowestAccession, DbsnpVariantsWriterLocks locks) {
         this.mongoTemplate = mongoTemplate;
+        this.checkDuplicatesBeforeWrite = checkDuplicatesBeforeWrite;
+        this.keepLowestAccession = keepLowestAccession;
+        this.locks = locks;
         this.dbsnpSubmittedVariantWriter = new DbsnpSubmittedVariantWriter(mongoTemplate, importCounts);
         this.dbsnpClusteredVariantWriter = new DbsnpClusteredVariantWriter(mongoTemplate, importCounts);
         this.dbsnpSubmittedVariantOperationWriter = new DbsnpSubmittedVariantOperationWriter(mongoTemplate,
@@ -92,14 +161,15 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
         this.dbsnpClusteredVariantDeclusteredWriter = new DbsnpClusteredVariantDeclusteredWriter(mongoTemplate);
 
         this.submittedOperationBuilder = new MergeOperationBuilder<>(
-                submittedOperationRepository, submittedVariantRepository, this::buildSubmittedMergeOperation);
+                submittedOperationRepository::findAllByAccessionIn, submittedVariantRepository,
+                this::buildSubmittedMergeOperation);
         this.clusteredOperationBuilder = new MergeOperationBuilder<>(
-                clusteredOperationRepository, clusteredVariantRepository, this::buildClusteredMergeOperation);
+                clusteredOperationRepository::findAllByAccessionIn, clusteredVariantRepository,
+                this::buildClusteredMergeOperation);
         this.declusteredOperationBuilder = new MergeOperationBuilder<>(
-                clusteredOperationRepository,
-                id -> java.util.Optional.ofNullable(
-                        mongoTemplate.findById(id, DbsnpClusteredVariantEntity.class,
-                                               DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME)),
+                clusteredOperationRepository::findAllByAccessionIn,
+                ids -> mongoTemplate.find(query(where(ID_FIELD).in(ids)), DbsnpClusteredVariantEntity.class,
+                                          DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME),
                 this::buildClusteredMergeOperation);
     }
 
@@ -140,55 +210,233 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
             }
         }
 
-        List<DbsnpClusteredVariantOperationEntity> clusteredVariantsMergeOperations =
-                writeClusteredVariantsAndOperations(wrappers, declusteredClusteredVariants);
+        List<DbsnpClusteredVariantEntity> lowerAccessionDeclusteredVariants = new ArrayList<>();
+        List<DbsnpClusteredVariantEntity> lowerAccessionClusteredVariants = new ArrayList<>();
+        List<DbsnpSubmittedVariantEntity> lowerAccessionSubmittedVariants = new ArrayList<>();
+        locks.getActiveVariantsLock().readLock().lock();
+        try {
+            List<DbsnpClusteredVariantOperationEntity> clusteredVariantsMergeOperations =
+                    writeClusteredVariantsAndOperations(wrappers, declusteredClusteredVariants,
+                                                        lowerAccessionDeclusteredVariants,
+                                                        lowerAccessionClusteredVariants);
+
+            writeSubmittedVariantsAndOperations(wrappers, declusterOperations, clusteredVariantsMergeOperations,
+                                                lowerAccessionSubmittedVariants);
+        } finally {
+            locks.getActiveVariantsLock().readLock().unlock();
+        }
 
-        writeSubmittedVariantsAndOperations(wrappers, declusterOperations, clusteredVariantsMergeOperations);
+        if (!lowerAccessionDeclusteredVariants.isEmpty() || !lowerAccessionClusteredVariants.isEmpty()
+                || !lowerAccessionSubmittedVariants.isEmpty()) {
+            locks.getActiveVariantsLock().writeLock().lock();
+            try {
+                keepLowestAccessions(lowerAccessionDeclusteredVariants, lowerAccessionClusteredVariants,
+                                     lowerAccessionSubmittedVariants);
+            } finally {
+                locks.getActiveVariantsLock().writeLock().unlock();
+            }
+        }
     }
 
     private List<DbsnpClusteredVariantOperationEntity> writeClusteredVariantsAndOperations(
             List<? extends DbsnpVariantsWrapper> wrappers,
-            List<DbsnpClusteredVariantEntity> declusteredClusteredVariants) throws Exception {
-        List<DbsnpClusteredVariantOperationEntity> mergeClusteredOperations = new ArrayList<>();
+            List<DbsnpClusteredVariantEntity> declusteredClusteredVariants,
+            List<DbsnpClusteredVariantEntity> lowerAccessionDeclusteredVariants,
+            List<DbsnpClusteredVariantEntity> lowerAccessionClusteredVariants) throws Exception {
+        List<DbsnpClusteredVariantEntity> clusteredVariants = getNonDeclusteredClusteredVariants(wrappers);
+        Collection<String> declusteredDuplicates = writeDeclusteredClusteredVariants(declusteredClusteredVariants);
+        Collection<String> clusteredDuplicates = writeClusteredVariants(clusteredVariants);
+        if (declusteredDuplicates.isEmpty() && clusteredDuplicates.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        mergeClusteredOperations.addAll(writeDeclusteredClusteredVariants(declusteredClusteredVariants));
-        mergeClusteredOperations.addAll(writeClusteredVariants(wrappers));
+        synchronized (locks.getMergeLock()) {
+            declusteredDuplicates = removeLowerAccessionHashes(
+                    declusteredDuplicates, declusteredClusteredVariants, DbsnpClusteredVariantEntity.class,
+                    DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME, lowerAccessionDeclusteredVariants);
+            clusteredDuplicates = removeLowerAccessionHashes(
+                    clusteredDuplicates, clusteredVariants, DbsnpClusteredVariantEntity.class,
+                    mongoTemplate.getCollectionName(DbsnpClusteredVariantEntity.class),
+                    lowerAccessionClusteredVariants);
+
+            List<DbsnpClusteredVariantOperationEntity> mergeClusteredOperations = new ArrayList<>();
+            if (!declusteredDuplicates.isEmpty()) {
+                mergeClusteredOperations.addAll(declusteredOperationBuilder.buildMergeOperations(
+                        declusteredClusteredVariants, declusteredDuplicates));
+            }
+            if (!clusteredDuplicates.isEmpty()) {
+                mergeClusteredOperations.addAll(clusteredOperationBuilder.buildMergeOperations(
+                        clusteredVariants, clusteredDuplicates));
+            }
+            if (!mergeClusteredOperations.isEmpty()) {
+                dbsnpClusteredVariantOperationWriter.write(mergeClusteredOperations);
+            }
+            return mergeClusteredOperations;
+        }
+    }
 
-        if (!mergeClusteredOperations.isEmpty()) {
-            dbsnpClusteredVariantOperationWriter.write(mergeClusteredOperations);
+    /**
+     * If keepLowestAccession is set, the variants whose accession is lower than the one stored with the same hash are
+     * not merged into it, but moved to lowerAccessionVariants to replace it later (see
+     * {@link #keepLowestAccessions(List, List, List)}). The other variants with the same hashes are moved as well, so
+     * that they are merged into the lowest accession.
+     *
+     * @return the hashes of the variants that can be merged into the stored ones
+     */
+    private <T extends AccessionedDocument<?, Long>> Collection<String> removeLowerAccessionHashes(
+            Collection<String> duplicateHashes, List<T> variants, Class<T> entityClass, String collectionName,
+            List<T> lowerAccessionVariants) {
+        if (!keepLowestAccession || duplicateHashes.isEmpty()) {
+            return duplicateHashes;
         }
-        return mergeClusteredOperations;
+        Map<String, Long> storedAccessions = new HashMap<>();
+        mongoTemplate.find(query(where(ID_FIELD).in(duplicateHashes)), entityClass, collectionName)
+                     .forEach(stored -> storedAccessions.put(stored.getHashedMessage(), stored.getAccession()));
+
+        Set<String> lowerAccessionHashes = new HashSet<>();
+        for (T variant : variants) {
+            Long storedAccession = storedAccessions.get(variant.getHashedMessage());
+            if (storedAccession != null && variant.getAccession() < storedAccession) {
+                lowerAccessionHashes.add(variant.getHashedMessage());
+            }
+        }
+        if (lowerAccessionHashes.isEmpty()) {
+            return duplicateHashes;
+        }
+        variants.stream()
+                .filter(variant -> lowerAccessionHashes.contains(variant.getHashedMessage()))
+                .forEach(lowerAccessionVariants::add);
+        return duplicateHashes.stream()
+                              .filter(hash -> !lowerAccessionHashes.contains(hash))
+                              .collect(Collectors.toList());
     }
 
-    private List<DbsnpClusteredVariantOperationEntity> writeDeclusteredClusteredVariants(
+    /**
+     * Runs while no other writer is in the middle of a chunk. Each variant replaces the active one with the same hash
+     * if its accession is lower, and the one with the higher accession is merged into the other. The submitted
+     * variants in the same position that were linked to a merged clustered variant are linked to the remaining one.
+     */
+    private void keepLowestAccessions(List<DbsnpClusteredVariantEntity> declusteredClusteredVariants,
+                                      List<DbsnpClusteredVariantEntity> clusteredVariants,
+                                      List<DbsnpSubmittedVariantEntity> submittedVariants) throws Exception {
+        for (DbsnpClusteredVariantEntity variant : sortByAccession(declusteredClusteredVariants)) {
+            List<DbsnpClusteredVariantOperationEntity> merges = keepLowestAccession(
+                    variant, DbsnpClusteredVariantEntity.class, DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME,
+                    declusteredOperationBuilder);
+            if (!merges.isEmpty()) {
+                dbsnpClusteredVariantOperationWriter.write(merges);
+            }
+        }
+        for (DbsnpClusteredVariantEntity variant : sortByAccession(clusteredVariants)) {
+            List<DbsnpClusteredVariantOperationEntity> merges = keepLowestAccession(
+                    variant, DbsnpClusteredVariantEntity.class,
+                    mongoTemplate.getCollectionName(DbsnpClusteredVariantEntity.class), clusteredOperationBuilder);
+            if (!merges.isEmpty()) {
+                dbsnpClusteredVariantOperationWriter.write(merges);
+                for (DbsnpClusteredVariantOperationEntity merge : merges) {
+                    updateClusteredVariantAccessionInStoredSubmittedVariants(variant, merge.getAccession(),
+                                                                             merge.getMergedInto());
+                }
+            }
+        }
+        for (DbsnpSubmittedVariantEntity variant : sortByAccession(submittedVariants)) {
+            List<DbsnpSubmittedVariantOperationEntity> merges = keepLowestAccession(
+                    variant, DbsnpSubmittedVariantEntity.class,
+                    mongoTemplate.getCollectionName(DbsnpSubmittedVariantEntity.class), submittedOperationBuilder);
+            if (!merges.isEmpty()) {
+                dbsnpSubmittedVariantOperationWriter.write(merges);
+            }
+        }
+    }
+
+    private <T extends AccessionedDocument<?, Long>> List<T> sortByAccession(List<T> variants) {
+        return variants.stream()
+                       .sorted(Comparator.comparing(T::getAccession))
+                       .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the merge operation of the variant with the higher accession into the other one, or nothing if it was
+     * already written or both have the same accession
+     */
+    private <T extends AccessionedDocument<?, Long>, O extends EventDocument<?, Long, ?>> List<O> keepLowestAccession(
+            T variant, Class<T> entityClass, String collectionName, MergeOperationBuilder<T, O> operationBuilder) {
+        String hash = variant.getHashedMessage();
+        T activeVariant = mongoTemplate.findById(hash, entityClass, collectionName);
+        if (activeVariant != null && variant.getAccession() < activeVariant.getAccession()) {
+            mongoTemplate.remove(query(where(ID_FIELD).is(hash)), collectionName);
+            mongoTemplate.insert(variant, collectionName);
+            return operationBuilder.buildMergeOperations(Collections.singletonList(activeVariant),
+                                                         Collections.singleton(hash));
+        }
+        return operationBuilder.buildMergeOperations(Collections.singletonList(variant), Collections.singleton(hash));
+    }
+
+    /**
+     * The submitted variants are not linked to the hash of their clustered variant, so the ones in the same position
+     * are updated. The start of an ambiguous indel may have been moved one base to the left (see
+     * SubmittedVariantRenormalizationProcessor).
+     */
+    private void updateClusteredVariantAccessionInStoredSubmittedVariants(DbsnpClusteredVariantEntity clusteredVariant,
+                                                                          Long mergedAccession, Long mergedInto)
+            throws Exception {
+        Query linkedSubmittedVariants = query(
+                where(REFERENCE_SEQUENCE_FIELD).is(clusteredVariant.getAssemblyAccession())
+                                               .and(CONTIG_FIELD).is(clusteredVariant.getContig())
+                                               .and(START_FIELD).gte(clusteredVariant.getStart() - 1)
+                                                                .lte(clusteredVariant.getStart())
+                                               .and(CLUSTERED_VARIANT_ACCESSION_FIELD).is(mergedAccession));
+        List<DbsnpSubmittedVariantOperationEntity> operations =
+                mongoTemplate.find(linkedSubmittedVariants, DbsnpSubmittedVariantEntity.class)
+                             .stream()
+                             .map(submittedVariant -> buildOperation(submittedVariant, mergedInto))
+                             .collect(Collectors.toList());
+        if (!operations.isEmpty()) {
+            mongoTemplate.updateMulti(linkedSubmittedVariants,
+                                      new Update().set(CLUSTERED_VARIANT_ACCESSION_FIELD, mergedInto),
+                                      DbsnpSubmittedVariantEntity.class);
+            dbsnpSubmittedVariantOperationWriter.write(operations);
+        }
+    }
+
+    /**
+     * @return the hashes of the variants that were not inserted because they were already stored
+     */
+    private Collection<String> writeDeclusteredClusteredVariants(
             List<DbsnpClusteredVariantEntity> declusteredClusteredVariants) {
-        List<DbsnpClusteredVariantEntity> clusteredVariantsDeclustered = new ArrayList<>(declusteredClusteredVariants);
         try {
-            if (!clusteredVariantsDeclustered.isEmpty()) {
-                dbsnpClusteredVariantDeclusteredWriter.write(clusteredVariantsDeclustered);
+            if (!declusteredClusteredVariants.isEmpty()) {
+                dbsnpClusteredVariantDeclusteredWriter.write(declusteredClusteredVariants);
             }
             return Collections.emptyList();
         } catch (DuplicateKeyException exception) {
-            MongoBulkWriteException writeException = ((MongoBulkWriteException) exception.getCause());
-            return declusteredOperationBuilder.buildMergeOperationsFromException(clusteredVariantsDeclustered,
-                                                                                 writeException);
+            return getDuplicateHashes(exception);
         }
     }
 
-    private List<DbsnpClusteredVariantOperationEntity> writeClusteredVariants(
-            List<? extends DbsnpVariantsWrapper> wrappers) {
-        List<DbsnpClusteredVariantEntity> clusteredVariants = getNonDeclusteredClusteredVariants(wrappers);
+    /**
+     * @return the hashes of the variants that were not inserted because they were already stored
+     */
+    private Collection<String> writeClusteredVariants(List<DbsnpClusteredVariantEntity> clusteredVariants) {
+        if (clusteredVariants.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (checkDuplicatesBeforeWrite) {
+            return dbsnpClusteredVariantWriter.writeNonDuplicates(clusteredVariants);
+        }
         try {
-            if (!clusteredVariants.isEmpty()) {
-                dbsnpClusteredVariantWriter.write(clusteredVariants);
-            }
+            dbsnpClusteredVariantWriter.write(clusteredVariants);
             return Collections.emptyList();
         } catch (DuplicateKeyException exception) {
-            MongoBulkWriteException writeException = ((MongoBulkWriteException) exception.getCause());
-            return clusteredOperationBuilder.buildMergeOperationsFromException(clusteredVariants, writeException);
+            return getDuplicateHashes(exception);
         }
     }
 
+    private Collection<String> getDuplicateHashes(DuplicateKeyException exception) {
+        return extractUniqueHashesForDuplicateKeyError((MongoBulkWriteException) exception.getCause())
+                .collect(Collectors.toList());
+    }
+
     private List<DbsnpClusteredVariantEntity> getNonDeclusteredClusteredVariants(
             List<? extends DbsnpVariantsWrapper> wrappers) {
         return wrappers.stream()
@@ -201,7 +449,8 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
 
     private void writeSubmittedVariantsAndOperations(List<? extends DbsnpVariantsWrapper> wrappers,
                                                      List<DbsnpSubmittedVariantOperationEntity> declusterOperations,
-                                                     List<DbsnpClusteredVariantOperationEntity> mergeClusteredOperations)
+                                                     List<DbsnpClusteredVariantOperationEntity> mergeClusteredOperations,
+                                                     List<DbsnpSubmittedVariantEntity> lowerAccessionSubmittedVariants)
             throws Exception {
         List<DbsnpSubmittedVariantOperationEntity> updatedClusteredVariantOperation =
                 updateClusteredVariantAccessionsInSubmittedVariants(wrappers, mergeClusteredOperations);
@@ -214,10 +463,7 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
             dbsnpSubmittedVariantOperationWriter.write(declusterOperations);
         }
 
-        List<DbsnpSubmittedVariantOperationEntity> mergeSubmittedOperations = writeSubmittedVariants(wrappers);
-        if (!mergeSubmittedOperations.isEmpty()) {
-            dbsnpSubmittedVariantOperationWriter.write(mergeSubmittedOperations);
-        }
+        writeSubmittedVariantsAndMergeOperations(wrappers, lowerAccessionSubmittedVariants);
     }
 
     private List<DbsnpSubmittedVariantOperationEntity> updateClusteredVariantAccessionsInSubmittedVariants(
@@ -329,17 +575,40 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
         return operation;
     }
 
-    private List<DbsnpSubmittedVariantOperationEntity> writeSubmittedVariants(
-            List<? extends DbsnpVariantsWrapper> wrappers) {
+    private void writeSubmittedVariantsAndMergeOperations(
+            List<? extends DbsnpVariantsWrapper> wrappers,
+            List<DbsnpSubmittedVariantEntity> lowerAccessionSubmittedVariants) throws Exception {
         List<DbsnpSubmittedVariantEntity> submittedVariants = wrappers.stream()
                                                                       .flatMap(w -> w.getSubmittedVariants().stream())
                                                                       .collect(Collectors.toList());
-        try {
-            dbsnpSubmittedVariantWriter.write(submittedVariants);
-            return Collections.emptyList();
-        } catch (DuplicateKeyException exception) {
-            MongoBulkWriteException writeException = ((MongoBulkWriteException) exception.getCause());
-            return submittedOperationBuilder.buildMergeOperationsFromException(submittedVariants, writeException);
+        Collection<String> duplicateHashes;
+        if (checkDuplicatesBeforeWrite) {
+            duplicateHashes = dbsnpSubmittedVariantWriter.writeNonDuplicates(submittedVariants);
+        } else {
+            try {
+                dbsnpSubmittedVariantWriter.write(submittedVariants);
+                duplicateHashes = Collections.emptyList();
+            } catch (DuplicateKeyException exception) {
+                duplicateHashes = getDuplicateHashes(exception);
+            }
+        }
+        if (duplicateHashes.isEmpty()) {
+            return;
+        }
+        synchronized (locks.getMergeLock()) {
+            duplicateHashes = removeLowerAccessionHashes(duplicateHashes, submittedVariants,
+                                                         DbsnpSubmittedVariantEntity.class,
+                                                         mongoTemplate.getCollectionName(
+                                                                 DbsnpSubmittedVariantEntity.class),
+                                                         lowerAccessionSubmittedVariants);
+            if (duplicateHashes.isEmpty()) {
+                return;
+            }
+            List<DbsnpSubmittedVariantOperationEntity> mergeSubmittedOperations =
+                    submittedOperationBuilder.buildMergeOperations(submittedVariants, duplicateHashes);
+            if (!mergeSubmittedOperations.isEmpty()) {
+                dbsnpSubmittedVariantOperationWriter.write(mergeSubmittedOperations);
+            }
         }
     }
 
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locks shared by the DbsnpVariantsWriters of the partitions of one import job, so that they don't write the same
+ * merge twice, nor replace an active variant while another partition is in the middle of a chunk.
+ */
+public class DbsnpVariantsWriterLocks {
+
+    private final Object mergeLock;
+
+    private final ReadWriteLock activeVariantsLock;
+
+    public DbsnpVariantsWriterLocks() {
+        this.mergeLock = new Object();
+        this.activeVariantsLock = new ReentrantReadWriteLock(true);
+    }
+
+    /**
+     * Held while the merge operations of the duplicates are built and written.
+     */
+    public Object getMergeLock() {
+        return mergeLock;
+    }
+
+    /**
+     * Held for reading while a chunk is written, and for writing while the active variants are replaced with the ones
+     * of lower accession.
+     */
+    public ReadWriteLock getActiveVariantsLock() {
+        return activeVariantsLock;
+    }
+}
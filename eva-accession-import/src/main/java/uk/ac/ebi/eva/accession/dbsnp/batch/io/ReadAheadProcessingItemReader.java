@@ -0,0 +1,231 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and processes the items in a background thread, so that the next chunk is read and processed while the step
+ * writes the current one. At most queueSize processed items are kept waiting for the step; when the queue is full the
+ * background thread stops reading until the writer catches up.
+ *
+ * The position saved in the execution context is the one of the last item returned to the step, not the last one
+ * read from the delegate, so a restart resumes after the last committed chunk, and the items that had been read ahead
+ * are read and processed again. Any exception of the delegate reader or processor is thrown by the next call to
+ * {@link #read()}, so the step fails in the same way as if the processor was part of the step.
+ *
+ * The background thread is stopped in {@link #afterStep(StepExecution)} as well as in {@link #close()}, because the
+ * streams are closed after the step listeners, and a listener may close a resource used by the processor (like the
+ * FASTA closed by the assembly check listener). The afterStep of the listeners is called in reverse order of
+ * registration, so this reader must be registered after any such listener.
+ */
+public class ReadAheadProcessingItemReader<I, O> implements ItemStreamReader<O>, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadAheadProcessingItemReader.class);
+
+    public static final String READ_COUNT_KEY = "ReadAheadProcessingItemReader.read.count";
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final AbstractItemCountingItemStreamItemReader<I> reader;
+
+    private final ItemProcessor<? super I, ? extends O> processor;
+
+    private final BlockingQueue<Element<O>> queue;
+
+    private final TaskExecutor taskExecutor;
+
+    private CountDownLatch readAheadFinished;
+
+    private volatile boolean stopped;
+
+    private boolean exhausted;
+
+    private int readCount;
+
+    public ReadAheadProcessingItemReader(AbstractItemCountingItemStreamItemReader<I> reader,
+                                         ItemProcessor<? super I, ? extends O> processor, int queueSize,
+                                         TaskExecutor taskExecutor) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("The read ahead queue size must be at least 1, but was " + queueSize);
+        }
+        this.reader = reader;
+        this.processor = processor;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        int startCount = executionContext.getInt(READ_COUNT_KEY, 0);
+        reader.setCurrentItemCount(startCount);
+        reader.open(new ExecutionContext());
+        readCount = startCount;
+        exhausted = false;
+        stopped = false;
+        queue.clear();
+
+        // the delegates may be step scoped, so the background thread needs to see the same step as the caller
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext == null ? null : stepContext.getStepExecution();
+        CountDownLatch finished = new CountDownLatch(1);
+        readAheadFinished = finished;
+        try {
+            taskExecutor.execute(() -> readAndProcess(stepExecution, startCount, finished));
+        } catch (TaskRejectedException e) {
+            readAheadFinished = null;
+            throw new ItemStreamException("Could not start reading ahead", e);
+        }
+    }
+
+    private void readAndProcess(StepExecution stepExecution, int startCount, CountDownLatch finished) {
+        if (stepExecution != null) {
+            StepSynchronizationManager.register(stepExecution);
+        }
+        try {
+            int count = startCount;
+            I item;
+            while (!stopped && (item = reader.read()) != null) {
+                count++;
+                O processedItem = processor.process(item);
+                if (processedItem != null) {
+                    put(new Element<>(processedItem, count, null));
+                }
+            }
+            put(new Element<>(null, count, null));
+        } catch (Throwable throwable) {
+            try {
+                put(new Element<>(null, 0, throwable));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            if (stepExecution != null) {
+                StepSynchronizationManager.release();
+            }
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Waits while the queue is full, unless the reader is closed in the meantime. The thread is not interrupted on
+     * close because an interrupted thread would close the FileChannels it's using, which are shared with other steps.
+     */
+    private void put(Element<O> element) throws InterruptedException {
+        while (!stopped) {
+            if (queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public O read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        Element<O> element = queue.take();
+        if (element.failure != null) {
+            exhausted = true;
+            if (element.failure instanceof Exception) {
+                throw (Exception) element.failure;
+            }
+            throw (Error) element.failure;
+        }
+        readCount = element.readCount;
+        if (element.item == null) {
+            exhausted = true;
+        }
+        return element.item;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putInt(READ_COUNT_KEY, readCount);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stopReadingAhead();
+        return null;
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        stopReadingAhead();
+        int discarded = queue.size();
+        if (discarded > 0) {
+            logger.debug("Discarded {} items that were read ahead", discarded);
+        }
+        queue.clear();
+        reader.close();
+    }
+
+    private void stopReadingAhead() {
+        stopped = true;
+        if (readAheadFinished != null) {
+            try {
+                readAheadFinished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ItemStreamException("Interrupted while waiting for the read ahead thread to finish", e);
+            } finally {
+                readAheadFinished = null;
+            }
+        }
+    }
+
+    /**
+     * A processed item, the end of the input (null item) or the failure that stopped the background thread.
+     * readCount is the number of items read from the delegate up to this one, including the ones that were filtered.
+     */
+    private static final class Element<O> {
+
+        private final O item;
+
+        private final int readCount;
+
+        private final Throwable failure;
+
+        private Element(O item, int readCount, Throwable failure) {
+            this.item = item;
+            this.readCount = readCount;
+            this.failure = failure;
+        }
+    }
+}
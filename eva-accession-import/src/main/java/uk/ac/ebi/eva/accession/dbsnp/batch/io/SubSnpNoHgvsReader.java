@@ -19,6 +19,7 @@ package uk.ac.ebi.eva.accession.dbsnp.batch.io;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.util.DigestUtils;
 
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
@@ -50,13 +51,32 @@ import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsRowMapper.SUBSN
 import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsRowMapper.SUBSNP_VALIDATED_COLUMN;
 import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsRowMapper.TAXONOMY_ID_COLUMN;
 
+/**
+ * Reads the variants of an assembly from the dbSNP mirror, in load order.
+ *
+ * If a range of load order values is provided, only the variants in that range are read, so that several readers can
+ * import different parts of the same table in parallel (see SubSnpNoHgvsRangePartitioner).
+ */
 public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
 
     private static final Logger logger = LoggerFactory.getLogger(SubSnpNoHgvsReader.class);
 
     public SubSnpNoHgvsReader(String assembly, String buildNumber, DataSource dataSource, int pageSize) throws Exception {
+        this(assembly, buildNumber, dataSource, pageSize, null, null);
+    }
+
+    /**
+     * @param minLoadOrder first load order value to read (inclusive), or null to read the whole table
+     * @param maxLoadOrder last load order value to read (inclusive), or null to read the whole table
+     */
+    public SubSnpNoHgvsReader(String assembly, String buildNumber, DataSource dataSource, int pageSize,
+                              Long minLoadOrder, Long maxLoadOrder) throws Exception {
         setDataSource(dataSource);
-        setSql(buildSql(assembly, buildNumber));
+        boolean range = minLoadOrder != null && maxLoadOrder != null;
+        setSql(buildSql(assembly, buildNumber, range));
+        if (range) {
+            setPreparedStatementSetter(new ArgumentPreparedStatementSetter(new Object[]{minLoadOrder, maxLoadOrder}));
+        }
         setRowMapper(new SubSnpNoHgvsRowMapper(assembly));
         setFetchSize(pageSize);
     }
@@ -71,7 +91,7 @@ public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
         super.openCursor(connection);
     }
 
-    private String buildSql(String assembly, String buildNumber) {
+    private String buildSql(String assembly, String buildNumber, boolean range) {
         String tableName = getTableName(assembly, buildNumber);
         logger.debug("querying table {} for assembly {}", tableName, assembly);
         String sql =
@@ -98,12 +118,13 @@ public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
                         "," + RS_CREATE_TIME_COLUMN +
                         "," + TAXONOMY_ID_COLUMN +
                         " FROM " + tableName +
+                        (range ? " WHERE " + LOAD_ORDER_COLUMN + " BETWEEN ? AND ?" : "") +
                         " ORDER BY " + LOAD_ORDER_COLUMN;
 
         return sql;
     }
 
-    private String getTableName(String assembly, String buildNumber) {
+    public static String getTableName(String assembly, String buildNumber) {
         if (buildNumber == null) {
             return "dbsnp_variant_load_nohgvslink_" + hash(assembly);
         } else {
@@ -111,7 +132,7 @@ public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
         }
     }
 
-    private String hash(String string) {
+    private static String hash(String string) {
         return DigestUtils.md5DigestAsHex(string.getBytes());
     }
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.partitioners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsReader;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsRowMapper.LOAD_ORDER_COLUMN;
+
+/**
+ * Splits the import of an assembly in ranges of the load order column of the dbSNP mirror table, so that each range
+ * can be read by its own cursor and imported by a different thread.
+ *
+ * The load order is a serial column, so ranges of the same width contain a similar number of variants. Variants in
+ * different ranges may share a hash (the same RS or SS in several rows, or identical variants with different
+ * accessions); see DbsnpVariantsWriter for how the merges are handled across partitions.
+ */
+public class SubSnpNoHgvsRangePartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubSnpNoHgvsRangePartitioner.class);
+
+    public static final String MIN_LOAD_ORDER_KEY = "minLoadOrder";
+
+    public static final String MAX_LOAD_ORDER_KEY = "maxLoadOrder";
+
+    private static final String PARTITION_PREFIX = "loadOrder-";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String assembly;
+
+    private final String buildNumber;
+
+    public SubSnpNoHgvsRangePartitioner(DataSource dataSource, String assembly, String buildNumber) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.assembly = assembly;
+        this.buildNumber = buildNumber;
+    }
+
+    /**
+     * @param gridSize number of ranges. Fewer partitions are returned if the table has fewer rows, and none if it's
+     * empty. The number of partitions that run at the same time is limited by the TaskExecutor used in the
+     * partitioned step.
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        String tableName = SubSnpNoHgvsReader.getTableName(assembly, buildNumber);
+        Map<String, Object> limits = jdbcTemplate.queryForMap(
+                "SELECT MIN(" + LOAD_ORDER_COLUMN + ") AS min_value, MAX(" + LOAD_ORDER_COLUMN + ") AS max_value"
+                        + " FROM " + tableName);
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        if (limits.get("min_value") == null) {
+            logger.warn("No variants found in table {} for assembly {}", tableName, assembly);
+            return partitions;
+        }
+        long min = ((Number) limits.get("min_value")).longValue();
+        long max = ((Number) limits.get("max_value")).longValue();
+        long rangeSize = Math.max(1, (max - min) / Math.max(1, gridSize) + 1);
+
+        for (long start = min; start <= max; start += rangeSize) {
+            long end = Math.min(max, start + rangeSize - 1);
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putLong(MIN_LOAD_ORDER_KEY, start);
+            executionContext.putLong(MAX_LOAD_ORDER_KEY, end);
+            partitions.put(PARTITION_PREFIX + start + "-" + end, executionContext);
+        }
+        logger.info("Import of table {} for assembly {} split in {} partitions of up to {} rows", tableName, assembly,
+                    partitions.size(), rangeSize);
+        return partitions;
+    }
+}
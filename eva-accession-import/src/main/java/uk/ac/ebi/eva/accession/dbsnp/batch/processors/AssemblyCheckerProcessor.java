@@ -22,8 +22,8 @@ import org.springframework.batch.item.ItemProcessor;
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSynonymSequenceReader;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AssemblyCheckerProcessor implements ItemProcessor<SubSnpNoHgvs, SubSnpNoHgvs> {
 
@@ -35,7 +35,7 @@ public class AssemblyCheckerProcessor implements ItemProcessor<SubSnpNoHgvs, Sub
 
     public AssemblyCheckerProcessor(FastaSynonymSequenceReader fastaReader) {
         this.fastaReader = fastaReader;
-        this.processedContigs = new HashSet<>();
+        this.processedContigs = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -24,8 +24,8 @@ import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.accession.dbsnp.exceptions.NonIdenticalChromosomeAccessionsException;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.VALIDATE_CONTIGS_STEP;
@@ -51,8 +51,8 @@ public class ContigReplacerProcessor implements ItemProcessor<SubSnpNoHgvs, SubS
     public ContigReplacerProcessor(ContigMapping contigMapping, String assemblyAccession) {
         this.contigMapping = contigMapping;
         this.assemblyAccession = assemblyAccession;
-        this.processedContigs = new HashSet<>();
-        this.nonIdenticalChromosomes = new HashSet<>();
+        this.processedContigs = ConcurrentHashMap.newKeySet();
+        this.nonIdenticalChromosomes = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -16,12 +16,11 @@
 package uk.ac.ebi.eva.accession.dbsnp.batch.processors;
 
 import org.springframework.batch.item.ItemProcessor;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSynonymSequenceReader;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
@@ -32,7 +31,9 @@ import uk.ac.ebi.eva.commons.core.models.Region;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessor implements ItemProcessor<SubSnpNoHgvs, DbsnpVariantsWrapper> {
@@ -45,7 +46,11 @@ public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessor implements ItemProcesso
 
     private String assemblyAccession;
 
-    private List<ProjectAccessionMapping> projectAccessionMappings;
+    /**
+     * EVA study of each (batch handle, batch name, taxonomy) that has one. The batches without a study are added
+     * the first time they are found, so that all the variants of a batch share the same project accession string.
+     */
+    private Map<BatchKey, String> projectAccessions;
 
     public SubSnpNoHgvsToDbsnpVariantsWrapperProcessor(String assemblyAccession,
                                                        FastaSynonymSequenceReader fastaSequenceReader,
@@ -53,8 +58,21 @@ public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessor implements ItemProcesso
         this.assemblyAccession = assemblyAccession;
         this.renormalizationProcessor = new SubmittedVariantRenormalizationProcessor(fastaSequenceReader);
         this.subSnpNoHgvsToClusteredVariantProcessor = new SubSnpNoHgvsToClusteredVariantProcessor(assemblyAccession);
-        this.hashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
-        this.projectAccessionMappings = projectAccessionMappings;
+        this.hashingFunction = new SubmittedVariantHashingFunction();
+        this.projectAccessions = indexProjectAccessions(projectAccessionMappings);
+    }
+
+    private static Map<BatchKey, String> indexProjectAccessions(List<ProjectAccessionMapping> mappings) {
+        Map<BatchKey, String> projectAccessions = new ConcurrentHashMap<>(mappings.size() * 2);
+        for (ProjectAccessionMapping mapping : mappings) {
+            if (mapping.getEvaStudyId() != null) {
+                // if a batch is mapped more than once, keep the first study, as when the list was searched
+                projectAccessions.putIfAbsent(new BatchKey(mapping.getDbsnpBatchHandle(), mapping.getDbsnpBatchName(),
+                                                           mapping.getTaxonomyAccession()),
+                                              mapping.getEvaStudyId());
+            }
+        }
+        return projectAccessions;
     }
 
     @Override
@@ -101,17 +119,9 @@ public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessor implements ItemProcesso
     }
 
     private String getProjectAccession(SubSnpNoHgvs subSnpNoHgvs) {
-        Optional<String> studyId = projectAccessionMappings.stream()
-                                                           .filter(sm -> sm.getDbsnpBatchHandle()
-                                                                           .equals(subSnpNoHgvs.getBatchHandle()))
-                                                           .filter(sm -> sm.getDbsnpBatchName()
-                                                                           .equals(subSnpNoHgvs.getBatchName()))
-                                                           .filter(sm -> sm.getTaxonomyAccession()
-                                                                           == subSnpNoHgvs.getTaxonomyId())
-                                                           .map(ProjectAccessionMapping::getEvaStudyId)
-                                                           .findFirst();
-
-        return studyId.orElse(subSnpNoHgvs.getBatchHandle() + "_" + subSnpNoHgvs.getBatchName());
+        BatchKey batchKey = new BatchKey(subSnpNoHgvs.getBatchHandle(), subSnpNoHgvs.getBatchName(),
+                                         subSnpNoHgvs.getTaxonomyId());
+        return projectAccessions.computeIfAbsent(batchKey, key -> key.batchHandle + "_" + key.batchName);
     }
 
     private LocalDateTime getCreatedDate(SubSnpNoHgvs subSnpNoHgvs) {
@@ -123,4 +133,37 @@ public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessor implements ItemProcesso
             return LocalDateTime.now();
         }
     }
+
+    private static final class BatchKey {
+
+        private final String batchHandle;
+
+        private final String batchName;
+
+        private final int taxonomyAccession;
+
+        BatchKey(String batchHandle, String batchName, int taxonomyAccession) {
+            this.batchHandle = batchHandle;
+            this.batchName = batchName;
+            this.taxonomyAccession = taxonomyAccession;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey that = (BatchKey) o;
+            return taxonomyAccession == that.taxonomyAccession && Objects.equals(batchHandle, that.batchHandle)
+                    && Objects.equals(batchName, that.batchName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(batchHandle, batchName, taxonomyAccession);
+        }
+    }
 }
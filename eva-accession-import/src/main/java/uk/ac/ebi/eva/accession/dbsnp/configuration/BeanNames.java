@@ -26,11 +26,25 @@ public class BeanNames {
 
     public static final String DBSNP_VARIANT_READER = "DBSNP_VARIANT_READER";
 
+    public static final String DBSNP_VARIANT_READ_AHEAD_READER = "DBSNP_VARIANT_READ_AHEAD_READER";
+
+    public static final String DBSNP_VARIANT_READ_AHEAD_TASK_EXECUTOR = "DBSNP_VARIANT_READ_AHEAD_TASK_EXECUTOR";
+
     public static final String DBSNP_VARIANT_PROCESSOR = "DBSNP_VARIANT_PROCESSOR";
 
     public static final String DBSNP_VARIANT_WRITER = "DBSNP_VARIANT_WRITER";
 
+    public static final String DBSNP_VARIANT_WRITER_LOCKS = "DBSNP_VARIANT_WRITER_LOCKS";
+
     public static final String IMPORT_DBSNP_VARIANTS_STEP = "IMPORT_DBSNP_VARIANTS_STEP";
+
+    public static final String IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP = "IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP";
+
+    public static final String IMPORT_DBSNP_VARIANTS_PARTITION_STEP = "IMPORT_DBSNP_VARIANTS_PARTITION_STEP";
+
+    public static final String DBSNP_VARIANT_RANGE_PARTITIONER = "DBSNP_VARIANT_RANGE_PARTITIONER";
+
+    public static final String IMPORT_DBSNP_VARIANTS_TASK_EXECUTOR = "IMPORT_DBSNP_VARIANTS_TASK_EXECUTOR";
     
     public static final String IMPORT_DBSNP_VARIANTS_JOB = "IMPORT_DBSNP_VARIANTS_JOB";
 
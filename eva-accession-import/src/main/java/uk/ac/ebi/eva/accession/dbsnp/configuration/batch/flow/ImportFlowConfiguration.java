@@ -25,8 +25,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import uk.ac.ebi.eva.accession.dbsnp.batch.deciders.ForceImportDecider;
+import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.FORCE_IMPORT_DECIDER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.VALIDATE_CONTIGS_STEP;
@@ -38,6 +40,10 @@ public class ImportFlowConfiguration {
     @Qualifier(IMPORT_DBSNP_VARIANTS_STEP)
     private Step importDbsnpVariantsStep;
 
+    @Autowired
+    @Qualifier(IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP)
+    private Step importDbsnpVariantsPartitionedStep;
+
     @Autowired
     @Qualifier(VALIDATE_CONTIGS_STEP)
     private Step validateContigsStep;
@@ -47,14 +53,19 @@ public class ImportFlowConfiguration {
         return new ForceImportDecider();
     }
 
+    /**
+     * If more than one thread is requested, the dbSNP table is split in ranges that are imported in parallel.
+     */
     @Bean(IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER)
-    public Flow optionalFlow() {
+    public Flow optionalFlow(InputParameters parameters) {
+        Step importStep = parameters.getNumberOfThreads() > 1 ? importDbsnpVariantsPartitionedStep
+                                                              : importDbsnpVariantsStep;
         return new FlowBuilder<Flow>("OPTIONAL_FLOW")
                 .start(decider()).on("TRUE")
-                .to(importDbsnpVariantsStep)
+                .to(importStep)
                 .from(decider()).on("FALSE")
                 .to(validateContigsStep)
-                .next(importDbsnpVariantsStep)
+                .next(importStep)
                 .build();
     }
 }
@@ -18,17 +18,28 @@ package uk.ac.ebi.eva.accession.dbsnp.configuration.batch.io;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.ReadAheadProcessingItemReader;
 import uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsReader;
+import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantsWrapper;
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 
 import javax.sql.DataSource;
 
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_PROCESSOR;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READ_AHEAD_READER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READ_AHEAD_TASK_EXECUTOR;
 
 @Configuration
 @EnableConfigurationProperties({DbsnpDataSource.class})
@@ -36,12 +47,47 @@ public class ImportDbsnpVariantsReaderConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(ImportDbsnpVariantsReaderConfiguration.class);
 
+    private static final String READ_AHEAD_THREAD_NAME_PREFIX = "dbsnp-read-ahead-";
+
+    /**
+     * The load order range is only set in the partitions of IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP; otherwise the
+     * whole table is read.
+     */
     @Bean(name = DBSNP_VARIANT_READER)
     @StepScope
-    SubSnpNoHgvsReader subSnpCoreFieldsReader(InputParameters parameters, DbsnpDataSource dbsnpDataSource)
+    SubSnpNoHgvsReader subSnpCoreFieldsReader(InputParameters parameters, DbsnpDataSource dbsnpDataSource,
+                                              @Value("#{stepExecutionContext['minLoadOrder']}") Long minLoadOrder,
+                                              @Value("#{stepExecutionContext['maxLoadOrder']}") Long maxLoadOrder)
             throws Exception {
         logger.info("Injecting SubSnpNoHgvsReader with parameters: {}, {}", parameters, dbsnpDataSource);
         DataSource dataSource = dbsnpDataSource.getDatasource();
-        return new SubSnpNoHgvsReader(parameters.getAssemblyName(), parameters.getBuildNumber(), dataSource, parameters.getPageSize());
+        return new SubSnpNoHgvsReader(parameters.getAssemblyName(), parameters.getBuildNumber(), dataSource,
+                                      parameters.getPageSize(), minLoadOrder, maxLoadOrder);
+    }
+
+    /**
+     * Only used if parameters.readAheadChunks is greater than 0. The step gets the variants already processed, and the
+     * queue holds up to readAheadChunks chunks of them.
+     */
+    @Bean(name = DBSNP_VARIANT_READ_AHEAD_READER)
+    @StepScope
+    ReadAheadProcessingItemReader<SubSnpNoHgvs, DbsnpVariantsWrapper> readAheadProcessingItemReader(
+            InputParameters parameters, @Qualifier(DBSNP_VARIANT_READER) SubSnpNoHgvsReader subSnpNoHgvsReader,
+            @Qualifier(DBSNP_VARIANT_PROCESSOR) ItemProcessor<SubSnpNoHgvs, DbsnpVariantsWrapper> variantProcessor,
+            @Qualifier(DBSNP_VARIANT_READ_AHEAD_TASK_EXECUTOR) TaskExecutor readAheadTaskExecutor) {
+        int queueSize = Math.max(1, parameters.getReadAheadChunks() * parameters.getChunkSize());
+        logger.info("Injecting ReadAheadProcessingItemReader with a queue of {} variants", queueSize);
+        return new ReadAheadProcessingItemReader<>(subSnpNoHgvsReader, variantProcessor, queueSize,
+                                                   readAheadTaskExecutor);
+    }
+
+    /**
+     * Runs the background thread of each ReadAheadProcessingItemReader, one per step or per partition.
+     */
+    @Bean(DBSNP_VARIANT_READ_AHEAD_TASK_EXECUTOR)
+    TaskExecutor readAheadTaskExecutor() {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(READ_AHEAD_THREAD_NAME_PREFIX);
+        taskExecutor.setDaemon(true);
+        return taskExecutor;
     }
 }
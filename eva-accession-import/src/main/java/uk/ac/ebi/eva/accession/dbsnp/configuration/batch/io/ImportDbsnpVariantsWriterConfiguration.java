@@ -18,6 +18,8 @@ package uk.ac.ebi.eva.accession.dbsnp.configuration.batch.io;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -30,9 +32,11 @@ import uk.ac.ebi.eva.accession.core.repository.nonhuman.dbsnp.DbsnpClusteredVari
 import uk.ac.ebi.eva.accession.core.repository.nonhuman.dbsnp.DbsnpSubmittedVariantAccessioningRepository;
 import uk.ac.ebi.eva.accession.core.repository.nonhuman.dbsnp.DbsnpSubmittedVariantOperationRepository;
 import uk.ac.ebi.eva.accession.dbsnp.batch.io.DbsnpVariantsWriter;
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.DbsnpVariantsWriterLocks;
 import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_WRITER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_WRITER_LOCKS;
 
 @Configuration
 @Import({MongoConfiguration.class})
@@ -40,6 +44,11 @@ public class ImportDbsnpVariantsWriterConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(ImportDbsnpVariantsWriterConfiguration.class);
 
+    /**
+     * The load order range is only set in the partitions of IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP. In that case the
+     * duplicates are not found in load order, so the one with the lowest accession is kept as active. The writers of
+     * all the partitions share the same locks.
+     */
     @Bean(name = DBSNP_VARIANT_WRITER)
     @StepScope
     DbsnpVariantsWriter dbsnpVariantWriter(InputParameters parameters, MongoTemplate mongoTemplate,
@@ -47,10 +56,13 @@ public class ImportDbsnpVariantsWriterConfiguration {
                                            DbsnpSubmittedVariantOperationRepository operationRepository,
                                            DbsnpSubmittedVariantAccessioningRepository submittedVariantRepository,
                                            DbsnpClusteredVariantOperationRepository clusteredOperationRepository,
-                                           DbsnpClusteredVariantAccessioningRepository clusteredVariantRepository)
+                                           DbsnpClusteredVariantAccessioningRepository clusteredVariantRepository,
+                                           @Value("#{stepExecutionContext['minLoadOrder']}") Long minLoadOrder,
+                                           @Qualifier(DBSNP_VARIANT_WRITER_LOCKS) DbsnpVariantsWriterLocks locks)
             throws Exception {
         logger.info("Injecting dbsnpVariantWriter with parameters: {}", parameters);
         return new DbsnpVariantsWriter(mongoTemplate, operationRepository, submittedVariantRepository,
-                                       clusteredOperationRepository, clusteredVariantRepository, importCounts);
+                                       clusteredOperationRepository, clusteredVariantRepository, importCounts,
+                                       parameters.isCheckDuplicatesBeforeWrite(), minLoadOrder != null, locks);
     }
 }
@@ -26,6 +26,9 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.DbsnpVariantsWriterLocks;
+
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_WRITER_LOCKS;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_JOB;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER;
 
@@ -45,4 +48,12 @@ public class ImportDbsnpVariantsJobConfiguration {
                                 .end()
                                 .build();
     }
+
+    /**
+     * Shared by the writers of all the partitions of the job.
+     */
+    @Bean(DBSNP_VARIANT_WRITER_LOCKS)
+    public DbsnpVariantsWriterLocks dbsnpVariantsWriterLocks() {
+        return new DbsnpVariantsWriterLocks();
+    }
 }
@@ -23,10 +23,12 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.listener.StepListenerSupport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSequenceReader;
 import uk.ac.ebi.eva.accession.core.batch.listeners.GenericProgressListener;
 import uk.ac.ebi.eva.accession.core.batch.listeners.ImportCounts;
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
 import uk.ac.ebi.eva.accession.dbsnp.batch.listeners.ImportDbsnpVariantsStepProgressListener;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
@@ -37,6 +39,7 @@ import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.VALIDATE_CONTIGS_PROGRESS_LISTENER;
 
 @Configuration
+@Import(MetricsConfiguration.class)
 public class ListenersConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(ListenersConfiguration.class);
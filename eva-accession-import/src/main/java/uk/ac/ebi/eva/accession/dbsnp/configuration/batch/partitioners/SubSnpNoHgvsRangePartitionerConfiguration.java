@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.configuration.batch.partitioners;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.dbsnp.batch.partitioners.SubSnpNoHgvsRangePartitioner;
+import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
+
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_RANGE_PARTITIONER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_TASK_EXECUTOR;
+
+@Configuration
+@EnableConfigurationProperties({DbsnpDataSource.class})
+public class SubSnpNoHgvsRangePartitionerConfiguration {
+
+    private static final String THREAD_NAME_PREFIX = "dbsnp-import-";
+
+    @Bean(DBSNP_VARIANT_RANGE_PARTITIONER)
+    public Partitioner subSnpNoHgvsRangePartitioner(InputParameters parameters, DbsnpDataSource dbsnpDataSource) {
+        return new SubSnpNoHgvsRangePartitioner(dbsnpDataSource.getDatasource(), parameters.getAssemblyName(),
+                                                parameters.getBuildNumber());
+    }
+
+    /**
+     * The pool size limits how many ranges are imported at the same time.
+     */
+    @Bean(IMPORT_DBSNP_VARIANTS_TASK_EXECUTOR)
+    public TaskExecutor importDbsnpVariantsTaskExecutor(InputParameters parameters) {
+        int numberOfThreads = Math.max(1, parameters.getNumberOfThreads());
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(numberOfThreads);
+        taskExecutor.setMaxPoolSize(numberOfThreads);
+        taskExecutor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        return taskExecutor;
+    }
+}
@@ -20,6 +20,8 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
@@ -29,25 +31,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
 
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.ReadAheadProcessingItemReader;
+import uk.ac.ebi.eva.accession.dbsnp.configuration.batch.partitioners.SubSnpNoHgvsRangePartitionerConfiguration;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantsWrapper;
+import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.ASSEMBLY_CHECK_STEP_LISTENER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_PROCESSOR;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_RANGE_PARTITIONER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READ_AHEAD_READER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_WRITER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PARTITION_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PROGRESS_LISTENER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_TASK_EXECUTOR;
 
 @Configuration
 @EnableBatchProcessing
+@Import(SubSnpNoHgvsRangePartitionerConfiguration.class)
 public class ImportDbsnpVariantsStepConfiguration {
 
     @Autowired
     @Qualifier(DBSNP_VARIANT_READER)
     private ItemReader<SubSnpNoHgvs> variantReader;
 
+    @Autowired
+    @Qualifier(DBSNP_VARIANT_READ_AHEAD_READER)
+    private ReadAheadProcessingItemReader<SubSnpNoHgvs, DbsnpVariantsWrapper> readAheadReader;
+
     @Autowired
     @Qualifier(DBSNP_VARIANT_PROCESSOR)
     private ItemProcessor<SubSnpNoHgvs, DbsnpVariantsWrapper> variantProcessor;
@@ -64,17 +82,80 @@ public class ImportDbsnpVariantsStepConfiguration {
     @Qualifier(IMPORT_DBSNP_VARIANTS_PROGRESS_LISTENER)
     private StepExecutionListener importDbsnpVariantsProgressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Bean(IMPORT_DBSNP_VARIANTS_STEP)
     public Step createSubsnpAccessionStep(StepBuilderFactory stepBuilderFactory,
-                                          SimpleCompletionPolicy chunkSizeCompletionPolicy) {
-        TaskletStep step = stepBuilderFactory.get(IMPORT_DBSNP_VARIANTS_STEP)
-                .<SubSnpNoHgvs, DbsnpVariantsWrapper>chunk(chunkSizeCompletionPolicy)
-                .reader(variantReader)
-                .processor(variantProcessor)
-                .writer(accessionWriter)
+                                          SimpleCompletionPolicy chunkSizeCompletionPolicy,
+                                          InputParameters parameters) {
+        SimpleStepBuilder<?, DbsnpVariantsWrapper> stepBuilder = chunkStepBuilder(
+                stepBuilderFactory, IMPORT_DBSNP_VARIANTS_STEP, chunkSizeCompletionPolicy, parameters)
                 .listener(assemblyCheckStepListener)
                 .listener(importDbsnpVariantsProgressListener)
-                .build();
+                .listener(metricsListener);
+        TaskletStep step = withReadAheadListener(stepBuilder, parameters).build();
         return step;
     }
+
+    /**
+     * Runs the import once per range of the load order of the dbSNP table, with as many ranges in parallel as
+     * parameters.numberOfThreads. Each partition gets its own reader and writer.
+     *
+     * The FASTA is shared by all the partitions, so the assembly check listener that closes it runs after the whole
+     * partitioned step instead of after each partition.
+     */
+    @Bean(IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP)
+    public Step createSubsnpAccessionPartitionedStep(
+            StepBuilderFactory stepBuilderFactory,
+            SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            @Qualifier(DBSNP_VARIANT_RANGE_PARTITIONER) Partitioner rangePartitioner,
+            @Qualifier(IMPORT_DBSNP_VARIANTS_TASK_EXECUTOR) TaskExecutor taskExecutor,
+            InputParameters parameters) {
+        SimpleStepBuilder<?, DbsnpVariantsWrapper> partitionStepBuilder = chunkStepBuilder(
+                stepBuilderFactory, IMPORT_DBSNP_VARIANTS_PARTITION_STEP, chunkSizeCompletionPolicy, parameters)
+                .listener(importDbsnpVariantsProgressListener)
+                .listener(metricsListener);
+        TaskletStep partitionStep = withReadAheadListener(partitionStepBuilder, parameters).build();
+        return stepBuilderFactory.get(IMPORT_DBSNP_VARIANTS_PARTITIONED_STEP)
+                .partitioner(IMPORT_DBSNP_VARIANTS_PARTITION_STEP, rangePartitioner)
+                .step(partitionStep)
+                .gridSize(parameters.getNumberOfThreads())
+                .taskExecutor(taskExecutor)
+                .listener(assemblyCheckStepListener)
+                .build();
+    }
+
+    /**
+     * The read ahead thread has to be stopped before assemblyCheckStepListener closes the FASTA used by the processor.
+     * The afterStep of the listeners is called in reverse order of registration, so the reader is registered last.
+     */
+    private SimpleStepBuilder<?, DbsnpVariantsWrapper> withReadAheadListener(
+            SimpleStepBuilder<?, DbsnpVariantsWrapper> stepBuilder, InputParameters parameters) {
+        if (parameters.getReadAheadChunks() > 0) {
+            return stepBuilder.listener((StepExecutionListener) readAheadReader);
+        }
+        return stepBuilder;
+    }
+
+    /**
+     * If parameters.readAheadChunks is greater than 0, the variants are read and processed in another thread while
+     * the previous chunks are written, so the step only has the writer.
+     */
+    private SimpleStepBuilder<?, DbsnpVariantsWrapper> chunkStepBuilder(
+            StepBuilderFactory stepBuilderFactory, String stepName,
+            SimpleCompletionPolicy chunkSizeCompletionPolicy, InputParameters parameters) {
+        if (parameters.getReadAheadChunks() > 0) {
+            return stepBuilderFactory.get(stepName)
+                    .<DbsnpVariantsWrapper, DbsnpVariantsWrapper>chunk(chunkSizeCompletionPolicy)
+                    .reader(readAheadReader)
+                    .writer(accessionWriter);
+        }
+        return stepBuilderFactory.get(stepName)
+                .<SubSnpNoHgvs, DbsnpVariantsWrapper>chunk(chunkSizeCompletionPolicy)
+                .reader(variantReader)
+                .processor(variantProcessor)
+                .writer(accessionWriter);
+    }
 }
@@ -32,6 +32,7 @@ import org.springframework.context.annotation.Configuration;
 
 import uk.ac.ebi.eva.accession.dbsnp.model.CoordinatesPresence;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.CONTIG_PROCESSOR;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.CONTIG_AND_CHROMOSOME_READER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.VALIDATE_CONTIGS_PROGRESS_LISTENER;
@@ -53,6 +54,10 @@ public class ValidateContigsStepConfiguration {
     @Qualifier(VALIDATE_CONTIGS_PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Bean(VALIDATE_CONTIGS_STEP)
     public Step validateContigsStep(StepBuilderFactory stepBuilderFactory,
                                     SimpleCompletionPolicy chunkSizeCompletionPolicy) {
@@ -64,6 +69,7 @@ public class ValidateContigsStepConfiguration {
                 .processor(contigProcessor)
                 .writer(noOperationWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -40,6 +40,12 @@ public class InputParameters {
 
     private boolean forceImport;
 
+    private int numberOfThreads;
+
+    private int readAheadChunks;
+
+    private boolean checkDuplicatesBeforeWrite;
+
     public JobParameters toJobParameters() {
         return new JobParametersBuilder()
                 .addString("fasta", fasta)
@@ -132,4 +138,28 @@ public class InputParameters {
     public void setForceImport(boolean forceImport) {
         this.forceImport = forceImport;
     }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getReadAheadChunks() {
+        return readAheadChunks;
+    }
+
+    public void setReadAheadChunks(int readAheadChunks) {
+        this.readAheadChunks = readAheadChunks;
+    }
+
+    public boolean isCheckDuplicatesBeforeWrite() {
+        return checkDuplicatesBeforeWrite;
+    }
+
+    public void setCheckDuplicatesBeforeWrite(boolean checkDuplicatesBeforeWrite) {
+        this.checkDuplicatesBeforeWrite = checkDuplicatesBeforeWrite;
+    }
 }
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+/**
+ * Runs the same scenarios as DbsnpVariantsWriterTest, finding the duplicates before the inserts instead of from the
+ * duplicate key errors. The variants and operations written must be the same in both cases.
+ */
+public class DbsnpVariantsWriterCheckingDuplicatesTest extends DbsnpVariantsWriterTest {
+
+    @Override
+    protected boolean checkDuplicatesBeforeWrite() {
+        return true;
+    }
+}
@@ -118,7 +118,7 @@ public class DbsnpVariantsWriterTest {
         importCounts = new ImportCounts();
         dbsnpVariantsWriter = new DbsnpVariantsWriter(mongoTemplate, operationRepository, submittedVariantRepository,
                                                       clusteredOperationRepository, clusteredVariantRepository,
-                                                      importCounts);
+                                                      importCounts, checkDuplicatesBeforeWrite());
         hashingFunctionClustered = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
         mongoTemplate.dropCollection(DbsnpSubmittedVariantEntity.class);
         mongoTemplate.dropCollection(DbsnpClusteredVariantEntity.class);
@@ -128,6 +128,10 @@ public class DbsnpVariantsWriterTest {
         assertions = new VariantAssertions(mongoTemplate, importCounts);
     }
 
+    protected boolean checkDuplicatesBeforeWrite() {
+        return false;
+    }
+
     @Test
     public void writeBasicVariant() throws Exception {
         SubmittedVariant submittedVariant = defaultSubmittedVariant();
@@ -630,6 +634,66 @@ public class DbsnpVariantsWriterTest {
         assertEquals(0, mongoTemplate.count(new Query(), DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME));
     }
 
+    /**
+     * With partitions, the clustered variant with the higher accession may be stored first. It's replaced by the one
+     * with the lower accession, and the submitted variant already linked to it is updated.
+     */
+    @Test
+    public void keepLowestAccessionOfDuplicateClusteredVariants() throws Exception {
+        ClusteredVariant clusteredVariant = defaultClusteredVariant();
+
+        SubmittedVariant submittedVariant1 = buildSubmittedVariant(CLUSTERED_VARIANT_ACCESSION_1, PROJECT_1);
+        DbsnpSubmittedVariantEntity submittedVariantEntity1 = buildSubmittedVariantEntity(SUBMITTED_VARIANT_ACCESSION_1,
+                                                                                          submittedVariant1);
+        DbsnpVariantsWrapper wrapper1 = new DbsnpVariantsWrapper();
+        wrapper1.setClusteredVariant(buildClusteredVariantEntity(CLUSTERED_VARIANT_ACCESSION_1, clusteredVariant));
+        wrapper1.setSubmittedVariants(Collections.singletonList(submittedVariantEntity1));
+
+        SubmittedVariant submittedVariant2 = buildSubmittedVariant(CLUSTERED_VARIANT_ACCESSION_2, PROJECT_2);
+        DbsnpSubmittedVariantEntity submittedVariantEntity2 = buildSubmittedVariantEntity(SUBMITTED_VARIANT_ACCESSION_2,
+                                                                                          submittedVariant2);
+        DbsnpVariantsWrapper wrapper2 = new DbsnpVariantsWrapper();
+        wrapper2.setClusteredVariant(buildClusteredVariantEntity(CLUSTERED_VARIANT_ACCESSION_2, clusteredVariant));
+        wrapper2.setSubmittedVariants(Collections.singletonList(submittedVariantEntity2));
+
+        DbsnpVariantsWriter writer = buildWriterKeepingLowestAccession();
+        writer.write(Collections.singletonList(wrapper2));
+        writer.write(Collections.singletonList(wrapper1));
+
+        assertions.assertClusteredVariantStored(1, wrapper1);
+        assertions.assertClusteredVariantMergeOperationStored(1, 1, wrapper1.getClusteredVariant());
+        DbsnpSubmittedVariantEntity expectedSubmittedVariantEntity2 = changeRS(submittedVariantEntity2,
+                                                                               CLUSTERED_VARIANT_ACCESSION_1);
+        assertions.assertSubmittedVariantsStored(2, submittedVariantEntity1, expectedSubmittedVariantEntity2);
+        assertions.assertSubmittedVariantsUpdateOperationsHaveClusteredVariantAccession(1, 1,
+                                                                                        CLUSTERED_VARIANT_ACCESSION_2);
+    }
+
+    @Test
+    public void keepLowestAccessionOfDuplicateSubmittedVariants() throws Exception {
+        SubmittedVariant submittedVariant = defaultSubmittedVariant();
+        DbsnpSubmittedVariantEntity submittedVariantEntity1 = buildSubmittedVariantEntity(SUBMITTED_VARIANT_ACCESSION_1,
+                                                                                          submittedVariant);
+        DbsnpVariantsWrapper wrapper1 = buildSimpleWrapper(Collections.singletonList(submittedVariantEntity1));
+        DbsnpSubmittedVariantEntity submittedVariantEntity2 = buildSubmittedVariantEntity(SUBMITTED_VARIANT_ACCESSION_2,
+                                                                                          submittedVariant);
+        DbsnpVariantsWrapper wrapper2 = buildSimpleWrapper(Collections.singletonList(submittedVariantEntity2));
+
+        DbsnpVariantsWriter writer = buildWriterKeepingLowestAccession();
+        writer.write(Collections.singletonList(wrapper2));
+        writer.write(Collections.singletonList(wrapper1));
+
+        assertions.assertClusteredVariantStored(1, wrapper1);
+        assertions.assertSubmittedVariantsStored(1, submittedVariantEntity1);
+        assertions.assertSubmittedVariantMergeOperationStored(1, 1, submittedVariantEntity1);
+    }
+
+    private DbsnpVariantsWriter buildWriterKeepingLowestAccession() {
+        return new DbsnpVariantsWriter(mongoTemplate, operationRepository, submittedVariantRepository,
+                                       clusteredOperationRepository, clusteredVariantRepository, importCounts,
+                                       checkDuplicatesBeforeWrite(), true, new DbsnpVariantsWriterLocks());
+    }
+
     /**
      * The test data is not real, but this exact thing happened with rs638662487.
      * <p>
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.core.test.configuration.TestConfiguration;
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:application.properties"})
+@ContextConfiguration(classes = {TestConfiguration.class})
+public class ReadAheadProcessingItemReaderTest {
+
+    private static final String CHICKEN_ASSEMBLY_5 = "Gallus_gallus-5.0";
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final int QUEUE_SIZE = 2;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Autowired
+    private DbsnpDataSource dbsnpDataSource;
+
+    private List<Long> expectedSsIds;
+
+    private ReadAheadProcessingItemReader<SubSnpNoHgvs, Long> reader;
+
+    @Before
+    public void setUp() throws Exception {
+        SubSnpNoHgvsReader subSnpNoHgvsReader = buildSubSnpNoHgvsReader();
+        subSnpNoHgvsReader.open(new ExecutionContext());
+        expectedSsIds = readAll(() -> {
+            SubSnpNoHgvs variant = subSnpNoHgvsReader.read();
+            return variant == null ? null : variant.getSsId();
+        });
+        subSnpNoHgvsReader.close();
+    }
+
+    @After
+    public void tearDown() {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void readAllVariantsProcessed() throws Exception {
+        reader = buildReader(SubSnpNoHgvs::getSsId);
+        reader.open(new ExecutionContext());
+        assertEquals(expectedSsIds, readAll(reader));
+    }
+
+    @Test
+    public void filteredVariantsAreSkipped() throws Exception {
+        Long filteredSsId = expectedSsIds.get(1);
+        reader = buildReader(variant -> variant.getSsId().equals(filteredSsId) ? null : variant.getSsId());
+        reader.open(new ExecutionContext());
+        expectedSsIds.removeIf(filteredSsId::equals);
+        assertEquals(expectedSsIds, readAll(reader));
+    }
+
+    @Test
+    public void restartAfterLastVariantReturned() throws Exception {
+        reader = buildReader(SubSnpNoHgvs::getSsId);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        List<Long> ssIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ssIds.add(reader.read());
+        }
+        reader.update(executionContext);
+        reader.close();
+        assertEquals(3, executionContext.getInt(ReadAheadProcessingItemReader.READ_COUNT_KEY));
+
+        reader = buildReader(SubSnpNoHgvs::getSsId);
+        reader.open(executionContext);
+        ssIds.addAll(readAll(reader));
+        assertEquals(expectedSsIds, ssIds);
+    }
+
+    @Test
+    public void afterStepStopsReadingAhead() throws Exception {
+        AtomicInteger processedCount = new AtomicInteger();
+        reader = buildReader(variant -> {
+            processedCount.incrementAndGet();
+            return variant.getSsId();
+        });
+        reader.open(new ExecutionContext());
+        assertEquals(expectedSsIds.get(0), reader.read());
+
+        reader.afterStep(null);
+        int processedWhenStopped = processedCount.get();
+        Thread.sleep(100);
+        assertEquals(processedWhenStopped, processedCount.get());
+    }
+
+    @Test
+    public void processorExceptionIsThrownByRead() throws Exception {
+        reader = buildReader(variant -> {
+            throw new IllegalStateException("Processor failure");
+        });
+        reader.open(new ExecutionContext());
+        thrown.expect(IllegalStateException.class);
+        reader.read();
+    }
+
+    private ReadAheadProcessingItemReader<SubSnpNoHgvs, Long> buildReader(
+            ItemProcessor<SubSnpNoHgvs, Long> processor) throws Exception {
+        return new ReadAheadProcessingItemReader<>(buildSubSnpNoHgvsReader(), processor, QUEUE_SIZE,
+                                                   new SimpleAsyncTaskExecutor());
+    }
+
+    private SubSnpNoHgvsReader buildSubSnpNoHgvsReader() throws Exception {
+        SubSnpNoHgvsReader subSnpNoHgvsReader = new SubSnpNoHgvsReader(CHICKEN_ASSEMBLY_5, null,
+                                                                       dbsnpDataSource.getDatasource(), PAGE_SIZE);
+        subSnpNoHgvsReader.afterPropertiesSet();
+        return subSnpNoHgvsReader;
+    }
+
+    private List<Long> readAll(ItemReader<Long> itemReader) throws Exception {
+        List<Long> ssIds = new ArrayList<>();
+        Long ssId;
+        while ((ssId = itemReader.read()) != null) {
+            ssIds.add(ssId);
+        }
+        return ssIds;
+    }
+}
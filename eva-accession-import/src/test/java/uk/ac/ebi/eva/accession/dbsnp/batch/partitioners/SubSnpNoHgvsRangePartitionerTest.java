@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.partitioners;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.core.test.configuration.TestConfiguration;
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsReader;
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.accession.dbsnp.batch.partitioners.SubSnpNoHgvsRangePartitioner.MAX_LOAD_ORDER_KEY;
+import static uk.ac.ebi.eva.accession.dbsnp.batch.partitioners.SubSnpNoHgvsRangePartitioner.MIN_LOAD_ORDER_KEY;
+
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:application.properties"})
+@ContextConfiguration(classes = {TestConfiguration.class})
+public class SubSnpNoHgvsRangePartitionerTest {
+
+    private static final String CHICKEN_ASSEMBLY_5 = "Gallus_gallus-5.0";
+
+    private static final int CHICKEN_ASSEMBLY_5_VARIANTS = 8;
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private DbsnpDataSource dbsnpDataSource;
+
+    @Test
+    public void rangesCoverAllVariantsOnce() throws Exception {
+        SubSnpNoHgvsRangePartitioner partitioner = new SubSnpNoHgvsRangePartitioner(dbsnpDataSource.getDatasource(),
+                                                                                    CHICKEN_ASSEMBLY_5, null);
+        Map<String, ExecutionContext> partitions = partitioner.partition(3);
+        assertEquals(3, partitions.size());
+
+        long previousMax = Long.MIN_VALUE;
+        List<Long> ssIds = new ArrayList<>();
+        for (ExecutionContext partition : partitions.values()) {
+            long min = partition.getLong(MIN_LOAD_ORDER_KEY);
+            long max = partition.getLong(MAX_LOAD_ORDER_KEY);
+            assertTrue(min > previousMax);
+            assertTrue(max >= min);
+            previousMax = max;
+            ssIds.addAll(readSsIds(min, max));
+        }
+        assertEquals(CHICKEN_ASSEMBLY_5_VARIANTS, ssIds.size());
+        assertEquals(CHICKEN_ASSEMBLY_5_VARIANTS, ssIds.stream().distinct().count());
+    }
+
+    @Test
+    public void noMorePartitionsThanRows() {
+        SubSnpNoHgvsRangePartitioner partitioner = new SubSnpNoHgvsRangePartitioner(dbsnpDataSource.getDatasource(),
+                                                                                    "Gallus_gallus-4.0", "145");
+        assertEquals(3, partitioner.partition(10).size());
+    }
+
+    private List<Long> readSsIds(long minLoadOrder, long maxLoadOrder) throws Exception {
+        SubSnpNoHgvsReader reader = new SubSnpNoHgvsReader(CHICKEN_ASSEMBLY_5, null, dbsnpDataSource.getDatasource(),
+                                                           PAGE_SIZE, minLoadOrder, maxLoadOrder);
+        reader.afterPropertiesSet();
+        reader.open(new ExecutionContext());
+        List<Long> ssIds = new ArrayList<>();
+        SubSnpNoHgvs variant;
+        while ((variant = reader.read()) != null) {
+            ssIds.add(variant.getSsId());
+        }
+        reader.close();
+        return ssIds;
+    }
+}
@@ -215,6 +215,26 @@ public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessorTest {
         assertEquals(evaStudyId, variants.get(0).getProjectAccession());
     }
 
+    @Test
+    public void doNotMapEvaStudyIdOfOtherTaxonomy() throws Exception {
+        String evaStudyId = "EVA_STUDY_ID";
+        List<ProjectAccessionMapping> projectAccessionMappings = Collections.singletonList(
+                new ProjectAccessionMapping(evaStudyId, BATCH_HANDLE, BATCH_NAME, TAXONOMY + 1));
+
+        SubSnpNoHgvs subSnpNoHgvs = new SubSnpNoHgvs(25928972L, 14718243L, "A", "A/C", ASSEMBLY, BATCH_HANDLE,
+                                                     BATCH_NAME, CHROMOSOME, CHROMOSOME_START, CONTIG_NAME,
+                                                     CONTIG_START, DbsnpVariantType.SNV, Orientation.FORWARD,
+                                                     Orientation.FORWARD, Orientation.FORWARD, false, false, false,
+                                                     false, SS_CREATED_DATE, RS_CREATED_DATE, TAXONOMY);
+
+        SubSnpNoHgvsToDbsnpVariantsWrapperProcessor otherTaxonomyProcessor =
+                new SubSnpNoHgvsToDbsnpVariantsWrapperProcessor(ASSEMBLY_ACCESSION, fastaSynonymSequenceReader,
+                                                                projectAccessionMappings);
+        List<DbsnpSubmittedVariantEntity> variants = otherTaxonomyProcessor.process(subSnpNoHgvs)
+                                                                           .getSubmittedVariants();
+        assertEquals(PROJECT_ACCESSION, variants.get(0).getProjectAccession());
+    }
+
     @Test
     public void transformSnpReverseSs() throws Exception {
         SubSnpNoHgvs subSnpNoHgvs = new SubSnpNoHgvs(1984788946L, 14718243L, "A", "T/C", ASSEMBLY, BATCH_HANDLE,
@@ -23,13 +23,15 @@ import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.data.util.Pair;
 
+import uk.ac.ebi.eva.accession.core.batch.io.OutputFiles;
 import uk.ac.ebi.eva.accession.pipeline.batch.io.AccessionReportWriter;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.stream.Stream;
 
@@ -45,6 +47,12 @@ import static uk.ac.ebi.eva.accession.pipeline.batch.io.AccessionReportWriter.VA
  * because of an error in the batch or because all elements are finished. The temporary files should be kept in the
  * first case and deleted in the second case, so this extra step is the place to write the final VCF report and delete
  * the temporary files.
+ *
+ * If compressionThreads is greater than 0, the VCF is compressed with BGZF using that number of threads. The temporary
+ * files are always plain text, so that everything written before a failure is kept when the job is resumed.
+ *
+ * The variants are never decoded as characters: a plain report is built by writing the header and then appending the
+ * temporary variants file with {@link OutputFiles#append}, which doesn't copy the bytes through the JVM.
  */
 public class BuildReportTasklet implements Tasklet {
 
@@ -56,18 +64,34 @@ public class BuildReportTasklet implements Tasklet {
 
     private File output;
 
+    private final int compressionThreads;
+
     public BuildReportTasklet(File output) {
+        this(output, 0);
+    }
+
+    public BuildReportTasklet(File output, int compressionThreads) {
         this.output = output;
+        this.compressionThreads = compressionThreads;
         this.contigsFile = new File(output.getAbsolutePath() + CONTIGS_FILE_SUFFIX);
         this.variantsFile = new File(output.getAbsolutePath() + VARIANTS_FILE_SUFFIX);
     }
 
     @Override
     public RepeatStatus execute(StepContribution stepContribution, ChunkContext chunkContext) throws Exception {
-        BufferedWriter writer = new BufferedWriter(new FileWriter(output));
-        writeHeader(writer, getContigPairs(contigsFile));
-        appendFileToWriter(writer, variantsFile);
-        writer.close();
+        try (OutputStream outputStream = OutputFiles.newOutputStream(output, false, compressionThreads);
+             Stream<Pair<String, String>> contigPairs = getContigPairs(contigsFile)) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writeHeader(writer, contigPairs);
+            writer.flush();
+            if (compressionThreads > 0) {
+                // the variants have to go through the compression, but there's no need to decode them
+                Files.copy(variantsFile.toPath(), outputStream);
+            }
+        }
+        if (compressionThreads <= 0) {
+            OutputFiles.append(output.toPath(), variantsFile.toPath());
+        }
         variantsFile.delete();
         contigsFile.delete();
 
@@ -106,17 +130,4 @@ public class BuildReportTasklet implements Tasklet {
         writer.newLine();
     }
 
-    private void appendFileToWriter(BufferedWriter output, File input) throws IOException {
-        FileReader fileReader = new FileReader(input);
-        char[] buffer = new char[4000];
-        int charactersRead = fileReader.read(buffer);
-        boolean endOfFileReached = charactersRead == -1;
-
-        while (!endOfFileReached) {
-            output.write(buffer, 0, charactersRead);
-            charactersRead = fileReader.read(buffer);
-            endOfFileReached = charactersRead == -1;
-        }
-    }
-
 }
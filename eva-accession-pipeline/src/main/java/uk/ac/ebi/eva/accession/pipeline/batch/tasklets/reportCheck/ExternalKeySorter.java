@@ -0,0 +1,243 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.pipeline.batch.tasklets.reportCheck;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts a stream of string keys that may not fit in memory.
+ *
+ * Keys are accumulated in memory until there are runSize of them; then they are sorted and written to a temporary
+ * file (a "run"). Once all the keys are added, {@link #sortedKeys()} merges the runs, reading them line by line, so
+ * the memory needed is proportional to runSize and not to the number of keys. If all the keys fit in a single run,
+ * nothing is written to disk.
+ *
+ * At most maxFanIn runs are read at the same time. If there are more, groups of maxFanIn runs are merged into new
+ * runs in several passes before the final merge, so the open files and their buffers are bounded too.
+ *
+ * Duplicated keys are kept, and the temporary files are deleted on {@link #close()}.
+ */
+class ExternalKeySorter implements Closeable {
+
+    static final int DEFAULT_MAX_FAN_IN = 64;
+
+    private final Path temporaryDirectory;
+
+    private final int runSize;
+
+    private final int maxFanIn;
+
+    private final List<String> buffer;
+
+    private final List<Path> runs;
+
+    private final List<BufferedReader> openReaders;
+
+    ExternalKeySorter(Path temporaryDirectory, int runSize) {
+        this(temporaryDirectory, runSize, DEFAULT_MAX_FAN_IN);
+    }
+
+    ExternalKeySorter(Path temporaryDirectory, int runSize, int maxFanIn) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("The run size must be greater than 0");
+        }
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("The maximum fan-in must be at least 2");
+        }
+        this.temporaryDirectory = temporaryDirectory;
+        this.runSize = runSize;
+        this.maxFanIn = maxFanIn;
+        this.buffer = new ArrayList<>();
+        this.runs = new ArrayList<>();
+        this.openReaders = new ArrayList<>();
+    }
+
+    void add(String key) throws IOException {
+        buffer.add(key);
+        if (buffer.size() >= runSize) {
+            writeRun();
+        }
+    }
+
+    private void writeRun() throws IOException {
+        Collections.sort(buffer);
+        Path run = Files.createTempFile(temporaryDirectory, "report-check-", ".run");
+        runs.add(run);
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            for (String key : buffer) {
+                writer.write(key);
+                writer.newLine();
+            }
+        }
+        buffer.clear();
+    }
+
+    int getRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Must be called only once, after adding all the keys.
+     */
+    Iterator<String> sortedKeys() throws IOException {
+        if (runs.isEmpty()) {
+            Collections.sort(buffer);
+            return buffer.iterator();
+        }
+        if (!buffer.isEmpty()) {
+            writeRun();
+        }
+        while (runs.size() > maxFanIn) {
+            mergePass();
+        }
+        return new MergingIterator(openRunReaders(runs));
+    }
+
+    private List<RunReader> openRunReaders(List<Path> runsToRead) throws IOException {
+        List<RunReader> runReaders = new ArrayList<>();
+        for (Path run : runsToRead) {
+            BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+            openReaders.add(reader);
+            runReaders.add(new RunReader(reader));
+        }
+        return runReaders;
+    }
+
+    /**
+     * Merges each group of maxFanIn runs into a single run.
+     */
+    private void mergePass() throws IOException {
+        List<Path> runsInPass = new ArrayList<>(runs);
+        for (int from = 0; from < runsInPass.size(); from += maxFanIn) {
+            List<Path> group = runsInPass.subList(from, Math.min(from + maxFanIn, runsInPass.size()));
+            if (group.size() > 1) {
+                mergeGroup(group);
+            }
+        }
+    }
+
+    private void mergeGroup(List<Path> group) throws IOException {
+        Path mergedRun = Files.createTempFile(temporaryDirectory, "report-check-", ".run");
+        runs.add(mergedRun);
+        try (BufferedWriter writer = Files.newBufferedWriter(mergedRun, StandardCharsets.UTF_8)) {
+            MergingIterator keys = new MergingIterator(openRunReaders(group));
+            while (keys.hasNext()) {
+                writer.write(keys.next());
+                writer.newLine();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closeOpenReaders();
+        }
+        for (Path run : group) {
+            Files.delete(run);
+            runs.remove(run);
+        }
+    }
+
+    private void closeOpenReaders() throws IOException {
+        for (BufferedReader reader : openReaders) {
+            reader.close();
+        }
+        openReaders.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeOpenReaders();
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        buffer.clear();
+    }
+
+    private static class RunReader implements Comparable<RunReader> {
+
+        private final BufferedReader reader;
+
+        private String current;
+
+        RunReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            this.current = reader.readLine();
+        }
+
+        String getCurrent() {
+            return current;
+        }
+
+        void advance() throws IOException {
+            current = reader.readLine();
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            return current.compareTo(other.current);
+        }
+    }
+
+    private static class MergingIterator implements Iterator<String> {
+
+        private final PriorityQueue<RunReader> queue;
+
+        MergingIterator(List<RunReader> runReaders) {
+            this.queue = new PriorityQueue<>();
+            for (RunReader runReader : runReaders) {
+                if (runReader.getCurrent() != null) {
+                    queue.add(runReader);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            RunReader runReader = queue.poll();
+            if (runReader == null) {
+                throw new NoSuchElementException();
+            }
+            String key = runReader.getCurrent();
+            try {
+                runReader.advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (runReader.getCurrent() != null) {
+                queue.add(runReader);
+            }
+            return key;
+        }
+    }
+}
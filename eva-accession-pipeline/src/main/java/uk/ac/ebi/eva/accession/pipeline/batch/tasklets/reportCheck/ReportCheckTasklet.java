@@ -31,7 +31,9 @@ import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.accession.pipeline.batch.policies.InvalidVariantSkipPolicy;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
+import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
 /**
@@ -51,6 +53,11 @@ import java.util.Set;
  * <p>
  * To perform some self-checks, this tasklet provides the maximum size of the buffers during the execution, and
  * also provides the number of iterations needed.
+ * <p>
+ * Alternatively, if a run size is provided, the memory used is bounded: the coordinates of each file are sorted with an
+ * external sort (see {@link ExternalKeySorter}) using temporary files, and then both sorted streams are compared in a
+ * single pass. In this mode the maximum buffer size is the run size, and the iterations are the number of runs written
+ * to disk. Only the first unmatched variants (up to the run size) are kept to be logged, but all of them are counted.
  */
 public class ReportCheckTasklet implements Tasklet {
 
@@ -58,6 +65,8 @@ public class ReportCheckTasklet implements Tasklet {
 
     private static final int BUFFER_SIZE_INCREASE_FACTOR = 2;
 
+    private static final String KEY_SEPARATOR = "\t";
+
     private BufferHelper inputBufferHelper;
 
     private BufferHelper reportBufferHelper;
@@ -72,6 +81,10 @@ public class ReportCheckTasklet implements Tasklet {
 
     private ContigMapping contigMapping;
 
+    private Path temporaryDirectory;
+
+    private int runSize;
+
     public ReportCheckTasklet(ItemStreamReader<Variant> inputReader, ItemStreamReader<Variant> reportReader,
                               long initialBufferSize, ContigMapping contigMapping) {
         this.inputBufferHelper = new BufferHelper(inputReader);
@@ -83,10 +96,37 @@ public class ReportCheckTasklet implements Tasklet {
         this.skipPolicy = new InvalidVariantSkipPolicy();
     }
 
+    /**
+     * Constructs a tasklet that sorts the variants of each file externally, keeping at most runSize variants of each
+     * file in memory, and writing the sorted runs in temporaryDirectory.
+     */
+    public ReportCheckTasklet(ItemStreamReader<Variant> inputReader, ItemStreamReader<Variant> reportReader,
+                              ContigMapping contigMapping, Path temporaryDirectory, int runSize) {
+        this(inputReader, reportReader, runSize, contigMapping);
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("The run size must be greater than 0");
+        }
+        this.temporaryDirectory = temporaryDirectory;
+        this.runSize = runSize;
+    }
+
     @Override
     public RepeatStatus execute(StepContribution stepContribution, ChunkContext chunkContext) throws Exception {
         inputBufferHelper.getReader().open(new ExecutionContext());
         reportBufferHelper.getReader().open(new ExecutionContext());
+        if (runSize > 0) {
+            compareSortedVariants();
+        } else {
+            compareBufferedVariants();
+        }
+
+        logStatus(stepContribution);
+        reportBufferHelper.getReader().close();
+
+        return RepeatStatus.FINISHED;
+    }
+
+    private void compareBufferedVariants() throws Exception {
         boolean readsPendingInputFile = true;
         boolean readsPendingReportFile = true;
         while (readsPendingInputFile || readsPendingReportFile) {
@@ -100,11 +140,60 @@ public class ReportCheckTasklet implements Tasklet {
                 increaseBufferSizeToAvoidLock();
             }
         }
+        inputBufferHelper.setUnmatchedVariants(inputBufferHelper.getBuffer().size());
+        reportBufferHelper.setUnmatchedVariants(reportBufferHelper.getBuffer().size());
+    }
 
-        logStatus(stepContribution);
-        reportBufferHelper.getReader().close();
+    private void compareSortedVariants() throws Exception {
+        maxBufferSize = runSize;
+        try (ExternalKeySorter inputSorter = new ExternalKeySorter(temporaryDirectory, runSize);
+             ExternalKeySorter reportSorter = new ExternalKeySorter(temporaryDirectory, runSize)) {
+            sortVariants(inputBufferHelper, inputSorter);
+            sortVariants(reportBufferHelper, reportSorter);
+            iterations = inputSorter.getRuns() + reportSorter.getRuns();
+
+            DistinctKeys inputKeys = new DistinctKeys(inputSorter.sortedKeys(), inputBufferHelper);
+            DistinctKeys reportKeys = new DistinctKeys(reportSorter.sortedKeys(), reportBufferHelper);
+            String inputKey = inputKeys.next();
+            String reportKey = reportKeys.next();
+            while (inputKey != null || reportKey != null) {
+                int comparison = inputKey == null ? 1 : (reportKey == null ? -1 : inputKey.compareTo(reportKey));
+                if (comparison == 0) {
+                    inputKey = inputKeys.next();
+                    reportKey = reportKeys.next();
+                } else if (comparison < 0) {
+                    addUnmatchedVariant(inputBufferHelper, inputKey);
+                    inputKey = inputKeys.next();
+                } else {
+                    addUnmatchedVariant(reportBufferHelper, reportKey);
+                    reportKey = reportKeys.next();
+                }
+            }
+        }
+    }
 
-        return RepeatStatus.FINISHED;
+    private void sortVariants(BufferHelper bufferHelper, ExternalKeySorter sorter) throws Exception {
+        Variant variant;
+        while ((variant = readVcfIgnoringNonVariants(bufferHelper)) != null) {
+            sorter.add(toKey(variant));
+        }
+    }
+
+    private static String toKey(Variant variant) {
+        return String.join(KEY_SEPARATOR, variant.getChromosome(), Long.toString(variant.getStart()),
+                           Long.toString(variant.getEnd()), variant.getReference(), variant.getAlternate());
+    }
+
+    private static Variant fromKey(String key) {
+        String[] fields = key.split(KEY_SEPARATOR, -1);
+        return new Variant(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3], fields[4]);
+    }
+
+    private void addUnmatchedVariant(BufferHelper bufferHelper, String key) {
+        bufferHelper.setUnmatchedVariants(bufferHelper.getUnmatchedVariants() + 1);
+        if (bufferHelper.getBuffer().size() < runSize) {
+            bufferHelper.getBuffer().add(fromKey(key));
+        }
     }
 
     /**
@@ -213,22 +302,22 @@ public class ReportCheckTasklet implements Tasklet {
         }
 
         stepContribution.setExitStatus(ExitStatus.COMPLETED);
-        if (!reportBufferHelper.getBuffer().isEmpty()) {
+        if (reportBufferHelper.getUnmatchedVariants() > 0) {
             stepContribution.setExitStatus(ExitStatus.FAILED);
             logger.error("{} variants were found in the accession report that were not found in the original VCF.",
-                         reportBufferHelper.getBuffer().size());
-            logger.info("These are the {} variants that were not found in the original VCF: {}",
+                         reportBufferHelper.getUnmatchedVariants());
+            logger.info("These are {} of the variants that were not found in the original VCF: {}",
                         reportBufferHelper.getBuffer().size(), reportBufferHelper.getBuffer());
         }
 
-        if (!inputBufferHelper.getBuffer().isEmpty()) {
+        if (inputBufferHelper.getUnmatchedVariants() > 0) {
             stepContribution.setExitStatus(ExitStatus.FAILED);
             logger.error("{} variants were not found in the accession report. Given that {} of those are duplicates, " +
                                  "only {} - {} = {} unaccessioned variants need to be checked.",
-                         inputBufferHelper.getBuffer().size(), reportBufferHelper.getDuplicatedVariants(),
-                         inputBufferHelper.getBuffer().size(), reportBufferHelper.getDuplicatedVariants(),
-                         inputBufferHelper.getBuffer().size() - reportBufferHelper.getDuplicatedVariants());
-            logger.info("These are the {} variants that were not found in the accession report: {}",
+                         inputBufferHelper.getUnmatchedVariants(), reportBufferHelper.getDuplicatedVariants(),
+                         inputBufferHelper.getUnmatchedVariants(), reportBufferHelper.getDuplicatedVariants(),
+                         inputBufferHelper.getUnmatchedVariants() - reportBufferHelper.getDuplicatedVariants());
+            logger.info("These are {} of the variants that were not found in the accession report: {}",
                         inputBufferHelper.getBuffer().size(), inputBufferHelper.getBuffer());
         }
     }
@@ -265,11 +354,46 @@ public class ReportCheckTasklet implements Tasklet {
     }
 
     public long getUnmatchedVariantsInInputVcf() {
-        return inputBufferHelper.getBuffer().size();
+        return inputBufferHelper.getUnmatchedVariants();
     }
 
     public long getUnmatchedVariantsInReportVcf() {
-        return reportBufferHelper.getBuffer().size();
+        return reportBufferHelper.getUnmatchedVariants();
+    }
+
+    /**
+     * Iterates over sorted keys skipping the repeated ones, which are counted as duplicated variants.
+     */
+    private static class DistinctKeys {
+
+        private final Iterator<String> sortedKeys;
+
+        private final BufferHelper bufferHelper;
+
+        private String nextKey;
+
+        DistinctKeys(Iterator<String> sortedKeys, BufferHelper bufferHelper) {
+            this.sortedKeys = sortedKeys;
+            this.bufferHelper = bufferHelper;
+            this.nextKey = sortedKeys.hasNext() ? sortedKeys.next() : null;
+        }
+
+        /**
+         * @return the next distinct key, or null if there are no more keys
+         */
+        String next() {
+            String key = nextKey;
+            nextKey = null;
+            while (sortedKeys.hasNext()) {
+                String candidate = sortedKeys.next();
+                if (!candidate.equals(key)) {
+                    nextKey = candidate;
+                    break;
+                }
+                bufferHelper.setDuplicatedVariants(bufferHelper.getDuplicatedVariants() + 1);
+            }
+            return key;
+        }
     }
 
     private class BufferHelper {
@@ -282,11 +406,14 @@ public class ReportCheckTasklet implements Tasklet {
 
         private Long skippedVariants;
 
+        private long unmatchedVariants;
+
         BufferHelper(ItemStreamReader<Variant> reportReader) {
             this.reader = reportReader;
             this.buffer = new HashSet<>();
             this.duplicatedVariants = 0L;
             this.skippedVariants = 0L;
+            this.unmatchedVariants = 0L;
         }
 
         public ItemStreamReader<Variant> getReader() {
@@ -320,5 +447,13 @@ public class ReportCheckTasklet implements Tasklet {
         public void setSkippedVariants(Long skippedVariants) {
             this.skippedVariants = skippedVariants;
         }
+
+        public long getUnmatchedVariants() {
+            return unmatchedVariants;
+        }
+
+        public void setUnmatchedVariants(long unmatchedVariants) {
+            this.unmatchedVariants = unmatchedVariants;
+        }
     }
 }
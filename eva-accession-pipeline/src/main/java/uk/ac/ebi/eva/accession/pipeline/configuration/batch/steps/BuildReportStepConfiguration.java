@@ -41,7 +41,9 @@ public class BuildReportStepConfiguration {
 
     @Bean(BUILD_REPORT_STEP)
     public Step buildReportStep(StepBuilderFactory stepBuilderFactory) throws IOException {
-        BuildReportTasklet tasklet = new BuildReportTasklet(new File(inputParameters.getOutputVcf()));
+        int compressionThreads = inputParameters.isCompressOutput() ? inputParameters.getCompressionThreads() : 0;
+        BuildReportTasklet tasklet = new BuildReportTasklet(new File(inputParameters.getOutputVcf()),
+                                                            compressionThreads);
         TaskletStep step = stepBuilderFactory.get(BUILD_REPORT_STEP)
                                              .tasklet(tasklet)
                                              .build();
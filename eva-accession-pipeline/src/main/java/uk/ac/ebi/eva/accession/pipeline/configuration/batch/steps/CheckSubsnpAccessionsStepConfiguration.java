@@ -36,6 +36,7 @@ import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 
 import static uk.ac.ebi.eva.accession.pipeline.configuration.BeanNames.CHECK_SUBSNP_ACCESSION_STEP;
 import static uk.ac.ebi.eva.accession.pipeline.configuration.BeanNames.REPORT_READER;
@@ -62,10 +63,22 @@ public class CheckSubsnpAccessionsStepConfiguration {
         return new UnwindingItemStreamReader<>(vcfReader);
     }
 
+    /**
+     * If parameters.reportCheckRunSize is set, the check will use a bounded amount of memory, writing temporary files
+     * next to the accession report. Otherwise it will keep the unmatched variants in memory.
+     */
     @Bean(CHECK_SUBSNP_ACCESSION_STEP)
     public Step checkSubsnpAccessionStep(StepBuilderFactory stepBuilderFactory) throws IOException {
-        ReportCheckTasklet tasklet = new ReportCheckTasklet(inputReader, reportReader(),
-                                                            inputParameters.getChunkSize() * 2, contigMapping);
+        ReportCheckTasklet tasklet;
+        if (inputParameters.getReportCheckRunSize() > 0) {
+            Path temporaryDirectory = new File(inputParameters.getOutputVcf()).getAbsoluteFile().getParentFile()
+                                                                              .toPath();
+            tasklet = new ReportCheckTasklet(inputReader, reportReader(), contigMapping, temporaryDirectory,
+                                             inputParameters.getReportCheckRunSize());
+        } else {
+            tasklet = new ReportCheckTasklet(inputReader, reportReader(), inputParameters.getChunkSize() * 2,
+                                             contigMapping);
+        }
         TaskletStep step = stepBuilderFactory.get(CHECK_SUBSNP_ACCESSION_STEP)
                                              .tasklet(tasklet)
                                              .build();
@@ -47,6 +47,12 @@ public class InputParameters {
 
     private ContigNaming contigNaming;
 
+    private int reportCheckRunSize;
+
+    private boolean compressOutput;
+
+    private int compressionThreads;
+
     public JobParameters toJobParameters() {
         return new JobParametersBuilder()
                 .addString("vcf", vcf)
@@ -157,4 +163,28 @@ public class InputParameters {
     public void setContigNaming(ContigNaming contigNaming) {
         this.contigNaming = contigNaming;
     }
+
+    public int getReportCheckRunSize() {
+        return reportCheckRunSize;
+    }
+
+    public void setReportCheckRunSize(int reportCheckRunSize) {
+        this.reportCheckRunSize = reportCheckRunSize;
+    }
+
+    public boolean isCompressOutput() {
+        return compressOutput;
+    }
+
+    public void setCompressOutput(boolean compressOutput) {
+        this.compressOutput = compressOutput;
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
 }
@@ -31,6 +31,9 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -87,6 +90,25 @@ public class BuildReportTaskletTest {
         assertEquals(expectedLineCountWithOneContigAndOneVariant, Files.lines(output.toPath()).count());
     }
 
+    @Test
+    public void compressedReport() throws Exception {
+        writeSingleVariantInContigAndVariantFiles(SEQUENCE_NAME_3, GENBANK_3);
+
+        BuildReportTasklet buildReportTasklet = new BuildReportTasklet(output, 2);
+        buildReportTasklet.execute(null, null);
+
+        assertFalse(variantsOutput.exists());
+        assertFalse(contigsOutput.exists());
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(new FileInputStream(output))));
+        List<String> lines = reader.lines().collect(Collectors.toList());
+        reader.close();
+
+        int expectedLineCountWithOneContigAndOneVariant = 4;
+        assertEquals(expectedLineCountWithOneContigAndOneVariant, lines.size());
+        assertEquals(SEQUENCE_NAME_3, lines.get(3).split("\t")[CHROMOSOME_COLUMN_VCF]);
+    }
+
     private void assertHeaderIsNotWrittenTwice(File output) throws IOException {
         BufferedReader fileInputStream = new BufferedReader(new InputStreamReader(new FileInputStream(output)));
         String line;
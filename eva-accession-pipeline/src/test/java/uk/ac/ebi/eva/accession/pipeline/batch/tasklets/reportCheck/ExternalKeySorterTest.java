@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.pipeline.batch.tasklets.reportCheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExternalKeySorterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void sortInMemory() throws Exception {
+        assertSorted(100, 1000, ExternalKeySorter.DEFAULT_MAX_FAN_IN, 0);
+    }
+
+    @Test
+    public void sortInOneMerge() throws Exception {
+        assertSorted(1000, 100, ExternalKeySorter.DEFAULT_MAX_FAN_IN, 10);
+    }
+
+    @Test
+    public void sortInSeveralMergePasses() throws Exception {
+        assertSorted(1000, 10, 3, 100);
+    }
+
+    private void assertSorted(int numberOfKeys, int runSize, int maxFanIn, int expectedRuns) throws Exception {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < numberOfKeys; i++) {
+            // a small range of values, so that some keys are repeated
+            keys.add(Integer.toString(random.nextInt(numberOfKeys / 2)));
+        }
+
+        List<String> sortedKeys = new ArrayList<>();
+        try (ExternalKeySorter sorter = new ExternalKeySorter(temporaryFolder.getRoot().toPath(), runSize,
+                                                              maxFanIn)) {
+            for (String key : keys) {
+                sorter.add(key);
+            }
+            assertEquals(expectedRuns, sorter.getRuns());
+            Iterator<String> iterator = sorter.sortedKeys();
+            while (iterator.hasNext()) {
+                sortedKeys.add(iterator.next());
+            }
+        }
+
+        Collections.sort(keys);
+        assertEquals(keys, sortedKeys);
+        File[] remainingFiles = temporaryFolder.getRoot().listFiles();
+        assertEquals(0, remainingFiles == null ? 0 : remainingFiles.length);
+    }
+}
@@ -15,7 +15,9 @@
  */
 package uk.ac.ebi.eva.accession.pipeline.batch.tasklets.reportCheck;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepContribution;
@@ -44,6 +46,7 @@ import java.util.Collections;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static uk.ac.ebi.eva.accession.pipeline.configuration.BeanNames.CHECK_SUBSNP_ACCESSION_STEP;
 
 public class ReportCheckTaskletTest {
@@ -53,6 +56,9 @@ public class ReportCheckTaskletTest {
     private ContigMapping contigMapping = new ContigMapping(
             Collections.singletonList(new ContigSynonyms("20", "assembled-molecule", "20", "20", "20", "20", true)));
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void correctReport() throws Exception {
         // given
@@ -262,6 +268,110 @@ public class ReportCheckTaskletTest {
         assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInReportVcf());
     }
 
+    @Test
+    public void correctReportWithExternalSort() throws Exception {
+        URI vcfUri = ReportCheckTaskletTest.class.getResource("/input-files/vcf/aggregated.vcf.gz").toURI();
+        URI reportUri = ReportCheckTaskletTest.class.getResource("/input-files/vcf/aggregated.report.vcf.gz").toURI();
+        ReportCheckTasklet reportCheckTasklet = getExternalSortReportCheckTasklet(vcfUri, reportUri, 7);
+
+        StepContribution stepContribution = new StepContribution(
+                new StepExecution(CHECK_SUBSNP_ACCESSION_STEP, new JobExecution(JOB_ID)));
+        reportCheckTasklet.execute(stepContribution, null);
+
+        assertEquals(ExitStatus.COMPLETED, stepContribution.getExitStatus());
+        assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInInputVcf());
+        assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInReportVcf());
+        assertEquals(7, reportCheckTasklet.getMaxBufferSize());
+        assertTrue(reportCheckTasklet.getIterations() > 2);
+        assertEquals(0, temporaryFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void variantMissingInReportWithExternalSort() throws Exception {
+        URI vcfUri = ReportCheckTaskletTest.class.getResource("/input-files/vcf/aggregated.vcf.gz").toURI();
+        URI reportUri = ReportCheckTaskletTest.class.getResource("/input-files/vcf/aggregated.incomplete-report.vcf.gz")
+                                                    .toURI();
+        ReportCheckTasklet reportCheckTasklet = getExternalSortReportCheckTasklet(vcfUri, reportUri, 7);
+
+        StepContribution stepContribution = new StepContribution(
+                new StepExecution(CHECK_SUBSNP_ACCESSION_STEP, new JobExecution(JOB_ID)));
+        reportCheckTasklet.execute(stepContribution, null);
+
+        assertEquals(ExitStatus.FAILED, stepContribution.getExitStatus());
+        assertEquals(1, reportCheckTasklet.getUnmatchedVariantsInInputVcf());
+        assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInReportVcf());
+    }
+
+    @Test
+    public void reportContainsAccessionNotPresentInOriginalVcfWithExternalSort() throws Exception {
+        URI vcfUri = ReportCheckTaskletTest.class.getResource("/input-files/vcf/aggregated.vcf.gz").toURI();
+        URI reportUri = ReportCheckTaskletTest.class.getResource("/input-files/vcf/aggregated.unexpected-report.vcf.gz")
+                                                    .toURI();
+        ReportCheckTasklet reportCheckTasklet = getExternalSortReportCheckTasklet(vcfUri, reportUri, 7);
+
+        StepContribution stepContribution = new StepContribution(
+                new StepExecution(CHECK_SUBSNP_ACCESSION_STEP, new JobExecution(JOB_ID)));
+        reportCheckTasklet.execute(stepContribution, null);
+
+        assertEquals(ExitStatus.FAILED, stepContribution.getExitStatus());
+        assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInInputVcf());
+        assertEquals(1, reportCheckTasklet.getUnmatchedVariantsInReportVcf());
+    }
+
+    @Test
+    public void vcfsContainDuplicatesWithExternalSort() throws Exception {
+        URI vcfUri = ReportCheckTaskletTest.class
+                .getResource("/input-files/vcf/aggregated.with_duplicates.vcf.gz").toURI();
+        URI reportUri = ReportCheckTaskletTest.class
+                .getResource("/input-files/vcf/aggregated.with_duplicates.report.vcf.gz").toURI();
+        ReportCheckTasklet reportCheckTasklet = getExternalSortReportCheckTasklet(vcfUri, reportUri, 7);
+
+        StepContribution stepContribution = new StepContribution(
+                new StepExecution(CHECK_SUBSNP_ACCESSION_STEP, new JobExecution(JOB_ID)));
+        reportCheckTasklet.execute(stepContribution, null);
+
+        assertEquals(ExitStatus.FAILED, stepContribution.getExitStatus());
+        assertEquals(1, reportCheckTasklet.getDuplicatedVariantsInInputVcf());
+        assertEquals(1, reportCheckTasklet.getDuplicatedVariantsInReportVcf());
+    }
+
+    @Test
+    public void checkWithContigSynonymsWithExternalSort() throws Exception {
+        IteratorItemStreamReader<Variant> inputReader = new IteratorItemStreamReader<>(
+                Arrays.asList(new Variant("chromosome1", 100, 100, "A", "T"),
+                              new Variant("chromosome1", 90, 90, "", "T")));
+        IteratorItemStreamReader<Variant> reportReader = new IteratorItemStreamReader<>(
+                Arrays.asList(new Variant("contig1", 90, 90, "", "T"),
+                              new Variant("contig1", 100, 100, "A", "T")));
+
+        contigMapping = new ContigMapping(Collections.singletonList(
+                new ContigSynonyms("chromosome1", "assembled-molecule", "1", "contig1", "refseq1", "ucsc1", true)));
+
+        ReportCheckTasklet reportCheckTasklet = new ReportCheckTasklet(inputReader, reportReader, contigMapping,
+                                                                       temporaryFolder.getRoot().toPath(), 1);
+        StepContribution stepContribution = new StepContribution(
+                new StepExecution(CHECK_SUBSNP_ACCESSION_STEP, new JobExecution(JOB_ID)));
+        reportCheckTasklet.execute(stepContribution, null);
+
+        assertEquals(ExitStatus.COMPLETED, stepContribution.getExitStatus());
+        assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInInputVcf());
+        assertEquals(0, reportCheckTasklet.getUnmatchedVariantsInReportVcf());
+    }
+
+    private ReportCheckTasklet getExternalSortReportCheckTasklet(URI vcfUri, URI reportUri, int runSize)
+            throws IOException {
+        File vcfFile = new File(vcfUri);
+        AggregatedVcfReader vcfReader = new AggregatedVcfReader("fileId", "studyId", Aggregation.BASIC, null, vcfFile);
+        UnwindingItemStreamReader<Variant> unwindingVcfReader = new UnwindingItemStreamReader<>(vcfReader);
+
+        File reportFile = new File(reportUri);
+        VcfReader reportReader = new VcfReader(new CoordinatesVcfLineMapper(), reportFile);
+        UnwindingItemStreamReader<Variant> unwindingReportReader = new UnwindingItemStreamReader<>(reportReader);
+
+        return new ReportCheckTasklet(unwindingVcfReader, unwindingReportReader, contigMapping,
+                                      temporaryFolder.getRoot().toPath(), runSize);
+    }
+
     private class IteratorItemStreamReader<T> implements ItemStreamReader<T> {
 
         Iterator<? extends T> iterator;
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.assembly;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keeps the assembly names retrieved from ENA, so that the release writers don't have to query ENA every time they
+ * are opened.
+ *
+ * If a file is provided, the names are also kept between executions. The file has one line per assembly, with the
+ * accession, the name and the time when it was retrieved (in milliseconds since the epoch), separated by tabs:
+ * <pre>
+ * GCA_000001405.28	GRCh38.p13	1590000000000
+ * </pre>
+ * Names retrieved more than ttl ago are retrieved again, but are still used if ENA can't be accessed. The file can be
+ * populated in advance to run the release without access to ENA; lines without a retrieval time never expire.
+ *
+ * Assemblies not found in ENA are not kept.
+ */
+public class AssemblyNameCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssemblyNameCache.class);
+
+    private static final String SEPARATOR = "\t";
+
+    private static final long NEVER_EXPIRES = -1;
+
+    private final Path file;
+
+    private final Duration ttl;
+
+    private final Map<String, CachedName> names;
+
+    /**
+     * Keeps the names only in memory, for the lifetime of this object.
+     */
+    public AssemblyNameCache() {
+        this.file = null;
+        this.ttl = null;
+        this.names = new HashMap<>();
+    }
+
+    public AssemblyNameCache(Path file, Duration ttl) {
+        this.file = file;
+        this.ttl = ttl;
+        this.names = loadNames(file);
+    }
+
+    private static Map<String, CachedName> loadNames(Path file) {
+        Map<String, CachedName> names = new HashMap<>();
+        if (!Files.exists(file)) {
+            return names;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] columns = line.split(SEPARATOR);
+                if (columns.length < 2 || columns.length > 3) {
+                    throw new IllegalStateException("Assembly name cache " + file + " doesn't have the expected "
+                                                    + "format (accession, name and optionally retrieval time): "
+                                                    + line);
+                }
+                long retrievalTime = columns.length == 3 ? Long.parseLong(columns[2]) : NEVER_EXPIRES;
+                names.put(columns[0], new CachedName(columns[1], retrievalTime));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return names;
+    }
+
+    /**
+     * Returns the cached name of the assembly, or retrieves it with the provided function if it's not cached or has
+     * expired. If an expired name can't be retrieved again, because the retrieval fails or doesn't find the assembly,
+     * the expired name is returned.
+     */
+    public synchronized Optional<String> getAssemblyName(String assemblyAccession,
+                                                         Function<String, Optional<String>> retriever) {
+        CachedName cachedName = names.get(assemblyAccession);
+        if (cachedName == null) {
+            return retrieve(assemblyAccession, retriever);
+        }
+        if (!isExpired(cachedName)) {
+            return Optional.of(cachedName.name);
+        }
+        Optional<String> assemblyName;
+        try {
+            assemblyName = retrieve(assemblyAccession, retriever);
+        } catch (RuntimeException e) {
+            logger.warn("Could not retrieve the name of assembly {} again, using the expired name '{}': {}",
+                        assemblyAccession, cachedName.name, e.getMessage());
+            return Optional.of(cachedName.name);
+        }
+        if (!assemblyName.isPresent()) {
+            logger.warn("Assembly {} was not found when retrieving its name again, using the expired name '{}'",
+                        assemblyAccession, cachedName.name);
+            return Optional.of(cachedName.name);
+        }
+        return assemblyName;
+    }
+
+    private Optional<String> retrieve(String assemblyAccession, Function<String, Optional<String>> retriever) {
+        Optional<String> assemblyName = retriever.apply(assemblyAccession);
+        if (assemblyName.isPresent()) {
+            names.put(assemblyAccession, new CachedName(assemblyName.get(), System.currentTimeMillis()));
+            saveNames();
+        }
+        return assemblyName;
+    }
+
+    private boolean isExpired(CachedName cachedName) {
+        return ttl != null && cachedName.retrievalTime != NEVER_EXPIRES
+                && System.currentTimeMillis() - cachedName.retrievalTime > ttl.toMillis();
+    }
+
+    private void saveNames() {
+        if (file == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, CachedName> entry : names.entrySet()) {
+            CachedName cachedName = entry.getValue();
+            String line = entry.getKey() + SEPARATOR + cachedName.name;
+            if (cachedName.retrievalTime != NEVER_EXPIRES) {
+                line += SEPARATOR + cachedName.retrievalTime;
+            }
+            lines.add(line);
+        }
+        try {
+            // several jobs may share the cache: replace it atomically so that they never read it half-written
+            Path temporaryFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(),
+                                                      ".tmp");
+            Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the name was retrieved anyway, it will just be retrieved again in the next execution
+            logger.warn("Could not save the assembly name cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static class CachedName {
+
+        private final String name;
+
+        private final long retrievalTime;
+
+        CachedName(String name, long retrievalTime) {
+            this.name = name;
+            this.retrievalTime = retrievalTime;
+        }
+    }
+}
@@ -50,6 +50,8 @@ import java.util.stream.Collectors;
  *
  * The schema for these XMLs (and the definition of the NAME element) is here:
  * https://github.com/enasequence/schema/blob/master/src/main/resources/uk/ac/ebi/ena/sra/schema/ENA.assembly.xsd#L44
+ *
+ * The names are kept in an {@link AssemblyNameCache}, by default one in memory shared by all the retrievers.
  */
 public class AssemblyNameRetriever {
 
@@ -67,46 +69,63 @@ public class AssemblyNameRetriever {
         return priorityNames;
     }).get();
 
+    private static final AssemblyNameCache defaultCache = new AssemblyNameCache();
+
+    private static JAXBContext jaxbContext;
+
     private String assemblyAccession;
 
+    private String assemblyApiUrlFormat;
+
     private Optional<String> assemblyName;
 
     public AssemblyNameRetriever(String assemblyAccession) {
-        this.assemblyAccession = assemblyAccession;
-        this.assemblyName = fetchAssemblyName(assemblyAccession);
+        this(assemblyAccession, defaultCache);
     }
 
-    private Optional<String> fetchAssemblyName(String assemblyAccession) {
+    public AssemblyNameRetriever(String assemblyAccession, AssemblyNameCache cache) {
+        this(assemblyAccession, cache, ENA_ASSEMBLY_API_URL_FORMAT_STRING);
+    }
+
+    /**
+     * @param assemblyApiUrlFormat format of the URLs to retrieve the assembly XMLs, e.g. of a local server for tests
+     */
+    public AssemblyNameRetriever(String assemblyAccession, AssemblyNameCache cache, String assemblyApiUrlFormat) {
+        this.assemblyAccession = assemblyAccession;
+        this.assemblyApiUrlFormat = assemblyApiUrlFormat;
         if (priorityAssemblyNames.containsKey(assemblyAccession)) {
-            return Optional.of(priorityAssemblyNames.get(assemblyAccession));
+            this.assemblyName = Optional.of(priorityAssemblyNames.get(assemblyAccession));
         } else {
-            try {
-                String url = buildAssemblyApiUrl(assemblyAccession);
-                URLConnection connection = new URL(url).openConnection();
-                if (!(connection instanceof HttpURLConnection)) {
-                    throw new RuntimeException("Error creating HTTP request: expected a HttpURLConnection");
-                }
-                HttpURLConnection httpConnection = (HttpURLConnection) connection;
-                int responseCode = httpConnection.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    return parseEnaAssemblyXml(httpConnection.getInputStream());
-                } else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
-                    return Optional.empty();
-                } else {
-                    String errorMessage = new BufferedReader(new InputStreamReader(httpConnection.getErrorStream()))
-                            .lines().collect(Collectors.joining("\n"));
-                    throw new RuntimeException("Unexpected response (HTTP code " + responseCode + "). Message: "
-                                                       + errorMessage);
-                }
-            } catch (IOException | JAXBException e) {
-                throw new RuntimeException(e);
+            this.assemblyName = cache.getAssemblyName(assemblyAccession, this::fetchAssemblyName);
+        }
+    }
+
+    private Optional<String> fetchAssemblyName(String assemblyAccession) {
+        try {
+            String url = buildAssemblyApiUrl(assemblyAccession);
+            URLConnection connection = new URL(url).openConnection();
+            if (!(connection instanceof HttpURLConnection)) {
+                throw new RuntimeException("Error creating HTTP request: expected a HttpURLConnection");
+            }
+            HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            int responseCode = httpConnection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_OK) {
+                return parseEnaAssemblyXml(httpConnection.getInputStream());
+            } else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                return Optional.empty();
+            } else {
+                String errorMessage = new BufferedReader(new InputStreamReader(httpConnection.getErrorStream()))
+                        .lines().collect(Collectors.joining("\n"));
+                throw new RuntimeException("Unexpected response (HTTP code " + responseCode + "). Message: "
+                                                   + errorMessage);
             }
+        } catch (IOException | JAXBException e) {
+            throw new RuntimeException(e);
         }
     }
 
     private Optional<String> parseEnaAssemblyXml(InputStream inputStream) throws JAXBException {
-        JAXBContext jaxbContext = JAXBContext.newInstance(EnaAssemblyXml.class);
-        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+        Unmarshaller unmarshaller = getJaxbContext().createUnmarshaller();
 
         EnaAssemblyXml enaAssembly;
         enaAssembly = (EnaAssemblyXml) unmarshaller.unmarshal(inputStream);
@@ -117,8 +136,18 @@ public class AssemblyNameRetriever {
         }
     }
 
+    /**
+     * Creating a JAXBContext is expensive, but it's thread-safe, so the same one is used by all the retrievers
+     */
+    private static synchronized JAXBContext getJaxbContext() throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(EnaAssemblyXml.class);
+        }
+        return jaxbContext;
+    }
+
     private String buildAssemblyApiUrl(String assemblyAccession) {
-        return String.format(ENA_ASSEMBLY_API_URL_FORMAT_STRING, assemblyAccession);
+        return String.format(assemblyApiUrlFormat, assemblyAccession);
     }
 
     public String buildAssemblyHumanReadableUrl() {
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.io;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Joins two cursors sorted by the same numeric key, in the same way that a $lookup stage would: every document of the
+ * left cursor is returned with an extra field that contains the list of documents of the right cursor with the same
+ * key.
+ *
+ * Both cursors are read only once, so the join doesn't need an index probe per document. Only the documents of the
+ * right cursor with the current key are kept in memory.
+ *
+ * The keys can be nested fields (e.g. "inactiveObjects.rs"). If a field in the path is an array, the minimum value of
+ * its elements is used, as MongoDB does when sorting in ascending order. Documents without key are never joined.
+ */
+public class MergeJoinCursor implements MongoCursor<Document> {
+
+    private static final String FIELD_SEPARATOR = "\\.";
+
+    private final MongoCursor<Document> leftCursor;
+
+    private final String leftKeyField;
+
+    private final MongoCursor<Document> rightCursor;
+
+    private final String rightKeyField;
+
+    private final String joinedField;
+
+    private Document nextRight;
+
+    private Long currentKey;
+
+    private List<Document> currentMatches;
+
+    public MergeJoinCursor(MongoCursor<Document> leftCursor, String leftKeyField, MongoCursor<Document> rightCursor,
+                           String rightKeyField, String joinedField) {
+        this.leftCursor = leftCursor;
+        this.leftKeyField = leftKeyField;
+        this.rightCursor = rightCursor;
+        this.rightKeyField = rightKeyField;
+        this.joinedField = joinedField;
+        this.currentMatches = new ArrayList<>();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return leftCursor.hasNext();
+    }
+
+    @Override
+    public Document next() {
+        Document left = leftCursor.next();
+        left.put(joinedField, getMatches(getKey(left, leftKeyField)));
+        return left;
+    }
+
+    @Override
+    public Document tryNext() {
+        return hasNext() ? next() : null;
+    }
+
+    private List<Document> getMatches(Long key) {
+        if (key == null) {
+            return new ArrayList<>();
+        }
+        if (key.equals(currentKey)) {
+            // several documents of the left cursor can have the same key, e.g. an RS mapped to several locations
+            return new ArrayList<>(currentMatches);
+        }
+        if (currentKey != null && key < currentKey) {
+            throw new IllegalStateException(
+                    "The documents must be sorted by '" + leftKeyField + "', but " + key + " was found after "
+                    + currentKey);
+        }
+
+        currentKey = key;
+        currentMatches = new ArrayList<>();
+        while (nextRight != null || rightCursor.hasNext()) {
+            if (nextRight == null) {
+                nextRight = rightCursor.next();
+            }
+            Long rightKey = getKey(nextRight, rightKeyField);
+            if (rightKey != null && rightKey > key) {
+                break;
+            }
+            if (key.equals(rightKey)) {
+                currentMatches.add(nextRight);
+            }
+            nextRight = null;
+        }
+        return new ArrayList<>(currentMatches);
+    }
+
+    /**
+     * Returns the minimum of the values of the field, which is the value that MongoDB uses to sort a document in
+     * ascending order when the field is an array or is inside an array.
+     */
+    static Long getKey(Document document, String field) {
+        return getMinimumKey(document, field.split(FIELD_SEPARATOR), 0);
+    }
+
+    private static Long getMinimumKey(Object value, String[] path, int depth) {
+        if (value instanceof List) {
+            Long minimum = null;
+            for (Object element : (List<?>) value) {
+                Long key = getMinimumKey(element, path, depth);
+                if (key != null && (minimum == null || key < minimum)) {
+                    minimum = key;
+                }
+            }
+            return minimum;
+        }
+        if (depth == path.length) {
+            return value instanceof Number ? ((Number) value).longValue() : null;
+        }
+        if (!(value instanceof Document)) {
+            return null;
+        }
+        return getMinimumKey(((Document) value).get(path[depth]), path, depth + 1);
+    }
+
+    @Override
+    public ServerCursor getServerCursor() {
+        return leftCursor.getServerCursor();
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return leftCursor.getServerAddress();
+    }
+
+    @Override
+    public void close() {
+        leftCursor.close();
+        rightCursor.close();
+    }
+}
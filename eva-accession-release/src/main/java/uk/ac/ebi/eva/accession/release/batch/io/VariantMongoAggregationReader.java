@@ -21,6 +21,9 @@ import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
@@ -36,6 +39,7 @@ import uk.ac.ebi.eva.accession.release.collectionNames.CollectionNames;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 import uk.ac.ebi.eva.commons.core.models.pipeline.VariantSourceEntry;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -80,6 +84,8 @@ public abstract class VariantMongoAggregationReader implements ItemStreamReader<
 
     protected static final String CLUSTERED_VARIANT_ACCESSION_FIELD = "rs";
 
+    protected static final String SUBMITTED_VARIANT_ASSEMBLY_FIELD = "seq";
+
     protected static final String SS_INFO_FIELD = "ssInfo";
 
     protected static final String VALIDATED_FIELD = "validated";
@@ -106,13 +112,36 @@ public abstract class VariantMongoAggregationReader implements ItemStreamReader<
 
     protected CollectionNames names;
 
+    protected String contig;
+
+    protected boolean mergeJoin;
+
     public VariantMongoAggregationReader(String assemblyAccession, MongoClient mongoClient, String database,
                                          int chunkSize, CollectionNames names) {
+        this(assemblyAccession, null, mongoClient, database, chunkSize, names);
+    }
+
+    /**
+     * @param contig if not null, only the variants in this contig are read. Otherwise the whole assembly is read.
+     */
+    public VariantMongoAggregationReader(String assemblyAccession, String contig, MongoClient mongoClient,
+                                         String database, int chunkSize, CollectionNames names) {
+        this(assemblyAccession, contig, mongoClient, database, chunkSize, names, false);
+    }
+
+    /**
+     * @param mergeJoin if true, the submitted variants are joined in memory with {@link MergeJoinCursor} instead of
+     * with a $lookup stage in the aggregation. See {@link #aggregateAndJoin}
+     */
+    public VariantMongoAggregationReader(String assemblyAccession, String contig, MongoClient mongoClient,
+                                         String database, int chunkSize, CollectionNames names, boolean mergeJoin) {
         this.assemblyAccession = assemblyAccession;
+        this.contig = contig;
         this.mongoClient = mongoClient;
         this.database = database;
         this.chunkSize = chunkSize;
         this.names = names;
+        this.mergeJoin = mergeJoin;
     }
 
     protected void aggregate(String collectionName) {
@@ -126,8 +155,69 @@ public abstract class VariantMongoAggregationReader implements ItemStreamReader<
         cursor = clusteredVariants.iterator();
     }
 
+    /**
+     * Replaces a $lookup stage with a merge join: the aggregation must sort the documents by keyField, and the
+     * documents of the joined collection that match joinedFilter are read in a second aggregation sorted by
+     * joinedKeyField. The documents returned by the cursor have the same shape as if the aggregation had the stage
+     * {@code lookup(joinedCollectionName, keyField, joinedKeyField, joinedField)}.
+     *
+     * This avoids an index probe per document, which is the slowest part of the release, at the cost of reading the
+     * joined documents of the whole assembly (or contig) even if they are not joined.
+     */
+    protected void aggregateAndJoin(String collectionName, String keyField, String joinedCollectionName,
+                                    Bson joinedFilter, String joinedKeyField, String joinedField) {
+        MongoDatabase db = mongoClient.getDatabase(database);
+        logger.info("issuing aggregation on collection {}, joined with collection {}", collectionName,
+                    joinedCollectionName);
+        MongoCursor<Document> documents = db.getCollection(collectionName)
+                                            .aggregate(buildAggregation())
+                                            .allowDiskUse(true)
+                                            .useCursor(true)
+                                            .batchSize(chunkSize)
+                                            .iterator();
+        List<Bson> joinedAggregation = buildJoinedAggregation(joinedFilter, joinedKeyField);
+        logger.info("Issuing aggregation: {}", joinedAggregation);
+        MongoCursor<Document> joinedDocuments = db.getCollection(joinedCollectionName)
+                                                  .aggregate(joinedAggregation)
+                                                  .allowDiskUse(true)
+                                                  .useCursor(true)
+                                                  .batchSize(chunkSize)
+                                                  .iterator();
+        cursor = new MergeJoinCursor(documents, keyField, joinedDocuments, joinedKeyField, joinedField);
+    }
+
+    protected static List<Bson> buildJoinedAggregation(Bson joinedFilter, String joinedKeyField) {
+        return Arrays.asList(Aggregates.match(joinedFilter), Aggregates.sort(Sorts.ascending(joinedKeyField)));
+    }
+
     abstract protected List<Bson> buildAggregation();
 
+    /**
+     * The aggregation issued by {@link #open}, so that its query plan can be checked before the job starts.
+     */
+    public List<Bson> getAggregation() {
+        return buildAggregation();
+    }
+
+    /**
+     * The aggregation of the joined collection issued by {@link #open} when using a merge join, so that its query plan
+     * can be checked too. Empty if the reader doesn't use a merge join.
+     */
+    public List<Bson> getJoinedAggregation() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Filter by assembly and, if this reader is restricted to a contig, by contig too.
+     */
+    protected Bson filterByAssemblyAndContig(String assemblyField, String contigField) {
+        Bson assemblyFilter = Filters.eq(assemblyField, assemblyAccession);
+        if (contig == null) {
+            return assemblyFilter;
+        }
+        return Filters.and(assemblyFilter, Filters.eq(contigField, contig));
+    }
+
     @Override
     public List<Variant> read() throws UnexpectedInputException, ParseException, NonTransientResourceException {
         return cursor.hasNext() ? getVariants(cursor.next()) : null;
@@ -57,18 +57,55 @@ public class AccessionedVariantMongoReader extends VariantMongoAggregationReader
         super(assemblyAccession, mongoClient, database, chunkSize, names);
     }
 
+    public AccessionedVariantMongoReader(String assemblyAccession, String contig, MongoClient mongoClient,
+                                         String database, int chunkSize, CollectionNames names) {
+        super(assemblyAccession, contig, mongoClient, database, chunkSize, names);
+    }
+
+    public AccessionedVariantMongoReader(String assemblyAccession, String contig, MongoClient mongoClient,
+                                         String database, int chunkSize, CollectionNames names, boolean mergeJoin) {
+        super(assemblyAccession, contig, mongoClient, database, chunkSize, names, mergeJoin);
+    }
+
+    /**
+     * When using a merge join, only the submitted variants in the same assembly (and contig) are joined. The rest
+     * would be discarded anyway in {@link #getVariants(Document)} because they are not in the same location.
+     */
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        aggregate(names.getClusteredVariantEntity());
+        if (mergeJoin) {
+            aggregateAndJoin(names.getClusteredVariantEntity(), ACCESSION_FIELD, names.getSubmittedVariantEntity(),
+                             getJoinedFilter(), CLUSTERED_VARIANT_ACCESSION_FIELD, SS_INFO_FIELD);
+        } else {
+            aggregate(names.getClusteredVariantEntity());
+        }
+    }
+
+    private Bson getJoinedFilter() {
+        return filterByAssemblyAndContig(SUBMITTED_VARIANT_ASSEMBLY_FIELD, CONTIG_FIELD);
+    }
+
+    @Override
+    public List<Bson> getJoinedAggregation() {
+        if (!mergeJoin) {
+            return super.getJoinedAggregation();
+        }
+        return buildJoinedAggregation(getJoinedFilter(), CLUSTERED_VARIANT_ACCESSION_FIELD);
     }
 
     protected List<Bson> buildAggregation() {
-        Bson match = Aggregates.match(Filters.eq(REFERENCE_ASSEMBLY_FIELD, assemblyAccession));
-        Bson sort = Aggregates.sort(orderBy(ascending(CONTIG_FIELD, START_FIELD)));
+        Bson match = Aggregates.match(filterByAssemblyAndContig(REFERENCE_ASSEMBLY_FIELD, CONTIG_FIELD));
         Bson singlemap = Aggregates.match(Filters.not(exists(MAPPING_WEIGHT_FIELD)));
-        Bson lookup = Aggregates.lookup(names.getSubmittedVariantEntity(), ACCESSION_FIELD,
-                                        CLUSTERED_VARIANT_ACCESSION_FIELD, SS_INFO_FIELD);
-        List<Bson> aggregation = Arrays.asList(match, sort, singlemap, lookup);
+        List<Bson> aggregation;
+        if (mergeJoin) {
+            Bson sort = Aggregates.sort(orderBy(ascending(ACCESSION_FIELD)));
+            aggregation = Arrays.asList(match, singlemap, sort);
+        } else {
+            Bson sort = Aggregates.sort(orderBy(ascending(CONTIG_FIELD, START_FIELD)));
+            Bson lookup = Aggregates.lookup(names.getSubmittedVariantEntity(), ACCESSION_FIELD,
+                                            CLUSTERED_VARIANT_ACCESSION_FIELD, SS_INFO_FIELD);
+            aggregation = Arrays.asList(match, sort, singlemap, lookup);
+        }
         logger.info("Issuing aggregation: {}", aggregation);
         return aggregation;
     }
@@ -15,6 +15,10 @@
  */
 package uk.ac.ebi.eva.accession.release.batch.io.active;
 
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import htsjdk.tribble.util.TabixUtils;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
@@ -29,11 +33,14 @@ import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamWriter;
 
+import uk.ac.ebi.eva.accession.core.batch.io.ParallelBlockCompressedOutputStream;
+import uk.ac.ebi.eva.accession.release.assembly.AssemblyNameCache;
 import uk.ac.ebi.eva.accession.release.assembly.AssemblyNameRetriever;
 import uk.ac.ebi.eva.accession.release.configuration.batch.steps.ListContigsStepConfiguration;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -55,6 +62,14 @@ import static uk.ac.ebi.eva.accession.release.batch.io.active.AccessionedVariant
  *
  * To include the contigs in the meta section it reads the file generated in the previous step
  * {@link ListContigsStepConfiguration}
+ *
+ * When the release is split in one part per contig, each part is written without header, so that the parts can be
+ * appended to a file that only contains the header. See ConcatenateReleasePartsTasklet.
+ *
+ * If compressionThreads is greater than 0, the VCF is compressed with BGZF in that many threads (see
+ * {@link ParallelBlockCompressedOutputStream}), and a tabix index is created while writing, as long as the variants
+ * are sorted by position. If a variant is out of order, the index is discarded, and the file has to be sorted and
+ * indexed afterwards, as the uncompressed releases. Parts without header are not indexed.
  */
 public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
 
@@ -68,33 +83,114 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
 
     private String contigsFilePath;
 
+    private boolean writeHeader;
+
+    private int compressionThreads;
+
+    private ParallelBlockCompressedOutputStream compressedOutput;
+
+    private TabixIndexCreator indexCreator;
+
+    private Set<String> indexedContigs;
+
+    private String lastContig;
+
+    private int lastStart;
+
+    private long endOfVariants;
+
+    private AssemblyNameCache assemblyNameCache;
+
     public VariantContextWriter(Path outputPath, String referenceAssembly, String contigsFilePath) {
+        this(outputPath, referenceAssembly, contigsFilePath, true);
+    }
+
+    public VariantContextWriter(Path outputPath, String referenceAssembly, String contigsFilePath,
+                                boolean writeHeader) {
+        this(outputPath, referenceAssembly, contigsFilePath, writeHeader, 0);
+    }
+
+    /**
+     * @param compressionThreads if 0, the VCF is not compressed
+     */
+    public VariantContextWriter(Path outputPath, String referenceAssembly, String contigsFilePath,
+                                boolean writeHeader, int compressionThreads) {
         this.output = outputPath.toFile();
         this.referenceAssembly = referenceAssembly;
         this.contigsFilePath = contigsFilePath;
+        this.writeHeader = writeHeader;
+        this.compressionThreads = compressionThreads;
     }
 
     public File getOutput() {
         return output;
     }
 
+    /**
+     * @param assemblyNameCache cache of the assembly names to write in the header, if not set, the default in-memory
+     *                          cache of {@link AssemblyNameRetriever} is used
+     */
+    public void setAssemblyNameCache(AssemblyNameCache assemblyNameCache) {
+        this.assemblyNameCache = assemblyNameCache;
+    }
+
+    public boolean isCompressed() {
+        return compressionThreads > 0;
+    }
+
+    public File getIndex() {
+        return new File(output.getPath() + TabixUtils.STANDARD_INDEX_EXTENSION);
+    }
+
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        VariantContextWriterBuilder builder = new VariantContextWriterBuilder();
-        writer = builder
-                .setOutputFile(output)
-                .setOutputFileType(VariantContextWriterBuilder.OutputType.VCF)
-                .unsetOption(Options.INDEX_ON_THE_FLY)
-                .build();
+        if (isCompressed()) {
+            openCompressed();
+        } else {
+            writer = new VariantContextWriterBuilder()
+                    .setOutputFile(output)
+                    .setOutputFileType(VariantContextWriterBuilder.OutputType.VCF)
+                    .unsetOption(Options.INDEX_ON_THE_FLY)
+                    .build();
+        }
 
         Set<VCFHeaderLine> metaData = buildHeaderLines();
-        writer.writeHeader(new VCFHeader(metaData));
+        if (writeHeader) {
+            writer.writeHeader(new VCFHeader(metaData));
+        } else {
+            writer.setHeader(new VCFHeader(metaData));
+        }
+    }
+
+    /**
+     * htsjdk can only index sorted files, and fails on the first variant out of order, so the index is created here
+     * instead, using the positions of each variant given by the compressed stream.
+     */
+    private void openCompressed() {
+        try {
+            compressedOutput = new ParallelBlockCompressedOutputStream(new FileOutputStream(output),
+                                                                       compressionThreads);
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not open the release file " + output, e);
+        }
+        writer = new VariantContextWriterBuilder()
+                .setOutputVCFStream(compressedOutput)
+                .unsetOption(Options.INDEX_ON_THE_FLY)
+                .build();
+        if (writeHeader) {
+            indexCreator = new TabixIndexCreator(TabixFormat.VCF);
+            indexedContigs = new HashSet<>();
+            lastContig = null;
+        }
     }
 
     protected Set<VCFHeaderLine> buildHeaderLines() {
         Set<VCFHeaderLine> metaData = new HashSet<>();
         addContigs(metaData);
-        metaData.add(new VCFHeaderLine("reference", getReferenceAssemblyLine()));
+        if (writeHeader) {
+            // the records don't depend on this line, and getting the assembly name requires a request to ENA
+            metaData.add(new VCFHeaderLine("reference", getReferenceAssemblyLine()));
+        }
         metaData.add(new VCFInfoHeaderLine(VARIANT_CLASS_KEY, 1, VCFHeaderLineType.String,
                                            "Variant class according to the Sequence Ontology"));
         metaData.add(new VCFInfoHeaderLine(STUDY_ID_KEY, VCFHeaderLineCount.UNBOUNDED, VCFHeaderLineType.String,
@@ -122,7 +218,9 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
     }
 
     private String getReferenceAssemblyLine() {
-        AssemblyNameRetriever assemblyNameRetriever = new AssemblyNameRetriever(referenceAssembly);
+        AssemblyNameRetriever assemblyNameRetriever = assemblyNameCache == null
+                ? new AssemblyNameRetriever(referenceAssembly)
+                : new AssemblyNameRetriever(referenceAssembly, assemblyNameCache);
         Optional<String> assemblyName = assemblyNameRetriever.getAssemblyName();
         String assemblyUrl = assemblyNameRetriever.buildAssemblyHumanReadableUrl();
 
@@ -151,10 +249,42 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
     @Override
     public void write(List<? extends VariantContext> variantContexts) throws Exception {
         for (VariantContext variantContext : variantContexts) {
+            if (indexCreator != null) {
+                index(variantContext);
+            }
             writer.add(variantContext);
         }
     }
 
+    private void index(VariantContext variantContext) throws IOException {
+        if (!isSorted(variantContext)) {
+            logger.warn("Variant {}:{} is not sorted by position, {} will not be indexed", variantContext.getContig(),
+                        variantContext.getStart(), output);
+            indexCreator = null;
+            return;
+        }
+        compressedOutput.mark(position -> {
+            if (indexCreator != null) {
+                indexCreator.addFeature(variantContext, position);
+            }
+        });
+    }
+
+    private boolean isSorted(VariantContext variantContext) {
+        String contig = variantContext.getContig();
+        int start = variantContext.getStart();
+        if (!contig.equals(lastContig)) {
+            if (!indexedContigs.add(contig)) {
+                return false;
+            }
+            lastContig = contig;
+        } else if (start < lastStart) {
+            return false;
+        }
+        lastStart = start;
+        return true;
+    }
+
     @Override
     public void update(ExecutionContext executionContext) throws ItemStreamException {
 
@@ -162,7 +292,22 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
 
     @Override
     public void close() throws ItemStreamException {
-        writer.close();
+        try {
+            if (indexCreator != null) {
+                compressedOutput.mark(position -> endOfVariants = position);
+            }
+            writer.close();
+            if (compressedOutput != null) {
+                compressedOutput.close();
+            }
+            if (indexCreator != null) {
+                Index index = indexCreator.finalizeIndex(endOfVariants);
+                index.write(getIndex());
+                indexCreator = null;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not close the release file " + output, e);
+        }
     }
 
 }
@@ -31,6 +31,16 @@ public class MergedVariantContextWriter extends VariantContextWriter {
         super(outputPath, referenceAssembly, mergedContigsFilePath);
     }
 
+    public MergedVariantContextWriter(Path outputPath, String referenceAssembly, String mergedContigsFilePath,
+                                      boolean writeHeader) {
+        super(outputPath, referenceAssembly, mergedContigsFilePath, writeHeader);
+    }
+
+    public MergedVariantContextWriter(Path outputPath, String referenceAssembly, String mergedContigsFilePath,
+                                      boolean writeHeader, int compressionThreads) {
+        super(outputPath, referenceAssembly, mergedContigsFilePath, writeHeader, compressionThreads);
+    }
+
     @Override
     protected Set<VCFHeaderLine> buildHeaderLines() {
         Set<VCFHeaderLine> vcfHeaderLines = super.buildHeaderLines();
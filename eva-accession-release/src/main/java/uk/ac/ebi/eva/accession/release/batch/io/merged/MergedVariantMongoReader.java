@@ -73,24 +73,64 @@ public class MergedVariantMongoReader extends VariantMongoAggregationReader {
         super(assemblyAccession, mongoClient, database, chunkSize, names);
     }
 
+    public MergedVariantMongoReader(String assemblyAccession, String contig, MongoClient mongoClient, String database,
+                                    int chunkSize, CollectionNames names) {
+        super(assemblyAccession, contig, mongoClient, database, chunkSize, names);
+    }
+
+    public MergedVariantMongoReader(String assemblyAccession, String contig, MongoClient mongoClient, String database,
+                                    int chunkSize, CollectionNames names, boolean mergeJoin) {
+        super(assemblyAccession, contig, mongoClient, database, chunkSize, names, mergeJoin);
+    }
+
+    /**
+     * When using a merge join, only the submitted variant operations are joined in memory. The active clustered
+     * variant is still looked up in the aggregation, as it is joined by a different key (mergeInto).
+     */
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        aggregate(names.getClusteredVariantOperationEntity());
+        if (mergeJoin) {
+            aggregateAndJoin(names.getClusteredVariantOperationEntity(), ACCESSION_FIELD,
+                             names.getSubmittedVariantOperationEntity(), getJoinedFilter(),
+                             getInactiveField(CLUSTERED_VARIANT_ACCESSION_FIELD), SS_INFO_FIELD);
+        } else {
+            aggregate(names.getClusteredVariantOperationEntity());
+        }
+    }
+
+    private Bson getJoinedFilter() {
+        return filterByAssemblyAndContig(getInactiveField(SUBMITTED_VARIANT_ASSEMBLY_FIELD),
+                                         getInactiveField(CONTIG_FIELD));
+    }
+
+    @Override
+    public List<Bson> getJoinedAggregation() {
+        if (!mergeJoin) {
+            return super.getJoinedAggregation();
+        }
+        return buildJoinedAggregation(getJoinedFilter(), getInactiveField(CLUSTERED_VARIANT_ACCESSION_FIELD));
     }
 
     @Override
     protected List<Bson> buildAggregation() {
-        Bson matchAssembly = Aggregates.match(Filters.eq(getInactiveField(REFERENCE_ASSEMBLY_FIELD), assemblyAccession));
+        Bson matchAssembly = Aggregates.match(filterByAssemblyAndContig(getInactiveField(REFERENCE_ASSEMBLY_FIELD),
+                                                                        getInactiveField(CONTIG_FIELD)));
         Bson matchMerged = Aggregates.match(Filters.eq(EVENT_TYPE_FIELD, EventType.MERGED.toString()));
-        Bson sort = Aggregates.sort(orderBy(ascending(getInactiveField(CONTIG_FIELD), getInactiveField(START_FIELD))));
-        Bson lookupSubmittedVariantsOperations = Aggregates.lookup(names.getSubmittedVariantOperationEntity(),
-                                                                   ACCESSION_FIELD,
-                                                                   getInactiveField(CLUSTERED_VARIANT_ACCESSION_FIELD),
-                                                                   SS_INFO_FIELD);
         Bson lookupClusteredVariants = Aggregates.lookup(names.getClusteredVariantEntity(), MERGE_INTO_FIELD,
                                                          ACCESSION_FIELD, ACTIVE_RS);
-        List<Bson> aggregation = Arrays.asList(matchAssembly, matchMerged, sort, lookupSubmittedVariantsOperations,
-                                               lookupClusteredVariants);
+        List<Bson> aggregation;
+        if (mergeJoin) {
+            Bson sort = Aggregates.sort(orderBy(ascending(ACCESSION_FIELD)));
+            aggregation = Arrays.asList(matchAssembly, matchMerged, sort, lookupClusteredVariants);
+        } else {
+            Bson sort = Aggregates.sort(orderBy(ascending(getInactiveField(CONTIG_FIELD),
+                                                          getInactiveField(START_FIELD))));
+            Bson lookupSubmittedVariantsOperations = Aggregates.lookup(
+                    names.getSubmittedVariantOperationEntity(), ACCESSION_FIELD,
+                    getInactiveField(CLUSTERED_VARIANT_ACCESSION_FIELD), SS_INFO_FIELD);
+            aggregation = Arrays.asList(matchAssembly, matchMerged, sort, lookupSubmittedVariantsOperations,
+                                        lookupClusteredVariants);
+        }
         logger.info("Issuing aggregation: {}", aggregation);
         return aggregation;
     }
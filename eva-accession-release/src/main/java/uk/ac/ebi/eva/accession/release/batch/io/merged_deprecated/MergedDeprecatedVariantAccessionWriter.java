@@ -21,11 +21,11 @@ import org.springframework.batch.item.ItemStreamWriter;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.EventDocument;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.InactiveSubDocument;
 
+import uk.ac.ebi.eva.accession.core.batch.io.OutputFiles;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
@@ -39,10 +39,20 @@ public class MergedDeprecatedVariantAccessionWriter implements ItemStreamWriter<
 
     private final File output;
 
+    private final int compressionThreads;
+
     private PrintWriter printWriter;
 
     public MergedDeprecatedVariantAccessionWriter(Path outputPath) {
+        this(outputPath, 0);
+    }
+
+    /**
+     * @param compressionThreads if greater than 0, the file is compressed with BGZF in that many threads
+     */
+    public MergedDeprecatedVariantAccessionWriter(Path outputPath, int compressionThreads) {
         this.output = outputPath.toFile();
+        this.compressionThreads = compressionThreads;
     }
 
     public File getOutput() {
@@ -52,7 +62,7 @@ public class MergedDeprecatedVariantAccessionWriter implements ItemStreamWriter<
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         try {
-            printWriter = new PrintWriter(new FileWriter(output));
+            printWriter = new PrintWriter(OutputFiles.newBufferedWriter(output, false, compressionThreads));
         } catch (IOException e) {
             throw new ItemStreamException(e);
         }
@@ -35,6 +35,16 @@ public class MultimapVariantContextWriter extends VariantContextWriter {
         super(outputPath, referenceAssembly, multimapContigsFilePath);
     }
 
+    public MultimapVariantContextWriter(Path outputPath, String referenceAssembly, String multimapContigsFilePath,
+                                        boolean writeHeader) {
+        super(outputPath, referenceAssembly, multimapContigsFilePath, writeHeader);
+    }
+
+    public MultimapVariantContextWriter(Path outputPath, String referenceAssembly, String multimapContigsFilePath,
+                                        boolean writeHeader, int compressionThreads) {
+        super(outputPath, referenceAssembly, multimapContigsFilePath, writeHeader, compressionThreads);
+    }
+
     @Override
     protected Set<VCFHeaderLine> buildHeaderLines() {
         Set<VCFHeaderLine> vcfHeaderLines = super.buildHeaderLines();
@@ -45,14 +45,30 @@ public class MultimapVariantMongoReader extends AccessionedVariantMongoReader {
         super(assemblyAccession, mongoClient, database, chunkSize, names);
     }
 
+    public MultimapVariantMongoReader(String assemblyAccession, String contig, MongoClient mongoClient,
+                                      String database, int chunkSize, CollectionNames names) {
+        super(assemblyAccession, contig, mongoClient, database, chunkSize, names);
+    }
+
+    public MultimapVariantMongoReader(String assemblyAccession, String contig, MongoClient mongoClient,
+                                      String database, int chunkSize, CollectionNames names, boolean mergeJoin) {
+        super(assemblyAccession, contig, mongoClient, database, chunkSize, names, mergeJoin);
+    }
+
     @Override
     protected List<Bson> buildAggregation() {
-        Bson match = Aggregates.match(Filters.and(Filters.eq(REFERENCE_ASSEMBLY_FIELD, assemblyAccession),
+        Bson match = Aggregates.match(Filters.and(filterByAssemblyAndContig(REFERENCE_ASSEMBLY_FIELD, CONTIG_FIELD),
                                                   Filters.gte(MAPPING_WEIGHT_FIELD, NON_SINGLE_LOCATION_MAPPING)));
-        Bson sort = Aggregates.sort(orderBy(ascending(CONTIG_FIELD, START_FIELD)));
-        Bson lookup = Aggregates.lookup(names.getSubmittedVariantEntity(), ACCESSION_FIELD,
-                                        CLUSTERED_VARIANT_ACCESSION_FIELD, SS_INFO_FIELD);
-        List<Bson> aggregation = Arrays.asList(match, sort, lookup);
+        List<Bson> aggregation;
+        if (mergeJoin) {
+            Bson sort = Aggregates.sort(orderBy(ascending(ACCESSION_FIELD)));
+            aggregation = Arrays.asList(match, sort);
+        } else {
+            Bson sort = Aggregates.sort(orderBy(ascending(CONTIG_FIELD, START_FIELD)));
+            Bson lookup = Aggregates.lookup(names.getSubmittedVariantEntity(), ACCESSION_FIELD,
+                                            CLUSTERED_VARIANT_ACCESSION_FIELD, SS_INFO_FIELD);
+            aggregation = Arrays.asList(match, sort, lookup);
+        }
         logger.info("Issuing aggregation: {}", aggregation);
         return aggregation;
     }
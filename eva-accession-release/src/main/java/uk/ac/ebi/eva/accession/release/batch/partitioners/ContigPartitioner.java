@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.partitioners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a release in one partition per contig, using the list of contigs written by ListContigsStepConfiguration.
+ * Each partition writes its variants to its own part file, and ConcatenateReleasePartsTasklet joins the parts in
+ * the same order that the contigs have here, which is the order used by the aggregations that read the whole
+ * assembly.
+ *
+ * If the list of contigs is not available, the whole assembly is released in a single partition.
+ */
+public class ContigPartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContigPartitioner.class);
+
+    public static final String CONTIG_KEY = "contig";
+
+    public static final String PART_FILE_KEY = "partFile";
+
+    private static final String PARTITION_PREFIX = "contig-";
+
+    private static final String WHOLE_ASSEMBLY_PARTITION = "assembly";
+
+    private static final String PART_FILE_INFIX = ".part";
+
+    private final String contigsFilePath;
+
+    private final Path outputPath;
+
+    public ContigPartitioner(String contigsFilePath, Path outputPath) {
+        this.contigsFilePath = contigsFilePath;
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * @param gridSize ignored, there will be as many partitions as contigs. The number of partitions that run at the
+     * same time is limited by the TaskExecutor used in the partitioned step.
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        List<String> contigs = readContigs(contigsFilePath);
+        if (contigs == null) {
+            logger.warn("Contigs file {} not found, {} will be written in a single partition", contigsFilePath,
+                        outputPath);
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putString(PART_FILE_KEY, getPartPath(outputPath, 0).toString());
+            partitions.put(WHOLE_ASSEMBLY_PARTITION, executionContext);
+            return partitions;
+        }
+
+        logger.info("{} will be written in {} partitions, one per contig", outputPath, contigs.size());
+        for (int i = 0; i < contigs.size(); i++) {
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putString(CONTIG_KEY, contigs.get(i));
+            executionContext.putString(PART_FILE_KEY, getPartPath(outputPath, i).toString());
+            partitions.put(PARTITION_PREFIX + contigs.get(i), executionContext);
+        }
+        return partitions;
+    }
+
+    /**
+     * Returns the part files that the partitions write, in the order they have to be concatenated.
+     */
+    public List<Path> getPartPaths() {
+        List<String> contigs = readContigs(contigsFilePath);
+        int numberOfParts = contigs == null ? 1 : contigs.size();
+        List<Path> parts = new ArrayList<>(numberOfParts);
+        for (int i = 0; i < numberOfParts; i++) {
+            parts.add(getPartPath(outputPath, i));
+        }
+        return parts;
+    }
+
+    private static Path getPartPath(Path outputPath, int index) {
+        return outputPath.resolveSibling(outputPath.getFileName() + PART_FILE_INFIX + index);
+    }
+
+    /**
+     * @return the sorted contigs (first column) of the contigs file, or null if the file doesn't exist
+     */
+    private static List<String> readContigs(String contigsFilePath) {
+        List<String> contigs = new ArrayList<>();
+        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(contigsFilePath))) {
+            String contigLine;
+            while ((contigLine = bufferedReader.readLine()) != null) {
+                contigs.add(contigLine.split(",")[0]);
+            }
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Collections.sort(contigs);
+        return contigs;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.tasklets;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import uk.ac.ebi.eva.accession.core.batch.io.OutputFiles;
+import uk.ac.ebi.eva.accession.release.batch.io.active.VariantContextWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Joins the parts of a release, written by the partitions of a release step, into the final VCF.
+ *
+ * The header is written by the same writer that would write the whole release, and then the parts, which don't have
+ * header, are appended in contig order (see {@link ContigPartitioner}). The parts are deleted once the release is
+ * complete. If this tasklet fails, it can be restarted because the release file is overwritten from the beginning.
+ *
+ * Compressed parts are BGZF files too, so they are concatenated the same way, but without the empty block that marks
+ * the end of each file, which is written only once at the end. The parts are not indexed, because the offsets of their
+ * variants change when they are concatenated, so the tabix index of the release is built afterwards reading the
+ * concatenated file. As in {@link VariantContextWriter}, the release is not indexed if it is not sorted by position.
+ */
+public class ConcatenateReleasePartsTasklet implements Tasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcatenateReleasePartsTasklet.class);
+
+    private static final String HEADER_PREFIX = "#";
+
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private static final int CHROMOSOME_COLUMN = 0;
+
+    private static final int POSITION_COLUMN = 1;
+
+    private static final int REFERENCE_COLUMN = 3;
+
+    private static final int COLUMNS_TO_INDEX = REFERENCE_COLUMN + 1;
+
+    private final VariantContextWriter headerWriter;
+
+    private final ContigPartitioner partitioner;
+
+    public ConcatenateReleasePartsTasklet(VariantContextWriter headerWriter, ContigPartitioner partitioner) {
+        this.headerWriter = headerWriter;
+        this.partitioner = partitioner;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        headerWriter.open(new ExecutionContext());
+        headerWriter.close();
+
+        Path output = headerWriter.getOutput().toPath();
+        List<Path> parts = partitioner.getPartPaths();
+        for (Path part : parts) {
+            if (!Files.exists(part)) {
+                throw new IllegalStateException("Release part " + part + " not found, can't complete " + output);
+            }
+        }
+        if (headerWriter.isCompressed()) {
+            OutputFiles.concatenateBlockCompressed(output, parts);
+            index(output, headerWriter.getIndex());
+        } else {
+            try (OutputStream outputStream = Files.newOutputStream(output, StandardOpenOption.APPEND)) {
+                for (Path part : parts) {
+                    Files.copy(part, outputStream);
+                }
+            }
+        }
+        logger.info("Concatenated {} parts into {}", parts.size(), output);
+
+        for (Path part : parts) {
+            Files.delete(part);
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * The offset of each variant is the virtual file pointer of the BGZF stream at the start of its line. The end of a
+     * variant is calculated from the length of the reference allele, as htsjdk does for VCF records.
+     */
+    private void index(Path output, File index) throws IOException {
+        TabixIndexCreator indexCreator = new TabixIndexCreator(TabixFormat.VCF);
+        Set<String> indexedContigs = new HashSet<>();
+        String lastContig = null;
+        int lastStart = 0;
+        try (BlockCompressedInputStream input = new BlockCompressedInputStream(output.toFile())) {
+            long position = input.getFilePointer();
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (!line.startsWith(HEADER_PREFIX)) {
+                    String[] columns = line.split(FIELD_SEPARATOR, COLUMNS_TO_INDEX + 1);
+                    String contig = columns[CHROMOSOME_COLUMN];
+                    int start = Integer.parseInt(columns[POSITION_COLUMN]);
+                    boolean sorted = contig.equals(lastContig) ? start >= lastStart : indexedContigs.add(contig);
+                    if (!sorted) {
+                        logger.warn("Variant {}:{} is not sorted by position, {} will not be indexed", contig, start,
+                                    output);
+                        Files.deleteIfExists(index.toPath());
+                        return;
+                    }
+                    lastContig = contig;
+                    lastStart = start;
+                    int end = start + columns[REFERENCE_COLUMN].length() - 1;
+                    indexCreator.addFeature(new SimpleFeature(contig, start, end), position);
+                }
+                position = input.getFilePointer();
+            }
+            indexCreator.finalizeIndex(position).write(index);
+        }
+        logger.info("Indexed {} into {}", output, index);
+    }
+}
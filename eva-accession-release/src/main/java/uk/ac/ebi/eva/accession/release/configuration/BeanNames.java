@@ -26,6 +26,14 @@ public class BeanNames {
 
     public static final String PROGRESS_LISTENER = "PROGRESS_LISTENER";
 
+    public static final String QUERY_PLAN_CHECK_LISTENER = "QUERY_PLAN_CHECK_LISTENER";
+
+    public static final String RELEASE_TASK_EXECUTOR = "RELEASE_TASK_EXECUTOR";
+
+    public static final String RELEASE_FLOWS_TASK_EXECUTOR = "RELEASE_FLOWS_TASK_EXECUTOR";
+
+    public static final String DBSNP_AND_EVA_FLOWS = "DBSNP_AND_EVA_FLOWS";
+
     // dbsnp beans
     public static final String DBSNP_FLOW = "DBSNP_FLOW";
 
@@ -61,6 +69,18 @@ public class BeanNames {
 
     public static final String DBSNP_DEPRECATED_RELEASE_WRITER = "DBSNP_DEPRECATED_RELEASE_WRITER";
 
+    public static final String DBSNP_RELEASE_PART_WRITER = "DBSNP_RELEASE_PART_WRITER";
+
+    public static final String DBSNP_MERGED_RELEASE_PART_WRITER = "DBSNP_MERGED_RELEASE_PART_WRITER";
+
+    public static final String DBSNP_MULTIMAP_RELEASE_PART_WRITER = "DBSNP_MULTIMAP_RELEASE_PART_WRITER";
+
+    public static final String DBSNP_ACTIVE_CONTIG_PARTITIONER = "DBSNP_ACTIVE_CONTIG_PARTITIONER";
+
+    public static final String DBSNP_MERGED_CONTIG_PARTITIONER = "DBSNP_MERGED_CONTIG_PARTITIONER";
+
+    public static final String DBSNP_MULTIMAP_CONTIG_PARTITIONER = "DBSNP_MULTIMAP_CONTIG_PARTITIONER";
+
     public static final String LIST_DBSNP_ACTIVE_CONTIGS_STEP = "LIST_DBSNP_ACTIVE_CONTIGS_STEP";
 
     public static final String LIST_DBSNP_MERGED_CONTIGS_STEP = "LIST_DBSNP_MERGED_CONTIGS_STEP";
@@ -114,6 +134,18 @@ public class BeanNames {
 
     public static final String EVA_DEPRECATED_RELEASE_WRITER = "EVA_DEPRECATED_RELEASE_WRITER";
 
+    public static final String EVA_RELEASE_PART_WRITER = "EVA_RELEASE_PART_WRITER";
+
+    public static final String EVA_MERGED_RELEASE_PART_WRITER = "EVA_MERGED_RELEASE_PART_WRITER";
+
+    public static final String EVA_MULTIMAP_RELEASE_PART_WRITER = "EVA_MULTIMAP_RELEASE_PART_WRITER";
+
+    public static final String EVA_ACTIVE_CONTIG_PARTITIONER = "EVA_ACTIVE_CONTIG_PARTITIONER";
+
+    public static final String EVA_MERGED_CONTIG_PARTITIONER = "EVA_MERGED_CONTIG_PARTITIONER";
+
+    public static final String EVA_MULTIMAP_CONTIG_PARTITIONER = "EVA_MULTIMAP_CONTIG_PARTITIONER";
+
     public static final String LIST_EVA_ACTIVE_CONTIGS_STEP = "LIST_EVA_ACTIVE_CONTIGS_STEP";
 
     public static final String LIST_EVA_MERGED_CONTIGS_STEP = "LIST_EVA_MERGED_CONTIGS_STEP";
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.configuration.batch.io;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import uk.ac.ebi.eva.accession.release.assembly.AssemblyNameCache;
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * The assembly names are kept in parameters.assemblyNameCache for parameters.assemblyNameCacheTtlDays. If no file is
+ * provided, they are only kept in memory during the execution.
+ */
+@Configuration
+public class AssemblyNameCacheConfiguration {
+
+    @Bean
+    public AssemblyNameCache assemblyNameCache(InputParameters parameters) {
+        String file = parameters.getAssemblyNameCache();
+        if (file == null || file.isEmpty()) {
+            return new AssemblyNameCache();
+        }
+        return new AssemblyNameCache(Paths.get(file), Duration.ofDays(parameters.getAssemblyNameCacheTtlDays()));
+    }
+}
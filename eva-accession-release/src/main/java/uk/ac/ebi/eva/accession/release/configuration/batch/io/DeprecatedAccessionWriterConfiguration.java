@@ -34,14 +34,19 @@ public class DeprecatedAccessionWriterConfiguration {
     public DeprecatedVariantAccessionWriter deprecatedVariantItemStreamWriterDbsnp(InputParameters parameters) {
         Path reportPath = ReportPathResolver.getDbsnpDeprecatedIdsReportPath(parameters.getOutputFolder(),
                                                                              parameters.getAssemblyAccession());
-        return new DeprecatedVariantAccessionWriter(reportPath);
+        Path outputPath = ReportPathResolver.getOutputPath(reportPath, parameters.isCompressOutput());
+        return new DeprecatedVariantAccessionWriter(outputPath, getCompressionThreads(parameters));
     }
 
     @Bean(EVA_DEPRECATED_RELEASE_WRITER)
     public DeprecatedVariantAccessionWriter deprecatedVariantItemStreamWriterEva(InputParameters parameters) {
         Path reportPath = ReportPathResolver.getEvaDeprecatedIdsReportPath(parameters.getOutputFolder(),
                                                                            parameters.getAssemblyAccession());
-        return new DeprecatedVariantAccessionWriter(reportPath);
+        Path outputPath = ReportPathResolver.getOutputPath(reportPath, parameters.isCompressOutput());
+        return new DeprecatedVariantAccessionWriter(outputPath, getCompressionThreads(parameters));
     }
 
+    private static int getCompressionThreads(InputParameters parameters) {
+        return parameters.isCompressOutput() ? parameters.getCompressionThreads() : 0;
+    }
 }
@@ -38,7 +38,8 @@ public class MergedDeprecatedAccessionWriterConfiguration {
             InputParameters parameters) {
         Path reportPath = ReportPathResolver.getDbsnpMergedDeprecatedIdsReportPath(parameters.getOutputFolder(),
                                                                                    parameters.getAssemblyAccession());
-        return new MergedDeprecatedVariantAccessionWriter(reportPath);
+        Path outputPath = ReportPathResolver.getOutputPath(reportPath, parameters.isCompressOutput());
+        return new MergedDeprecatedVariantAccessionWriter(outputPath, getCompressionThreads(parameters));
     }
 
     @Bean(EVA_MERGED_DEPRECATED_RELEASE_WRITER)
@@ -46,7 +47,11 @@ public class MergedDeprecatedAccessionWriterConfiguration {
             InputParameters parameters) {
         Path reportPath = ReportPathResolver.getEvaMergedDeprecatedIdsReportPath(parameters.getOutputFolder(),
                                                                                  parameters.getAssemblyAccession());
-        return new MergedDeprecatedVariantAccessionWriter(reportPath);
+        Path outputPath = ReportPathResolver.getOutputPath(reportPath, parameters.isCompressOutput());
+        return new MergedDeprecatedVariantAccessionWriter(outputPath, getCompressionThreads(parameters));
     }
 
+    private static int getCompressionThreads(InputParameters parameters) {
+        return parameters.isCompressOutput() ? parameters.getCompressionThreads() : 0;
+    }
 }
@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,6 +35,7 @@ import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 import uk.ac.ebi.eva.commons.batch.io.UnwindingItemStreamReader;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
+import static uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner.CONTIG_KEY;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_VARIANT_READER;
 
@@ -43,26 +45,30 @@ public class MergedVariantMongoReaderConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(MergedVariantMongoReaderConfiguration.class);
 
+    private static final String CONTIG = "#{stepExecutionContext['" + CONTIG_KEY + "']}";
+
     @Bean(DBSNP_MERGED_VARIANT_READER)
     @StepScope
     public ItemStreamReader<Variant> unwindingReaderDbsnp(InputParameters parameters, MongoClient mongoClient,
-                                                     MongoProperties mongoProperties) {
+                                                     MongoProperties mongoProperties,
+                                                     @Value(CONTIG) String contig) {
         logger.info("Injecting Dbsnp MergedVariantMongoReader with parameters: {}", parameters);
         return new UnwindingItemStreamReader<>(
-                new MergedVariantMongoReader(parameters.getAssemblyAccession(), mongoClient,
+                new MergedVariantMongoReader(parameters.getAssemblyAccession(), contig, mongoClient,
                                              mongoProperties.getDatabase(), parameters.getChunkSize(),
-                                             new DbsnpCollectionNames()));
+                                             new DbsnpCollectionNames(), parameters.isMergeJoin()));
     }
 
     @Bean(EVA_MERGED_VARIANT_READER)
     @StepScope
     public ItemStreamReader<Variant> unwindingReaderEva(InputParameters parameters, MongoClient mongoClient,
-                                                     MongoProperties mongoProperties) {
+                                                     MongoProperties mongoProperties,
+                                                     @Value(CONTIG) String contig) {
         logger.info("Injecting Eva MergedVariantMongoReader with parameters: {}", parameters);
         return new UnwindingItemStreamReader<>(
-                new MergedVariantMongoReader(parameters.getAssemblyAccession(), mongoClient,
+                new MergedVariantMongoReader(parameters.getAssemblyAccession(), contig, mongoClient,
                                              mongoProperties.getDatabase(), parameters.getChunkSize(),
-                                             new EvaCollectionNames()));
+                                             new EvaCollectionNames(), parameters.isMergeJoin()));
     }
 
 }
@@ -16,9 +16,14 @@
 
 package uk.ac.ebi.eva.accession.release.configuration.batch.io;
 
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.release.assembly.AssemblyNameCache;
 import uk.ac.ebi.eva.accession.release.batch.io.contig.ContigWriter;
 import uk.ac.ebi.eva.accession.release.batch.io.merged.MergedVariantContextWriter;
 import uk.ac.ebi.eva.accession.release.batch.io.multimap.MultimapVariantContextWriter;
@@ -27,24 +32,51 @@ import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 import uk.ac.ebi.eva.accession.release.parameters.ReportPathResolver;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import static uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner.PART_FILE_KEY;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_RELEASE_WRITER;
 
+/**
+ * The release writers write the whole release file, or only its header when the release is split by contig. In the
+ * latter case, the part writers write the variants of each contig, without header, to the part file of the partition.
+ *
+ * If parameters.compressOutput is set, the release files are written with BGZF and named *.vcf.gz.
+ *
+ * The writers of the headers share an {@link AssemblyNameCache}, so the assembly name is retrieved from ENA at most
+ * once per execution.
+ */
 @Configuration
+@Import({AssemblyNameCacheConfiguration.class})
 public class VariantContextWriterConfiguration {
 
+    private static final String PART_FILE = "#{stepExecutionContext['" + PART_FILE_KEY + "']}";
+
+    @Autowired
+    private AssemblyNameCache assemblyNameCache;
+
     @Bean(DBSNP_RELEASE_WRITER)
     public VariantContextWriter variantContextWriter(InputParameters parameters) {
         Path reportPath = ReportPathResolver.getDbsnpCurrentIdsReportPath(parameters.getOutputFolder(),
                                                                           parameters.getAssemblyAccession());
         String activeContigsFilePath = ContigWriter.getDbsnpActiveContigsFilePath(reportPath.toFile().getParent(),
                                                                                   parameters.getAssemblyAccession());
-        return new VariantContextWriter(reportPath, parameters.getAssemblyAccession(), activeContigsFilePath);
+        VariantContextWriter writer = new VariantContextWriter(getOutputPath(reportPath, parameters),
+                                                               parameters.getAssemblyAccession(), activeContigsFilePath,
+                                                               true, getCompressionThreads(parameters));
+        writer.setAssemblyNameCache(assemblyNameCache);
+        return writer;
     }
 
     @Bean(DBSNP_MERGED_RELEASE_WRITER)
@@ -53,7 +85,12 @@ public class VariantContextWriterConfiguration {
                                                                          parameters.getAssemblyAccession());
         String mergedContigsFilePath = ContigWriter.getDbsnpMergedContigsFilePath(reportPath.toFile().getParent(),
                                                                                   parameters.getAssemblyAccession());
-        return new MergedVariantContextWriter(reportPath, parameters.getAssemblyAccession(), mergedContigsFilePath);
+        MergedVariantContextWriter writer = new MergedVariantContextWriter(getOutputPath(reportPath, parameters),
+                                                                           parameters.getAssemblyAccession(),
+                                                                           mergedContigsFilePath, true,
+                                                                           getCompressionThreads(parameters));
+        writer.setAssemblyNameCache(assemblyNameCache);
+        return writer;
     }
 
     @Bean(DBSNP_MULTIMAP_RELEASE_WRITER)
@@ -62,7 +99,12 @@ public class VariantContextWriterConfiguration {
                                                                            parameters.getAssemblyAccession());
         String activeContigsFilePath = ContigWriter.getDbsnpMultimapContigsFilePath(reportPath.toFile().getParent(),
                                                                                     parameters.getAssemblyAccession());
-        return new MultimapVariantContextWriter(reportPath, parameters.getAssemblyAccession(), activeContigsFilePath);
+        MultimapVariantContextWriter writer = new MultimapVariantContextWriter(getOutputPath(reportPath, parameters),
+                                                                               parameters.getAssemblyAccession(),
+                                                                               activeContigsFilePath, true,
+                                                                               getCompressionThreads(parameters));
+        writer.setAssemblyNameCache(assemblyNameCache);
+        return writer;
     }
 
     @Bean(EVA_RELEASE_WRITER)
@@ -71,7 +113,11 @@ public class VariantContextWriterConfiguration {
                                                                         parameters.getAssemblyAccession());
         String activeContigsFilePath = ContigWriter.getEvaActiveContigsFilePath(reportPath.toFile().getParent(),
                                                                                 parameters.getAssemblyAccession());
-        return new VariantContextWriter(reportPath, parameters.getAssemblyAccession(), activeContigsFilePath);
+        VariantContextWriter writer = new VariantContextWriter(getOutputPath(reportPath, parameters),
+                                                               parameters.getAssemblyAccession(), activeContigsFilePath,
+                                                               true, getCompressionThreads(parameters));
+        writer.setAssemblyNameCache(assemblyNameCache);
+        return writer;
     }
 
     @Bean(EVA_MERGED_RELEASE_WRITER)
@@ -80,7 +126,12 @@ public class VariantContextWriterConfiguration {
                                                                        parameters.getAssemblyAccession());
         String mergedContigsFilePath = ContigWriter.getEvaMergedContigsFilePath(reportPath.toFile().getParent(),
                                                                                 parameters.getAssemblyAccession());
-        return new MergedVariantContextWriter(reportPath, parameters.getAssemblyAccession(), mergedContigsFilePath);
+        MergedVariantContextWriter writer = new MergedVariantContextWriter(getOutputPath(reportPath, parameters),
+                                                                           parameters.getAssemblyAccession(),
+                                                                           mergedContigsFilePath, true,
+                                                                           getCompressionThreads(parameters));
+        writer.setAssemblyNameCache(assemblyNameCache);
+        return writer;
     }
 
     @Bean(EVA_MULTIMAP_RELEASE_WRITER)
@@ -89,7 +140,91 @@ public class VariantContextWriterConfiguration {
                                                                          parameters.getAssemblyAccession());
         String activeContigsFilePath = ContigWriter.getEvaMultimapContigsFilePath(reportPath.toFile().getParent(),
                                                                                   parameters.getAssemblyAccession());
-        return new MultimapVariantContextWriter(reportPath, parameters.getAssemblyAccession(), activeContigsFilePath);
+        MultimapVariantContextWriter writer = new MultimapVariantContextWriter(getOutputPath(reportPath, parameters),
+                                                                               parameters.getAssemblyAccession(),
+                                                                               activeContigsFilePath, true,
+                                                                               getCompressionThreads(parameters));
+        writer.setAssemblyNameCache(assemblyNameCache);
+        return writer;
+    }
+
+    @Bean(DBSNP_RELEASE_PART_WRITER)
+    @StepScope
+    public VariantContextWriter variantContextPartWriter(InputParameters parameters,
+                                                         @Value(PART_FILE) String partFile) {
+        Path reportPath = ReportPathResolver.getDbsnpCurrentIdsReportPath(parameters.getOutputFolder(),
+                                                                          parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getDbsnpActiveContigsFilePath(reportPath.toFile().getParent(),
+                                                                            parameters.getAssemblyAccession());
+        return new VariantContextWriter(Paths.get(partFile), parameters.getAssemblyAccession(),
+                                        contigsFilePath, false, getCompressionThreads(parameters));
+    }
+
+    @Bean(DBSNP_MERGED_RELEASE_PART_WRITER)
+    @StepScope
+    public MergedVariantContextWriter mergedVariantContextPartWriter(InputParameters parameters,
+                                                                     @Value(PART_FILE) String partFile) {
+        Path reportPath = ReportPathResolver.getDbsnpMergedIdsReportPath(parameters.getOutputFolder(),
+                                                                         parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getDbsnpMergedContigsFilePath(reportPath.toFile().getParent(),
+                                                                            parameters.getAssemblyAccession());
+        return new MergedVariantContextWriter(Paths.get(partFile), parameters.getAssemblyAccession(),
+                                              contigsFilePath, false, getCompressionThreads(parameters));
+    }
+
+    @Bean(DBSNP_MULTIMAP_RELEASE_PART_WRITER)
+    @StepScope
+    public MultimapVariantContextWriter multimapVariantContextPartWriter(InputParameters parameters,
+                                                                         @Value(PART_FILE) String partFile) {
+        Path reportPath = ReportPathResolver.getDbsnpMultimapIdsReportPath(parameters.getOutputFolder(),
+                                                                           parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getDbsnpMultimapContigsFilePath(reportPath.toFile().getParent(),
+                                                                              parameters.getAssemblyAccession());
+        return new MultimapVariantContextWriter(Paths.get(partFile), parameters.getAssemblyAccession(),
+                                                contigsFilePath, false, getCompressionThreads(parameters));
     }
 
+    @Bean(EVA_RELEASE_PART_WRITER)
+    @StepScope
+    public VariantContextWriter variantContextPartWriterEva(InputParameters parameters,
+                                                            @Value(PART_FILE) String partFile) {
+        Path reportPath = ReportPathResolver.getEvaCurrentIdsReportPath(parameters.getOutputFolder(),
+                                                                        parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getEvaActiveContigsFilePath(reportPath.toFile().getParent(),
+                                                                          parameters.getAssemblyAccession());
+        return new VariantContextWriter(Paths.get(partFile), parameters.getAssemblyAccession(),
+                                        contigsFilePath, false, getCompressionThreads(parameters));
+    }
+
+    @Bean(EVA_MERGED_RELEASE_PART_WRITER)
+    @StepScope
+    public MergedVariantContextWriter mergedVariantContextPartWriterEva(InputParameters parameters,
+                                                                        @Value(PART_FILE) String partFile) {
+        Path reportPath = ReportPathResolver.getEvaMergedIdsReportPath(parameters.getOutputFolder(),
+                                                                       parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getEvaMergedContigsFilePath(reportPath.toFile().getParent(),
+                                                                          parameters.getAssemblyAccession());
+        return new MergedVariantContextWriter(Paths.get(partFile), parameters.getAssemblyAccession(),
+                                              contigsFilePath, false, getCompressionThreads(parameters));
+    }
+
+    @Bean(EVA_MULTIMAP_RELEASE_PART_WRITER)
+    @StepScope
+    public MultimapVariantContextWriter multimapVariantContextPartWriterEva(InputParameters parameters,
+                                                                            @Value(PART_FILE) String partFile) {
+        Path reportPath = ReportPathResolver.getEvaMultimapIdsReportPath(parameters.getOutputFolder(),
+                                                                         parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getEvaMultimapContigsFilePath(reportPath.toFile().getParent(),
+                                                                            parameters.getAssemblyAccession());
+        return new MultimapVariantContextWriter(Paths.get(partFile), parameters.getAssemblyAccession(),
+                                                contigsFilePath, false, getCompressionThreads(parameters));
+    }
+
+    private static Path getOutputPath(Path reportPath, InputParameters parameters) {
+        return ReportPathResolver.getOutputPath(reportPath, parameters.isCompressOutput());
+    }
+
+    private static int getCompressionThreads(InputParameters parameters) {
+        return parameters.isCompressOutput() ? parameters.getCompressionThreads() : 0;
+    }
 }
@@ -17,6 +17,7 @@
 package uk.ac.ebi.eva.accession.release.configuration.batch.jobs;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
@@ -30,6 +31,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 import uk.ac.ebi.eva.accession.release.configuration.batch.steps.CreateDeprecatedReleaseStepConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.steps.CreateMergedDeprecatedReleaseStepConfiguration;
@@ -37,8 +40,10 @@ import uk.ac.ebi.eva.accession.release.configuration.batch.steps.CreateMergedRel
 import uk.ac.ebi.eva.accession.release.configuration.batch.steps.CreateMultimapReleaseStepConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.steps.CreateReleaseStepConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.steps.ListContigsStepConfiguration;
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.ACCESSION_RELEASE_JOB;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_AND_EVA_FLOWS;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_FLOW;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_FLOW;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.LIST_DBSNP_ACTIVE_CONTIGS_STEP;
@@ -57,6 +62,8 @@ import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EV
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MULTIMAP_VARIANTS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.QUERY_PLAN_CHECK_LISTENER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_FLOWS_TASK_EXECUTOR;
 
 @Configuration
 @EnableBatchProcessing
@@ -68,23 +75,61 @@ import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EV
          CreateMultimapReleaseStepConfiguration.class})
 public class AccessionReleaseJobConfiguration {
 
+    private static final String FLOWS_THREAD_NAME_PREFIX = "release-flow-";
+
+    private static final int NUMBER_OF_FLOWS = 2;
+
     /**
-     * Note that we are just concatenating the DBSNP and EVA steps one after the other. We could configure them to run
-     * in parallel if we want to. See ParallelStatisticsAndAnnotationFlowConfiguration in eva-pipeline for an example
-     * of asynchronous parallel flows.
+     * The DBSNP and EVA flows read different collections and write different files, so they can run in parallel if
+     * parameters.parallelFlows is set. Otherwise they run one after the other. In both cases, each step keeps its own
+     * execution, so a restart only runs again the steps (of either flow) that didn't complete.
+     *
+     * parameters.mergeJoin writes the variants sorted by accession instead of by position, so it can't be used with
+     * parameters.compressOutput, as the compressed releases are indexed with tabix, which requires sorted files.
      */
     @Bean(ACCESSION_RELEASE_JOB)
     public Job accessionReleaseJob(JobBuilderFactory jobBuilderFactory,
                                    Flow dbsnpFlow,
-                                   Flow evaFlow) {
-        FlowBuilder<FlowJobBuilder> flowBuilder = jobBuilderFactory.get(ACCESSION_RELEASE_JOB)
-                                                                   .incrementer(new RunIdIncrementer())
-                                                                   .start(dbsnpFlow)
-                                                                   .next(evaFlow);
+                                   Flow evaFlow,
+                                   @Qualifier(RELEASE_FLOWS_TASK_EXECUTOR) TaskExecutor flowsTaskExecutor,
+                                   @Qualifier(QUERY_PLAN_CHECK_LISTENER) JobExecutionListener queryPlanCheckListener,
+                                   InputParameters parameters) {
+        if (parameters.isMergeJoin() && parameters.isCompressOutput()) {
+            throw new IllegalArgumentException("parameters.mergeJoin writes the variants sorted by accession, so the "
+                                               + "release can't be indexed. It can't be used with "
+                                               + "parameters.compressOutput");
+        }
+        FlowBuilder<FlowJobBuilder> flowBuilder;
+        if (parameters.isParallelFlows()) {
+            Flow parallelFlows = new FlowBuilder<Flow>(DBSNP_AND_EVA_FLOWS)
+                    .split(flowsTaskExecutor)
+                    .add(dbsnpFlow, evaFlow)
+                    .build();
+            flowBuilder = jobBuilderFactory.get(ACCESSION_RELEASE_JOB)
+                                           .incrementer(new RunIdIncrementer())
+                                           .listener(queryPlanCheckListener)
+                                           .start(parallelFlows);
+        } else {
+            flowBuilder = jobBuilderFactory.get(ACCESSION_RELEASE_JOB)
+                                           .incrementer(new RunIdIncrementer())
+                                           .listener(queryPlanCheckListener)
+                                           .start(dbsnpFlow)
+                                           .next(evaFlow);
+        }
         FlowJobBuilder jobBuilder = flowBuilder.build();
         return jobBuilder.build();
     }
 
+    /**
+     * One thread per flow. The contigs released in parallel inside each flow use the RELEASE_TASK_EXECUTOR instead.
+     */
+    @Bean(RELEASE_FLOWS_TASK_EXECUTOR)
+    public TaskExecutor releaseFlowsTaskExecutor() {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(FLOWS_THREAD_NAME_PREFIX);
+        taskExecutor.setConcurrencyLimit(NUMBER_OF_FLOWS);
+        return taskExecutor;
+    }
+
     @Bean
     public Flow dbsnpFlow(
             @Qualifier(LIST_DBSNP_ACTIVE_CONTIGS_STEP) Step listActiveContigsStep,
@@ -16,20 +16,43 @@
 
 package uk.ac.ebi.eva.accession.release.configuration.batch.listeners;
 
+import com.mongodb.MongoClient;
 import htsjdk.variant.variantcontext.VariantContext;
+import org.bson.conversions.Bson;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.listener.StepListenerSupport;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.core.batch.listeners.QueryPlanCheckListener;
+import uk.ac.ebi.eva.accession.core.configuration.nonhuman.IndexConfiguration;
+import uk.ac.ebi.eva.accession.core.index.QueryPlanChecker;
+import uk.ac.ebi.eva.accession.core.index.VariantIndexProvisioner;
+import uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader;
+import uk.ac.ebi.eva.accession.release.batch.io.active.AccessionedVariantMongoReader;
+import uk.ac.ebi.eva.accession.release.batch.io.merged.MergedVariantMongoReader;
+import uk.ac.ebi.eva.accession.release.batch.io.multimap.MultimapVariantMongoReader;
 import uk.ac.ebi.eva.accession.release.batch.listeners.ExcludeVariantsListener;
 import uk.ac.ebi.eva.accession.core.batch.listeners.GenericProgressListener;
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
+import uk.ac.ebi.eva.accession.release.collectionNames.CollectionNames;
+import uk.ac.ebi.eva.accession.release.collectionNames.DbsnpCollectionNames;
+import uk.ac.ebi.eva.accession.release.collectionNames.EvaCollectionNames;
 import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EXCLUDE_VARIANTS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.PROGRESS_LISTENER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.QUERY_PLAN_CHECK_LISTENER;
 
 @Configuration
+@Import({MetricsConfiguration.class, IndexConfiguration.class})
 public class ListenersConfiguration {
 
     @Bean(EXCLUDE_VARIANTS_LISTENER)
@@ -42,4 +65,47 @@ public class ListenersConfiguration {
             InputParameters parameters) {
         return new GenericProgressListener<>(parameters.getChunkSize());
     }
+
+    /**
+     * Creates the indexes of the release aggregations, if enabled, and checks the aggregations of the active, multimap
+     * and merged releases of the whole assembly, for both dbSNP and EVA, including the aggregations of the submitted
+     * variants (or their operations) when they are joined with a merge join. The aggregations of each contig, when
+     * partitioned, have the same plan.
+     */
+    @Bean(QUERY_PLAN_CHECK_LISTENER)
+    public JobExecutionListener queryPlanCheckListener(VariantIndexProvisioner indexProvisioner,
+                                                       QueryPlanChecker queryPlanChecker, MongoClient mongoClient,
+                                                       MongoProperties mongoProperties, InputParameters parameters) {
+        String assembly = parameters.getAssemblyAccession();
+        String database = mongoProperties.getDatabase();
+        int chunkSize = parameters.getChunkSize();
+        boolean mergeJoin = parameters.isMergeJoin();
+        Consumer<QueryPlanChecker> queries = checker -> {
+            for (CollectionNames names : Arrays.asList(new DbsnpCollectionNames(), new EvaCollectionNames())) {
+                AccessionedVariantMongoReader activeReader = new AccessionedVariantMongoReader(
+                        assembly, null, mongoClient, database, chunkSize, names, mergeJoin);
+                checkAggregations(checker, names.getClusteredVariantEntity(), names.getSubmittedVariantEntity(),
+                                  activeReader);
+                MultimapVariantMongoReader multimapReader = new MultimapVariantMongoReader(
+                        assembly, null, mongoClient, database, chunkSize, names, mergeJoin);
+                checkAggregations(checker, names.getClusteredVariantEntity(), names.getSubmittedVariantEntity(),
+                                  multimapReader);
+                MergedVariantMongoReader mergedReader = new MergedVariantMongoReader(
+                        assembly, null, mongoClient, database, chunkSize, names, mergeJoin);
+                checkAggregations(checker, names.getClusteredVariantOperationEntity(),
+                                  names.getSubmittedVariantOperationEntity(), mergedReader);
+            }
+        };
+        return new QueryPlanCheckListener(indexProvisioner, provisioner -> provisioner.ensureReleaseIndexes(mergeJoin),
+                                          queryPlanChecker, queries);
+    }
+
+    private static void checkAggregations(QueryPlanChecker checker, String collectionName,
+                                          String joinedCollectionName, VariantMongoAggregationReader reader) {
+        checker.checkAggregation(collectionName, reader.getAggregation());
+        List<Bson> joinedAggregation = reader.getJoinedAggregation();
+        if (!joinedAggregation.isEmpty()) {
+            checker.checkAggregation(joinedCollectionName, joinedAggregation);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.configuration.batch.partitioners;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import uk.ac.ebi.eva.accession.release.batch.io.contig.ContigWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
+import uk.ac.ebi.eva.accession.release.parameters.ReportPathResolver;
+
+import java.nio.file.Path;
+
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_ACTIVE_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_ACTIVE_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_TASK_EXECUTOR;
+
+/**
+ * The partitioners split each release by the contigs listed in {@link
+ * uk.ac.ebi.eva.accession.release.configuration.batch.steps.ListContigsStepConfiguration}, and write each contig to a
+ * part file next to the release file.
+ */
+@Configuration
+public class ContigPartitionerConfiguration {
+
+    private static final String THREAD_NAME_PREFIX = "release-";
+
+    @Bean(DBSNP_ACTIVE_CONTIG_PARTITIONER)
+    public ContigPartitioner activeContigPartitionerDbsnp(InputParameters parameters) {
+        Path reportPath = ReportPathResolver.getDbsnpCurrentIdsReportPath(parameters.getOutputFolder(),
+                                                                          parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getDbsnpActiveContigsFilePath(reportPath.toFile().getParent(),
+                                                                            parameters.getAssemblyAccession());
+        return new ContigPartitioner(contigsFilePath, reportPath);
+    }
+
+    @Bean(DBSNP_MERGED_CONTIG_PARTITIONER)
+    public ContigPartitioner mergedContigPartitionerDbsnp(InputParameters parameters) {
+        Path reportPath = ReportPathResolver.getDbsnpMergedIdsReportPath(parameters.getOutputFolder(),
+                                                                         parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getDbsnpMergedContigsFilePath(reportPath.toFile().getParent(),
+                                                                            parameters.getAssemblyAccession());
+        return new ContigPartitioner(contigsFilePath, reportPath);
+    }
+
+    @Bean(DBSNP_MULTIMAP_CONTIG_PARTITIONER)
+    public ContigPartitioner multimapContigPartitionerDbsnp(InputParameters parameters) {
+        Path reportPath = ReportPathResolver.getDbsnpMultimapIdsReportPath(parameters.getOutputFolder(),
+                                                                           parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getDbsnpMultimapContigsFilePath(reportPath.toFile().getParent(),
+                                                                              parameters.getAssemblyAccession());
+        return new ContigPartitioner(contigsFilePath, reportPath);
+    }
+
+    @Bean(EVA_ACTIVE_CONTIG_PARTITIONER)
+    public ContigPartitioner activeContigPartitionerEva(InputParameters parameters) {
+        Path reportPath = ReportPathResolver.getEvaCurrentIdsReportPath(parameters.getOutputFolder(),
+                                                                        parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getEvaActiveContigsFilePath(reportPath.toFile().getParent(),
+                                                                          parameters.getAssemblyAccession());
+        return new ContigPartitioner(contigsFilePath, reportPath);
+    }
+
+    @Bean(EVA_MERGED_CONTIG_PARTITIONER)
+    public ContigPartitioner mergedContigPartitionerEva(InputParameters parameters) {
+        Path reportPath = ReportPathResolver.getEvaMergedIdsReportPath(parameters.getOutputFolder(),
+                                                                       parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getEvaMergedContigsFilePath(reportPath.toFile().getParent(),
+                                                                          parameters.getAssemblyAccession());
+        return new ContigPartitioner(contigsFilePath, reportPath);
+    }
+
+    @Bean(EVA_MULTIMAP_CONTIG_PARTITIONER)
+    public ContigPartitioner multimapContigPartitionerEva(InputParameters parameters) {
+        Path reportPath = ReportPathResolver.getEvaMultimapIdsReportPath(parameters.getOutputFolder(),
+                                                                         parameters.getAssemblyAccession());
+        String contigsFilePath = ContigWriter.getEvaMultimapContigsFilePath(reportPath.toFile().getParent(),
+                                                                            parameters.getAssemblyAccession());
+        return new ContigPartitioner(contigsFilePath, reportPath);
+    }
+
+    /**
+     * The pool size limits how many contigs are released at the same time.
+     */
+    @Bean(RELEASE_TASK_EXECUTOR)
+    public TaskExecutor releaseTaskExecutor(InputParameters parameters) {
+        int numberOfThreads = Math.max(1, parameters.getNumberOfThreads());
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(numberOfThreads);
+        taskExecutor.setMaxPoolSize(numberOfThreads);
+        taskExecutor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        return taskExecutor;
+    }
+}
@@ -17,6 +17,7 @@
 package uk.ac.ebi.eva.accession.release.configuration.batch.processors;
 
 import htsjdk.variant.variantcontext.VariantContext;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.context.annotation.Bean;
@@ -41,7 +42,12 @@ import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_PR
 @Configuration
 public class ReleaseProcessorConfiguration {
 
+    /**
+     * Step scoped because the partitions of a release run in parallel, and VariantToVariantContextProcessor is not
+     * thread-safe. The FASTA reader and the contig mapping are shared.
+     */
     @Bean(RELEASE_PROCESSOR)
+    @StepScope
     public ItemProcessor<Variant, VariantContext> releaseProcessor(FastaSynonymSequenceReader fastaReader,
                                                                    ContigMapping contigMapping) {
         CompositeItemProcessor<Variant, VariantContext> compositeItemProcessor = new CompositeItemProcessor<>();
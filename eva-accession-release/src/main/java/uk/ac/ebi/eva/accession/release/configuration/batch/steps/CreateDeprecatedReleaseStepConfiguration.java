@@ -40,6 +40,7 @@ import uk.ac.ebi.eva.accession.release.configuration.batch.listeners.ListenersCo
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.DeprecatedVariantMongoReaderConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.DeprecatedAccessionWriterConfiguration;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_DEPRECATED_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_DEPRECATED_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_DEPRECATED_RELEASE_WRITER;
@@ -58,6 +59,10 @@ public class CreateDeprecatedReleaseStepConfiguration {
     @Qualifier(PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Bean(RELEASE_DBSNP_MAPPED_DEPRECATED_VARIANTS_STEP)
     public Step createDbsnpDeprecatedReleaseStep(
             StepBuilderFactory stepBuilderFactory,
@@ -72,6 +77,7 @@ public class CreateDeprecatedReleaseStepConfiguration {
                 .reader(deprecatedVariantReader)
                 .writer(accessionWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -90,6 +96,7 @@ public class CreateDeprecatedReleaseStepConfiguration {
                 .reader(deprecatedVariantReader)
                 .writer(accessionWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -37,6 +37,7 @@ import uk.ac.ebi.eva.accession.release.configuration.batch.listeners.ListenersCo
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.MergedDeprecatedVariantMongoReaderConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.MergedDeprecatedAccessionWriterConfiguration;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_DEPRECATED_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_DEPRECATED_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_DEPRECATED_RELEASE_WRITER;
@@ -55,6 +56,10 @@ public class CreateMergedDeprecatedReleaseStepConfiguration {
     @Qualifier(PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Bean(RELEASE_DBSNP_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP)
     public Step createDeprecatedReleaseStepDbsnp(
             StepBuilderFactory stepBuilderFactory,
@@ -68,6 +73,7 @@ public class CreateMergedDeprecatedReleaseStepConfiguration {
                 .reader(mergedDeprecatedVariantReader)
                 .writer(accessionWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -85,6 +91,7 @@ public class CreateMergedDeprecatedReleaseStepConfiguration {
                 .reader(mergedDeprecatedVariantReader)
                 .writer(accessionWriter)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -23,21 +23,32 @@ import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
 
+import uk.ac.ebi.eva.accession.release.batch.io.merged.MergedVariantContextWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.MergedVariantMongoReaderConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.VariantContextWriterConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.listeners.ListenersConfiguration;
+import uk.ac.ebi.eva.accession.release.configuration.batch.partitioners.ContigPartitionerConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.processors.ReleaseProcessorConfiguration;
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MERGED_VARIANT_READER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MERGED_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EXCLUDE_VARIANTS_LISTENER;
@@ -45,18 +56,25 @@ import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.PROGRESS_L
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_PROCESSOR;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_TASK_EXECUTOR;
+import static uk.ac.ebi.eva.accession.release.configuration.batch.steps.PartitionedReleaseStepBuilder.CONTIG_STEP_SUFFIX;
 
 @Configuration
 @Import({MergedVariantMongoReaderConfiguration.class,
          ReleaseProcessorConfiguration.class,
          VariantContextWriterConfiguration.class,
-         ListenersConfiguration.class})
+         ListenersConfiguration.class,
+         ContigPartitionerConfiguration.class})
 public class CreateMergedReleaseStepConfiguration {
 
     @Autowired
     @Qualifier(PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Autowired
     @Qualifier(EXCLUDE_VARIANTS_LISTENER)
     private StepExecutionListener excludeVariantsListener;
@@ -65,41 +83,68 @@ public class CreateMergedReleaseStepConfiguration {
     public Step createMergedReleaseStepDbsnp(
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy,
-            @Qualifier(DBSNP_MERGED_VARIANT_READER)
-                    ItemReader<Variant> variantReader,
-            @Qualifier(RELEASE_PROCESSOR)
-                    ItemProcessor<Variant, VariantContext> variantProcessor,
-            @Qualifier(DBSNP_MERGED_RELEASE_WRITER)
-                    ItemStreamWriter<VariantContext> accessionWriter) {
-        TaskletStep step = stepBuilderFactory.get(RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP)
-                .<Variant, VariantContext>chunk(chunkSizeCompletionPolicy)
-                .reader(variantReader)
-                .processor(variantProcessor)
-                .writer(accessionWriter)
-                .listener(excludeVariantsListener)
-                .listener(progressListener)
-                .build();
-        return step;
+            InputParameters parameters,
+            @Qualifier(DBSNP_MERGED_VARIANT_READER) ItemReader<Variant> variantReader,
+            @Qualifier(RELEASE_PROCESSOR) ItemProcessor<Variant, VariantContext> variantProcessor,
+            @Qualifier(DBSNP_MERGED_RELEASE_PART_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
+            @Qualifier(DBSNP_MERGED_RELEASE_WRITER) MergedVariantContextWriter releaseWriter,
+            @Qualifier(DBSNP_MERGED_CONTIG_PARTITIONER) ContigPartitioner contigPartitioner,
+            @Qualifier(RELEASE_TASK_EXECUTOR) TaskExecutor taskExecutor) {
+        if (parameters.getNumberOfThreads() <= 1) {
+            return buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                    RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP, variantReader,
+                                    variantProcessor, releaseWriter);
+        }
+        TaskletStep contigStep = buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                  RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP + CONTIG_STEP_SUFFIX,
+                                                  variantReader, variantProcessor, accessionWriter);
+        return PartitionedReleaseStepBuilder.build(stepBuilderFactory, RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP,
+                                                   contigStep, contigPartitioner, releaseWriter, taskExecutor,
+                                                   parameters.getNumberOfThreads());
     }
 
     @Bean(RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP)
     public Step createMergedReleaseStepEva(
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy,
-            @Qualifier(EVA_MERGED_VARIANT_READER)
-                    ItemReader<Variant> variantReader,
-            @Qualifier(RELEASE_PROCESSOR)
-                    ItemProcessor<Variant, VariantContext> variantProcessor,
-            @Qualifier(EVA_MERGED_RELEASE_WRITER)
-                    ItemStreamWriter<VariantContext> accessionWriter) {
-        TaskletStep step = stepBuilderFactory.get(RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP)
+            InputParameters parameters,
+            @Qualifier(EVA_MERGED_VARIANT_READER) ItemReader<Variant> variantReader,
+            @Qualifier(RELEASE_PROCESSOR) ItemProcessor<Variant, VariantContext> variantProcessor,
+            @Qualifier(EVA_MERGED_RELEASE_PART_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
+            @Qualifier(EVA_MERGED_RELEASE_WRITER) MergedVariantContextWriter releaseWriter,
+            @Qualifier(EVA_MERGED_CONTIG_PARTITIONER) ContigPartitioner contigPartitioner,
+            @Qualifier(RELEASE_TASK_EXECUTOR) TaskExecutor taskExecutor) {
+        if (parameters.getNumberOfThreads() <= 1) {
+            return buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                    RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP, variantReader,
+                                    variantProcessor, releaseWriter);
+        }
+        TaskletStep contigStep = buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                  RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP + CONTIG_STEP_SUFFIX,
+                                                  variantReader, variantProcessor, accessionWriter);
+        return PartitionedReleaseStepBuilder.build(stepBuilderFactory, RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP,
+                                                   contigStep, contigPartitioner, releaseWriter, taskExecutor,
+                                                   parameters.getNumberOfThreads());
+    }
+
+    /**
+     * Builds the step that writes the whole release file, or the part file of a contig when the release is split by
+     * contig. With a single thread the release is not split, as that would only add the cost of writing and
+     * concatenating the parts.
+     */
+    private TaskletStep buildReleaseStep(StepBuilderFactory stepBuilderFactory,
+                                         SimpleCompletionPolicy chunkSizeCompletionPolicy, String stepName,
+                                         ItemReader<Variant> variantReader,
+                                         ItemProcessor<Variant, VariantContext> variantProcessor,
+                                         ItemWriter<VariantContext> writer) {
+        return stepBuilderFactory.get(stepName)
                 .<Variant, VariantContext>chunk(chunkSizeCompletionPolicy)
                 .reader(variantReader)
                 .processor(variantProcessor)
-                .writer(accessionWriter)
+                .writer(writer)
                 .listener(excludeVariantsListener)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
-        return step;
     }
 }
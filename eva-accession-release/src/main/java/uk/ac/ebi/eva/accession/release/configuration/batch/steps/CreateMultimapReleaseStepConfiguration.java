@@ -23,40 +23,58 @@ import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
 
+import uk.ac.ebi.eva.accession.release.batch.io.multimap.MultimapVariantContextWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.MultimapVariantMongoReaderConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.VariantContextWriterConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.listeners.ListenersConfiguration;
+import uk.ac.ebi.eva.accession.release.configuration.batch.partitioners.ContigPartitionerConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.processors.ReleaseProcessorConfiguration;
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_RELEASE_PART_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_VARIANT_READER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_MULTIMAP_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EXCLUDE_VARIANTS_LISTENER;
-import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_RELEASE_WRITER;
-import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_MULTIMAP_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.PROGRESS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MULTIMAP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_PROCESSOR;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_TASK_EXECUTOR;
+import static uk.ac.ebi.eva.accession.release.configuration.batch.steps.PartitionedReleaseStepBuilder.CONTIG_STEP_SUFFIX;
 
 @Configuration
 @Import({MultimapVariantMongoReaderConfiguration.class,
          ReleaseProcessorConfiguration.class,
          VariantContextWriterConfiguration.class,
-         ListenersConfiguration.class})
+         ListenersConfiguration.class,
+         ContigPartitionerConfiguration.class})
 public class CreateMultimapReleaseStepConfiguration {
 
     @Autowired
     @Qualifier(PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Autowired
     @Qualifier(EXCLUDE_VARIANTS_LISTENER)
     private StepExecutionListener excludeVariantsListener;
@@ -65,35 +83,68 @@ public class CreateMultimapReleaseStepConfiguration {
     public Step createMultimapReleaseStepDbsnp(
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            InputParameters parameters,
             @Qualifier(DBSNP_MULTIMAP_VARIANT_READER) ItemReader<Variant> variantReader,
             @Qualifier(RELEASE_PROCESSOR) ItemProcessor<Variant, VariantContext> variantProcessor,
-            @Qualifier(DBSNP_MULTIMAP_RELEASE_WRITER) ItemStreamWriter<VariantContext> accessionWriter) {
-        TaskletStep step = stepBuilderFactory.get(RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP)
-                .<Variant, VariantContext>chunk(chunkSizeCompletionPolicy)
-                .reader(variantReader)
-                .processor(variantProcessor)
-                .writer(accessionWriter)
-                .listener(excludeVariantsListener)
-                .listener(progressListener)
-                .build();
-        return step;
+            @Qualifier(DBSNP_MULTIMAP_RELEASE_PART_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
+            @Qualifier(DBSNP_MULTIMAP_RELEASE_WRITER) MultimapVariantContextWriter releaseWriter,
+            @Qualifier(DBSNP_MULTIMAP_CONTIG_PARTITIONER) ContigPartitioner contigPartitioner,
+            @Qualifier(RELEASE_TASK_EXECUTOR) TaskExecutor taskExecutor) {
+        if (parameters.getNumberOfThreads() <= 1) {
+            return buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                    RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP, variantReader,
+                                    variantProcessor, releaseWriter);
+        }
+        TaskletStep contigStep = buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                  RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP + CONTIG_STEP_SUFFIX,
+                                                  variantReader, variantProcessor, accessionWriter);
+        return PartitionedReleaseStepBuilder.build(stepBuilderFactory, RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP,
+                                                   contigStep, contigPartitioner, releaseWriter, taskExecutor,
+                                                   parameters.getNumberOfThreads());
     }
 
     @Bean(RELEASE_EVA_MULTIMAP_VARIANTS_STEP)
     public Step createMultimapReleaseStepEva(
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            InputParameters parameters,
             @Qualifier(EVA_MULTIMAP_VARIANT_READER) ItemReader<Variant> variantReader,
             @Qualifier(RELEASE_PROCESSOR) ItemProcessor<Variant, VariantContext> variantProcessor,
-            @Qualifier(EVA_MULTIMAP_RELEASE_WRITER) ItemStreamWriter<VariantContext> accessionWriter) {
-        TaskletStep step = stepBuilderFactory.get(RELEASE_EVA_MULTIMAP_VARIANTS_STEP)
+            @Qualifier(EVA_MULTIMAP_RELEASE_PART_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
+            @Qualifier(EVA_MULTIMAP_RELEASE_WRITER) MultimapVariantContextWriter releaseWriter,
+            @Qualifier(EVA_MULTIMAP_CONTIG_PARTITIONER) ContigPartitioner contigPartitioner,
+            @Qualifier(RELEASE_TASK_EXECUTOR) TaskExecutor taskExecutor) {
+        if (parameters.getNumberOfThreads() <= 1) {
+            return buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                    RELEASE_EVA_MULTIMAP_VARIANTS_STEP, variantReader,
+                                    variantProcessor, releaseWriter);
+        }
+        TaskletStep contigStep = buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                  RELEASE_EVA_MULTIMAP_VARIANTS_STEP + CONTIG_STEP_SUFFIX,
+                                                  variantReader, variantProcessor, accessionWriter);
+        return PartitionedReleaseStepBuilder.build(stepBuilderFactory, RELEASE_EVA_MULTIMAP_VARIANTS_STEP,
+                                                   contigStep, contigPartitioner, releaseWriter, taskExecutor,
+                                                   parameters.getNumberOfThreads());
+    }
+
+    /**
+     * Builds the step that writes the whole release file, or the part file of a contig when the release is split by
+     * contig. With a single thread the release is not split, as that would only add the cost of writing and
+     * concatenating the parts.
+     */
+    private TaskletStep buildReleaseStep(StepBuilderFactory stepBuilderFactory,
+                                         SimpleCompletionPolicy chunkSizeCompletionPolicy, String stepName,
+                                         ItemReader<Variant> variantReader,
+                                         ItemProcessor<Variant, VariantContext> variantProcessor,
+                                         ItemWriter<VariantContext> writer) {
+        return stepBuilderFactory.get(stepName)
                 .<Variant, VariantContext>chunk(chunkSizeCompletionPolicy)
                 .reader(variantReader)
                 .processor(variantProcessor)
-                .writer(accessionWriter)
+                .writer(writer)
                 .listener(excludeVariantsListener)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
-        return step;
     }
 }
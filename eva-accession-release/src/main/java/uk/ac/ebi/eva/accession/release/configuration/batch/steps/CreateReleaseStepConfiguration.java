@@ -23,41 +23,59 @@ import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
 
 import uk.ac.ebi.eva.accession.core.batch.policies.IllegalStartSkipPolicy;
+import uk.ac.ebi.eva.accession.release.batch.io.active.VariantContextWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.AccessionedVariantMongoReaderConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.io.VariantContextWriterConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.listeners.ListenersConfiguration;
+import uk.ac.ebi.eva.accession.release.configuration.batch.partitioners.ContigPartitionerConfiguration;
 import uk.ac.ebi.eva.accession.release.configuration.batch.processors.ReleaseProcessorConfiguration;
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_ACCESSIONED_VARIANT_READER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_ACTIVE_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_RELEASE_PART_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_ACCESSIONED_VARIANT_READER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_ACTIVE_CONTIG_PARTITIONER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_RELEASE_PART_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EVA_RELEASE_WRITER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.EXCLUDE_VARIANTS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.PROGRESS_LISTENER;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_PROCESSOR;
-import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.DBSNP_RELEASE_WRITER;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_TASK_EXECUTOR;
+import static uk.ac.ebi.eva.accession.release.configuration.batch.steps.PartitionedReleaseStepBuilder.CONTIG_STEP_SUFFIX;
 
 @Configuration
 @Import({AccessionedVariantMongoReaderConfiguration.class,
          ReleaseProcessorConfiguration.class,
          VariantContextWriterConfiguration.class,
-         ListenersConfiguration.class})
+         ListenersConfiguration.class,
+         ContigPartitionerConfiguration.class})
 public class CreateReleaseStepConfiguration {
 
     @Autowired
     @Qualifier(PROGRESS_LISTENER)
     private StepExecutionListener progressListener;
 
+    @Autowired
+    @Qualifier(STEP_METRICS_LISTENER)
+    private StepExecutionListener metricsListener;
+
     @Autowired
     @Qualifier(EXCLUDE_VARIANTS_LISTENER)
     private StepExecutionListener excludeVariantsListener;
@@ -69,38 +87,70 @@ public class CreateReleaseStepConfiguration {
     public Step createActiveReleaseStepDbsnp(
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            InputParameters parameters,
             @Qualifier(DBSNP_ACCESSIONED_VARIANT_READER) ItemReader<Variant> variantReader,
             @Qualifier(RELEASE_PROCESSOR) ItemProcessor<Variant, VariantContext> variantProcessor,
-            @Qualifier(DBSNP_RELEASE_WRITER) ItemStreamWriter<VariantContext> accessionWriter) {
-        TaskletStep step = stepBuilderFactory.get(RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP)
-                .<Variant, VariantContext>chunk(chunkSizeCompletionPolicy)
-                .reader(variantReader)
-                .processor(variantProcessor)
-                .writer(accessionWriter)
-                .faultTolerant()
-                .skipPolicy(illegalStartSkipPolicy)
-                .listener(excludeVariantsListener)
-                .listener(progressListener)
-                .build();
-        return step;
+            @Qualifier(DBSNP_RELEASE_PART_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
+            @Qualifier(DBSNP_RELEASE_WRITER) VariantContextWriter releaseWriter,
+            @Qualifier(DBSNP_ACTIVE_CONTIG_PARTITIONER) ContigPartitioner contigPartitioner,
+            @Qualifier(RELEASE_TASK_EXECUTOR) TaskExecutor taskExecutor) {
+        if (parameters.getNumberOfThreads() <= 1) {
+            return buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                    RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP, variantReader,
+                                    variantProcessor, releaseWriter);
+        }
+        TaskletStep contigStep = buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                  RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP + CONTIG_STEP_SUFFIX,
+                                                  variantReader, variantProcessor, accessionWriter);
+        return PartitionedReleaseStepBuilder.build(stepBuilderFactory, RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP,
+                                                   contigStep, contigPartitioner, releaseWriter, taskExecutor,
+                                                   parameters.getNumberOfThreads());
     }
+
     @Bean(RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP)
     public Step createActiveReleaseStepEva(
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            InputParameters parameters,
             @Qualifier(EVA_ACCESSIONED_VARIANT_READER) ItemReader<Variant> variantReader,
             @Qualifier(RELEASE_PROCESSOR) ItemProcessor<Variant, VariantContext> variantProcessor,
-            @Qualifier(EVA_RELEASE_WRITER) ItemStreamWriter<VariantContext> accessionWriter) {
-        TaskletStep step = stepBuilderFactory.get(RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP)
+            @Qualifier(EVA_RELEASE_PART_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
+            @Qualifier(EVA_RELEASE_WRITER) VariantContextWriter releaseWriter,
+            @Qualifier(EVA_ACTIVE_CONTIG_PARTITIONER) ContigPartitioner contigPartitioner,
+            @Qualifier(RELEASE_TASK_EXECUTOR) TaskExecutor taskExecutor) {
+        if (parameters.getNumberOfThreads() <= 1) {
+            return buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                    RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP, variantReader,
+                                    variantProcessor, releaseWriter);
+        }
+        TaskletStep contigStep = buildReleaseStep(stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                  RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP + CONTIG_STEP_SUFFIX,
+                                                  variantReader, variantProcessor, accessionWriter);
+        return PartitionedReleaseStepBuilder.build(stepBuilderFactory, RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP,
+                                                   contigStep, contigPartitioner, releaseWriter, taskExecutor,
+                                                   parameters.getNumberOfThreads());
+    }
+
+    /**
+     * Builds the step that writes the whole release file, or the part file of a contig when the release is split by
+     * contig. With a single thread the release is not split, as that would only add the cost of writing and
+     * concatenating the parts.
+     */
+    private TaskletStep buildReleaseStep(StepBuilderFactory stepBuilderFactory,
+                                         SimpleCompletionPolicy chunkSizeCompletionPolicy, String stepName,
+                                         ItemReader<Variant> variantReader,
+                                         ItemProcessor<Variant, VariantContext> variantProcessor,
+                                         ItemWriter<VariantContext> writer) {
+        return stepBuilderFactory.get(stepName)
                 .<Variant, VariantContext>chunk(chunkSizeCompletionPolicy)
                 .reader(variantReader)
                 .processor(variantProcessor)
-                .writer(accessionWriter)
+                .writer(writer)
                 .faultTolerant()
                 .skipPolicy(illegalStartSkipPolicy)
                 .listener(excludeVariantsListener)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
-        return step;
     }
 }
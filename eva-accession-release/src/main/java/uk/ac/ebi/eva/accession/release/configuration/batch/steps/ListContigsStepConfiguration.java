@@ -52,7 +52,9 @@ import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.LIST_EVA_M
 
 /**
  * Creates a file with the contigs in INSDC (GenBank) when possible. The file will be used in
- * {@link CreateReleaseStepConfiguration} to include the contigs in the meta section of the VCF
+ * {@link CreateReleaseStepConfiguration} to include the contigs in the meta section of the VCF, and in
+ * {@link uk.ac.ebi.eva.accession.release.configuration.batch.partitioners.ContigPartitionerConfiguration} to split
+ * the releases by contig
  */
 @Configuration
 @EnableBatchProcessing
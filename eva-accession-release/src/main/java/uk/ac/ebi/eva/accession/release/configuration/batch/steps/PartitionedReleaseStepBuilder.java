@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.configuration.batch.steps;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.core.task.TaskExecutor;
+
+import uk.ac.ebi.eva.accession.release.batch.io.active.VariantContextWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
+import uk.ac.ebi.eva.accession.release.batch.tasklets.ConcatenateReleasePartsTasklet;
+
+/**
+ * Builds a release step that is split by contig, used when the release runs with more than one thread. The step runs
+ * a flow of two steps:
+ *
+ * 1. The contig step, that writes a part file, runs once per contig, with as many contigs in parallel as threads in
+ * the TaskExecutor.
+ * 2. The parts are concatenated in contig order into the release file.
+ *
+ * The resulting step has the name of the release step, so it can be launched on its own, and if it fails, only the
+ * contigs that didn't complete are released again on restart.
+ */
+public class PartitionedReleaseStepBuilder {
+
+    public static final String CONTIG_STEP_SUFFIX = "_CONTIG";
+
+    public static final String PARTITIONED_STEP_SUFFIX = "_PARTITIONED";
+
+    public static final String CONCATENATE_STEP_SUFFIX = "_CONCATENATE";
+
+    private static final String FLOW_SUFFIX = "_FLOW";
+
+    private PartitionedReleaseStepBuilder() {
+    }
+
+    public static Step build(StepBuilderFactory stepBuilderFactory, String stepName, Step contigStep,
+                             ContigPartitioner partitioner, VariantContextWriter releaseWriter,
+                             TaskExecutor taskExecutor, int gridSize) {
+        Step partitionedStep = stepBuilderFactory.get(stepName + PARTITIONED_STEP_SUFFIX)
+                .partitioner(contigStep.getName(), partitioner)
+                .step(contigStep)
+                .gridSize(gridSize)
+                .taskExecutor(taskExecutor)
+                .build();
+        Step concatenateStep = stepBuilderFactory.get(stepName + CONCATENATE_STEP_SUFFIX)
+                .tasklet(new ConcatenateReleasePartsTasklet(releaseWriter, partitioner))
+                .build();
+        Flow flow = new FlowBuilder<Flow>(stepName + FLOW_SUFFIX)
+                .start(partitionedStep)
+                .next(concatenateStep)
+                .build();
+        return stepBuilderFactory.get(stepName)
+                .flow(flow)
+                .build();
+    }
+}
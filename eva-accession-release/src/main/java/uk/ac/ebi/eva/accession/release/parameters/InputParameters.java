@@ -33,6 +33,20 @@ public class InputParameters {
 
     private int chunkSize;
 
+    private int numberOfThreads;
+
+    private boolean parallelFlows;
+
+    private boolean mergeJoin;
+
+    private boolean compressOutput;
+
+    private int compressionThreads;
+
+    private String assemblyNameCache;
+
+    private int assemblyNameCacheTtlDays;
+
     public JobParameters toJobParameters() {
         return new JobParametersBuilder()
                 .addString("assemblyAccession", assemblyAccession)
@@ -90,4 +104,60 @@ public class InputParameters {
         this.chunkSize = chunkSize;
     }
 
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public boolean isParallelFlows() {
+        return parallelFlows;
+    }
+
+    public void setParallelFlows(boolean parallelFlows) {
+        this.parallelFlows = parallelFlows;
+    }
+
+    public boolean isMergeJoin() {
+        return mergeJoin;
+    }
+
+    public void setMergeJoin(boolean mergeJoin) {
+        this.mergeJoin = mergeJoin;
+    }
+
+    public boolean isCompressOutput() {
+        return compressOutput;
+    }
+
+    public void setCompressOutput(boolean compressOutput) {
+        this.compressOutput = compressOutput;
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
+
+    public String getAssemblyNameCache() {
+        return assemblyNameCache;
+    }
+
+    public void setAssemblyNameCache(String assemblyNameCache) {
+        this.assemblyNameCache = assemblyNameCache;
+    }
+
+    public int getAssemblyNameCacheTtlDays() {
+        return assemblyNameCacheTtlDays;
+    }
+
+    public void setAssemblyNameCacheTtlDays(int assemblyNameCacheTtlDays) {
+        this.assemblyNameCacheTtlDays = assemblyNameCacheTtlDays;
+    }
+
 }
@@ -38,6 +38,8 @@ public class ReportPathResolver {
 
     public static final String EVA_PREFIX = "eva_";
 
+    public static final String COMPRESSED_FILE_SUFFIX = ".gz";
+
 
     public static Path getDbsnpCurrentIdsReportPath(String outputFolder, String referenceAssembly) {
         return Paths.get(outputFolder).resolve(DBSNP_PREFIX + referenceAssembly + CURRENT_FILE_SUFFIX);
@@ -78,4 +80,11 @@ public class ReportPathResolver {
     public static Path getEvaMultimapIdsReportPath(String outputFolder, String referenceAssembly) {
         return Paths.get(outputFolder).resolve(EVA_PREFIX + referenceAssembly + MULTIMAP_FILE_SUFFIX);
     }
+
+    /**
+     * Reports compressed with BGZF (see parameters.compressOutput) have an extra suffix.
+     */
+    public static Path getOutputPath(Path reportPath, boolean compressed) {
+        return compressed ? Paths.get(reportPath + COMPRESSED_FILE_SUFFIX) : reportPath;
+    }
 }
@@ -69,11 +69,18 @@ else
 spring.batch.job.names=ACCESSION_RELEASE_JOB
 
 parameters.assemblyAccession=${assemblyAccession}
+parameters.assemblyNameCache=${OUTPUT_RELEASE_FOLDER}/assembly_names.tsv
+parameters.assemblyNameCacheTtlDays=30
 parameters.assemblyReportUrl=${assembly_report}
 parameters.chunkSize=1000
+parameters.compressOutput=false
+parameters.compressionThreads=4
 parameters.fasta=${fasta}
 parameters.forceRestart=false
+parameters.mergeJoin=false
+parameters.numberOfThreads=1
 parameters.outputFolder=${OUTPUT_FOLDER}
+parameters.parallelFlows=false
 
 # job repository datasource
 spring.datasource.driver-class-name=org.postgresql.Driver
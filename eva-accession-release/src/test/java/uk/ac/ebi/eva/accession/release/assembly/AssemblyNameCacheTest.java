@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.assembly;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class AssemblyNameCacheTest {
+
+    private static final String ACCESSION = "GCA_000001405.28";
+
+    private static final String NAME = "GRCh38.p13";
+
+    private static final Duration TTL = Duration.ofDays(30);
+
+    @Rule
+    public TemporaryFolder temporaryFolderRule = new TemporaryFolder();
+
+    private Path file;
+
+    private AtomicInteger retrievals;
+
+    private Function<String, Optional<String>> retriever;
+
+    @Before
+    public void setUp() throws IOException {
+        file = temporaryFolderRule.getRoot().toPath().resolve("assembly_names.tsv");
+        retrievals = new AtomicInteger();
+        retriever = accession -> {
+            retrievals.incrementAndGet();
+            return ACCESSION.equals(accession) ? Optional.of(NAME) : Optional.empty();
+        };
+    }
+
+    @Test
+    public void inMemory() {
+        AssemblyNameCache cache = new AssemblyNameCache();
+        assertEquals(NAME, cache.getAssemblyName(ACCESSION, retriever).get());
+        assertEquals(NAME, cache.getAssemblyName(ACCESSION, retriever).get());
+        assertEquals(1, retrievals.get());
+    }
+
+    @Test
+    public void keepNamesBetweenExecutions() {
+        assertEquals(NAME, new AssemblyNameCache(file, TTL).getAssemblyName(ACCESSION, retriever).get());
+        assertEquals(NAME, new AssemblyNameCache(file, TTL).getAssemblyName(ACCESSION, retriever).get());
+        assertEquals(1, retrievals.get());
+    }
+
+    @Test
+    public void prepopulatedNamesNeverExpire() throws IOException {
+        Files.write(file, Collections.singletonList(ACCESSION + "\tcurated name"));
+        AssemblyNameCache cache = new AssemblyNameCache(file, Duration.ZERO);
+        assertEquals("curated name", cache.getAssemblyName(ACCESSION, retriever).get());
+        assertEquals(0, retrievals.get());
+    }
+
+    @Test
+    public void expiredNamesAreRetrievedAgain() throws IOException {
+        long longAgo = System.currentTimeMillis() - TTL.toMillis() - 1;
+        Files.write(file, Collections.singletonList(ACCESSION + "\told name\t" + longAgo));
+        AssemblyNameCache cache = new AssemblyNameCache(file, TTL);
+        assertEquals(NAME, cache.getAssemblyName(ACCESSION, retriever).get());
+        assertEquals(1, retrievals.get());
+    }
+
+    @Test
+    public void expiredNamesAreKeptIfTheRetrievalFails() throws IOException {
+        long longAgo = System.currentTimeMillis() - TTL.toMillis() - 1;
+        Files.write(file, Collections.singletonList(ACCESSION + "\told name\t" + longAgo));
+        AssemblyNameCache cache = new AssemblyNameCache(file, TTL);
+        Function<String, Optional<String>> failingRetriever = accession -> {
+            retrievals.incrementAndGet();
+            throw new IllegalStateException("ENA is not available");
+        };
+        assertEquals("old name", cache.getAssemblyName(ACCESSION, failingRetriever).get());
+        assertEquals(1, retrievals.get());
+    }
+
+    @Test
+    public void expiredNamesAreKeptIfNotFound() throws IOException {
+        long longAgo = System.currentTimeMillis() - TTL.toMillis() - 1;
+        Files.write(file, Collections.singletonList(ACCESSION + "\told name\t" + longAgo));
+        AssemblyNameCache cache = new AssemblyNameCache(file, TTL);
+        assertEquals("old name", cache.getAssemblyName(ACCESSION, accession -> Optional.empty()).get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void retrievalFailuresArePropagatedIfNotCached() {
+        new AssemblyNameCache(file, TTL).getAssemblyName(ACCESSION, accession -> {
+            throw new IllegalStateException("ENA is not available");
+        });
+    }
+
+    @Test
+    public void assembliesNotFoundAreNotKept() {
+        AssemblyNameCache cache = new AssemblyNameCache(file, TTL);
+        assertFalse(cache.getAssemblyName("GCA_000000000.1", retriever).isPresent());
+        assertFalse(cache.getAssemblyName("GCA_000000000.1", retriever).isPresent());
+        assertEquals(2, retrievals.get());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void wrongFormat() throws IOException {
+        Files.write(file, Collections.singletonList(ACCESSION));
+        new AssemblyNameCache(file, TTL);
+    }
+}
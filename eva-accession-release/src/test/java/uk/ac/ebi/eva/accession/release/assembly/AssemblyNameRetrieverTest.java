@@ -15,6 +15,7 @@
  */
 package uk.ac.ebi.eva.accession.release.assembly;
 
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -28,6 +29,10 @@ import javax.xml.bind.Unmarshaller;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -92,4 +97,31 @@ public class AssemblyNameRetrieverTest {
     public void retrieveNameWithMorePriorityThanEnaName() {
         assertEquals("Genoscope.12X", new AssemblyNameRetriever("GCA_000003745.2").getAssemblyName().get());
     }
+
+    @Test
+    public void retrieveFromLocalServerOnlyOnce() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/xml/", exchange -> {
+            requests.incrementAndGet();
+            byte[] xml = "<ASSEMBLY_SET><ASSEMBLY><NAME>local name</NAME></ASSEMBLY></ASSEMBLY_SET>".getBytes(
+                    StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, xml.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(xml);
+            }
+        });
+        server.start();
+        try {
+            String urlFormat = "http://localhost:" + server.getAddress().getPort() + "/xml/%s";
+            AssemblyNameCache cache = new AssemblyNameCache();
+            assertEquals("local name",
+                         new AssemblyNameRetriever("GCA_000000001.1", cache, urlFormat).getAssemblyName().get());
+            assertEquals("local name",
+                         new AssemblyNameRetriever("GCA_000000001.1", cache, urlFormat).getAssemblyName().get());
+            assertEquals(1, requests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.io;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class MergeJoinCursorTest {
+
+    private static final String ACCESSION = "accession";
+
+    private static final String RS = "rs";
+
+    private static final String SS_INFO = "ssInfo";
+
+    private static final String INACTIVE_OBJECTS = "inactiveObjects";
+
+    @Test
+    public void joinSortedCursors() {
+        MergeJoinCursor cursor = new MergeJoinCursor(
+                new ListCursor(clustered(1L), clustered(3L), clustered(5L)), ACCESSION,
+                new ListCursor(submitted(1L), submitted(2L), submitted(3L), submitted(3L), submitted(6L)), RS,
+                SS_INFO);
+
+        assertEquals(Arrays.asList(1L), getJoinedKeys(cursor.next()));
+        assertEquals(Arrays.asList(3L, 3L), getJoinedKeys(cursor.next()));
+        assertEquals(Collections.emptyList(), getJoinedKeys(cursor.next()));
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void repeatedKeysGetTheSameMatches() {
+        MergeJoinCursor cursor = new MergeJoinCursor(
+                new ListCursor(clustered(1L), clustered(1L), clustered(2L)), ACCESSION,
+                new ListCursor(submitted(1L), submitted(1L), submitted(2L)), RS, SS_INFO);
+
+        assertEquals(Arrays.asList(1L, 1L), getJoinedKeys(cursor.next()));
+        assertEquals(Arrays.asList(1L, 1L), getJoinedKeys(cursor.next()));
+        assertEquals(Arrays.asList(2L), getJoinedKeys(cursor.next()));
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void documentsWithoutKeyAreNotJoined() {
+        Document declustered = new Document(ACCESSION, 10L);
+        MergeJoinCursor cursor = new MergeJoinCursor(
+                new ListCursor(clustered(1L)), ACCESSION,
+                new ListCursor(declustered, submitted(1L)), RS, SS_INFO);
+
+        assertEquals(Arrays.asList(1L), getJoinedKeys(cursor.next()));
+        assertNull(cursor.tryNext());
+    }
+
+    @Test
+    public void nestedKeyInArray() {
+        Document operation = new Document(INACTIVE_OBJECTS, Collections.singletonList(new Document(RS, 4L)));
+        assertEquals(Long.valueOf(4L), MergeJoinCursor.getKey(operation, INACTIVE_OBJECTS + "." + RS));
+        assertNull(MergeJoinCursor.getKey(new Document(INACTIVE_OBJECTS, Collections.emptyList()),
+                                          INACTIVE_OBJECTS + "." + RS));
+    }
+
+    @Test
+    public void unorderedArrayIsKeyedByItsMinimum() {
+        Document unorderedOperation = operation(7L, 2L);
+        Document operation = operation(5L);
+        assertEquals(Long.valueOf(2L), MergeJoinCursor.getKey(unorderedOperation, INACTIVE_OBJECTS + "." + RS));
+
+        // sorted by the minimum RS of each operation, as MongoDB does
+        MergeJoinCursor cursor = new MergeJoinCursor(
+                new ListCursor(clustered(2L), clustered(5L)), ACCESSION,
+                new ListCursor(unorderedOperation, operation), INACTIVE_OBJECTS + "." + RS, SS_INFO);
+
+        assertEquals(Collections.singletonList(unorderedOperation), cursor.next().get(SS_INFO));
+        assertEquals(Collections.singletonList(operation), cursor.next().get(SS_INFO));
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unsortedCursor() {
+        MergeJoinCursor cursor = new MergeJoinCursor(new ListCursor(clustered(2L), clustered(1L)), ACCESSION,
+                                                     new ListCursor(submitted(1L)), RS, SS_INFO);
+        cursor.next();
+        cursor.next();
+    }
+
+    private Document clustered(long accession) {
+        return new Document(ACCESSION, accession);
+    }
+
+    private Document submitted(long rs) {
+        return new Document(RS, rs);
+    }
+
+    private Document operation(Long... rs) {
+        List<Document> inactiveObjects = new ArrayList<>();
+        for (Long accession : rs) {
+            inactiveObjects.add(new Document(RS, accession));
+        }
+        return new Document(INACTIVE_OBJECTS, inactiveObjects);
+    }
+
+    private List<Long> getJoinedKeys(Document document) {
+        List<Long> keys = new ArrayList<>();
+        for (Document joined : (List<Document>) document.get(SS_INFO)) {
+            keys.add(joined.getLong(RS));
+        }
+        return keys;
+    }
+
+    private static class ListCursor implements MongoCursor<Document> {
+
+        private final Iterator<Document> iterator;
+
+        ListCursor(Document... documents) {
+            iterator = Arrays.asList(documents).iterator();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Document next() {
+            return iterator.next();
+        }
+
+        @Override
+        public Document tryNext() {
+            return hasNext() ? next() : null;
+        }
+
+        @Override
+        public ServerCursor getServerCursor() {
+            return null;
+        }
+
+        @Override
+        public ServerAddress getServerAddress() {
+            return null;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import uk.ac.ebi.eva.accession.release.test.rule.FixSpringMongoDbRule;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -77,6 +78,8 @@ public class AccessionedVariantMongoReaderTest {
 
     private static final String ASSEMBLY_ACCESSION_5 = "GCF_000003055.6";
 
+    private static final String CONTIG_2 = "CM001941.2";
+
     private static final String TEST_DB = "test-db";
 
     private static final String DBSNP_CLUSTERED_VARIANT_ENTITY = "dbsnpClusteredVariantEntity";
@@ -207,6 +210,39 @@ public class AccessionedVariantMongoReaderTest {
         assertEquals(1, variants.get(RS_3_G_C).getSourceEntries().size());
     }
 
+    @Test
+    public void mergeJoinReadsTheSameVariants() throws Exception {
+        for (String assembly : Arrays.asList(ASSEMBLY_ACCESSION_1, ASSEMBLY_ACCESSION_2)) {
+            reader = new AccessionedVariantMongoReader(assembly, null, mongoClient, TEST_DB, CHUNK_SIZE,
+                                                       new DbsnpCollectionNames(), false);
+            Map<String, Variant> lookupVariants = readIntoMap();
+            reader = new AccessionedVariantMongoReader(assembly, null, mongoClient, TEST_DB, CHUNK_SIZE,
+                                                       new DbsnpCollectionNames(), true);
+            Map<String, Variant> mergeJoinVariants = readIntoMap();
+
+            assertEquals(lookupVariants.keySet(), mergeJoinVariants.keySet());
+            for (Map.Entry<String, Variant> variant : lookupVariants.entrySet()) {
+                Variant mergeJoinVariant = mergeJoinVariants.get(variant.getKey());
+                assertEquals(variant.getValue().getMainId(), mergeJoinVariant.getMainId());
+                assertEquals(variant.getValue().getSourceEntries().size(),
+                             mergeJoinVariant.getSourceEntries().size());
+            }
+        }
+    }
+
+    @Test
+    public void queryOneContig() throws Exception {
+        reader = new AccessionedVariantMongoReader(ASSEMBLY_ACCESSION_1, CONTIG_2, mongoClient, TEST_DB, CHUNK_SIZE,
+                                                   new DbsnpCollectionNames());
+        Map<String, Variant> variants = readIntoMap();
+
+        assertTrue(variants.containsKey(RS_2_T_G));
+        assertFalse(variants.containsKey(RS_1_G_A));
+        assertFalse(variants.containsKey(RS_1_G_T));
+        assertTrue(variants.size() < EXPECTED_LINES);
+        assertTrue(variants.values().stream().allMatch(v -> v.getChromosome().equals(CONTIG_2)));
+    }
+
     @Test
     public void snpVariantClassAttribute() throws Exception {
         Map<String, Variant> variants = readIntoMap();
@@ -15,7 +15,10 @@
  */
 package uk.ac.ebi.eva.accession.release.batch.io.active;
 
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.tribble.util.TabixUtils;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -35,6 +38,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -45,6 +49,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static uk.ac.ebi.eva.accession.release.batch.io.active.AccessionedVariantMongoReader.ALLELES_MATCH_KEY;
 import static uk.ac.ebi.eva.accession.release.batch.io.active.AccessionedVariantMongoReader.ASSEMBLY_MATCH_KEY;
@@ -135,10 +140,18 @@ public class VariantContextWriterTest {
     }
 
     private File assertWriteVcf(File outputFolder, Variant... variants) throws Exception {
+        return assertWriteVcf(outputFolder, 0, variants);
+    }
+
+    private File assertWriteVcf(File outputFolder, int compressionThreads, Variant... variants) throws Exception {
         Path reportPath = ReportPathResolver.getDbsnpCurrentIdsReportPath(outputFolder.getAbsolutePath(), REFERENCE_ASSEMBLY);
         String activeContigsFilePath = ContigWriter.getDbsnpActiveContigsFilePath(reportPath.toFile().getParent(),
                                                                                   REFERENCE_ASSEMBLY);
-        VariantContextWriter writer = new VariantContextWriter(reportPath, REFERENCE_ASSEMBLY, activeContigsFilePath);
+        if (compressionThreads > 0) {
+            reportPath = Paths.get(reportPath + ".gz");
+        }
+        VariantContextWriter writer = new VariantContextWriter(reportPath, REFERENCE_ASSEMBLY, activeContigsFilePath,
+                                                               true, compressionThreads);
         writer.open(null);
 
         ContigMapping contigMapping = new ContigMapping(Collections.singletonList(
@@ -506,6 +519,36 @@ public class VariantContextWriterTest {
                      new HashSet<>(parseInfoFields(columns[INFO_COLUMN]).get(STUDY_ID_KEY)));
     }
 
+    @Test
+    public void writeCompressedAndIndexed() throws Exception {
+        File outputFolder = temporaryFolder.newFolder();
+        File output = assertWriteVcf(outputFolder, 2,
+                                     buildVariant(GENBANK_ACCESSION_1, 1000, "C", "A", SNP_SEQUENCE_ONTOLOGY, STUDY_1),
+                                     buildVariant(GENBANK_ACCESSION_1, 2000, "C", "T", SNP_SEQUENCE_ONTOLOGY, STUDY_1),
+                                     buildVariant(GENBANK_ACCESSION_1, 3000, "C", "G", SNP_SEQUENCE_ONTOLOGY, STUDY_1));
+
+        File index = new File(output.getPath() + TabixUtils.STANDARD_INDEX_EXTENSION);
+        assertTrue(index.exists());
+        try (VCFFileReader reader = new VCFFileReader(output, index, true);
+             CloseableIterator<VariantContext> variants = reader.query(SEQUENCE_NAME_1, 1500, 2500)) {
+            assertEquals(2000, variants.next().getStart());
+            assertFalse(variants.hasNext());
+        }
+    }
+
+    @Test
+    public void unsortedVariantsAreNotIndexed() throws Exception {
+        File outputFolder = temporaryFolder.newFolder();
+        File output = assertWriteVcf(outputFolder, 2,
+                                     buildVariant(GENBANK_ACCESSION_1, 2000, "C", "A", SNP_SEQUENCE_ONTOLOGY, STUDY_1),
+                                     buildVariant(GENBANK_ACCESSION_1, 1000, "C", "T", SNP_SEQUENCE_ONTOLOGY, STUDY_1));
+
+        assertFalse(new File(output.getPath() + TabixUtils.STANDARD_INDEX_EXTENSION).exists());
+        try (VCFFileReader reader = new VCFFileReader(output, false)) {
+            assertEquals(2, reader.iterator().stream().count());
+        }
+    }
+
     private HashMap<String, List<String>> parseInfoFields(String column) {
         HashMap<String, List<String>> infoMap = new HashMap<>();
 
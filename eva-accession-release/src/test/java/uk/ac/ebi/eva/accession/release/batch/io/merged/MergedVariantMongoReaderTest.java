@@ -137,6 +137,22 @@ public class MergedVariantMongoReaderTest {
         assertEquals(EXPECTED_MERGED_VARIANTS, variants.size());
     }
 
+    @Test
+    public void mergeJoinReadsTheSameVariants() throws Exception {
+        MergedVariantMongoReader mergeJoinReader = new MergedVariantMongoReader(ASSEMBLY, null, mongoClient, TEST_DB,
+                                                                                CHUNK_SIZE, new DbsnpCollectionNames(),
+                                                                                true);
+        Map<String, Variant> lookupVariants = readIntoMap(defaultReader);
+        Map<String, Variant> mergeJoinVariants = readIntoMap(mergeJoinReader);
+
+        assertEquals(lookupVariants.keySet(), mergeJoinVariants.keySet());
+        for (Map.Entry<String, Variant> variant : lookupVariants.entrySet()) {
+            Variant mergeJoinVariant = mergeJoinVariants.get(variant.getKey());
+            assertEquals(variant.getValue().getMainId(), mergeJoinVariant.getMainId());
+            assertEquals(variant.getValue().getSourceEntries().size(), mergeJoinVariant.getSourceEntries().size());
+        }
+    }
+
     private Map<String, Variant> readIntoMap(MergedVariantMongoReader reader) throws Exception {
         reader.open(executionContext);
         Map<String, Variant> allVariants = new HashMap<>();
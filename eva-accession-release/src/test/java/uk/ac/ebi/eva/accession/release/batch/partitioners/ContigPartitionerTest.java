@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.partitioners;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner.CONTIG_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner.PART_FILE_KEY;
+
+public class ContigPartitionerTest {
+
+    private static final String CONTIG_1 = "CM0001.1";
+
+    private static final String CONTIG_2 = "CM0002.1";
+
+    private static final String CONTIG_3 = "CM0003.1";
+
+    private Path output;
+
+    @Rule
+    public TemporaryFolder temporaryFolderRule = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        output = temporaryFolderRule.getRoot().toPath().resolve("release.vcf");
+    }
+
+    @Test
+    public void onePartitionPerContig() throws Exception {
+        File contigsFile = writeContigs(CONTIG_2 + ",Chr2", CONTIG_3 + ",Chr3", CONTIG_1 + ",Chr1");
+        ContigPartitioner partitioner = new ContigPartitioner(contigsFile.getAbsolutePath(), output);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(1);
+
+        assertEquals(3, partitions.size());
+        List<String> contigs = new ArrayList<>();
+        List<String> partFiles = new ArrayList<>();
+        for (ExecutionContext executionContext : partitions.values()) {
+            contigs.add(executionContext.getString(CONTIG_KEY));
+            partFiles.add(executionContext.getString(PART_FILE_KEY));
+        }
+        assertEquals(Arrays.asList(CONTIG_1, CONTIG_2, CONTIG_3), contigs);
+        assertEquals(toStrings(partitioner.getPartPaths()), partFiles);
+    }
+
+    @Test
+    public void singlePartitionIfContigsFileIsMissing() throws Exception {
+        String missingContigsFile = temporaryFolderRule.getRoot().toPath().resolve("missing.txt").toString();
+        ContigPartitioner partitioner = new ContigPartitioner(missingContigsFile, output);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(1);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext executionContext = partitions.values().iterator().next();
+        assertFalse(executionContext.containsKey(CONTIG_KEY));
+        assertEquals(toStrings(partitioner.getPartPaths()),
+                     Arrays.asList(executionContext.getString(PART_FILE_KEY)));
+    }
+
+    @Test
+    public void partFilesAreNextToTheOutput() throws Exception {
+        File contigsFile = writeContigs(CONTIG_1 + ",Chr1", CONTIG_2 + ",Chr2");
+        ContigPartitioner partitioner = new ContigPartitioner(contigsFile.getAbsolutePath(), output);
+
+        for (Path part : partitioner.getPartPaths()) {
+            assertEquals(output.getParent(), part.getParent());
+            assertFalse(part.equals(output));
+        }
+    }
+
+    private File writeContigs(String... lines) throws IOException {
+        File contigsFile = temporaryFolderRule.newFile();
+        try (FileWriter writer = new FileWriter(contigsFile)) {
+            for (String line : lines) {
+                writer.write(line + "\n");
+            }
+        }
+        return contigsFile;
+    }
+
+    private List<String> toStrings(List<Path> paths) {
+        List<String> strings = new ArrayList<>();
+        for (Path path : paths) {
+            strings.add(path.toString());
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.tasklets;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFFileReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ebi.eva.accession.release.batch.io.active.VariantContextWriter;
+import uk.ac.ebi.eva.accession.release.batch.partitioners.ContigPartitioner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcatenateReleasePartsTaskletTest {
+
+    private static final String REFERENCE_ASSEMBLY = "GCA_00000000.1";
+
+    private static final String SEQUENCE_NAME_1 = "Chr1";
+
+    private static final String SEQUENCE_NAME_2 = "Chr2";
+
+    private static final int COMPRESSION_THREADS = 2;
+
+    @Rule
+    public TemporaryFolder temporaryFolderRule = new TemporaryFolder();
+
+    private Path output;
+
+    private String contigsFilePath;
+
+    private ContigPartitioner partitioner;
+
+    @Before
+    public void setUp() throws Exception {
+        output = temporaryFolderRule.getRoot().toPath().resolve("release.vcf.gz");
+        contigsFilePath = writeContigs("CM0001.1," + SEQUENCE_NAME_1, "CM0002.1," + SEQUENCE_NAME_2).getAbsolutePath();
+        partitioner = new ContigPartitioner(contigsFilePath, output);
+    }
+
+    private File writeContigs(String... lines) throws IOException {
+        File contigsFile = temporaryFolderRule.newFile("contigs.txt");
+        try (FileWriter writer = new FileWriter(contigsFile)) {
+            for (String line : lines) {
+                writer.write(line + "\n");
+            }
+        }
+        return contigsFile;
+    }
+
+    @Test
+    public void compressedReleaseIsIndexed() throws Exception {
+        List<Path> parts = partitioner.getPartPaths();
+        writePart(parts.get(0), buildVariant(SEQUENCE_NAME_1, 1000, "C", "A"),
+                  buildVariant(SEQUENCE_NAME_1, 2000, "CT", "C"));
+        writePart(parts.get(1), buildVariant(SEQUENCE_NAME_2, 500, "G", "T"));
+        VariantContextWriter headerWriter = new VariantContextWriter(output, REFERENCE_ASSEMBLY, contigsFilePath, true,
+                                                                     COMPRESSION_THREADS);
+
+        new ConcatenateReleasePartsTasklet(headerWriter, partitioner).execute(null, null);
+
+        File index = headerWriter.getIndex();
+        assertTrue(index.exists());
+        try (VCFFileReader reader = new VCFFileReader(output.toFile(), index, true)) {
+            assertEquals(Arrays.asList(2000), queryStarts(reader, SEQUENCE_NAME_1, 1500, 2500));
+            assertEquals(Arrays.asList(2000), queryStarts(reader, SEQUENCE_NAME_1, 2001, 2001));
+            assertEquals(Arrays.asList(500), queryStarts(reader, SEQUENCE_NAME_2, 1, 3000));
+            assertEquals(3, reader.iterator().stream().count());
+        }
+        for (Path part : parts) {
+            assertFalse(Files.exists(part));
+        }
+    }
+
+    @Test
+    public void unsortedReleaseIsNotIndexed() throws Exception {
+        List<Path> parts = partitioner.getPartPaths();
+        writePart(parts.get(0), buildVariant(SEQUENCE_NAME_1, 2000, "C", "A"),
+                  buildVariant(SEQUENCE_NAME_1, 1000, "C", "T"));
+        writePart(parts.get(1), buildVariant(SEQUENCE_NAME_2, 500, "G", "T"));
+        VariantContextWriter headerWriter = new VariantContextWriter(output, REFERENCE_ASSEMBLY, contigsFilePath, true,
+                                                                     COMPRESSION_THREADS);
+
+        new ConcatenateReleasePartsTasklet(headerWriter, partitioner).execute(null, null);
+
+        assertFalse(headerWriter.getIndex().exists());
+        try (VCFFileReader reader = new VCFFileReader(output.toFile(), false)) {
+            assertEquals(3, reader.iterator().stream().count());
+        }
+    }
+
+    private void writePart(Path part, VariantContext... variants) throws Exception {
+        VariantContextWriter partWriter = new VariantContextWriter(part, REFERENCE_ASSEMBLY, contigsFilePath, false,
+                                                                   COMPRESSION_THREADS);
+        partWriter.open(null);
+        partWriter.write(Arrays.asList(variants));
+        partWriter.close();
+    }
+
+    private VariantContext buildVariant(String contig, int start, String reference, String alternate) {
+        return new VariantContextBuilder().chr(contig)
+                                          .start(start)
+                                          .stop(start + reference.length() - 1)
+                                          .alleles(reference, alternate)
+                                          .make();
+    }
+
+    private List<Integer> queryStarts(VCFFileReader reader, String contig, int start, int end) {
+        List<Integer> starts = new ArrayList<>();
+        try (CloseableIterator<VariantContext> variants = reader.query(contig, start, end)) {
+            variants.forEachRemaining(variant -> starts.add(variant.getStart()));
+        }
+        return starts;
+    }
+}
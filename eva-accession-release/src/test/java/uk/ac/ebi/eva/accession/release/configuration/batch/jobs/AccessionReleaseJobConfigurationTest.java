@@ -40,6 +40,7 @@ import uk.ac.ebi.eva.commons.core.utils.FileUtils;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -62,6 +63,8 @@ import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EV
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MULTIMAP_VARIANTS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.batch.steps.PartitionedReleaseStepBuilder.CONCATENATE_STEP_SUFFIX;
+import static uk.ac.ebi.eva.accession.release.configuration.batch.steps.PartitionedReleaseStepBuilder.PARTITIONED_STEP_SUFFIX;
 
 @RunWith(SpringRunner.class)
 @ContextConfiguration(classes = {BatchTestConfiguration.class, MongoTestConfiguration.class})
@@ -123,20 +126,21 @@ public class AccessionReleaseJobConfigurationTest {
     public void basicJobCompletion() throws Exception {
         JobExecution jobExecution = jobLauncherTestUtils.launchJob();
 
-        List<String> expectedSteps = Arrays.asList(LIST_DBSNP_ACTIVE_CONTIGS_STEP, LIST_DBSNP_MERGED_CONTIGS_STEP,
-                                                   LIST_DBSNP_MULTIMAP_CONTIGS_STEP,
-                                                   RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP,
-                                                   RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP,
-                                                   RELEASE_DBSNP_MAPPED_DEPRECATED_VARIANTS_STEP,
-                                                   RELEASE_DBSNP_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP,
-                                                   RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP,
-                                                   LIST_EVA_ACTIVE_CONTIGS_STEP, LIST_EVA_MERGED_CONTIGS_STEP,
-                                                   LIST_EVA_MULTIMAP_CONTIGS_STEP,
-                                                   RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP,
-                                                   RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP,
-                                                   RELEASE_EVA_MAPPED_DEPRECATED_VARIANTS_STEP,
-                                                   RELEASE_EVA_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP,
-                                                   RELEASE_EVA_MULTIMAP_VARIANTS_STEP);
+        List<String> expectedSteps = new ArrayList<>();
+        expectedSteps.addAll(Arrays.asList(LIST_DBSNP_ACTIVE_CONTIGS_STEP, LIST_DBSNP_MERGED_CONTIGS_STEP,
+                                           LIST_DBSNP_MULTIMAP_CONTIGS_STEP));
+        expectedSteps.addAll(partitionedSteps(RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP));
+        expectedSteps.addAll(partitionedSteps(RELEASE_DBSNP_MAPPED_MERGED_VARIANTS_STEP));
+        expectedSteps.addAll(Arrays.asList(RELEASE_DBSNP_MAPPED_DEPRECATED_VARIANTS_STEP,
+                                           RELEASE_DBSNP_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP));
+        expectedSteps.addAll(partitionedSteps(RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP));
+        expectedSteps.addAll(Arrays.asList(LIST_EVA_ACTIVE_CONTIGS_STEP, LIST_EVA_MERGED_CONTIGS_STEP,
+                                           LIST_EVA_MULTIMAP_CONTIGS_STEP));
+        expectedSteps.addAll(partitionedSteps(RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP));
+        expectedSteps.addAll(partitionedSteps(RELEASE_EVA_MAPPED_MERGED_VARIANTS_STEP));
+        expectedSteps.addAll(Arrays.asList(RELEASE_EVA_MAPPED_DEPRECATED_VARIANTS_STEP,
+                                           RELEASE_EVA_MAPPED_MERGED_DEPRECATED_VARIANTS_STEP));
+        expectedSteps.addAll(partitionedSteps(RELEASE_EVA_MULTIMAP_VARIANTS_STEP));
         assertStepsExecuted(expectedSteps, jobExecution);
 
         assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
@@ -231,9 +235,22 @@ public class AccessionReleaseJobConfigurationTest {
                                                                inputParameters.getAssemblyAccession()).toFile());
     }
 
+    /**
+     * The release steps that are split by contig run a partitioned step and a concatenation step inside them.
+     */
+    private List<String> partitionedSteps(String step) {
+        return Arrays.asList(step, step + PARTITIONED_STEP_SUFFIX, step + CONCATENATE_STEP_SUFFIX);
+    }
+
+    /**
+     * The executions of each partition (named "step:partition") are not checked, as they depend on the contigs.
+     */
     private void assertStepsExecuted(List<String> expectedSteps, JobExecution jobExecution) {
         Collection<StepExecution> stepExecutions = jobExecution.getStepExecutions();
-        List<String> steps = stepExecutions.stream().map(StepExecution::getStepName).collect(Collectors.toList());
+        List<String> steps = stepExecutions.stream()
+                                           .map(StepExecution::getStepName)
+                                           .filter(name -> !name.contains(":"))
+                                           .collect(Collectors.toList());
         assertEquals(expectedSteps, steps);
     }
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.configuration.batch.jobs;
+
+import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
+import com.lordofthejars.nosqlunit.mongodb.MongoDbConfigurationBuilder;
+import com.lordofthejars.nosqlunit.mongodb.MongoDbRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
+import uk.ac.ebi.eva.accession.release.parameters.ReportPathResolver;
+import uk.ac.ebi.eva.accession.release.test.configuration.BatchTestConfiguration;
+import uk.ac.ebi.eva.accession.release.test.configuration.MongoTestConfiguration;
+import uk.ac.ebi.eva.accession.release.test.rule.FixSpringMongoDbRule;
+import uk.ac.ebi.eva.commons.core.utils.FileUtils;
+
+import java.io.FileInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.LIST_DBSNP_ACTIVE_CONTIGS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.LIST_EVA_ACTIVE_CONTIGS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP;
+import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_EVA_MULTIMAP_VARIANTS_STEP;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {BatchTestConfiguration.class, MongoTestConfiguration.class})
+@UsingDataSet(locations = {
+        "/test-data/dbsnpClusteredVariantEntity.json",
+        "/test-data/dbsnpClusteredVariantOperationEntity.json",
+        "/test-data/dbsnpSubmittedVariantEntity.json",
+        "/test-data/dbsnpSubmittedVariantOperationEntity.json",
+        "/test-data/clusteredVariantEntity.json",
+        "/test-data/clusteredVariantOperationEntity.json",
+        "/test-data/submittedVariantEntity.json",
+        "/test-data/submittedVariantOperationEntity.json",
+})
+@TestPropertySource(value = "classpath:application.properties", properties = "parameters.parallelFlows=true")
+public class AccessionReleaseJobParallelFlowsTest {
+
+    private static final String TEST_DB = "test-db";
+
+    private static final long EXPECTED_LINES = 5;
+
+    private static final long EXPECTED_EVA_LINES = 2;
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    private InputParameters inputParameters;
+
+    //Required by nosql-unit
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Rule
+    public MongoDbRule mongoDbRule = new FixSpringMongoDbRule(
+            MongoDbConfigurationBuilder.mongoDb().databaseName(TEST_DB).build());
+
+    @Test
+    public void bothFlowsComplete() throws Exception {
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        Set<String> steps = jobExecution.getStepExecutions()
+                                        .stream()
+                                        .map(StepExecution::getStepName)
+                                        .collect(Collectors.toSet());
+        assertTrue(steps.containsAll(new HashSet<>(Arrays.asList(LIST_DBSNP_ACTIVE_CONTIGS_STEP,
+                                                                 RELEASE_DBSNP_MAPPED_ACTIVE_VARIANTS_STEP,
+                                                                 RELEASE_DBSNP_MULTIMAP_VARIANTS_STEP,
+                                                                 LIST_EVA_ACTIVE_CONTIGS_STEP,
+                                                                 RELEASE_EVA_MAPPED_ACTIVE_VARIANTS_STEP,
+                                                                 RELEASE_EVA_MULTIMAP_VARIANTS_STEP))));
+
+        String outputFolder = inputParameters.getOutputFolder();
+        String assemblyAccession = inputParameters.getAssemblyAccession();
+        long numVariantsInRelease = FileUtils.countNonCommentLines(new FileInputStream(
+                ReportPathResolver.getDbsnpCurrentIdsReportPath(outputFolder, assemblyAccession).toFile()));
+        assertEquals(EXPECTED_LINES, numVariantsInRelease);
+        long numVariantsInEvaRelease = FileUtils.countNonCommentLines(new FileInputStream(
+                ReportPathResolver.getEvaCurrentIdsReportPath(outputFolder, assemblyAccession).toFile()));
+        assertEquals(EXPECTED_EVA_LINES, numVariantsInEvaRelease);
+    }
+}
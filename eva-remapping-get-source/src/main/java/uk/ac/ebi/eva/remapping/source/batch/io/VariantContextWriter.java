@@ -28,7 +28,11 @@ import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamWriter;
 
+import uk.ac.ebi.eva.accession.core.batch.io.OutputFiles;
+
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +40,8 @@ import java.util.Set;
 
 /**
  * Writes a VCF file that can be used as input for our remapping pipeline.
+ *
+ * If compressionThreads is greater than 0, the VCF is compressed with BGZF using that number of threads.
  */
 public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
 
@@ -53,11 +59,20 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
 
     private final String referenceAssembly;
 
+    private final int compressionThreads;
+
     private htsjdk.variant.variantcontext.writer.VariantContextWriter writer;
 
+    private OutputStream compressedOutput;
+
     public VariantContextWriter(Path outputPath, String referenceAssembly) {
+        this(outputPath, referenceAssembly, 0);
+    }
+
+    public VariantContextWriter(Path outputPath, String referenceAssembly, int compressionThreads) {
         this.output = outputPath.toFile();
         this.referenceAssembly = referenceAssembly;
+        this.compressionThreads = compressionThreads;
     }
 
     public File getOutput() {
@@ -67,8 +82,17 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         VariantContextWriterBuilder builder = new VariantContextWriterBuilder();
+        if (compressionThreads > 0) {
+            try {
+                compressedOutput = OutputFiles.newOutputStream(output, false, compressionThreads);
+            } catch (IOException e) {
+                throw new ItemStreamException("Could not open " + output, e);
+            }
+            builder.setOutputVCFStream(compressedOutput);
+        } else {
+            builder.setOutputFile(output);
+        }
         writer = builder
-                .setOutputFile(output)
                 .setOutputFileType(VariantContextWriterBuilder.OutputType.VCF)
                 .unsetOption(Options.INDEX_ON_THE_FLY)
                 .build();
@@ -109,6 +133,13 @@ public class VariantContextWriter implements ItemStreamWriter<VariantContext> {
     @Override
     public void close() throws ItemStreamException {
         writer.close();
+        if (compressedOutput != null) {
+            try {
+                compressedOutput.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Could not close " + output, e);
+            }
+        }
     }
 
 }
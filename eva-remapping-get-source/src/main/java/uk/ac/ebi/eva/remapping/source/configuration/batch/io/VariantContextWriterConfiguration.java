@@ -32,14 +32,22 @@ public class VariantContextWriterConfiguration {
     @Bean(BeanNames.EVA_SUBMITTED_VARIANT_WRITER)
     public VariantContextWriter evaVariantContextWriter(InputParameters parameters) {
         Path reportPath = ReportPathResolver.getEvaReportPath(parameters.getOutputFolder(),
-                                                              parameters.getAssemblyAccession());
-        return new VariantContextWriter(reportPath, parameters.getAssemblyAccession());
+                                                              parameters.getAssemblyAccession(),
+                                                              parameters.isCompressOutput());
+        return new VariantContextWriter(reportPath, parameters.getAssemblyAccession(),
+                                        getCompressionThreads(parameters));
     }
 
     @Bean(BeanNames.DBSNP_SUBMITTED_VARIANT_WRITER)
     public VariantContextWriter dbsnpVariantContextWriter(InputParameters parameters) {
         Path reportPath = ReportPathResolver.getDbsnpReportPath(parameters.getOutputFolder(),
-                                                                parameters.getAssemblyAccession());
-        return new VariantContextWriter(reportPath, parameters.getAssemblyAccession());
+                                                                parameters.getAssemblyAccession(),
+                                                                parameters.isCompressOutput());
+        return new VariantContextWriter(reportPath, parameters.getAssemblyAccession(),
+                                        getCompressionThreads(parameters));
+    }
+
+    private static int getCompressionThreads(InputParameters parameters) {
+        return parameters.isCompressOutput() ? parameters.getCompressionThreads() : 0;
     }
 }
@@ -20,14 +20,17 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.springframework.batch.core.listener.StepListenerSupport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 import uk.ac.ebi.eva.remapping.source.batch.listeners.ExcludeVariantsListener;
 import uk.ac.ebi.eva.accession.core.batch.listeners.GenericProgressListener;
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
 import uk.ac.ebi.eva.remapping.source.parameters.InputParameters;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 import uk.ac.ebi.eva.remapping.source.configuration.BeanNames;
 
 @Configuration
+@Import(MetricsConfiguration.class)
 public class ListenersConfiguration {
 
     @Bean(BeanNames.EXCLUDE_VARIANTS_LISTENER)
@@ -33,6 +33,7 @@ import org.springframework.context.annotation.Import;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.batch.policies.IllegalStartSkipPolicy;
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
 import uk.ac.ebi.eva.remapping.source.configuration.batch.io.SubmittedVariantMongoReaderConfiguration;
 import uk.ac.ebi.eva.remapping.source.configuration.batch.io.VariantContextWriterConfiguration;
 import uk.ac.ebi.eva.remapping.source.configuration.batch.listeners.ListenersConfiguration;
@@ -56,6 +57,7 @@ public class ExportSubmittedVariantsStepConfiguration {
             @Autowired @Qualifier(BeanNames.SUBMITTED_VARIANT_PROCESSOR) ItemProcessor<SubmittedVariantEntity, VariantContext> variantProcessor,
             @Autowired @Qualifier(BeanNames.EVA_SUBMITTED_VARIANT_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
             @Autowired @Qualifier(BeanNames.PROGRESS_LISTENER) StepExecutionListener progressListener,
+            @Autowired @Qualifier(MetricsConfiguration.STEP_METRICS_LISTENER) StepExecutionListener metricsListener,
             @Autowired @Qualifier(BeanNames.EXCLUDE_VARIANTS_LISTENER) StepExecutionListener excludeVariantsListener,
             @Autowired IllegalStartSkipPolicy illegalStartSkipPolicy) {
         TaskletStep step = stepBuilderFactory.get(BeanNames.EXPORT_EVA_SUBMITTED_VARIANTS_STEP)
@@ -67,6 +69,7 @@ public class ExportSubmittedVariantsStepConfiguration {
                 .skipPolicy(illegalStartSkipPolicy)
                 .listener(excludeVariantsListener)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
@@ -79,6 +82,7 @@ public class ExportSubmittedVariantsStepConfiguration {
             @Autowired @Qualifier(BeanNames.SUBMITTED_VARIANT_PROCESSOR) ItemProcessor<SubmittedVariantEntity, VariantContext> variantProcessor,
             @Autowired @Qualifier(BeanNames.DBSNP_SUBMITTED_VARIANT_WRITER) ItemStreamWriter<VariantContext> accessionWriter,
             @Autowired @Qualifier(BeanNames.PROGRESS_LISTENER) StepExecutionListener progressListener,
+            @Autowired @Qualifier(MetricsConfiguration.STEP_METRICS_LISTENER) StepExecutionListener metricsListener,
             @Autowired @Qualifier(BeanNames.EXCLUDE_VARIANTS_LISTENER) StepExecutionListener excludeVariantsListener,
             @Autowired IllegalStartSkipPolicy illegalStartSkipPolicy) {
         TaskletStep step = stepBuilderFactory.get(BeanNames.EXPORT_DBSNP_SUBMITTED_VARIANTS_STEP)
@@ -90,6 +94,7 @@ public class ExportSubmittedVariantsStepConfiguration {
                 .skipPolicy(illegalStartSkipPolicy)
                 .listener(excludeVariantsListener)
                 .listener(progressListener)
+                .listener(metricsListener)
                 .build();
         return step;
     }
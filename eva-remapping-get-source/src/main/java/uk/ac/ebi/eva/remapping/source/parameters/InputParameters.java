@@ -40,6 +40,10 @@ public class InputParameters {
 
     private int chunkSize;
 
+    private boolean compressOutput;
+
+    private int compressionThreads;
+
     public JobParameters toJobParameters() {
         return new JobParametersBuilder()
                 .addString("assemblyAccession", assemblyAccession)
@@ -114,4 +118,20 @@ public class InputParameters {
     public void setTaxonomy(int taxonomy) {
         this.taxonomy = taxonomy;
     }
+
+    public boolean isCompressOutput() {
+        return compressOutput;
+    }
+
+    public void setCompressOutput(boolean compressOutput) {
+        this.compressOutput = compressOutput;
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
 }
@@ -24,13 +24,25 @@ import java.nio.file.Paths;
  */
 public class ReportPathResolver {
 
+    private static final String COMPRESSED_FILE_SUFFIX = ".gz";
+
     public static Path getEvaReportPath(String outputFolder, String referenceAssembly) {
+        return getEvaReportPath(outputFolder, referenceAssembly, false);
+    }
+
+    public static Path getEvaReportPath(String outputFolder, String referenceAssembly, boolean compressed) {
         final String FILE_SUFFIX = "_eva.vcf";
-        return Paths.get(outputFolder).resolve(referenceAssembly + FILE_SUFFIX);
+        return Paths.get(outputFolder).resolve(referenceAssembly + FILE_SUFFIX
+                                               + (compressed ? COMPRESSED_FILE_SUFFIX : ""));
     }
 
     public static Path getDbsnpReportPath(String outputFolder, String referenceAssembly) {
+        return getDbsnpReportPath(outputFolder, referenceAssembly, false);
+    }
+
+    public static Path getDbsnpReportPath(String outputFolder, String referenceAssembly, boolean compressed) {
         final String FILE_SUFFIX = "_dbsnp.vcf";
-        return Paths.get(outputFolder).resolve(referenceAssembly + FILE_SUFFIX);
+        return Paths.get(outputFolder).resolve(referenceAssembly + FILE_SUFFIX
+                                               + (compressed ? COMPRESSED_FILE_SUFFIX : ""));
     }
 }
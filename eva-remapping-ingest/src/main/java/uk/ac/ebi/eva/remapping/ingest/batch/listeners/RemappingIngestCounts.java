@@ -15,7 +15,15 @@
  */
 package uk.ac.ebi.eva.remapping.ingest.batch.listeners;
 
-public class RemappingIngestCounts {
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+public class RemappingIngestCounts implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "eva.remapping.ingest.";
 
     private long remappedVariantsIngested;
 
@@ -41,4 +49,14 @@ public class RemappingIngestCounts {
     public void addRemappedVariantsSkipped(long remappedVariantsSkipped) {
         this.remappedVariantsSkipped += remappedVariantsSkipped;
     }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "remapped.variants.ingested", RemappingIngestCounts::getRemappedVariantsIngested);
+        bind(registry, "remapped.variants.skipped", RemappingIngestCounts::getRemappedVariantsSkipped);
+    }
+
+    private void bind(MeterRegistry registry, String name, ToDoubleFunction<RemappingIngestCounts> count) {
+        FunctionCounter.builder(METRIC_PREFIX + name, this, count).register(registry);
+    }
 }
@@ -17,7 +17,9 @@ package uk.ac.ebi.eva.remapping.ingest.configuration.batch.listeners;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration;
 import uk.ac.ebi.eva.remapping.ingest.batch.listeners.RemappingIngestCounts;
 import uk.ac.ebi.eva.remapping.ingest.batch.listeners.RemappingIngestionProgressListener;
 import uk.ac.ebi.eva.remapping.ingest.parameters.InputParameters;
@@ -25,6 +27,7 @@ import uk.ac.ebi.eva.remapping.ingest.parameters.InputParameters;
 import static uk.ac.ebi.eva.remapping.ingest.configuration.BeanNames.PROGRESS_LISTENER;
 
 @Configuration
+@Import(MetricsConfiguration.class)
 public class ListenerConfiguration {
 
     @Bean
@@ -34,6 +34,7 @@ import uk.ac.ebi.eva.commons.core.models.IVariant;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 import uk.ac.ebi.eva.remapping.ingest.configuration.BeanNames;
 
+import static uk.ac.ebi.eva.accession.core.configuration.MetricsConfiguration.STEP_METRICS_LISTENER;
 import static uk.ac.ebi.eva.remapping.ingest.configuration.BeanNames.COMPOSITE_VARIANT_PROCESSOR;
 import static uk.ac.ebi.eva.remapping.ingest.configuration.BeanNames.PROGRESS_LISTENER;
 import static uk.ac.ebi.eva.remapping.ingest.configuration.BeanNames.REMAPPED_SUBMITTED_VARIANTS_WRITER;
@@ -49,6 +50,7 @@ public class IngestRemappedFromVcfStepConfiguration {
             @Qualifier(COMPOSITE_VARIANT_PROCESSOR) ItemProcessor<IVariant, SubmittedVariantEntity> processor,
             @Qualifier(REMAPPED_SUBMITTED_VARIANTS_WRITER) ItemWriter<SubmittedVariantEntity> submittedVariantWriter,
             @Qualifier(PROGRESS_LISTENER) StepExecutionListener progressListener,
+            @Qualifier(STEP_METRICS_LISTENER) StepExecutionListener metricsListener,
             StepBuilderFactory stepBuilderFactory,
             SimpleCompletionPolicy chunkSizeCompletionPolicy) {
         TaskletStep step = stepBuilderFactory.get(BeanNames.INGEST_REMAPPED_VARIANTS_FROM_VCF_STEP)
@@ -57,6 +59,7 @@ public class IngestRemappedFromVcfStepConfiguration {
                                              .processor(processor)
                                              .writer(submittedVariantWriter)
                                              .listener(progressListener)
+                                             .listener(metricsListener)
                                              .build();
         return step;
     }